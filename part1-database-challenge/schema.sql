@@ -69,6 +69,98 @@ CREATE TABLE operators.transaction_details (
     created_at TIMESTAMP WITH TIME ZONE DEFAULT NOW()
 );
 
+-- ============================================================================
+-- Table: merchant_txn_stats
+-- Per-merchant transaction aggregate, maintained incrementally by triggers
+-- on transaction_master so merchant listings never aggregate raw rows
+-- ============================================================================
+
+DROP TABLE IF EXISTS operators.merchant_txn_stats CASCADE;
+
+CREATE TABLE operators.merchant_txn_stats (
+    merchant_id VARCHAR(50) PRIMARY KEY,
+    txn_count BIGINT NOT NULL DEFAULT 0,
+    completed_amount DECIMAL(18,2) NOT NULL DEFAULT 0,
+    last_txn_date DATE,
+    updated_at TIMESTAMP WITH TIME ZONE DEFAULT NOW()
+);
+
+-- Statement-level so a multi-row insert costs one upsert per merchant, not one per row.
+-- Transition tables are only visible to the branch matching TG_OP.
+CREATE OR REPLACE FUNCTION operators.merchant_txn_stats_apply() RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        UPDATE operators.merchant_txn_stats s
+           SET txn_count = s.txn_count - d.txn_count,
+               completed_amount = s.completed_amount - d.completed_amount,
+               updated_at = NOW()
+          FROM (SELECT merchant_id,
+                       COUNT(*) AS txn_count,
+                       COALESCE(SUM(amount) FILTER (WHERE status = 'completed'), 0) AS completed_amount
+                  FROM old_rows
+                 GROUP BY merchant_id) d
+         WHERE s.merchant_id = d.merchant_id;
+
+        -- The newest row may have been deleted or moved to another date: take
+        -- the newest date left (an UPDATE's new rows are already in the table)
+        UPDATE operators.merchant_txn_stats s
+           SET last_txn_date = (SELECT MAX(m.txn_date)
+                                  FROM operators.transaction_master m
+                                 WHERE m.merchant_id = s.merchant_id)
+          FROM (SELECT merchant_id, MAX(txn_date) AS txn_date
+                  FROM old_rows
+                 GROUP BY merchant_id) d
+         WHERE s.merchant_id = d.merchant_id
+           AND d.txn_date >= s.last_txn_date;
+    END IF;
+
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        INSERT INTO operators.merchant_txn_stats AS s
+               (merchant_id, txn_count, completed_amount, last_txn_date, updated_at)
+        SELECT merchant_id,
+               COUNT(*),
+               COALESCE(SUM(amount) FILTER (WHERE status = 'completed'), 0),
+               MAX(txn_date),
+               NOW()
+          FROM new_rows
+         GROUP BY merchant_id
+        ON CONFLICT (merchant_id) DO UPDATE
+           SET txn_count = s.txn_count + EXCLUDED.txn_count,
+               completed_amount = s.completed_amount + EXCLUDED.completed_amount,
+               last_txn_date = GREATEST(s.last_txn_date, EXCLUDED.last_txn_date),
+               updated_at = NOW();
+    END IF;
+
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION operators.merchant_txn_stats_reset() RETURNS TRIGGER AS $$
+BEGIN
+    TRUNCATE operators.merchant_txn_stats;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_merchant_txn_stats_insert
+    AFTER INSERT ON operators.transaction_master
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION operators.merchant_txn_stats_apply();
+
+CREATE TRIGGER trg_merchant_txn_stats_update
+    AFTER UPDATE ON operators.transaction_master
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION operators.merchant_txn_stats_apply();
+
+CREATE TRIGGER trg_merchant_txn_stats_delete
+    AFTER DELETE ON operators.transaction_master
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION operators.merchant_txn_stats_apply();
+
+CREATE TRIGGER trg_merchant_txn_stats_truncate
+    AFTER TRUNCATE ON operators.transaction_master
+    FOR EACH STATEMENT EXECUTE FUNCTION operators.merchant_txn_stats_reset();
+
 -- ============================================================================
 -- INDEXES (Current - Suboptimal)
 -- ============================================================================
@@ -86,6 +178,7 @@ CREATE INDEX idx_members_member_id ON operators.members(member_id);
 COMMENT ON TABLE operators.transaction_master IS 'Main transaction records - header level';
 COMMENT ON TABLE operators.transaction_details IS 'Transaction detail records - multiple per transaction';
 COMMENT ON TABLE operators.members IS 'Acquirer and issuer member directory';
+COMMENT ON TABLE operators.merchant_txn_stats IS 'Per-merchant transaction aggregate - trigger maintained';
 
 COMMENT ON COLUMN operators.transaction_master.txn_date IS 'Transaction date (used for partitioning in production)';
 COMMENT ON COLUMN operators.transaction_master.local_txn_date_time IS 'Transaction timestamp in local timezone';
@@ -0,0 +1,64 @@
+package com.payment.analytics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Whole-segment aggregation primitives used by {@link ColumnarReportEngine} for
+ * segments that lie entirely inside the report range (no per-row date filter).
+ *
+ * {@link VectorKernels} implements them with the incubating Vector API and is
+ * only usable when the JVM runs with --add-modules jdk.incubator.vector;
+ * {@link ScalarKernels} is the portable fallback. Both produce identical results.
+ */
+public interface AggregationKernels {
+
+    int SUM = 0;
+    int MIN = 1;
+    int MAX = 2;
+
+    String name();
+
+    /**
+     * Sum, min and max of values[0, size) into out[SUM], out[MIN], out[MAX]
+     */
+    void summarize(long[] values, int size, long[] out);
+
+    /**
+     * Per-day row count and amount sum for rows whose day lies in [fromDay, toDay],
+     * added at index (day - baseDay) of dailyCount / dailyCents
+     */
+    void sumByDay(int[] days, long[] cents, int size, int fromDay, int toDay, int baseDay, long[] dailyCount,
+            long[] dailyCents);
+
+    /**
+     * counts[v] += occurrences of v in values[0, size), reading values as unsigned;
+     * every value must be below counts.length
+     */
+    void countValues(byte[] values, int size, long[] counts);
+
+    /**
+     * The Vector API kernels when requested and available, otherwise the scalar ones
+     */
+    static AggregationKernels select(boolean preferVector) {
+        Logger log = LoggerFactory.getLogger(AggregationKernels.class);
+        if (!preferVector) {
+            return new ScalarKernels();
+        }
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            log.info("jdk.incubator.vector is not enabled (--add-modules jdk.incubator.vector); using scalar kernels");
+            return new ScalarKernels();
+        }
+        try {
+            // Loaded reflectively so this interface never links against the incubator module
+            AggregationKernels kernels = (AggregationKernels) Class.forName("com.payment.analytics.VectorKernels")
+                    .getDeclaredConstructor()
+                    .newInstance();
+            log.info("Using {} report aggregation kernels", kernels.name());
+            return kernels;
+        } catch (ReflectiveOperationException | LinkageError | IllegalStateException e) {
+            log.warn("Vector kernels unavailable, using scalar kernels: {}", e.toString());
+            return new ScalarKernels();
+        }
+    }
+}
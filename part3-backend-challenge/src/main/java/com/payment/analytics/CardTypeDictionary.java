@@ -0,0 +1,60 @@
+package com.payment.analytics;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Append-only mapping between card type names and the byte codes stored in
+ * {@link ColumnSegment}. Names are normalised the way the reports present them
+ * (lower-case, null as "unknown"). When the codes run out, further names
+ * share the code of "other".
+ */
+public final class CardTypeDictionary {
+
+    public static final int MAX_CODES = 256;
+    static final String UNKNOWN = "unknown";
+    static final String OTHER = "other";
+
+    private final Map<String, Byte> codes = new ConcurrentHashMap<>();
+    private volatile String[] names = new String[0];
+
+    public byte codeOf(String cardType) {
+        String name = cardType != null ? cardType.toLowerCase(Locale.ROOT) : UNKNOWN;
+        Byte code = codes.get(name);
+        return code != null ? code : assign(name);
+    }
+
+    private synchronized byte assign(String name) {
+        Byte code = codes.get(name);
+        if (code != null) {
+            return code;
+        }
+        if (names.length >= MAX_CODES - 1 && !codes.containsKey(OTHER)) {
+            append(OTHER);
+        }
+        if (names.length == MAX_CODES) {
+            Byte other = codes.get(OTHER);
+            codes.put(name, other);
+            return other;
+        }
+        return append(name);
+    }
+
+    private byte append(String name) {
+        String[] next = Arrays.copyOf(names, names.length + 1);
+        next[names.length] = name;
+        byte assigned = (byte) names.length;
+        codes.put(name, assigned);
+        names = next;
+        return assigned;
+    }
+
+    /**
+     * Snapshot of assigned names, indexed by unsigned code
+     */
+    public String[] names() {
+        return names;
+    }
+}
@@ -0,0 +1,67 @@
+package com.payment.analytics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A counter that can be closed: every add that succeeded before
+ * {@link #close()} is in the value it returns, and every add after it fails,
+ * so the caller can count somewhere else instead. Like a LongAdder, the count
+ * is spread over stripes on separate cache lines, picked by thread, so threads
+ * counting the same cell rarely contend on one word.
+ *
+ * Each stripe holds its count shifted left by one, with the low bit marking it
+ * closed; an add is a compare-and-set that fails once that bit is set.
+ */
+final class ClosableCounter {
+
+    private static final int STRIPES = Integer.highestOneBit(
+            Math.min(64, Math.max(1, Runtime.getRuntime().availableProcessors())) * 2 - 1);
+    // 8 longs apart keeps each stripe on its own 64-byte line
+    private static final int SPACING = 8;
+    private static final long CLOSED = 1L;
+
+    private final AtomicLongArray stripes = new AtomicLongArray(STRIPES * SPACING);
+
+    /**
+     * @return false if the counter is closed and the delta was not added
+     */
+    boolean add(long delta) {
+        int index = (int) (Thread.currentThread().threadId() & (STRIPES - 1)) * SPACING;
+        while (true) {
+            long value = stripes.get(index);
+            if ((value & CLOSED) != 0) {
+                return false;
+            }
+            if (stripes.compareAndSet(index, value, value + (delta << 1))) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * The current count; adds racing with the call may or may not be included
+     */
+    long sum() {
+        long sum = 0;
+        for (int i = 0; i < STRIPES; i++) {
+            sum += stripes.get(i * SPACING) >> 1;
+        }
+        return sum;
+    }
+
+    /**
+     * Refuse further adds
+     *
+     * @return the final count
+     */
+    long close() {
+        for (int i = 0; i < STRIPES; i++) {
+            int index = i * SPACING;
+            long value;
+            do {
+                value = stripes.get(index);
+            } while ((value & CLOSED) == 0 && !stripes.compareAndSet(index, value, value | CLOSED));
+        }
+        return sum();
+    }
+}
@@ -0,0 +1,44 @@
+package com.payment.analytics;
+
+/**
+ * Byte codes for the low-cardinality columns of {@link ColumnSegment}.
+ */
+public final class ColumnCodes {
+
+    public static final byte PENDING = 0;
+    public static final byte COMPLETED = 1;
+    public static final byte FAILED = 2;
+    public static final byte REVERSED = 3;
+    public static final byte UNKNOWN_STATUS = 4;
+
+    public static final int STATUS_COUNT = 5;
+
+    private static final String[] STATUS_NAMES = { "pending", "completed", "failed", "reversed", "unknown" };
+
+    private ColumnCodes() {
+    }
+
+    public static byte statusCode(String status) {
+        if (status == null) {
+            return UNKNOWN_STATUS;
+        }
+        return switch (status) {
+            case "pending" -> PENDING;
+            case "completed" -> COMPLETED;
+            case "failed" -> FAILED;
+            case "reversed" -> REVERSED;
+            default -> UNKNOWN_STATUS;
+        };
+    }
+
+    public static String statusName(int code) {
+        return STATUS_NAMES[code];
+    }
+
+    /**
+     * Day of week for an epoch day, 0 = Sunday (PostgreSQL EXTRACT(DOW)); 1970-01-01 was a Thursday
+     */
+    public static int dayOfWeek(int epochDay) {
+        return Math.floorMod(epochDay + 4, 7);
+    }
+}
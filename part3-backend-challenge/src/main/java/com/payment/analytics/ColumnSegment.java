@@ -0,0 +1,84 @@
+package com.payment.analytics;
+
+/**
+ * Fixed-capacity block of transaction columns held in primitive arrays.
+ *
+ * One row costs 16 bytes: amount in cents (long), txn_date as epoch day (int)
+ * and one byte each for status code, card type code, hour of day and day of week
+ * (0 = Sunday, as PostgreSQL's DOW). There are no per-row objects.
+ *
+ * Single writer, many readers: a row's columns are written before the volatile
+ * size is bumped, so readers that read {@link #size()} first only see complete
+ * rows. minDay/maxDay form a zone map that lets scans skip whole segments.
+ */
+public final class ColumnSegment {
+
+    public static final int BYTES_PER_ROW = Long.BYTES + Integer.BYTES + 4;
+
+    final long[] amountCents;
+    final int[] epochDay;
+    final byte[] status;
+    final byte[] cardType;
+    final byte[] hour;
+    final byte[] dayOfWeek;
+
+    private int minDay = Integer.MAX_VALUE;
+    private int maxDay = Integer.MIN_VALUE;
+    private volatile int size;
+
+    public ColumnSegment(int capacity) {
+        this.amountCents = new long[capacity];
+        this.epochDay = new int[capacity];
+        this.status = new byte[capacity];
+        this.cardType = new byte[capacity];
+        this.hour = new byte[capacity];
+        this.dayOfWeek = new byte[capacity];
+    }
+
+    /**
+     * @return false when the segment is full
+     */
+    boolean append(long cents, int day, byte statusCode, byte cardTypeCode, int hourOfDay) {
+        int row = size;
+        if (row == amountCents.length) {
+            return false;
+        }
+        amountCents[row] = cents;
+        epochDay[row] = day;
+        status[row] = statusCode;
+        cardType[row] = cardTypeCode;
+        hour[row] = (byte) hourOfDay;
+        dayOfWeek[row] = (byte) ColumnCodes.dayOfWeek(day);
+        if (day < minDay) {
+            minDay = day;
+        }
+        if (day > maxDay) {
+            maxDay = day;
+        }
+        size = row + 1;
+        return true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return amountCents.length;
+    }
+
+    /**
+     * Only meaningful when size() > 0; read size() first
+     */
+    public int minDay() {
+        return minDay;
+    }
+
+    public int maxDay() {
+        return maxDay;
+    }
+
+    public long allocatedBytes() {
+        return (long) capacity() * BYTES_PER_ROW;
+    }
+}
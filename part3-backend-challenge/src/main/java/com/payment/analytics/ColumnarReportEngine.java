@@ -0,0 +1,320 @@
+package com.payment.analytics;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+
+/**
+ * Report aggregation over {@link ColumnSegment}s.
+ *
+ * Every counter the report sections need (per-day count/sum, status, card type,
+ * hour, day of week, min/max) is filled segment by segment; segments whose zone
+ * map misses the range are skipped. Segments whose zone map lies inside the
+ * range need no per-row date filter and go column by column through the
+ * {@link AggregationKernels}; the rest (at most the two boundary segments per
+ * range in date-ordered data) take a filtered scalar pass. The median takes two more passes:
+ * a 64K-bucket histogram to find the bucket holding the middle rank, then an
+ * exact sort of just that bucket.
+ *
+ * Given a ForkJoinPool, each pass splits the segment array into contiguous
+ * ranges aggregated as fork/join tasks. Partial results are counters, histograms
+ * and value lists, so they merge associatively and the result does not depend
+ * on how the ranges were split.
+ */
+public final class ColumnarReportEngine {
+
+    private static final int HISTOGRAM_BITS = 16;
+
+    /**
+     * Leaf tasks per pool thread, so uneven segments still balance
+     */
+    private static final int TASKS_PER_THREAD = 4;
+
+    private ColumnarReportEngine() {
+    }
+
+    /**
+     * Aggregate rows with startDay <= epochDay <= endDay on the calling thread
+     */
+    public static ReportAggregates aggregate(ColumnSegment[] segments, int startDay, int endDay,
+            AggregationKernels kernels) {
+        return aggregate(segments, startDay, endDay, kernels, null, 0L);
+    }
+
+    /**
+     * Aggregate rows with startDay <= epochDay <= endDay, in parallel on the pool
+     * when the range covers at least parallelMinRows rows
+     *
+     * @param pool null to stay on the calling thread
+     */
+    public static ReportAggregates aggregate(ColumnSegment[] segments, int startDay, int endDay,
+            AggregationKernels kernels, ForkJoinPool pool, long parallelMinRows) {
+        Scan scan = new Scan(segments, startDay, endDay);
+        ForkJoinPool parallel = pool != null && pool.getParallelism() > 1 && scan.rows >= parallelMinRows ? pool
+                : null;
+        int leafSegments = parallel == null ? segments.length
+                : Math.max(1, segments.length / (parallel.getParallelism() * TASKS_PER_THREAD));
+
+        ReportAggregates result = reduce(parallel, segments.length, leafSegments,
+                (from, to) -> scan.accumulate(from, to, kernels), ReportAggregates::merge);
+        for (int i = 0; i < result.dailyCount.length; i++) {
+            result.totalCount += result.dailyCount[i];
+            result.totalCents += result.dailyCents[i];
+        }
+        if (result.totalCount > 0) {
+            result.medianCents = median(scan, result.minCents, result.maxCents, result.totalCount, parallel,
+                    leafSegments);
+        }
+        return result;
+    }
+
+    /**
+     * PERCENTILE_CONT(0.5): the middle value, or the mean of the two middle values
+     */
+    private static double median(Scan scan, long min, long max, long count, ForkJoinPool pool, int leafSegments) {
+        long lowerRank = (count - 1) / 2;
+        long upperRank = count / 2;
+        long range = max - min;
+        if (range == 0) {
+            return min;
+        }
+
+        int shift = Math.max(0, Long.SIZE - Long.numberOfLeadingZeros(range) - HISTOGRAM_BITS);
+        int buckets = (int) (range >>> shift) + 1;
+        long[] histogram = reduce(pool, scan.segments.length, leafSegments,
+                (from, to) -> scan.histogram(from, to, min, shift, buckets), ColumnarReportEngine::addInto);
+
+        // Locate the buckets holding both middle ranks and the rank offset of the first one
+        int lowerBucket = -1;
+        int upperBucket = -1;
+        long before = 0;
+        long seen = 0;
+        for (int b = 0; b < histogram.length && upperBucket < 0; b++) {
+            if (lowerBucket < 0 && seen + histogram[b] > lowerRank) {
+                lowerBucket = b;
+                before = seen;
+            }
+            if (seen + histogram[b] > upperRank) {
+                upperBucket = b;
+            }
+            seen += histogram[b];
+        }
+
+        if (shift == 0) {
+            // Buckets are exact values
+            return ((min + lowerBucket) + (min + upperBucket)) / 2.0;
+        }
+
+        // Exact values of the (at most two, adjacent non-empty) buckets
+        long lowest = min + ((long) lowerBucket << shift);
+        long highest = min + (((long) upperBucket + 1) << shift) - 1;
+        long[] values = reduce(pool, scan.segments.length, leafSegments,
+                (from, to) -> scan.collect(from, to, lowest, highest), ColumnarReportEngine::concat);
+        Arrays.sort(values);
+        return (values[(int) (lowerRank - before)] + values[(int) (upperRank - before)]) / 2.0;
+    }
+
+    private static <T> T reduce(ForkJoinPool pool, int segments, int leafSegments, RangeFunction<T> leaf,
+            BinaryOperator<T> merge) {
+        if (pool == null || leafSegments >= segments) {
+            return leaf.apply(0, segments);
+        }
+        return pool.invoke(new RangeTask<>(0, segments, leafSegments, leaf, merge));
+    }
+
+    private static long[] addInto(long[] target, long[] source) {
+        for (int i = 0; i < target.length; i++) {
+            target[i] += source[i];
+        }
+        return target;
+    }
+
+    private static long[] concat(long[] first, long[] second) {
+        long[] joined = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, joined, first.length, second.length);
+        return joined;
+    }
+
+    @FunctionalInterface
+    private interface RangeFunction<T> {
+
+        T apply(int fromSegment, int toSegment);
+    }
+
+    /**
+     * Splits [from, to) in halves until a range has at most leafSegments segments
+     */
+    private static final class RangeTask<T> extends RecursiveTask<T> {
+
+        private final int from;
+        private final int to;
+        private final int leafSegments;
+        private final RangeFunction<T> leaf;
+        private final BinaryOperator<T> merge;
+
+        RangeTask(int from, int to, int leafSegments, RangeFunction<T> leaf, BinaryOperator<T> merge) {
+            this.from = from;
+            this.to = to;
+            this.leafSegments = leafSegments;
+            this.leaf = leaf;
+            this.merge = merge;
+        }
+
+        @Override
+        protected T compute() {
+            if (to - from <= leafSegments) {
+                return leaf.apply(from, to);
+            }
+            int middle = (from + to) >>> 1;
+            RangeTask<T> left = new RangeTask<>(from, middle, leafSegments, leaf, merge);
+            left.fork();
+            T right = new RangeTask<>(middle, to, leafSegments, leaf, merge).compute();
+            return merge.apply(left.join(), right);
+        }
+    }
+
+    /**
+     * The segments of one report with their row counts and zone maps fixed up
+     * front: the loader may append while a report runs, and every pass must see
+     * the same rows. Zone maps read after the size can only be wider than the
+     * rows below it.
+     */
+    private static final class Scan {
+
+        final ColumnSegment[] segments;
+        final int startDay;
+        final int endDay;
+        final int[] sizes;
+        final int[] minDays;
+        final int[] maxDays;
+        final long rows;
+
+        Scan(ColumnSegment[] segments, int startDay, int endDay) {
+            this.segments = segments;
+            this.startDay = startDay;
+            this.endDay = endDay;
+            this.sizes = new int[segments.length];
+            this.minDays = new int[segments.length];
+            this.maxDays = new int[segments.length];
+            long total = 0;
+            for (int s = 0; s < segments.length; s++) {
+                ColumnSegment segment = segments[s];
+                int size = segment.size();
+                minDays[s] = segment.minDay();
+                maxDays[s] = segment.maxDay();
+                sizes[s] = size == 0 || maxDays[s] < startDay || minDays[s] > endDay ? 0 : size;
+                total += sizes[s];
+            }
+            this.rows = total;
+        }
+
+        ReportAggregates accumulate(int fromSegment, int toSegment, AggregationKernels kernels) {
+            ReportAggregates result = new ReportAggregates(startDay, endDay - startDay + 1);
+            long[] dailyCount = result.dailyCount;
+            long[] dailyCents = result.dailyCents;
+            long[] statusCount = result.statusCount;
+            long[] cardTypeCount = result.cardTypeCount;
+            long[] hourCount = result.hourCount;
+            long[] dayOfWeekCount = result.dayOfWeekCount;
+            long min = Long.MAX_VALUE;
+            long max = Long.MIN_VALUE;
+
+            long[] summary = new long[3];
+            for (int s = fromSegment; s < toSegment; s++) {
+                int size = sizes[s];
+                if (size == 0) {
+                    continue;
+                }
+                ColumnSegment segment = segments[s];
+                if (minDays[s] >= startDay && maxDays[s] <= endDay) {
+                    kernels.summarize(segment.amountCents, size, summary);
+                    min = Math.min(min, summary[AggregationKernels.MIN]);
+                    max = Math.max(max, summary[AggregationKernels.MAX]);
+                    if (minDays[s] == maxDays[s]) {
+                        dailyCount[minDays[s] - startDay] += size;
+                        dailyCents[minDays[s] - startDay] += summary[AggregationKernels.SUM];
+                    } else {
+                        kernels.sumByDay(segment.epochDay, segment.amountCents, size, minDays[s], maxDays[s],
+                                startDay, dailyCount, dailyCents);
+                    }
+                    kernels.countValues(segment.status, size, statusCount);
+                    kernels.countValues(segment.cardType, size, cardTypeCount);
+                    kernels.countValues(segment.hour, size, hourCount);
+                    kernels.countValues(segment.dayOfWeek, size, dayOfWeekCount);
+                    continue;
+                }
+
+                long[] cents = segment.amountCents;
+                int[] days = segment.epochDay;
+                byte[] status = segment.status;
+                byte[] cardType = segment.cardType;
+                byte[] hour = segment.hour;
+                byte[] dayOfWeek = segment.dayOfWeek;
+
+                for (int i = 0; i < size; i++) {
+                    int day = days[i];
+                    if (day < startDay || day > endDay) {
+                        continue;
+                    }
+                    long amount = cents[i];
+                    int index = day - startDay;
+                    dailyCount[index]++;
+                    dailyCents[index] += amount;
+                    statusCount[status[i]]++;
+                    cardTypeCount[cardType[i] & 0xFF]++;
+                    hourCount[hour[i]]++;
+                    dayOfWeekCount[dayOfWeek[i]]++;
+                    if (amount < min) {
+                        min = amount;
+                    }
+                    if (amount > max) {
+                        max = amount;
+                    }
+                }
+            }
+            result.minCents = min;
+            result.maxCents = max;
+            return result;
+        }
+
+        long[] histogram(int fromSegment, int toSegment, long min, int shift, int buckets) {
+            long[] histogram = new long[buckets];
+            for (int s = fromSegment; s < toSegment; s++) {
+                int size = sizes[s];
+                ColumnSegment segment = segments[s];
+                long[] cents = segment.amountCents;
+                int[] days = segment.epochDay;
+                for (int i = 0; i < size; i++) {
+                    int day = days[i];
+                    if (day >= startDay && day <= endDay) {
+                        histogram[(int) ((cents[i] - min) >>> shift)]++;
+                    }
+                }
+            }
+            return histogram;
+        }
+
+        long[] collect(int fromSegment, int toSegment, long lowest, long highest) {
+            long[] values = new long[256];
+            int n = 0;
+            for (int s = fromSegment; s < toSegment; s++) {
+                int size = sizes[s];
+                ColumnSegment segment = segments[s];
+                long[] cents = segment.amountCents;
+                int[] days = segment.epochDay;
+                for (int i = 0; i < size; i++) {
+                    int day = days[i];
+                    long amount = cents[i];
+                    if (day >= startDay && day <= endDay && amount >= lowest && amount <= highest) {
+                        if (n == values.length) {
+                            values = Arrays.copyOf(values, n * 2);
+                        }
+                        values[n++] = amount;
+                    }
+                }
+            }
+            return Arrays.copyOf(values, n);
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.payment.analytics;
+
+import com.payment.cache.CacheInvalidation;
+import com.payment.cache.CacheInvalidationHandler;
+import com.payment.cache.TxnIdGaps;
+import com.payment.config.ReportCacheProperties;
+import com.payment.repository.TransactionScanRepository;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.scheduling.annotation.Scheduled;
+import jakarta.inject.Singleton;
+import org.roaringbitmap.longlong.LongIterator;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the {@link ColumnarStore} in step with transaction_master.
+ *
+ * A full rebuild streams the window into a fresh set of segments and swaps it
+ * in; between rebuilds, new rows are tailed by txn_id and appended. Appends are
+ * not idempotent, so no id is read twice: the ids the tail steps over, and
+ * those missing from a rebuild, are tracked as {@link TxnIdGaps} and re-read
+ * until their rows commit, and only ids found inside a gap are appended.
+ * Status changes and deletes are picked up by the next rebuild; until then
+ * the days they are notified for are marked dirty in the store, so reports
+ * covering them go to SQL. A lost notification marks every day and brings the
+ * rebuild forward to the next poll.
+ */
+@Singleton
+@Requires(property = "report-cache.enabled", notEquals = "false")
+public class ColumnarReportLoader implements CacheInvalidationHandler {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ColumnarReportLoader.class);
+
+    private final TransactionScanRepository scanRepository;
+    private final ColumnarStore store;
+    private final ReportCacheProperties properties;
+    private final TxnIdGaps gaps;
+
+    private ColumnarStore.Appender appender;
+    private LocalDate windowStart;
+    private Instant lastRebuild;
+    private long lastRebuildMillis;
+
+    public ColumnarReportLoader(TransactionScanRepository scanRepository, ColumnarStore store,
+            ReportCacheProperties properties) {
+        this.scanRepository = scanRepository;
+        this.store = store;
+        this.properties = properties;
+        this.gaps = new TxnIdGaps(Duration.ofSeconds(properties.getCommitLagSeconds()), properties.getMaxIdGaps());
+    }
+
+    @Scheduled(initialDelay = "${report-cache.initial-delay:15s}", fixedDelay = "${report-cache.poll-interval:5s}")
+    void poll() {
+        try {
+            sync(LocalDate.now(ZoneOffset.UTC), Instant.now());
+        } catch (RuntimeException e) {
+            LOG.warn("Report cache sync failed; reports use SQL until the cache is built", e);
+        }
+    }
+
+    synchronized void sync(LocalDate today, Instant now) {
+        LocalDate start = today.minusDays(properties.getDays() - 1L);
+        boolean rebuildDue = lastRebuild == null || store.isAllDirty()
+                || Duration.between(lastRebuild, now).toMinutes() >= properties.getRebuildMinutes();
+        if (appender == null || rebuildDue || !start.equals(windowStart)) {
+            rebuild(start, now);
+        } else {
+            tail(now);
+        }
+    }
+
+    private void rebuild(LocalDate start, Instant now) {
+        long began = System.nanoTime();
+        ColumnarStore.Appender fresh = store.newAppender(properties.getSegmentCapacity());
+        Roaring64Bitmap ids = new Roaring64Bitmap();
+        long rows = scanRepository.scanFrom(start, (txnId, epochDay, amountCents, status, cardType, hour) -> {
+            fresh.append(amountCents, epochDay, status, cardType, hour);
+            ids.addLong(txnId);
+        });
+
+        appender = fresh;
+        windowStart = start;
+        gaps.reset(ids.isEmpty() ? 0L : ids.last(), skippedIds(ids, now));
+        lastRebuild = now;
+        lastRebuildMillis = (System.nanoTime() - began) / 1_000_000;
+        store.publish(appender, windowStart, gaps.getHighestSeen(), now);
+        store.clearDirty(now);
+        LOG.info("Report cache rebuilt from {}: {} rows in {} ms", start, rows, lastRebuildMillis);
+    }
+
+    /**
+     * The id ranges missing between the ids a rebuild read, newest first up to
+     * the gap limit; the scan is not in id order, so the tail cannot find them
+     */
+    private List<TxnIdGaps.Gap> skippedIds(Roaring64Bitmap ids, Instant now) {
+        List<TxnIdGaps.Gap> skipped = new ArrayList<>();
+        LongIterator descending = ids.getReverseLongIterator();
+        if (!descending.hasNext()) {
+            return skipped;
+        }
+        long above = descending.next();
+        while (descending.hasNext() && skipped.size() < properties.getMaxIdGaps()) {
+            long id = descending.next();
+            if (above - id > 1) {
+                skipped.add(new TxnIdGaps.Gap(id + 1, above - 1, now));
+            }
+            above = id;
+        }
+        Collections.reverse(skipped);
+        return skipped;
+    }
+
+    private void tail(Instant now) {
+        long rows;
+        do {
+            rows = scanRepository.scanAfter(gaps.getHighestSeen(), windowStart, properties.getBatchSize(),
+                    (txnId, epochDay, amountCents, status, cardType, hour) -> {
+                        appender.append(amountCents, epochDay, status, cardType, hour);
+                        gaps.seen(txnId, now);
+                    });
+        } while (rows == properties.getBatchSize());
+
+        List<TxnIdGaps.Gap> open = gaps.open(now);
+        if (!open.isEmpty()) {
+            scanRepository.scanIdRanges(TxnIdGaps.froms(open), TxnIdGaps.tos(open), windowStart,
+                    (txnId, epochDay, amountCents, status, cardType, hour) -> {
+                        if (gaps.fill(txnId)) {
+                            appender.append(amountCents, epochDay, status, cardType, hour);
+                        }
+                    });
+        }
+        store.publish(appender, windowStart, gaps.getHighestSeen(), now);
+    }
+
+    @Override
+    public void invalidate(CacheInvalidation invalidation) {
+        Instant now = Instant.now();
+        if (invalidation.everything()) {
+            store.markAllDirty(now);
+            return;
+        }
+        Set<LocalDate> days = invalidation.transactions().stream()
+                .map(CacheInvalidation.MerchantDay::day)
+                .collect(Collectors.toSet());
+        store.markDirty(days, now);
+    }
+
+    public long getLastRebuildMillis() {
+        return lastRebuildMillis;
+    }
+
+    public TxnIdGaps getIdGaps() {
+        return gaps;
+    }
+}
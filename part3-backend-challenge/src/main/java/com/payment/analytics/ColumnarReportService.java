@@ -0,0 +1,317 @@
+package com.payment.analytics;
+
+import com.payment.config.ReportCacheProperties;
+import com.payment.dto.common.ConsistencyDTO;
+import com.payment.dto.reports.AmountStatsDTO;
+import com.payment.dto.reports.AmountTrendsDTO;
+import com.payment.dto.reports.CardTypeDistributionDTO;
+import com.payment.dto.reports.DailyAmountTrendDTO;
+import com.payment.dto.reports.DailyVolumeDTO;
+import com.payment.dto.reports.DayOfWeekDistributionDTO;
+import com.payment.dto.reports.HourlyDistributionDTO;
+import com.payment.dto.reports.MonthlyVolumeDTO;
+import com.payment.dto.reports.PeakTimesHeatmapDTO;
+import com.payment.dto.reports.SuccessRateMetricsDTO;
+import com.payment.dto.reports.TransactionReportsResponse;
+import com.payment.dto.reports.VolumeMetricsDTO;
+import com.payment.dto.reports.WeeklyVolumeDTO;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Singleton;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.IsoFields;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * Builds the transaction report sections from the {@link ColumnarStore}.
+ *
+ * Results match the SQL path in TransactionService: same groupings (ISO weeks
+ * starting Monday, YYYY-MM months, DOW with Sunday = 0), the same 2-decimal
+ * HALF_UP rounding and only non-empty groups. Card types are grouped after
+ * lower-casing.
+ *
+ * Large ranges are aggregated on a dedicated ForkJoinPool of
+ * report-cache.parallelism threads, so concurrent reports cannot starve the
+ * common pool.
+ */
+@Singleton
+public class ColumnarReportService {
+
+    public static final String SOURCE = "report-cache";
+
+    private static final String[] DAY_NAMES = { "SUNDAY", "MONDAY", "TUESDAY", "WEDNESDAY", "THURSDAY", "FRIDAY",
+            "SATURDAY" };
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    private final ColumnarStore store;
+    private final AggregationKernels kernels;
+    private final ForkJoinPool pool;
+    private final long parallelMinRows;
+
+    private final AtomicLong reports = new AtomicLong();
+    private final AtomicLong dirtyFallbacks = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0L);
+    private volatile long lastNanos;
+
+    public ColumnarReportService(ColumnarStore store, ReportCacheProperties properties) {
+        this.store = store;
+        this.kernels = AggregationKernels.select(properties.isVectorKernels());
+        this.pool = properties.getParallelism() > 1 ? new ForkJoinPool(properties.getParallelism()) : null;
+        this.parallelMinRows = properties.getParallelMinRows();
+    }
+
+    @PreDestroy
+    void close() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Report sections for the range, or empty when the cache does not hold all
+     * of it or a day in it has changed since it was loaded. The report period is
+     * left to the caller.
+     */
+    public Optional<TransactionReportsResponse> buildReports(LocalDate startDate, LocalDate endDate) {
+        ColumnarStore.Snapshot snapshot = store.snapshot();
+        if (snapshot == null || startDate.isBefore(snapshot.windowStart())) {
+            return Optional.empty();
+        }
+        if (store.isDirty(startDate, endDate)) {
+            dirtyFallbacks.incrementAndGet();
+            return Optional.empty();
+        }
+
+        long began = System.nanoTime();
+        ReportAggregates aggregates = ColumnarReportEngine.aggregate(snapshot.segments(),
+                (int) startDate.toEpochDay(), (int) endDate.toEpochDay(), kernels, pool, parallelMinRows);
+        TransactionReportsResponse response = TransactionReportsResponse.builder()
+                .volumeMetrics(buildVolumeMetrics(aggregates))
+                .successRateMetrics(buildSuccessRateMetrics(aggregates))
+                .amountTrends(buildAmountTrends(aggregates))
+                .peakTimesHeatmap(buildPeakTimesHeatmap(aggregates))
+                .cardTypeDistribution(buildCardTypeDistribution(aggregates, store.cardTypes().names()))
+                .consistency(ConsistencyDTO.builder()
+                        .source(SOURCE)
+                        .watermarkTxnId(snapshot.watermarkTxnId())
+                        .watermarkAt(snapshot.syncedAt())
+                        .build())
+                .build();
+        record(System.nanoTime() - began);
+        return Optional.of(response);
+    }
+
+    private VolumeMetricsDTO buildVolumeMetrics(ReportAggregates aggregates) {
+        List<DailyVolumeDTO> daily = new ArrayList<>();
+        Map<LocalDate, long[]> weeks = new LinkedHashMap<>();
+        Map<YearMonth, long[]> months = new LinkedHashMap<>();
+
+        for (int i = 0; i < aggregates.getDays(); i++) {
+            long count = aggregates.getDailyCount(i);
+            if (count == 0) {
+                continue;
+            }
+            long cents = aggregates.getDailyCents(i);
+            LocalDate date = LocalDate.ofEpochDay(aggregates.getStartDay() + (long) i);
+            daily.add(DailyVolumeDTO.builder()
+                    .date(date.toString())
+                    .count(count)
+                    .amount(toAmount(cents))
+                    .build());
+            addTo(weeks.computeIfAbsent(date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)),
+                    w -> new long[2]), count, cents);
+            addTo(months.computeIfAbsent(YearMonth.from(date), m -> new long[2]), count, cents);
+        }
+
+        List<WeeklyVolumeDTO> weekly = new ArrayList<>(weeks.size());
+        weeks.forEach((weekStart, totals) -> weekly.add(WeeklyVolumeDTO.builder()
+                .weekStart(weekStart.toString())
+                .weekNumber(weekStart.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR))
+                .count(totals[0])
+                .amount(toAmount(totals[1]))
+                .build()));
+
+        List<MonthlyVolumeDTO> monthly = new ArrayList<>(months.size());
+        months.forEach((month, totals) -> monthly.add(MonthlyVolumeDTO.builder()
+                .month(month.toString())
+                .count(totals[0])
+                .amount(toAmount(totals[1]))
+                .build()));
+
+        return VolumeMetricsDTO.builder()
+                .daily(daily)
+                .weekly(weekly)
+                .monthly(monthly)
+                .build();
+    }
+
+    private SuccessRateMetricsDTO buildSuccessRateMetrics(ReportAggregates aggregates) {
+        long total = aggregates.getTotalCount();
+        Map<String, Long> byStatus = new HashMap<>();
+        for (int code = 0; code < ColumnCodes.STATUS_COUNT; code++) {
+            if (aggregates.getStatusCount(code) > 0) {
+                byStatus.put(ColumnCodes.statusName(code), aggregates.getStatusCount(code));
+            }
+        }
+        long completed = aggregates.getStatusCount(ColumnCodes.COMPLETED);
+        long failed = aggregates.getStatusCount(ColumnCodes.FAILED);
+        double successRate = total > 0 ? (completed * 100.0) / total : 0.0;
+        double failureRate = total > 0 ? (failed * 100.0) / total : 0.0;
+
+        return SuccessRateMetricsDTO.builder()
+                .totalTransactions(total)
+                .completed(completed)
+                .failed(failed)
+                .successRate(Math.round(successRate * 100.0) / 100.0)
+                .failureRate(Math.round(failureRate * 100.0) / 100.0)
+                .byStatus(byStatus)
+                .build();
+    }
+
+    private AmountTrendsDTO buildAmountTrends(ReportAggregates aggregates) {
+        long total = aggregates.getTotalCount();
+        AmountStatsDTO overall = AmountStatsDTO.builder()
+                .average(total > 0 ? average(aggregates.getTotalCents(), total) : zero())
+                .median(total > 0
+                        ? BigDecimal.valueOf(aggregates.getMedianCents()).divide(HUNDRED, 2, RoundingMode.HALF_UP)
+                        : zero())
+                .min(total > 0 ? toAmount(aggregates.getMinCents()) : zero())
+                .max(total > 0 ? toAmount(aggregates.getMaxCents()) : zero())
+                .build();
+
+        List<DailyAmountTrendDTO> daily = new ArrayList<>();
+        for (int i = 0; i < aggregates.getDays(); i++) {
+            long count = aggregates.getDailyCount(i);
+            if (count > 0) {
+                daily.add(DailyAmountTrendDTO.builder()
+                        .date(LocalDate.ofEpochDay(aggregates.getStartDay() + (long) i).toString())
+                        .average(average(aggregates.getDailyCents(i), count))
+                        .build());
+            }
+        }
+
+        return AmountTrendsDTO.builder()
+                .overall(overall)
+                .daily(daily)
+                .build();
+    }
+
+    private PeakTimesHeatmapDTO buildPeakTimesHeatmap(ReportAggregates aggregates) {
+        List<HourlyDistributionDTO> hourly = new ArrayList<>();
+        for (int hour = 0; hour < 24; hour++) {
+            if (aggregates.getHourCount(hour) > 0) {
+                hourly.add(HourlyDistributionDTO.builder()
+                        .hour(hour)
+                        .count(aggregates.getHourCount(hour))
+                        .build());
+            }
+        }
+
+        List<DayOfWeekDistributionDTO> dayOfWeek = new ArrayList<>();
+        for (int dow = 0; dow < 7; dow++) {
+            if (aggregates.getDayOfWeekCount(dow) > 0) {
+                dayOfWeek.add(DayOfWeekDistributionDTO.builder()
+                        .dayOfWeek(DAY_NAMES[dow])
+                        .count(aggregates.getDayOfWeekCount(dow))
+                        .build());
+            }
+        }
+
+        return PeakTimesHeatmapDTO.builder()
+                .hourly(hourly)
+                .dayOfWeek(dayOfWeek)
+                .build();
+    }
+
+    private CardTypeDistributionDTO buildCardTypeDistribution(ReportAggregates aggregates, String[] names) {
+        long total = aggregates.getTotalCount();
+        Map<String, Long> byType = new HashMap<>();
+        Map<String, Double> percentages = new HashMap<>();
+        for (int code = 0; code < names.length; code++) {
+            long count = aggregates.getCardTypeCount(code);
+            if (count > 0) {
+                byType.merge(names[code], count, Long::sum);
+            }
+        }
+        byType.forEach((name, count) -> {
+            double percentage = total > 0 ? (count * 100.0) / total : 0.0;
+            percentages.put(name, Math.round(percentage * 100.0) / 100.0);
+        });
+
+        return CardTypeDistributionDTO.builder()
+                .byType(byType)
+                .percentages(percentages)
+                .build();
+    }
+
+    private void record(long nanos) {
+        reports.incrementAndGet();
+        totalNanos.addAndGet(nanos);
+        maxNanos.accumulate(nanos);
+        lastNanos = nanos;
+    }
+
+    public String getKernels() {
+        return kernels.name();
+    }
+
+    public int getParallelism() {
+        return pool != null ? pool.getParallelism() : 1;
+    }
+
+    public long getReportCount() {
+        return reports.get();
+    }
+
+    /**
+     * Reports sent to SQL because a day in their range changed in place
+     */
+    public long getDirtyFallbacks() {
+        return dirtyFallbacks.get();
+    }
+
+    public long getLastReportNanos() {
+        return lastNanos;
+    }
+
+    public long getMaxReportNanos() {
+        return maxNanos.get();
+    }
+
+    public long getMeanReportNanos() {
+        long count = reports.get();
+        return count > 0 ? totalNanos.get() / count : 0L;
+    }
+
+    private static void addTo(long[] totals, long count, long cents) {
+        totals[0] += count;
+        totals[1] += cents;
+    }
+
+    private static BigDecimal toAmount(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    private static BigDecimal average(long cents, long count) {
+        return BigDecimal.valueOf(cents).divide(BigDecimal.valueOf(count).multiply(HUNDRED), 2,
+                RoundingMode.HALF_UP);
+    }
+
+    private static BigDecimal zero() {
+        return BigDecimal.ZERO.setScale(2);
+    }
+}
@@ -0,0 +1,167 @@
+package com.payment.analytics;
+
+import jakarta.inject.Singleton;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Columnar copy of the last N days of transaction_master used by the reports.
+ *
+ * Readers take an immutable {@link Snapshot} (segment array plus watermark);
+ * the single loader thread writes through an {@link Appender} and publishes a
+ * new snapshot whenever it adds segments or finishes a sync. A full rebuild
+ * fills a fresh appender and swaps it in, so readers never see a half-built
+ * store.
+ *
+ * Rows changed in place (status changes, deletes) are not applied to the
+ * segments. Instead the days they fall on are marked dirty when the change is
+ * heard of, and reports touching a dirty day are answered from SQL until a
+ * rebuild that started after the mark has been published.
+ */
+@Singleton
+public class ColumnarStore {
+
+    private final CardTypeDictionary cardTypes = new CardTypeDictionary();
+
+    private volatile Snapshot snapshot;
+
+    // Epoch day to the time its latest change was heard of
+    private final ConcurrentHashMap<Integer, Instant> dirtyDays = new ConcurrentHashMap<>();
+    private final AtomicReference<Instant> allDirtyAt = new AtomicReference<>();
+
+    /**
+     * Published state of the store
+     *
+     * @param segments       segments in load order (roughly txn_date order)
+     * @param windowStart    first day guaranteed to be complete
+     * @param watermarkTxnId highest txn_id loaded
+     * @param syncedAt       start time of the sync that produced this snapshot
+     */
+    public record Snapshot(ColumnSegment[] segments, LocalDate windowStart, long watermarkTxnId, Instant syncedAt) {
+
+        public long rows() {
+            long rows = 0;
+            for (ColumnSegment segment : segments) {
+                rows += segment.size();
+            }
+            return rows;
+        }
+
+        public long allocatedBytes() {
+            long bytes = 0;
+            for (ColumnSegment segment : segments) {
+                bytes += segment.allocatedBytes();
+            }
+            return bytes;
+        }
+    }
+
+    /**
+     * Single-writer row sink for one generation of segments
+     */
+    public final class Appender {
+
+        private final int segmentCapacity;
+        private final List<ColumnSegment> segments = new ArrayList<>();
+        private ColumnSegment current;
+
+        private Appender(int segmentCapacity) {
+            this.segmentCapacity = segmentCapacity;
+        }
+
+        public void append(long amountCents, int epochDay, String status, String cardType, int hour) {
+            byte statusCode = ColumnCodes.statusCode(status);
+            byte cardTypeCode = cardTypes.codeOf(cardType);
+            if (current == null || !current.append(amountCents, epochDay, statusCode, cardTypeCode, hour)) {
+                current = new ColumnSegment(segmentCapacity);
+                segments.add(current);
+                current.append(amountCents, epochDay, statusCode, cardTypeCode, hour);
+            }
+        }
+
+        ColumnSegment[] segments() {
+            return segments.toArray(new ColumnSegment[0]);
+        }
+    }
+
+    public Appender newAppender(int segmentCapacity) {
+        return new Appender(segmentCapacity);
+    }
+
+    /**
+     * Make everything appended so far visible to readers
+     */
+    public void publish(Appender appender, LocalDate windowStart, long watermarkTxnId, Instant syncedAt) {
+        this.snapshot = new Snapshot(appender.segments(), windowStart, watermarkTxnId, syncedAt);
+    }
+
+    /**
+     * @return the current snapshot, or null before the first build
+     */
+    public Snapshot snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Mark days whose rows changed in place at {@code at}
+     */
+    public void markDirty(Collection<LocalDate> days, Instant at) {
+        for (LocalDate day : days) {
+            dirtyDays.merge((int) day.toEpochDay(), at, (marked, latest) -> latest.isAfter(marked) ? latest : marked);
+        }
+    }
+
+    /**
+     * Mark every day, when changes may have been missed
+     */
+    public void markAllDirty(Instant at) {
+        allDirtyAt.set(at);
+    }
+
+    /**
+     * Forget the marks made before a rebuild that started at {@code at}, as it
+     * read the changed rows
+     */
+    public void clearDirty(Instant at) {
+        dirtyDays.values().removeIf(marked -> marked.isBefore(at));
+        Instant all = allDirtyAt.get();
+        if (all != null && all.isBefore(at)) {
+            allDirtyAt.compareAndSet(all, null);
+        }
+    }
+
+    /**
+     * Whether a day in the range changed since the segments were read
+     */
+    public boolean isDirty(LocalDate startDate, LocalDate endDate) {
+        if (allDirtyAt.get() != null) {
+            return true;
+        }
+        long start = startDate.toEpochDay();
+        long end = endDate.toEpochDay();
+        for (Integer day : dirtyDays.keySet()) {
+            if (day >= start && day <= end) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean isAllDirty() {
+        return allDirtyAt.get() != null;
+    }
+
+    public int getDirtyDays() {
+        return dirtyDays.size();
+    }
+
+    public CardTypeDictionary cardTypes() {
+        return cardTypes;
+    }
+}
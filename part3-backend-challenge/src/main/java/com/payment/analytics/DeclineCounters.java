@@ -0,0 +1,315 @@
+package com.payment.analytics;
+
+import com.payment.config.DeclineAnalyticsProperties;
+import com.payment.entity.TransactionMaster;
+import com.payment.repository.DeclineSnapshotRepository.DeclineCount;
+import jakarta.inject.Singleton;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Transactions and declines per hour, issuer and response code, counted as
+ * transactions are ingested and settled.
+ *
+ * A decline is a transaction with status failed; the hour is that of its
+ * local_txn_date_time. Each (issuer, response code) of an hour owns a pair of
+ * {@link ClosableCounter}s, which spread concurrent increments over per-thread
+ * stripes, so ingestion threads counting the same busy issuer do not contend on
+ * one word.
+ *
+ * The counters only hold what this instance counted and has not written yet.
+ * {@link DeclineSnapshotWriter} periodically {@link #flush}es them into the
+ * hourly snapshots, which sum the counts of every instance; each cell
+ * remembers how much of it has been written, so a failed flush is simply
+ * retried. Reports read the snapshots and add the unwritten counts with
+ * {@link #addPending}. Each flush retires the hours before the current one:
+ * it takes them out of the map, closes their counters and writes what was
+ * counted up to the close. An ingestion thread still holding a cell of a
+ * retired hour finds it closed and counts into a fresh cell of the same hour
+ * instead, which the next flush writes, so a late transaction is never lost.
+ */
+@Singleton
+public class DeclineCounters {
+
+    public static final String DECLINED_STATUS = "failed";
+    public static final long NO_ISSUER = 0;
+    public static final String UNKNOWN_RESPONSE_CODE = "unknown";
+
+    private static final long SECONDS_PER_HOUR = 3600;
+
+    /**
+     * Transactions and declines; declineRate is a percentage
+     */
+    public record Totals(long transactions, long declines) {
+
+        static final Totals ZERO = new Totals(0, 0);
+
+        Totals plus(long moreTransactions, long moreDeclines) {
+            return new Totals(transactions + moreTransactions, declines + moreDeclines);
+        }
+
+        public double declineRate() {
+            return transactions > 0 ? Math.round(declines * 100.0 / transactions * 100.0) / 100.0 : 0.0;
+        }
+    }
+
+    /**
+     * Counts of a window summed per hour, per issuer and per response code
+     */
+    public record Breakdown(NavigableMap<Instant, Totals> hourly, Map<Long, Totals> byIssuer,
+            Map<String, Totals> byResponseCode) {
+
+        public Breakdown() {
+            this(new TreeMap<>(), new HashMap<>(), new HashMap<>());
+        }
+
+        public void add(Instant hourStart, long issuerId, String responseCode, long transactions, long declines) {
+            hourly.merge(hourStart, Totals.ZERO.plus(transactions, declines),
+                    (a, b) -> a.plus(b.transactions(), b.declines()));
+            byIssuer.merge(issuerId, Totals.ZERO.plus(transactions, declines),
+                    (a, b) -> a.plus(b.transactions(), b.declines()));
+            byResponseCode.merge(responseCode, Totals.ZERO.plus(transactions, declines),
+                    (a, b) -> a.plus(b.transactions(), b.declines()));
+        }
+
+        public Totals total() {
+            Totals total = Totals.ZERO;
+            for (Totals hour : hourly.values()) {
+                total = total.plus(hour.transactions(), hour.declines());
+            }
+            return total;
+        }
+    }
+
+    private record CellKey(long issuerId, String responseCode) {
+    }
+
+    private static final class Cell {
+
+        final ClosableCounter transactions = new ClosableCounter();
+        final ClosableCounter declines = new ClosableCounter();
+
+        // Written by the flushing thread only
+        long flushedTransactions;
+        long flushedDeclines;
+    }
+
+    private record Delta(Cell cell, DeclineCount count) {
+    }
+
+    private static final class Hour {
+
+        final long hour;
+        final ConcurrentHashMap<CellKey, Cell> cells = new ConcurrentHashMap<>();
+        // Set before its cells are closed; a cell resolved afterwards is not used
+        volatile boolean closed;
+
+        Hour(long hour) {
+            this.hour = hour;
+        }
+    }
+
+    private final DeclineAnalyticsProperties properties;
+    private final ConcurrentHashMap<Long, Hour> hours = new ConcurrentHashMap<>();
+    // Closed hours whose final counts have not been written yet; guarded by this
+    private final List<Hour> retired = new ArrayList<>();
+    private final LongAdder recorded = new LongAdder();
+    private volatile long flushes;
+    private volatile Instant lastFlushAt;
+
+    public DeclineCounters(DeclineAnalyticsProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Count committed transactions
+     */
+    public void record(List<TransactionMaster> transactions) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        for (TransactionMaster transaction : transactions) {
+            if (transaction.getLocalTxnDateTime() == null) {
+                continue;
+            }
+            count(transaction, 1, DECLINED_STATUS.equals(transaction.getStatus()) ? 1 : 0);
+        }
+        recorded.add(transactions.size());
+    }
+
+    /**
+     * Count a committed status change of a transaction as a decline gained or
+     * lost; it was counted as a transaction when it was ingested
+     */
+    public void recordStatusChange(TransactionMaster transaction, String fromStatus, String toStatus) {
+        if (!properties.isEnabled() || transaction.getLocalTxnDateTime() == null) {
+            return;
+        }
+        boolean wasDeclined = DECLINED_STATUS.equals(fromStatus);
+        boolean isDeclined = DECLINED_STATUS.equals(toStatus);
+        if (wasDeclined != isDeclined) {
+            count(transaction, 0, isDeclined ? 1 : -1);
+            recorded.increment();
+        }
+    }
+
+    /**
+     * Add to the transaction's cell, resolving it again for whatever a flush
+     * refused because it retired the hour in between
+     */
+    private void count(TransactionMaster transaction, long transactions, long declines) {
+        boolean transactionsCounted = transactions == 0;
+        boolean declinesCounted = declines == 0;
+        while (!transactionsCounted || !declinesCounted) {
+            Cell cell = cellOf(transaction);
+            if (!transactionsCounted) {
+                transactionsCounted = cell.transactions.add(transactions);
+            }
+            if (!declinesCounted) {
+                declinesCounted = cell.declines.add(declines);
+            }
+        }
+    }
+
+    private Cell cellOf(TransactionMaster transaction) {
+        long hour = Math.floorDiv(transaction.getLocalTxnDateTime().getEpochSecond(), SECONDS_PER_HOUR);
+        Long issuerId = transaction.getGpIssuerId();
+        String responseCode = transaction.getResponseCode();
+        CellKey key = new CellKey(issuerId != null ? issuerId : NO_ISSUER,
+                responseCode != null && !responseCode.isBlank() ? responseCode : UNKNOWN_RESPONSE_CODE);
+        while (true) {
+            Hour counts = hours.computeIfAbsent(hour, Hour::new);
+            Cell cell = counts.cells.computeIfAbsent(key, k -> new Cell());
+            // Created after the flush closed the hour's cells, the cell would never be written
+            if (!counts.closed) {
+                return cell;
+            }
+        }
+    }
+
+    /**
+     * Retire the hours before the current one, hand everything counted since
+     * the last flush to the writer, then mark it as written once the writer
+     * returns; retired hours are kept until their final counts are written
+     *
+     * @return the number of rows written
+     */
+    public synchronized int flush(Consumer<List<DeclineCount>> writer, Instant now) {
+        long currentHour = Math.floorDiv(now.getEpochSecond(), SECONDS_PER_HOUR);
+        for (Hour hour : hours.values()) {
+            // Out of the map first, so a writer refused by a closed cell resolves a fresh one
+            if (hour.hour < currentHour && hours.remove(hour.hour, hour)) {
+                hour.closed = true;
+                for (Cell cell : hour.cells.values()) {
+                    cell.transactions.close();
+                    cell.declines.close();
+                }
+                retired.add(hour);
+            }
+        }
+
+        List<Delta> deltas = new ArrayList<>();
+        for (Hour hour : hours.values()) {
+            collectDeltas(hour, deltas);
+        }
+        for (Hour hour : retired) {
+            collectDeltas(hour, deltas);
+        }
+
+        if (!deltas.isEmpty()) {
+            List<DeclineCount> counts = new ArrayList<>(deltas.size());
+            for (Delta delta : deltas) {
+                counts.add(delta.count());
+            }
+            writer.accept(counts);
+            for (Delta delta : deltas) {
+                delta.cell().flushedTransactions += delta.count().transactions();
+                delta.cell().flushedDeclines += delta.count().declines();
+            }
+        }
+
+        // Closed counters no longer change, so the retired hours are fully written
+        retired.clear();
+        lastFlushAt = now;
+        flushes++;
+        return deltas.size();
+    }
+
+    private static void collectDeltas(Hour hour, List<Delta> deltas) {
+        Instant hourStart = Instant.ofEpochSecond(hour.hour * SECONDS_PER_HOUR);
+        for (Map.Entry<CellKey, Cell> entry : hour.cells.entrySet()) {
+            Cell cell = entry.getValue();
+            long transactions = cell.transactions.sum() - cell.flushedTransactions;
+            long declines = cell.declines.sum() - cell.flushedDeclines;
+            if (transactions != 0 || declines != 0) {
+                deltas.add(new Delta(cell, new DeclineCount(hourStart, entry.getKey().issuerId(),
+                        entry.getKey().responseCode(), transactions, declines)));
+            }
+        }
+    }
+
+    /**
+     * Add the counts not yet flushed of the hours from (inclusive) to until
+     * (exclusive), optionally for one issuer, to a breakdown read from the
+     * snapshots. The snapshots must have been read after {@link #getFlushes()}
+     * returned flushesBefore; if a flush completed since, it may be in both.
+     *
+     * @return false if a flush completed since, and the breakdown should be read again
+     */
+    public synchronized boolean addPending(Breakdown breakdown, Instant from, Instant until, Long issuerId,
+            long flushesBefore) {
+        long fromHour = Math.floorDiv(from.getEpochSecond(), SECONDS_PER_HOUR);
+        long untilHour = Math.floorDiv(until.getEpochSecond(), SECONDS_PER_HOUR);
+        List<Delta> deltas = new ArrayList<>();
+        for (Hour hour : hours.values()) {
+            if (hour.hour >= fromHour && hour.hour < untilHour) {
+                collectDeltas(hour, deltas);
+            }
+        }
+        for (Hour hour : retired) {
+            if (hour.hour >= fromHour && hour.hour < untilHour) {
+                collectDeltas(hour, deltas);
+            }
+        }
+        for (Delta delta : deltas) {
+            DeclineCount count = delta.count();
+            if (issuerId == null || count.issuerId() == issuerId) {
+                breakdown.add(count.hourStart(), count.issuerId(), count.responseCode(), count.transactions(),
+                        count.declines());
+            }
+        }
+        return flushes == flushesBefore;
+    }
+
+    public static Instant hourStart(Instant at) {
+        return Instant.ofEpochSecond(Math.floorDiv(at.getEpochSecond(), SECONDS_PER_HOUR) * SECONDS_PER_HOUR);
+    }
+
+    /**
+     * Flushes completed so far
+     */
+    public long getFlushes() {
+        return flushes;
+    }
+
+    public long getRecorded() {
+        return recorded.sum();
+    }
+
+    public int getRetainedHours() {
+        return hours.size();
+    }
+
+    public Instant getLastFlushAt() {
+        return lastFlushAt;
+    }
+}
@@ -0,0 +1,61 @@
+package com.payment.analytics;
+
+import com.payment.repository.DeclineSnapshotRepository;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.scheduling.annotation.Scheduled;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+
+/**
+ * Writes what the {@link DeclineCounters} gathered since the previous run into
+ * the hourly snapshots. Counts of the last interval before a crash are lost; a
+ * clean shutdown writes them.
+ */
+@Singleton
+@Requires(property = "decline-analytics.enabled", notEquals = "false")
+public class DeclineSnapshotWriter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DeclineSnapshotWriter.class);
+
+    private final DeclineCounters counters;
+    private final DeclineSnapshotRepository repository;
+
+    public DeclineSnapshotWriter(DeclineCounters counters, DeclineSnapshotRepository repository) {
+        this.counters = counters;
+        this.repository = repository;
+    }
+
+    @Scheduled(initialDelay = "${decline-analytics.initial-delay:10s}",
+            fixedDelay = "${decline-analytics.snapshot-interval:1m}")
+    void run() {
+        try {
+            snapshot(Instant.now());
+        } catch (RuntimeException e) {
+            LOG.warn("Decline snapshot failed; counts are kept and written on the next run", e);
+        }
+    }
+
+    /**
+     * Flush the counters
+     *
+     * @return the number of snapshot rows written
+     */
+    synchronized int snapshot(Instant now) {
+        int written = counters.flush(repository::addCounts, now);
+        LOG.debug("Wrote {} decline snapshot rows", written);
+        return written;
+    }
+
+    @PreDestroy
+    void close() {
+        try {
+            snapshot(Instant.now());
+        } catch (RuntimeException e) {
+            LOG.warn("Final decline snapshot failed", e);
+        }
+    }
+}
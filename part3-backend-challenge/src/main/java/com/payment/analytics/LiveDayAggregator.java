@@ -0,0 +1,385 @@
+package com.payment.analytics;
+
+import com.payment.config.LiveMetricsProperties;
+import com.payment.dto.reports.LiveCountDTO;
+import com.payment.dto.reports.LiveMetricsEvent;
+import com.payment.entity.TransactionMaster;
+import com.payment.exception.ServiceUnavailableException;
+import com.payment.exception.TooManyRequestsException;
+import com.payment.repository.projection.StatusCardTypeTotalsProjection;
+import jakarta.inject.Singleton;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Today's transaction totals, kept in memory and streamed to any number of
+ * subscribers as they change.
+ *
+ * Each (status, card type) of the day owns a count and an amount in
+ * {@link LongAdder}s, updated by the ingestion and payment processing paths
+ * as they commit. {@link LiveMetricsPublisher} calls {@link #publish()} on a
+ * short interval: it diffs the cells against what was last published, builds
+ * one delta and hands that same delta to every subscriber, so the cost of an
+ * interval is the number of cells that changed plus one send per subscriber,
+ * however many clients are watching. New subscribers first get a snapshot of
+ * the published totals, then the deltas that follow it.
+ *
+ * A subscriber that cannot take an event when it is published (its connection
+ * has no demand) keeps it as its pending event, and later deltas are merged
+ * into that one instead of queued, so a slow client costs one event of memory
+ * and catches up with a single conflated event.
+ *
+ * {@link #resync} sets the cells to totals read from the database, which
+ * moves the day at midnight (UTC, as txn_date) and folds in transactions
+ * written by other instances; the correction is published as an ordinary
+ * delta, or as a snapshot when the day changed.
+ */
+@Singleton
+public class LiveDayAggregator {
+
+    public static final String SNAPSHOT = "snapshot";
+    public static final String DELTA = "delta";
+    static final String UNKNOWN = "unknown";
+
+    private record CellKey(String status, String cardType) {
+    }
+
+    private static final class Cell {
+
+        final LongAdder count = new LongAdder();
+        final LongAdder cents = new LongAdder();
+
+        // Guarded by the aggregator
+        long publishedCount;
+        long publishedCents;
+    }
+
+    /**
+     * The day being counted and its cells; replaced as a whole when the day changes
+     */
+    private record Day(LocalDate date, ConcurrentHashMap<CellKey, Cell> cells) {
+    }
+
+    /**
+     * Counts and cents per cell: the totals of a snapshot, the changes of a
+     * delta. The event is built once and shared by every subscriber it is
+     * sent to.
+     */
+    private static final class Update {
+
+        final boolean snapshot;
+        final LocalDate date;
+        final long sequence;
+        final int updates;
+        final Map<CellKey, long[]> cells;
+        private LiveMetricsEvent event;
+
+        Update(boolean snapshot, LocalDate date, long sequence, int updates, Map<CellKey, long[]> cells) {
+            this.snapshot = snapshot;
+            this.date = date;
+            this.sequence = sequence;
+            this.updates = updates;
+            this.cells = cells;
+        }
+
+        /**
+         * This update followed by the next one; a snapshot replaces whatever came before it
+         */
+        Update merge(Update next) {
+            if (next.snapshot) {
+                return new Update(true, next.date, next.sequence, updates + next.updates, next.cells);
+            }
+            Map<CellKey, long[]> merged = new HashMap<>(cells.size() + next.cells.size());
+            cells.forEach((key, values) -> merged.put(key, values.clone()));
+            next.cells.forEach((key, values) -> {
+                long[] into = merged.computeIfAbsent(key, k -> new long[2]);
+                into[0] += values[0];
+                into[1] += values[1];
+            });
+            return new Update(snapshot, date, next.sequence, updates + next.updates, merged);
+        }
+
+        synchronized LiveMetricsEvent event() {
+            if (event == null) {
+                long count = 0;
+                long cents = 0;
+                Map<String, long[]> byStatus = new TreeMap<>();
+                Map<String, long[]> byCardType = new TreeMap<>();
+                for (Map.Entry<CellKey, long[]> cell : cells.entrySet()) {
+                    long[] values = cell.getValue();
+                    if (!snapshot && values[0] == 0 && values[1] == 0) {
+                        continue;
+                    }
+                    count += values[0];
+                    cents += values[1];
+                    add(byStatus, cell.getKey().status(), values);
+                    add(byCardType, cell.getKey().cardType(), values);
+                }
+                event = LiveMetricsEvent.builder()
+                        .type(snapshot ? SNAPSHOT : DELTA)
+                        .date(date)
+                        .sequence(sequence)
+                        .updates(updates)
+                        .total(count(count, cents))
+                        .byStatus(toCounts(byStatus))
+                        .byCardType(toCounts(byCardType))
+                        .build();
+            }
+            return event;
+        }
+
+        private static void add(Map<String, long[]> totals, String key, long[] values) {
+            long[] into = totals.computeIfAbsent(key, k -> new long[2]);
+            into[0] += values[0];
+            into[1] += values[1];
+        }
+
+        private static Map<String, LiveCountDTO> toCounts(Map<String, long[]> totals) {
+            Map<String, LiveCountDTO> counts = new TreeMap<>();
+            totals.forEach((key, values) -> counts.put(key, count(values[0], values[1])));
+            return counts;
+        }
+
+        private static LiveCountDTO count(long count, long cents) {
+            return new LiveCountDTO(count, BigDecimal.valueOf(cents, 2));
+        }
+    }
+
+    /**
+     * One open stream and the event it has not been able to take yet
+     */
+    private final class Subscription {
+
+        final FluxSink<LiveMetricsEvent> sink;
+        private Update pending;
+
+        Subscription(FluxSink<LiveMetricsEvent> sink) {
+            this.sink = sink;
+        }
+
+        synchronized void offer(Update update) {
+            if (pending != null) {
+                pending = pending.merge(update);
+                conflated.increment();
+            } else {
+                pending = update;
+            }
+            drain();
+        }
+
+        synchronized void drain() {
+            if (pending != null && sink.requestedFromDownstream() > 0) {
+                Update update = pending;
+                pending = null;
+                sink.next(update.event());
+                delivered.increment();
+            }
+        }
+    }
+
+    private final LiveMetricsProperties properties;
+    private final Map<FluxSink<LiveMetricsEvent>, Subscription> subscriptions = new ConcurrentHashMap<>();
+    private volatile Day day = new Day(null, new ConcurrentHashMap<>());
+    private boolean snapshotDue;
+    private long sequence;
+
+    private final LongAdder recorded = new LongAdder();
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder conflated = new LongAdder();
+    private volatile long published;
+    private volatile Instant lastPublishAt;
+    private volatile Instant lastResyncAt;
+
+    public LiveDayAggregator(LiveMetricsProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Count newly written transactions of the current day
+     */
+    public void record(List<TransactionMaster> transactions) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        Day current = day;
+        for (TransactionMaster transaction : transactions) {
+            if (isOn(current, transaction)) {
+                add(current, transaction.getStatus(), transaction, 1);
+            }
+        }
+        recorded.add(transactions.size());
+    }
+
+    /**
+     * Move a transaction of the current day from one status to another
+     */
+    public void recordStatusChange(TransactionMaster transaction, String fromStatus, String toStatus) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        Day current = day;
+        if (isOn(current, transaction)) {
+            add(current, fromStatus, transaction, -1);
+            add(current, toStatus, transaction, 1);
+            recorded.increment();
+        }
+    }
+
+    private static boolean isOn(Day current, TransactionMaster transaction) {
+        return current.date() != null && transaction.getTxnDate() != null
+                && current.date().equals(transaction.getTxnDate().toLocalDate());
+    }
+
+    private static void add(Day current, String status, TransactionMaster transaction, int sign) {
+        Cell cell = current.cells().computeIfAbsent(keyOf(status, transaction.getCardType()), k -> new Cell());
+        cell.count.add(sign);
+        if (transaction.getAmount() != null) {
+            cell.cents.add(sign * cents(transaction.getAmount()));
+        }
+    }
+
+    private static CellKey keyOf(String status, String cardType) {
+        return new CellKey(status != null ? status : UNKNOWN, cardType != null ? cardType.toLowerCase() : UNKNOWN);
+    }
+
+    private static long cents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Set the totals of a day to those read from the database; a different
+     * day than the current one replaces it
+     */
+    public synchronized void resync(LocalDate date, List<StatusCardTypeTotalsProjection> totals) {
+        Day current = day;
+        if (!date.equals(current.date())) {
+            current = new Day(date, new ConcurrentHashMap<>());
+            day = current;
+            snapshotDue = true;
+        }
+        Map<CellKey, StatusCardTypeTotalsProjection> byKey = new HashMap<>();
+        for (StatusCardTypeTotalsProjection row : totals) {
+            byKey.put(keyOf(row.getStatus(), row.getCardType()), row);
+            current.cells().computeIfAbsent(keyOf(row.getStatus(), row.getCardType()), k -> new Cell());
+        }
+        for (Map.Entry<CellKey, Cell> entry : current.cells().entrySet()) {
+            StatusCardTypeTotalsProjection row = byKey.get(entry.getKey());
+            Cell cell = entry.getValue();
+            cell.count.add((row != null && row.getCount() != null ? row.getCount() : 0) - cell.count.sum());
+            cell.cents.add((row != null && row.getTotal() != null ? cents(row.getTotal()) : 0) - cell.cents.sum());
+        }
+        lastResyncAt = Instant.now();
+    }
+
+    /**
+     * Publish what changed since the previous call to every subscriber
+     *
+     * @return the number of subscribers the update was offered to, or -1 when
+     *         nothing changed
+     */
+    public synchronized int publish() {
+        Day current = day;
+        Map<CellKey, long[]> changes = new HashMap<>();
+        for (Map.Entry<CellKey, Cell> entry : current.cells().entrySet()) {
+            Cell cell = entry.getValue();
+            long count = cell.count.sum();
+            long cents = cell.cents.sum();
+            if (count != cell.publishedCount || cents != cell.publishedCents) {
+                changes.put(entry.getKey(), new long[] { count - cell.publishedCount, cents - cell.publishedCents });
+                cell.publishedCount = count;
+                cell.publishedCents = cents;
+            }
+        }
+        if (changes.isEmpty() && !snapshotDue) {
+            return -1;
+        }
+        sequence++;
+        Update update = snapshotDue ? snapshot(current) : new Update(false, current.date(), sequence, 1, changes);
+        snapshotDue = false;
+        for (Subscription subscription : subscriptions.values()) {
+            subscription.offer(update);
+        }
+        published++;
+        lastPublishAt = Instant.now();
+        return subscriptions.size();
+    }
+
+    /**
+     * The published totals; what the deltas that follow apply to
+     */
+    private Update snapshot(Day current) {
+        Map<CellKey, long[]> totals = new HashMap<>();
+        for (Map.Entry<CellKey, Cell> entry : current.cells().entrySet()) {
+            totals.put(entry.getKey(), new long[] { entry.getValue().publishedCount, entry.getValue().publishedCents });
+        }
+        return new Update(true, current.date(), sequence, 1, totals);
+    }
+
+    /**
+     * A stream of today's totals: a snapshot, then a delta each time they change
+     *
+     * @throws ServiceUnavailableException when live metrics are disabled
+     * @throws TooManyRequestsException    when the subscriber limit is reached
+     */
+    public Flux<LiveMetricsEvent> subscribe() {
+        if (!properties.isEnabled()) {
+            throw new ServiceUnavailableException("Live metrics are disabled");
+        }
+        if (subscriptions.size() >= properties.getMaxSubscribers()) {
+            throw new TooManyRequestsException("Live metrics subscriber limit of " + properties.getMaxSubscribers()
+                    + " reached");
+        }
+        return Flux.create(sink -> {
+            Subscription subscription = new Subscription(sink);
+            sink.onRequest(n -> subscription.drain());
+            sink.onDispose(() -> subscriptions.remove(sink));
+            synchronized (this) {
+                subscriptions.put(sink, subscription);
+                subscription.offer(snapshot(day));
+            }
+        });
+    }
+
+    public LocalDate getDay() {
+        return day.date();
+    }
+
+    public int getSubscriberCount() {
+        return subscriptions.size();
+    }
+
+    public long getRecorded() {
+        return recorded.sum();
+    }
+
+    public long getPublished() {
+        return published;
+    }
+
+    public long getDelivered() {
+        return delivered.sum();
+    }
+
+    public long getConflated() {
+        return conflated.sum();
+    }
+
+    public Instant getLastPublishAt() {
+        return lastPublishAt;
+    }
+
+    public Instant getLastResyncAt() {
+        return lastResyncAt;
+    }
+}
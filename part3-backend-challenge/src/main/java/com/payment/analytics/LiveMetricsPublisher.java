@@ -0,0 +1,96 @@
+package com.payment.analytics;
+
+import com.payment.cache.CacheInvalidation;
+import com.payment.cache.CacheInvalidationHandler;
+import com.payment.config.LiveMetricsProperties;
+import com.payment.repository.TransactionReportRepository;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.scheduling.annotation.Scheduled;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Date;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+/**
+ * Drives the {@link LiveDayAggregator}: publishes its changes every
+ * live-metrics.publish-interval, and resyncs it with the database when the
+ * day changes and every live-metrics.resync-interval. Changes to today's
+ * transactions notified on the invalidation channel, which include those made
+ * by other nodes, bring the resync forward, at most once every
+ * live-metrics.invalidation-resync-seconds.
+ */
+@Singleton
+@Requires(property = "live-metrics.enabled", notEquals = "false")
+public class LiveMetricsPublisher implements CacheInvalidationHandler {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LiveMetricsPublisher.class);
+
+    private final LiveDayAggregator aggregator;
+    private final TransactionReportRepository reportRepository;
+    private final Duration invalidationResyncInterval;
+    private boolean resyncFailing;
+    private volatile boolean todayChanged;
+    private volatile Instant lastResync = Instant.EPOCH;
+
+    public LiveMetricsPublisher(LiveDayAggregator aggregator, TransactionReportRepository reportRepository,
+            LiveMetricsProperties properties) {
+        this.aggregator = aggregator;
+        this.reportRepository = reportRepository;
+        this.invalidationResyncInterval = Duration.ofSeconds(properties.getInvalidationResyncSeconds());
+    }
+
+    @Scheduled(initialDelay = "${live-metrics.initial-delay:5s}", fixedDelay = "${live-metrics.publish-interval:1s}")
+    void publish() {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        if (!today.equals(aggregator.getDay())) {
+            resync(today);
+        } else if (todayChanged && !lastResync.plus(invalidationResyncInterval).isAfter(Instant.now())) {
+            resync(today);
+        }
+        try {
+            aggregator.publish();
+        } catch (RuntimeException e) {
+            LOG.warn("Live metrics publish failed", e);
+        }
+    }
+
+    @Scheduled(initialDelay = "${live-metrics.resync-interval:5m}", fixedDelay = "${live-metrics.resync-interval:5m}")
+    void scheduledResync() {
+        resync(LocalDate.now(ZoneOffset.UTC));
+    }
+
+    /**
+     * Read the day's totals and hand them to the aggregator; a failure is
+     * logged once until a resync succeeds again
+     */
+    synchronized void resync(LocalDate day) {
+        todayChanged = false;
+        lastResync = Instant.now();
+        try {
+            aggregator.resync(day, reportRepository.getStatusCardTypeTotals(Date.valueOf(day)));
+            if (resyncFailing) {
+                LOG.info("Live metrics resynced for {}", day);
+            }
+            resyncFailing = false;
+        } catch (RuntimeException e) {
+            if (!resyncFailing) {
+                LOG.warn("Live metrics resync for {} failed; retrying", day, e);
+            }
+            resyncFailing = true;
+        }
+    }
+
+    @Override
+    public void invalidate(CacheInvalidation invalidation) {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        if (invalidation.everything()
+                || invalidation.transactions().stream().anyMatch(key -> key.day().equals(today))) {
+            todayChanged = true;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.payment.analytics;
+
+/**
+ * Raw totals for one report range, produced by {@link ColumnarReportEngine}.
+ * Index 0 of the per-day arrays is {@code startDay}.
+ */
+public final class ReportAggregates {
+
+    final int startDay;
+    final long[] dailyCount;
+    final long[] dailyCents;
+    final long[] statusCount = new long[ColumnCodes.STATUS_COUNT];
+    final long[] cardTypeCount = new long[CardTypeDictionary.MAX_CODES];
+    final long[] hourCount = new long[24];
+    final long[] dayOfWeekCount = new long[7];
+    long minCents = Long.MAX_VALUE;
+    long maxCents = Long.MIN_VALUE;
+    long totalCount;
+    long totalCents;
+    double medianCents;
+
+    ReportAggregates(int startDay, int days) {
+        this.startDay = startDay;
+        this.dailyCount = new long[days];
+        this.dailyCents = new long[days];
+    }
+
+    /**
+     * Adds a partial result for the same range (other rows) into this one.
+     * Associative and commutative; the median is computed after merging.
+     */
+    ReportAggregates merge(ReportAggregates other) {
+        add(dailyCount, other.dailyCount);
+        add(dailyCents, other.dailyCents);
+        add(statusCount, other.statusCount);
+        add(cardTypeCount, other.cardTypeCount);
+        add(hourCount, other.hourCount);
+        add(dayOfWeekCount, other.dayOfWeekCount);
+        minCents = Math.min(minCents, other.minCents);
+        maxCents = Math.max(maxCents, other.maxCents);
+        totalCount += other.totalCount;
+        totalCents += other.totalCents;
+        return this;
+    }
+
+    private static void add(long[] target, long[] source) {
+        for (int i = 0; i < target.length; i++) {
+            target[i] += source[i];
+        }
+    }
+
+    public int getStartDay() {
+        return startDay;
+    }
+
+    public int getDays() {
+        return dailyCount.length;
+    }
+
+    public long getDailyCount(int dayIndex) {
+        return dailyCount[dayIndex];
+    }
+
+    public long getDailyCents(int dayIndex) {
+        return dailyCents[dayIndex];
+    }
+
+    public long getStatusCount(int statusCode) {
+        return statusCount[statusCode];
+    }
+
+    public long getCardTypeCount(int cardTypeCode) {
+        return cardTypeCount[cardTypeCode];
+    }
+
+    public long getHourCount(int hour) {
+        return hourCount[hour];
+    }
+
+    public long getDayOfWeekCount(int dayOfWeek) {
+        return dayOfWeekCount[dayOfWeek];
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    public long getTotalCents() {
+        return totalCents;
+    }
+
+    /**
+     * Only meaningful when getTotalCount() > 0
+     */
+    public long getMinCents() {
+        return minCents;
+    }
+
+    public long getMaxCents() {
+        return maxCents;
+    }
+
+    /**
+     * Continuous median (PERCENTILE_CONT(0.5)); only meaningful when getTotalCount() > 0
+     */
+    public double getMedianCents() {
+        return medianCents;
+    }
+}
@@ -0,0 +1,51 @@
+package com.payment.analytics;
+
+/**
+ * Plain-loop {@link AggregationKernels}; the reference for {@link VectorKernels}
+ */
+public final class ScalarKernels implements AggregationKernels {
+
+    @Override
+    public String name() {
+        return "scalar";
+    }
+
+    @Override
+    public void summarize(long[] values, int size, long[] out) {
+        long sum = 0;
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (int i = 0; i < size; i++) {
+            long value = values[i];
+            sum += value;
+            if (value < min) {
+                min = value;
+            }
+            if (value > max) {
+                max = value;
+            }
+        }
+        out[SUM] = sum;
+        out[MIN] = min;
+        out[MAX] = max;
+    }
+
+    @Override
+    public void sumByDay(int[] days, long[] cents, int size, int fromDay, int toDay, int baseDay, long[] dailyCount,
+            long[] dailyCents) {
+        for (int i = 0; i < size; i++) {
+            int day = days[i];
+            if (day >= fromDay && day <= toDay) {
+                dailyCount[day - baseDay]++;
+                dailyCents[day - baseDay] += cents[i];
+            }
+        }
+    }
+
+    @Override
+    public void countValues(byte[] values, int size, long[] counts) {
+        for (int i = 0; i < size; i++) {
+            counts[values[i] & 0xFF]++;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.payment.analytics;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link AggregationKernels} on jdk.incubator.vector, using the platform's
+ * preferred vector width.
+ *
+ * Amount columns are reduced lane-wise and folded once per segment. Day
+ * filters compare an int vector holding as many lanes as the long vector, so
+ * the resulting mask applies directly to the amounts. Low-cardinality byte
+ * columns are counted one value at a time with compare + mask popcount,
+ * stopping as soon as every row is accounted for; the frequent values come
+ * first in practice (status codes, card types in order of first appearance).
+ *
+ * Only instantiated through {@link AggregationKernels#select(boolean)}.
+ */
+final class VectorKernels implements AggregationKernels {
+
+    private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED
+            .withShape(VectorShape.forBitSize(LONGS.vectorBitSize() / 2));
+    private static final VectorSpecies<Byte> BYTES = ByteVector.SPECIES_PREFERRED;
+
+    VectorKernels() {
+        if (LONGS.length() < 2) {
+            throw new IllegalStateException("no SIMD support for long lanes");
+        }
+    }
+
+    @Override
+    public String name() {
+        return "vector-" + LONGS.vectorBitSize();
+    }
+
+    @Override
+    public void summarize(long[] values, int size, long[] out) {
+        LongVector sums = LongVector.zero(LONGS);
+        LongVector mins = LongVector.broadcast(LONGS, Long.MAX_VALUE);
+        LongVector maxs = LongVector.broadcast(LONGS, Long.MIN_VALUE);
+        int bound = LONGS.loopBound(size);
+        int i = 0;
+        for (; i < bound; i += LONGS.length()) {
+            LongVector v = LongVector.fromArray(LONGS, values, i);
+            sums = sums.add(v);
+            mins = mins.min(v);
+            maxs = maxs.max(v);
+        }
+
+        long sum = sums.reduceLanes(VectorOperators.ADD);
+        long min = mins.reduceLanes(VectorOperators.MIN);
+        long max = maxs.reduceLanes(VectorOperators.MAX);
+        for (; i < size; i++) {
+            long value = values[i];
+            sum += value;
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        out[SUM] = sum;
+        out[MIN] = min;
+        out[MAX] = max;
+    }
+
+    @Override
+    public void sumByDay(int[] days, long[] cents, int size, int fromDay, int toDay, int baseDay, long[] dailyCount,
+            long[] dailyCents) {
+        int bound = LONGS.loopBound(size);
+        // Segments span one or two days in practice, so a pass per day stays cheap
+        for (int day = fromDay; day <= toDay; day++) {
+            LongVector sums = LongVector.zero(LONGS);
+            long count = 0;
+            int i = 0;
+            for (; i < bound; i += LONGS.length()) {
+                VectorMask<Long> match = IntVector.fromArray(INTS, days, i).eq(day).cast(LONGS);
+                sums = sums.add(LongVector.fromArray(LONGS, cents, i), match);
+                count += match.trueCount();
+            }
+
+            long sum = sums.reduceLanes(VectorOperators.ADD);
+            for (; i < size; i++) {
+                if (days[i] == day) {
+                    count++;
+                    sum += cents[i];
+                }
+            }
+            dailyCount[day - baseDay] += count;
+            dailyCents[day - baseDay] += sum;
+        }
+    }
+
+    @Override
+    public void countValues(byte[] values, int size, long[] counts) {
+        int bound = BYTES.loopBound(size);
+        long remaining = size;
+        for (int value = 0; value < counts.length && remaining > 0; value++) {
+            byte code = (byte) value;
+            long count = 0;
+            int i = 0;
+            for (; i < bound; i += BYTES.length()) {
+                count += ByteVector.fromArray(BYTES, values, i).eq(code).trueCount();
+            }
+            for (; i < size; i++) {
+                if (values[i] == code) {
+                    count++;
+                }
+            }
+            counts[value] += count;
+            remaining -= count;
+        }
+    }
+}
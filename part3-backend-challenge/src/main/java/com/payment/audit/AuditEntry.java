@@ -0,0 +1,12 @@
+package com.payment.audit;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.Instant;
+
+/**
+ * One status change of a transaction, as written to operators.payment_audit_log
+ */
+public record AuditEntry(long txnId, Date txnDate, String merchantId, String fromStatus, String toStatus,
+        BigDecimal amount, String detail, Instant occurredAt) {
+}
@@ -0,0 +1,215 @@
+package com.payment.audit;
+
+import com.payment.config.AuditProperties;
+import com.payment.config.AuditProperties.Durability;
+import com.payment.exception.ServiceUnavailableException;
+import com.payment.ingest.LatencyHistogram;
+import com.payment.repository.AuditLogRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes audit entries off the caller's thread, in batches.
+ *
+ * Callers put entries on a bounded queue and return; a single writer thread
+ * takes the oldest entry, drains whatever else is waiting (up to
+ * audit.max-batch-size) and writes the lot with one INSERT, so a burst of
+ * settlements costs a few statements instead of one per payment. What the
+ * caller's future means depends on audit.durability: under FIRE_AND_FORGET it
+ * is complete as soon as the entries are queued, and entries that do not fit
+ * are dropped and counted; under FLUSH_BEFORE_ACK it completes once the last
+ * of the caller's entries is written, and fails if any of them could not be
+ * queued or written.
+ */
+@Singleton
+public class AuditSink {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AuditSink.class);
+
+    private final AuditLogRepository repository;
+    private final AuditProperties properties;
+    private final ArrayBlockingQueue<Queued> queue;
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private volatile int largestBatch;
+    private final LatencyHistogram writeLatency = new LatencyHistogram();
+
+    /**
+     * An entry waiting for the writer; every entry of one call shares its ack,
+     * which completes with the call's last entry
+     */
+    private record Queued(AuditEntry entry, CompletableFuture<Void> ack, boolean last) {
+    }
+
+    public AuditSink(AuditLogRepository repository, AuditProperties properties) {
+        this.repository = repository;
+        this.properties = properties;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, properties.getQueueCapacity()));
+        if (properties.isEnabled()) {
+            this.writer = new Thread(this::run, "audit-writer");
+            this.writer.setDaemon(true);
+            this.writer.start();
+        } else {
+            this.writer = null;
+        }
+    }
+
+    /**
+     * Queue entries for writing
+     *
+     * @return completes as described for the configured durability
+     */
+    public CompletableFuture<Void> record(List<AuditEntry> entries) {
+        if (!properties.isEnabled() || entries.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        if (properties.getDurability() == Durability.FIRE_AND_FORGET) {
+            for (AuditEntry entry : entries) {
+                if (!running || !queue.offer(new Queued(entry, null, false))) {
+                    dropped.incrementAndGet();
+                } else {
+                    enqueued.incrementAndGet();
+                }
+            }
+            return CompletableFuture.completedFuture(null);
+        }
+
+        CompletableFuture<Void> ack = new CompletableFuture<>();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(properties.getOfferTimeoutMillis());
+        for (int i = 0; i < entries.size(); i++) {
+            boolean queued = false;
+            try {
+                queued = running && queue.offer(new Queued(entries.get(i), ack, i == entries.size() - 1),
+                        deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (!queued) {
+                dropped.addAndGet(entries.size() - i);
+                ack.completeExceptionally(new ServiceUnavailableException("Audit log queue is full"));
+                return ack;
+            }
+            enqueued.incrementAndGet();
+        }
+        return ack;
+    }
+
+    private void run() {
+        int maxBatch = Math.max(1, properties.getMaxBatchSize());
+        List<Queued> batch = new ArrayList<>(maxBatch);
+        while (running || !queue.isEmpty()) {
+            Queued first;
+            try {
+                first = queue.poll(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                break;
+            }
+            if (first == null) {
+                continue;
+            }
+            batch.add(first);
+            queue.drainTo(batch, maxBatch - 1);
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    private void write(List<Queued> batch) {
+        List<AuditEntry> entries = new ArrayList<>(batch.size());
+        for (Queued queued : batch) {
+            entries.add(queued.entry());
+        }
+        long began = System.nanoTime();
+        try {
+            repository.insertBatch(entries);
+        } catch (RuntimeException e) {
+            failed.addAndGet(batch.size());
+            LOG.error("Failed to write {} audit entries", batch.size(), e);
+            for (Queued queued : batch) {
+                if (queued.ack() != null) {
+                    queued.ack().completeExceptionally(e);
+                }
+            }
+            return;
+        }
+        writeLatency.record(System.nanoTime() - began);
+        written.addAndGet(batch.size());
+        batches.incrementAndGet();
+        largestBatch = Math.max(largestBatch, batch.size());
+        for (Queued queued : batch) {
+            if (queued.last()) {
+                queued.ack().complete(null);
+            }
+        }
+    }
+
+    /**
+     * Stop accepting entries and write what is queued
+     */
+    @PreDestroy
+    void close() throws InterruptedException {
+        running = false;
+        if (writer != null) {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public Durability getDurability() {
+        return properties.getDurability();
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public int getQueueCapacity() {
+        return queue.size() + queue.remainingCapacity();
+    }
+
+    public long getEnqueued() {
+        return enqueued.get();
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    public long getWritten() {
+        return written.get();
+    }
+
+    public long getFailed() {
+        return failed.get();
+    }
+
+    public long getBatches() {
+        return batches.get();
+    }
+
+    public int getLargestBatch() {
+        return largestBatch;
+    }
+
+    public LatencyHistogram getWriteLatency() {
+        return writeLatency;
+    }
+}
@@ -0,0 +1,61 @@
+package com.payment.cache;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * What changed in the database, as received on the invalidation channel:
+ * transactions of a merchant on a day, merchants, or everything when
+ * notifications may have been missed.
+ *
+ * Keys are "t:&lt;merchantId&gt;:&lt;yyyy-MM-dd&gt;" and "m:&lt;merchantId&gt;",
+ * comma separated within a payload.
+ */
+public record CacheInvalidation(Set<MerchantDay> transactions, Set<String> merchants, boolean everything) {
+
+    public record MerchantDay(String merchantId, LocalDate day) {
+    }
+
+    /**
+     * Treat every cached entry as stale
+     */
+    public static CacheInvalidation all() {
+        return new CacheInvalidation(Set.of(), Set.of(), true);
+    }
+
+    /**
+     * Collect the keys of several payloads; keys that cannot be read are skipped
+     */
+    public static CacheInvalidation parse(Collection<String> payloads) {
+        Set<MerchantDay> transactions = new HashSet<>();
+        Set<String> merchants = new HashSet<>();
+        for (String payload : payloads) {
+            if (payload == null || payload.isEmpty()) {
+                continue;
+            }
+            for (String key : payload.split(",")) {
+                if (key.startsWith("t:")) {
+                    int separator = key.lastIndexOf(':');
+                    if (separator > 2) {
+                        try {
+                            transactions.add(new MerchantDay(key.substring(2, separator),
+                                    LocalDate.parse(key.substring(separator + 1))));
+                        } catch (DateTimeParseException e) {
+                            // Not a key this version understands
+                        }
+                    }
+                } else if (key.startsWith("m:") && key.length() > 2) {
+                    merchants.add(key.substring(2));
+                }
+            }
+        }
+        return new CacheInvalidation(transactions, merchants, false);
+    }
+
+    public boolean isEmpty() {
+        return !everything && transactions.isEmpty() && merchants.isEmpty();
+    }
+}
@@ -0,0 +1,11 @@
+package com.payment.cache;
+
+/**
+ * An in-process cache that drops or refreshes entries when another node (or
+ * this one) changes the rows behind them. Called on the listener thread, so
+ * implementations should only record what is stale and refresh it elsewhere.
+ */
+public interface CacheInvalidationHandler {
+
+    void invalidate(CacheInvalidation invalidation);
+}
@@ -0,0 +1,201 @@
+package com.payment.cache;
+
+import com.payment.config.CacheInvalidationProperties;
+import io.micronaut.context.annotation.Property;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.scheduling.annotation.Scheduled;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Singleton;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Receives the cache invalidation keys the database triggers (V12) send with
+ * NOTIFY and hands them to every {@link CacheInvalidationHandler}.
+ *
+ * The listener owns one connection of its own, outside the pool, opened with
+ * the default datasource's settings, and a thread that waits on it for
+ * notifications. Notifications that arrive together are merged into one
+ * {@link CacheInvalidation}. When the connection fails the thread ends, and
+ * the scheduled check opens a new one every cache-invalidation.reconnect-delay.
+ * Notifications sent while no connection was listening are lost, so every
+ * successful LISTEN, including the first, invalidates everything once.
+ */
+@Singleton
+@Requires(property = "cache-invalidation.enabled", notEquals = "false")
+public class CacheInvalidationListener {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CacheInvalidationListener.class);
+
+    /**
+     * The channel the V12 triggers notify
+     */
+    public static final String CHANNEL = "payment_cache_invalidation";
+
+    private final List<CacheInvalidationHandler> handlers;
+    private final CacheInvalidationProperties properties;
+    private final String url;
+    private final String username;
+    private final String password;
+
+    private volatile boolean running = true;
+    private volatile Thread listener;
+    private volatile Connection connection;
+    private volatile boolean connected;
+    private volatile Instant lastNotificationAt;
+    private boolean failing;
+
+    private final AtomicLong connects = new AtomicLong();
+    private final AtomicLong notifications = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public CacheInvalidationListener(List<CacheInvalidationHandler> handlers, CacheInvalidationProperties properties,
+            @Property(name = "datasources.default.url") String url,
+            @Property(name = "datasources.default.username") String username,
+            @Property(name = "datasources.default.password") String password) {
+        this.handlers = handlers;
+        this.properties = properties;
+        this.url = url;
+        this.username = username;
+        this.password = password;
+    }
+
+    /**
+     * Start a listener thread unless one is running
+     */
+    @Scheduled(initialDelay = "${cache-invalidation.initial-delay:1s}",
+            fixedDelay = "${cache-invalidation.reconnect-delay:5s}")
+    synchronized void ensureListening() {
+        if (!running || (listener != null && listener.isAlive())) {
+            return;
+        }
+        try {
+            connection = DriverManager.getConnection(url, username, password);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("LISTEN " + CHANNEL);
+            }
+        } catch (SQLException e) {
+            closeConnection();
+            if (!failing) {
+                LOG.warn("Cannot listen for cache invalidations; retrying every reconnect delay", e);
+            }
+            failing = true;
+            return;
+        }
+        failing = false;
+        connected = true;
+        LOG.info("Listening for cache invalidations on {} (connection {})", CHANNEL,
+                connects.incrementAndGet());
+        dispatch(CacheInvalidation.all());
+
+        Connection listening = connection;
+        listener = new Thread(() -> listen(listening), "cache-invalidation-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    private void listen(Connection listening) {
+        try {
+            PGConnection pg = listening.unwrap(PGConnection.class);
+            long validateAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(properties.getValidationIntervalMillis());
+            while (running) {
+                PGNotification[] received = pg.getNotifications(properties.getPollTimeoutMillis());
+                if (received != null && received.length > 0) {
+                    List<String> payloads = new ArrayList<>(received.length);
+                    for (PGNotification notification : received) {
+                        payloads.add(notification.getParameter());
+                    }
+                    notifications.addAndGet(received.length);
+                    lastNotificationAt = Instant.now();
+                    dispatch(CacheInvalidation.parse(payloads));
+                    validateAt = System.nanoTime()
+                            + TimeUnit.MILLISECONDS.toNanos(properties.getValidationIntervalMillis());
+                } else if (System.nanoTime() - validateAt > 0) {
+                    if (!listening.isValid(5)) {
+                        throw new SQLException("Listener connection is no longer valid");
+                    }
+                    validateAt = System.nanoTime()
+                            + TimeUnit.MILLISECONDS.toNanos(properties.getValidationIntervalMillis());
+                }
+            }
+        } catch (SQLException e) {
+            if (running) {
+                LOG.warn("Cache invalidation listener lost its connection; reconnecting", e);
+            }
+        } finally {
+            connected = false;
+            closeConnection();
+        }
+    }
+
+    void dispatch(CacheInvalidation invalidation) {
+        if (invalidation.isEmpty()) {
+            return;
+        }
+        invalidations.incrementAndGet();
+        for (CacheInvalidationHandler handler : handlers) {
+            try {
+                handler.invalidate(invalidation);
+            } catch (RuntimeException e) {
+                LOG.error("Cache invalidation handler {} failed", handler.getClass().getSimpleName(), e);
+            }
+        }
+    }
+
+    private void closeConnection() {
+        Connection current = connection;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (SQLException e) {
+                LOG.debug("Closing the cache invalidation connection failed", e);
+            }
+        }
+    }
+
+    @PreDestroy
+    synchronized void close() throws InterruptedException {
+        running = false;
+        Thread current = listener;
+        if (current != null) {
+            current.join(properties.getPollTimeoutMillis() * 2L + 1000);
+        }
+        closeConnection();
+    }
+
+    public boolean isConnected() {
+        return connected;
+    }
+
+    public long getConnects() {
+        return connects.get();
+    }
+
+    public long getNotifications() {
+        return notifications.get();
+    }
+
+    public long getInvalidations() {
+        return invalidations.get();
+    }
+
+    public Instant getLastNotificationAt() {
+        return lastNotificationAt;
+    }
+
+    public int getHandlerCount() {
+        return handlers.size();
+    }
+}
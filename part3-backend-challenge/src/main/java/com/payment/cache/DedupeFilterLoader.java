@@ -0,0 +1,71 @@
+package com.payment.cache;
+
+import com.payment.config.IngestionProperties;
+import com.payment.repository.TransactionScanRepository;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.scheduling.annotation.Scheduled;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+/**
+ * Builds the {@link TransactionDedupeFilter} from the database at startup and
+ * rebuilds it periodically. A Bloom filter cannot forget keys, so the rebuild is
+ * what drops days that left the window and keeps the filter near its sized
+ * capacity. Keys written while a rebuild scans go into both filters.
+ */
+@Singleton
+@Requires(property = "ingestion.dedupe-enabled", notEquals = "false")
+public class DedupeFilterLoader {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DedupeFilterLoader.class);
+
+    private final TransactionScanRepository scanRepository;
+    private final TransactionDedupeFilter dedupeFilter;
+    private final IngestionProperties properties;
+
+    public DedupeFilterLoader(TransactionScanRepository scanRepository, TransactionDedupeFilter dedupeFilter,
+            IngestionProperties properties) {
+        this.scanRepository = scanRepository;
+        this.dedupeFilter = dedupeFilter;
+        this.properties = properties;
+    }
+
+    @Scheduled(initialDelay = "${ingestion.dedupe-initial-delay:5s}",
+            fixedDelay = "${ingestion.dedupe-rebuild-interval:24h}")
+    void rebuild() {
+        try {
+            load(LocalDate.now(ZoneOffset.UTC));
+        } catch (RuntimeException e) {
+            dedupeFilter.abortRebuild();
+            LOG.warn("Dedupe filter rebuild failed; keeping the previous filter", e);
+        }
+    }
+
+    /**
+     * Fill a new filter with the keys of the window ending today and swap it in
+     */
+    synchronized void load(LocalDate today) {
+        LocalDate from = today.minusDays(properties.getDedupeDays() - 1L);
+        BloomFilter filter = new BloomFilter(properties.getDedupeExpectedKeys(),
+                properties.getDedupeFalsePositiveRate());
+        Instant startedAt = Instant.now();
+        dedupeFilter.beginRebuild(filter);
+        long keys = scanRepository.scanKeysFrom(from, (merchantId, authCode, epochMicros, amountCents) ->
+                filter.put(TransactionDedupeFilter.keyHash(merchantId, authCode, epochMicros, amountCents)));
+        dedupeFilter.finishRebuild(startedAt);
+
+        LOG.info("Dedupe filter loaded from {}: {} keys in {} ms, {} bytes, {} hashes, expected false-positive rate {}",
+                from, keys, Duration.between(startedAt, Instant.now()).toMillis(), filter.sizeInBytes(),
+                filter.hashCount(), String.format("%.4f", filter.expectedFalsePositiveRate()));
+        if (keys > properties.getDedupeExpectedKeys()) {
+            LOG.warn("Dedupe filter holds {} keys, more than the {} it is sized for; raise ingestion.dedupe-expected-keys",
+                    keys, properties.getDedupeExpectedKeys());
+        }
+    }
+}
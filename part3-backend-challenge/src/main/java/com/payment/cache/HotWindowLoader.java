@@ -0,0 +1,222 @@
+package com.payment.cache;
+
+import com.payment.cache.CacheInvalidation.MerchantDay;
+import com.payment.config.HotWindowProperties;
+import com.payment.entity.TransactionMaster;
+import com.payment.repository.TransactionSearchRepository;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.scheduling.annotation.Scheduled;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tails transaction_master into the {@link HotWindowStore} and the
+ * {@link TransactionBitmapIndex}.
+ *
+ * The first sync loads the whole window; later polls read only ids above the
+ * highest one seen, plus the ids skipped so far that may still commit (see
+ * {@link TxnIdGaps}), so a batch that commits behind newer ones is applied
+ * when it lands rather than lost. Both use the (txn_id, txn_date) primary key
+ * and prune to the window's partitions.
+ *
+ * Tailing does not see rows changed in place, such as status changes. Those
+ * arrive as {@link CacheInvalidation}s from any node: the merchant days named
+ * are queued and re-read on the next poll, replacing the cached rows (and
+ * dropping deleted ones), and an invalidation of everything re-reads the
+ * whole window.
+ */
+@Singleton
+@Requires(property = "hot-window.enabled", notEquals = "false")
+public class HotWindowLoader implements CacheInvalidationHandler {
+
+    private static final Logger LOG = LoggerFactory.getLogger(HotWindowLoader.class);
+
+    private static final int REFRESH_CHUNK = 1000;
+
+    private final TransactionSearchRepository transactionSearchRepository;
+    private final HotWindowStore store;
+    private final TransactionBitmapIndex bitmapIndex;
+    private final HotWindowProperties properties;
+
+    private final TxnIdGaps gaps;
+    private final Set<MerchantDay> stale = ConcurrentHashMap.newKeySet();
+    private volatile boolean reloadAll;
+    private final AtomicLong refreshedDays = new AtomicLong();
+
+    public HotWindowLoader(TransactionSearchRepository transactionSearchRepository, HotWindowStore store,
+            TransactionBitmapIndex bitmapIndex, HotWindowProperties properties) {
+        this.transactionSearchRepository = transactionSearchRepository;
+        this.store = store;
+        this.bitmapIndex = bitmapIndex;
+        this.properties = properties;
+        this.gaps = new TxnIdGaps(Duration.ofSeconds(properties.getCommitLagSeconds()), properties.getMaxIdGaps());
+    }
+
+    @Scheduled(initialDelay = "${hot-window.initial-delay:5s}", fixedDelay = "${hot-window.poll-interval:1s}")
+    void poll() {
+        try {
+            sync(LocalDate.now(ZoneOffset.UTC));
+        } catch (RuntimeException e) {
+            LOG.warn("Hot window sync failed; serving from database until the next successful poll", e);
+        }
+    }
+
+    @Override
+    public void invalidate(CacheInvalidation invalidation) {
+        if (invalidation.everything()) {
+            reloadAll = true;
+        } else {
+            stale.addAll(invalidation.transactions());
+        }
+    }
+
+    /**
+     * Evict days that left the window, apply every row added since the last
+     * sync or committed into an id gap, then re-read what was invalidated
+     */
+    synchronized void sync(LocalDate today) {
+        Instant startedAt = Instant.now();
+        LocalDate windowStart = today.minusDays(properties.getDays() - 1L);
+        if (!windowStart.equals(store.getWindowStart())) {
+            store.advanceWindow(windowStart);
+        }
+        if (!windowStart.equals(bitmapIndex.getWindowStart())) {
+            bitmapIndex.advanceWindow(windowStart);
+        }
+
+        boolean initial = !store.isReady();
+        boolean reload = reloadAll;
+        if (reload) {
+            reloadAll = false;
+            stale.clear();
+        }
+        if (initial || reload) {
+            gaps.reset();
+        }
+        long after = gaps.getHighestSeen();
+        int applied = 0;
+        List<TransactionMaster> batch;
+        try {
+            do {
+                batch = transactionSearchRepository.findSince(after, windowStart, properties.getBatchSize());
+                store.apply(batch);
+                bitmapIndex.apply(batch);
+                applied += batch.size();
+                for (TransactionMaster row : batch) {
+                    gaps.seen(row.getTxnId(), startedAt);
+                }
+                after = gaps.getHighestSeen();
+            } while (batch.size() == properties.getBatchSize());
+        } catch (RuntimeException e) {
+            if (reload) {
+                reloadAll = true;
+            }
+            throw e;
+        }
+        applied += readGaps(windowStart, startedAt);
+        refreshStale(windowStart);
+
+        long highestSeen = gaps.getHighestSeen();
+        store.markSynced(highestSeen, startedAt);
+        bitmapIndex.markSynced(highestSeen, startedAt);
+        if (reload && !initial) {
+            LOG.info("Hot window reloaded from {} after an invalidation of everything: {} rows", windowStart,
+                    applied);
+        } else if (initial) {
+            LOG.info("Hot window loaded from {}: {} transactions, watermark txnId {}, {} bytes of bitmap indexes",
+                    windowStart, store.size(), highestSeen, bitmapIndex.bitmapBytes());
+        } else {
+            LOG.debug("Hot window applied {} rows, watermark txnId {}", applied, highestSeen);
+        }
+    }
+
+    /**
+     * Apply the rows that have committed into id gaps since the last poll
+     */
+    private int readGaps(LocalDate windowStart, Instant now) {
+        List<TxnIdGaps.Gap> open = gaps.open(now);
+        if (open.isEmpty()) {
+            return 0;
+        }
+        List<TransactionMaster> rows = transactionSearchRepository.findInIdRanges(TxnIdGaps.froms(open),
+                TxnIdGaps.tos(open), windowStart);
+        store.apply(rows);
+        bitmapIndex.apply(rows);
+        for (TransactionMaster row : rows) {
+            gaps.fill(row.getTxnId());
+        }
+        if (!rows.isEmpty()) {
+            LOG.debug("Hot window applied {} rows that committed behind the watermark", rows.size());
+        }
+        return rows.size();
+    }
+
+    /**
+     * Re-read the invalidated merchant days still in the window; keys whose
+     * read fails stay queued for the next poll
+     */
+    private void refreshStale(LocalDate windowStart) {
+        if (stale.isEmpty()) {
+            return;
+        }
+        List<MerchantDay> keys = new ArrayList<>(stale);
+        stale.removeAll(keys);
+        keys.removeIf(key -> key.day().isBefore(windowStart));
+        for (int from = 0; from < keys.size(); from += REFRESH_CHUNK) {
+            List<MerchantDay> chunk = keys.subList(from, Math.min(keys.size(), from + REFRESH_CHUNK));
+            List<TransactionMaster> rows;
+            try {
+                rows = transactionSearchRepository.findByMerchantDays(
+                        chunk.stream().map(MerchantDay::merchantId).toList(),
+                        chunk.stream().map(MerchantDay::day).toList());
+            } catch (RuntimeException e) {
+                stale.addAll(keys.subList(from, keys.size()));
+                throw e;
+            }
+            Map<MerchantDay, List<TransactionMaster>> byKey = new HashMap<>();
+            for (MerchantDay key : chunk) {
+                byKey.put(key, new ArrayList<>());
+            }
+            for (TransactionMaster row : rows) {
+                List<TransactionMaster> day = byKey.get(new MerchantDay(row.getMerchantId(),
+                        row.getTxnDate().toLocalDate()));
+                if (day != null) {
+                    day.add(row);
+                }
+            }
+            for (Map.Entry<MerchantDay, List<TransactionMaster>> entry : byKey.entrySet()) {
+                List<TransactionMaster> removed = store.replaceDay(entry.getKey().merchantId(), entry.getKey().day(),
+                        entry.getValue());
+                bitmapIndex.removeAll(removed);
+            }
+            bitmapIndex.apply(rows);
+            refreshedDays.addAndGet(chunk.size());
+        }
+        LOG.debug("Hot window refreshed {} invalidated merchant days", keys.size());
+    }
+
+    public int getPendingRefreshes() {
+        return stale.size();
+    }
+
+    public long getRefreshedDays() {
+        return refreshedDays.get();
+    }
+
+    public TxnIdGaps getIdGaps() {
+        return gaps;
+    }
+}
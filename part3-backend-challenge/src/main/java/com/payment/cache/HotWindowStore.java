@@ -0,0 +1,232 @@
+package com.payment.cache;
+
+import com.payment.entity.TransactionMaster;
+import com.payment.repository.criteria.TransactionCriteria;
+import io.micronaut.data.model.Page;
+import io.micronaut.data.model.Pageable;
+import jakarta.inject.Singleton;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-memory window of the most recent days of transactions.
+ *
+ * Each merchant has a concurrent skip list keyed by (txnDate DESC, txnId DESC),
+ * the same order as the transaction list endpoint, so a date-bounded page is a
+ * sub-map walk with no sorting. Rows are fed by {@link HotWindowLoader} and can
+ * also be pushed from the write path via {@link #upsert(TransactionMaster)}.
+ *
+ * The store only answers requests whose start date falls inside the window and
+ * only once the first full sync has completed; everything else goes to SQL.
+ */
+@Singleton
+public class HotWindowStore {
+
+    public static final String SOURCE = "hot-window";
+
+    private static final Comparator<WindowKey> NEWEST_FIRST = Comparator
+            .comparingLong(WindowKey::epochDay).reversed()
+            .thenComparing(Comparator.comparingLong(WindowKey::txnId).reversed());
+
+    private final Map<String, ConcurrentSkipListMap<WindowKey, TransactionMaster>> byMerchant = new ConcurrentHashMap<>();
+
+    private volatile LocalDate windowStart;
+    private volatile boolean ready;
+    private volatile long watermarkTxnId;
+    private volatile Instant watermarkAt;
+
+    /**
+     * Sort key; newest first
+     */
+    record WindowKey(long epochDay, long txnId) {
+    }
+
+    /**
+     * Add or replace a single transaction, e.g. right after it was written
+     */
+    public void upsert(TransactionMaster transaction) {
+        LocalDate start = windowStart;
+        if (start == null || transaction.getTxnDate() == null
+                || transaction.getTxnDate().toLocalDate().isBefore(start)) {
+            return;
+        }
+        byMerchant.computeIfAbsent(transaction.getMerchantId(), m -> new ConcurrentSkipListMap<>(NEWEST_FIRST))
+                .put(keyOf(transaction), transaction);
+    }
+
+    public void apply(Collection<TransactionMaster> transactions) {
+        for (TransactionMaster transaction : transactions) {
+            upsert(transaction);
+        }
+    }
+
+    /**
+     * Replace a merchant's transactions of one day with the rows read from
+     * the database: rows are added or replaced first, then those no longer
+     * there are removed, so readers never see the day empty
+     *
+     * @return the transactions removed
+     */
+    public List<TransactionMaster> replaceDay(String merchantId, LocalDate day,
+            Collection<TransactionMaster> transactions) {
+        LocalDate start = windowStart;
+        if (start == null || day.isBefore(start)) {
+            return List.of();
+        }
+        ConcurrentSkipListMap<WindowKey, TransactionMaster> merchant = byMerchant.computeIfAbsent(merchantId,
+                m -> new ConcurrentSkipListMap<>(NEWEST_FIRST));
+        Set<WindowKey> kept = new HashSet<>();
+        for (TransactionMaster transaction : transactions) {
+            WindowKey key = keyOf(transaction);
+            merchant.put(key, transaction);
+            kept.add(key);
+        }
+        List<TransactionMaster> removed = new ArrayList<>();
+        Iterator<Map.Entry<WindowKey, TransactionMaster>> entries = merchant
+                .subMap(new WindowKey(day.toEpochDay(), Long.MAX_VALUE), true,
+                        new WindowKey(day.toEpochDay(), Long.MIN_VALUE), true)
+                .entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<WindowKey, TransactionMaster> entry = entries.next();
+            if (!kept.contains(entry.getKey())) {
+                removed.add(entry.getValue());
+                entries.remove();
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Move the window start forward and evict every day before it
+     */
+    public void advanceWindow(LocalDate start) {
+        this.windowStart = start;
+        WindowKey oldestKept = new WindowKey(start.toEpochDay(), Long.MIN_VALUE);
+        for (ConcurrentSkipListMap<WindowKey, TransactionMaster> transactions : byMerchant.values()) {
+            transactions.tailMap(oldestKept, false).clear();
+        }
+    }
+
+    /**
+     * Record that everything committed before {@code at} up to {@code txnId} is applied
+     */
+    public void markSynced(long txnId, Instant at) {
+        this.watermarkTxnId = txnId;
+        this.watermarkAt = at;
+        this.ready = true;
+    }
+
+    /**
+     * Whether the whole requested date range lies inside the window
+     */
+    public boolean covers(TransactionCriteria criteria) {
+        LocalDate start = windowStart;
+        return ready && start != null && criteria.getStartDate() != null
+                && !criteria.getStartDate().isBefore(start);
+    }
+
+    /**
+     * Same result as TransactionSearchRepository.findPage for criteria this store covers
+     */
+    public Page<TransactionMaster> findPage(TransactionCriteria criteria, Pageable pageable) {
+        NavigableMap<WindowKey, TransactionMaster> transactions = byMerchant.get(criteria.getMerchantId());
+        if (transactions == null) {
+            return Page.of(List.of(), pageable, 0L);
+        }
+
+        WindowKey newest;
+        if (criteria.getEndDate() != null) {
+            newest = new WindowKey(criteria.getEndDate().toEpochDay(), Long.MAX_VALUE);
+        } else {
+            // One read: the map can be emptied by a refresh between isEmpty and firstKey
+            Map.Entry<WindowKey, TransactionMaster> first = transactions.firstEntry();
+            newest = first == null ? null : first.getKey();
+        }
+        WindowKey oldest = new WindowKey(criteria.getStartDate().toEpochDay(), Long.MIN_VALUE);
+        if (newest == null || NEWEST_FIRST.compare(newest, oldest) > 0) {
+            return Page.of(List.of(), pageable, 0L);
+        }
+
+        long offset = pageable.getOffset();
+        int size = pageable.getSize();
+        List<TransactionMaster> content = new ArrayList<>(size);
+        long total = 0;
+        for (TransactionMaster transaction : transactions.subMap(newest, true, oldest, true).values()) {
+            if (!matches(criteria, transaction)) {
+                continue;
+            }
+            if (total >= offset && content.size() < size) {
+                content.add(transaction);
+            }
+            total++;
+        }
+        return Page.of(content, pageable, total);
+    }
+
+    public LocalDate getWindowStart() {
+        return windowStart;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public long getWatermarkTxnId() {
+        return watermarkTxnId;
+    }
+
+    public Instant getWatermarkAt() {
+        return watermarkAt;
+    }
+
+    /**
+     * Number of transactions currently held
+     */
+    public long size() {
+        long size = 0;
+        for (ConcurrentSkipListMap<WindowKey, TransactionMaster> transactions : byMerchant.values()) {
+            size += transactions.size();
+        }
+        return size;
+    }
+
+    private static WindowKey keyOf(TransactionMaster transaction) {
+        return new WindowKey(transaction.getTxnDate().toLocalDate().toEpochDay(), transaction.getTxnId());
+    }
+
+    /**
+     * Non-date filters, evaluated exactly like the SQL predicates in TransactionCriteriaQuery
+     */
+    private static boolean matches(TransactionCriteria criteria, TransactionMaster transaction) {
+        if (criteria.has(TransactionCriteria.STATUS)
+                && !Arrays.asList(criteria.getStatuses()).contains(transaction.getStatus())) {
+            return false;
+        }
+        if (criteria.has(TransactionCriteria.CARD_TYPE)
+                && !Arrays.asList(criteria.getCardTypes()).contains(transaction.getCardType())) {
+            return false;
+        }
+        if (criteria.has(TransactionCriteria.MIN_AMOUNT)
+                && transaction.getAmount().compareTo(criteria.getMinAmount()) < 0) {
+            return false;
+        }
+        if (criteria.has(TransactionCriteria.MAX_AMOUNT)
+                && transaction.getAmount().compareTo(criteria.getMaxAmount()) > 0) {
+            return false;
+        }
+        return !criteria.has(TransactionCriteria.CURRENCY) || criteria.getCurrency().equals(transaction.getCurrency());
+    }
+}
@@ -0,0 +1,380 @@
+package com.payment.cache;
+
+import com.payment.entity.TransactionMaster;
+import io.micronaut.data.model.Page;
+import io.micronaut.data.model.Pageable;
+import jakarta.inject.Singleton;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Roaring bitmap secondary indexes over the recent-transaction window, for
+ * filtering by any combination of merchant, status, card type, currency and
+ * date across all merchants.
+ *
+ * Every transaction gets a row id of txnId - base, so ids stay dense and
+ * ascending with txn_id and re-applying a row replaces it in place. Each
+ * distinct value of each dimension owns a bitmap of row ids; a filter ORs the
+ * bitmaps of the requested values within a dimension and ANDs across
+ * dimensions. Counts are bitmap cardinalities; a page is located with
+ * select(rank), newest txn_id first, without scanning the rows before it.
+ *
+ * Fed alongside the {@link HotWindowStore} by {@link HotWindowLoader}. Roaring
+ * bitmaps are not thread-safe, so updates take the write lock and queries the
+ * read lock.
+ */
+@Singleton
+public class TransactionBitmapIndex {
+
+    public static final String SOURCE = "bitmap-index";
+
+    private static final int PAGE_BITS = 16;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+
+    /**
+     * Values are matched exactly, as the SQL IN predicates; null or empty sets
+     * and dates leave that dimension unconstrained
+     */
+    public record Filter(Set<String> merchantIds, Set<String> statuses, Set<String> cardTypes,
+            Set<String> currencies, LocalDate startDate, LocalDate endDate) {
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final RoaringBitmap live = new RoaringBitmap();
+    private final Map<String, RoaringBitmap> byMerchant = new HashMap<>();
+    private final Map<String, RoaringBitmap> byStatus = new HashMap<>();
+    private final Map<String, RoaringBitmap> byCardType = new HashMap<>();
+    private final Map<String, RoaringBitmap> byCurrency = new HashMap<>();
+    private final NavigableMap<Long, RoaringBitmap> byDay = new TreeMap<>();
+
+    /**
+     * Row id to transaction, in pages of PAGE_SIZE; evicted pages are nulled
+     */
+    private TransactionMaster[][] rows = new TransactionMaster[0][];
+    private long baseTxnId = Long.MIN_VALUE;
+    private long skipped;
+
+    private volatile LocalDate windowStart;
+    private volatile boolean ready;
+    private volatile long watermarkTxnId;
+    private volatile Instant watermarkAt;
+
+    /**
+     * Add or replace transactions; rows before the window start are ignored
+     */
+    public void apply(Collection<TransactionMaster> transactions) {
+        lock.writeLock().lock();
+        try {
+            for (TransactionMaster transaction : transactions) {
+                put(transaction);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drop transactions that no longer exist
+     */
+    public void removeAll(Collection<TransactionMaster> transactions) {
+        lock.writeLock().lock();
+        try {
+            for (TransactionMaster transaction : transactions) {
+                if (transaction.getTxnId() == null || baseTxnId == Long.MIN_VALUE) {
+                    continue;
+                }
+                long offset = transaction.getTxnId() - baseTxnId;
+                if (offset < 0 || offset > Integer.MAX_VALUE) {
+                    continue;
+                }
+                int row = (int) offset;
+                TransactionMaster previous = rowAt(row);
+                if (previous != null) {
+                    remove(row, previous);
+                    live.remove(row);
+                    rows[row >>> PAGE_BITS][row & (PAGE_SIZE - 1)] = null;
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void put(TransactionMaster transaction) {
+        LocalDate start = windowStart;
+        if (start == null || transaction.getTxnId() == null || transaction.getTxnDate() == null
+                || transaction.getTxnDate().toLocalDate().isBefore(start)) {
+            return;
+        }
+        if (baseTxnId == Long.MIN_VALUE) {
+            // Leave room below the first id for rows that commit out of id order
+            baseTxnId = Math.max(0L, transaction.getTxnId() - PAGE_SIZE);
+        }
+        long offset = transaction.getTxnId() - baseTxnId;
+        if (offset < 0 || offset > Integer.MAX_VALUE) {
+            skipped++;
+            return;
+        }
+
+        int row = (int) offset;
+        TransactionMaster previous = rowAt(row);
+        if (previous != null) {
+            remove(row, previous);
+        }
+        int page = row >>> PAGE_BITS;
+        if (page >= rows.length) {
+            rows = Arrays.copyOf(rows, Math.max(page + 1, rows.length * 2));
+        }
+        if (rows[page] == null) {
+            rows[page] = new TransactionMaster[PAGE_SIZE];
+        }
+        rows[page][row & (PAGE_SIZE - 1)] = transaction;
+
+        live.add(row);
+        bitmapOf(byMerchant, transaction.getMerchantId()).add(row);
+        bitmapOf(byStatus, transaction.getStatus()).add(row);
+        bitmapOf(byCardType, transaction.getCardType()).add(row);
+        bitmapOf(byCurrency, transaction.getCurrency()).add(row);
+        byDay.computeIfAbsent(epochDay(transaction), d -> new RoaringBitmap()).add(row);
+    }
+
+    private void remove(int row, TransactionMaster previous) {
+        removeFrom(byMerchant, previous.getMerchantId(), row);
+        removeFrom(byStatus, previous.getStatus(), row);
+        removeFrom(byCardType, previous.getCardType(), row);
+        removeFrom(byCurrency, previous.getCurrency(), row);
+        RoaringBitmap day = byDay.get(epochDay(previous));
+        if (day != null) {
+            day.remove(row);
+        }
+    }
+
+    /**
+     * Move the window start forward and drop every day before it
+     */
+    public void advanceWindow(LocalDate start) {
+        lock.writeLock().lock();
+        try {
+            this.windowStart = start;
+            NavigableMap<Long, RoaringBitmap> expired = byDay.headMap(start.toEpochDay(), false);
+            if (expired.isEmpty()) {
+                return;
+            }
+            RoaringBitmap evicted = FastAggregation.or(expired.values().iterator());
+            expired.clear();
+
+            live.andNot(evicted);
+            for (Map<String, RoaringBitmap> dimension : List.of(byMerchant, byStatus, byCardType, byCurrency)) {
+                Iterator<RoaringBitmap> bitmaps = dimension.values().iterator();
+                while (bitmaps.hasNext()) {
+                    RoaringBitmap bitmap = bitmaps.next();
+                    bitmap.andNot(evicted);
+                    if (bitmap.isEmpty()) {
+                        bitmaps.remove();
+                    }
+                }
+            }
+
+            IntIterator rowIds = evicted.getIntIterator();
+            while (rowIds.hasNext()) {
+                int row = rowIds.next();
+                rows[row >>> PAGE_BITS][row & (PAGE_SIZE - 1)] = null;
+            }
+            for (int page = 0; page < rows.length; page++) {
+                if (rows[page] != null
+                        && live.rangeCardinality((long) page << PAGE_BITS, (long) (page + 1) << PAGE_BITS) == 0) {
+                    rows[page] = null;
+                }
+            }
+            live.runOptimize();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Record that everything committed before {@code at} up to {@code txnId} is applied
+     */
+    public void markSynced(long txnId, Instant at) {
+        this.watermarkTxnId = txnId;
+        this.watermarkAt = at;
+        this.ready = true;
+    }
+
+    /**
+     * Whether the filter's date range lies inside the window (an open start means the window start)
+     */
+    public boolean covers(Filter filter) {
+        LocalDate start = windowStart;
+        return ready && start != null && (filter.startDate() == null || !filter.startDate().isBefore(start));
+    }
+
+    public long count(Filter filter) {
+        lock.readLock().lock();
+        try {
+            return match(filter).getLongCardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Matching transactions, newest txn_id first
+     */
+    public Page<TransactionMaster> findPage(Filter filter, Pageable pageable) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap matching = match(filter);
+            long total = matching.getLongCardinality();
+            long first = pageable.getOffset();
+            long last = Math.min(total, first + pageable.getSize());
+            List<TransactionMaster> content = new ArrayList<>((int) Math.max(0, last - first));
+            for (long rank = first; rank < last; rank++) {
+                content.add(rowAt(matching.select((int) (total - 1 - rank))));
+            }
+            return Page.of(content, pageable, total);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private RoaringBitmap match(Filter filter) {
+        List<RoaringBitmap> dimensions = new ArrayList<>(5);
+        dimensions.add(filter.startDate() == null && filter.endDate() == null ? live : days(filter));
+        for (Dimension dimension : new Dimension[] {
+                new Dimension(byMerchant, filter.merchantIds()),
+                new Dimension(byStatus, filter.statuses()),
+                new Dimension(byCardType, filter.cardTypes()),
+                new Dimension(byCurrency, filter.currencies()) }) {
+            if (dimension.values() != null && !dimension.values().isEmpty()) {
+                dimensions.add(dimension.union());
+            }
+        }
+        // Only read under the read lock, so the live bitmap itself can be returned
+        return dimensions.size() == 1 ? dimensions.get(0)
+                : FastAggregation.and(dimensions.toArray(new RoaringBitmap[0]));
+    }
+
+    private RoaringBitmap days(Filter filter) {
+        long from = filter.startDate() != null ? filter.startDate().toEpochDay() : Long.MIN_VALUE;
+        long to = filter.endDate() != null ? filter.endDate().toEpochDay() : Long.MAX_VALUE;
+        if (from > to) {
+            return new RoaringBitmap();
+        }
+        return FastAggregation.or(byDay.subMap(from, true, to, true).values().iterator());
+    }
+
+    /**
+     * One filter dimension: the bitmaps of a value set, ORed
+     */
+    private record Dimension(Map<String, RoaringBitmap> index, Set<String> values) {
+
+        RoaringBitmap union() {
+            List<RoaringBitmap> bitmaps = new ArrayList<>(values.size());
+            for (String value : values) {
+                RoaringBitmap bitmap = index.get(value);
+                if (bitmap != null) {
+                    bitmaps.add(bitmap);
+                }
+            }
+            return FastAggregation.or(bitmaps.iterator());
+        }
+    }
+
+    public LocalDate getWindowStart() {
+        return windowStart;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public long getWatermarkTxnId() {
+        return watermarkTxnId;
+    }
+
+    public Instant getWatermarkAt() {
+        return watermarkAt;
+    }
+
+    /**
+     * Number of transactions currently indexed
+     */
+    public long size() {
+        lock.readLock().lock();
+        try {
+            return live.getLongCardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Serialized size of all bitmaps, excluding the row pages
+     */
+    public long bitmapBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = live.getLongSizeInBytes();
+            for (Map<String, RoaringBitmap> dimension : List.of(byMerchant, byStatus, byCardType, byCurrency)) {
+                for (RoaringBitmap bitmap : dimension.values()) {
+                    bytes += bitmap.getLongSizeInBytes();
+                }
+            }
+            for (RoaringBitmap bitmap : byDay.values()) {
+                bytes += bitmap.getLongSizeInBytes();
+            }
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Rows whose txn_id fell below the base or too far above it to get a row id
+     */
+    public long getSkipped() {
+        lock.readLock().lock();
+        try {
+            return skipped;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private TransactionMaster rowAt(int row) {
+        int page = row >>> PAGE_BITS;
+        return page < rows.length && rows[page] != null ? rows[page][row & (PAGE_SIZE - 1)] : null;
+    }
+
+    private static RoaringBitmap bitmapOf(Map<String, RoaringBitmap> dimension, String value) {
+        return dimension.computeIfAbsent(value, v -> new RoaringBitmap());
+    }
+
+    private static void removeFrom(Map<String, RoaringBitmap> dimension, String value, int row) {
+        RoaringBitmap bitmap = dimension.get(value);
+        if (bitmap != null) {
+            bitmap.remove(row);
+        }
+    }
+
+    private static long epochDay(TransactionMaster transaction) {
+        return transaction.getTxnDate().toLocalDate().toEpochDay();
+    }
+}
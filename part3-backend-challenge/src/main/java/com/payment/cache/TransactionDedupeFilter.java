@@ -0,0 +1,183 @@
+package com.payment.cache;
+
+import com.payment.entity.TransactionMaster;
+import jakarta.inject.Singleton;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fast pre-check for redelivered transactions on the ingestion path.
+ *
+ * Holds a {@link BloomFilter} of the natural keys (merchant_id, auth_code,
+ * local_txn_date_time, amount) of recent transactions. A miss proves a
+ * transaction is new, so only possible hits are confirmed against the unique
+ * natural-key index. Transactions without an auth code have no natural key and
+ * are never treated as duplicates.
+ *
+ * Filled by {@link DedupeFilterLoader} and by the ingestion service after each
+ * write. Until the first load completes every key reports a possible hit, so
+ * everything is confirmed against the database.
+ */
+@Singleton
+public class TransactionDedupeFilter {
+
+    private static final long SEED = 0x9E3779B97F4A7C15L;
+    private static final long FNV_PRIME = 0x100000001B3L;
+
+    private volatile BloomFilter filter;
+    private volatile BloomFilter rebuilding;
+    private volatile Instant loadedAt;
+
+    private final LongAdder checks = new LongAdder();
+    private final LongAdder possibleHits = new LongAdder();
+    private final LongAdder confirmedDuplicates = new LongAdder();
+
+    /**
+     * Whether the transaction has a natural key (an auth code)
+     */
+    public static boolean hasKey(TransactionMaster transaction) {
+        return transaction.getAuthCode() != null;
+    }
+
+    /**
+     * 64-bit hash of the natural key, as stored: the timestamp in whole
+     * microseconds and the amount in cents
+     */
+    public static long keyHash(String merchantId, String authCode, long epochMicros, long amountCents) {
+        long h = SEED;
+        h = mix(h, merchantId);
+        h = mix(h, authCode);
+        h = fmix64(h ^ epochMicros);
+        h = fmix64(h ^ amountCents);
+        return h;
+    }
+
+    public static long keyHash(TransactionMaster transaction) {
+        Instant at = transaction.getLocalTxnDateTime();
+        long epochMicros = Math.addExact(Math.multiplyExact(at.getEpochSecond(), 1_000_000L), at.getNano() / 1_000);
+        BigDecimal cents = transaction.getAmount().movePointRight(2);
+        return keyHash(transaction.getMerchantId(), transaction.getAuthCode(), epochMicros, cents.longValue());
+    }
+
+    /**
+     * False when the transaction is certainly not stored yet
+     */
+    public boolean mightContain(TransactionMaster transaction) {
+        BloomFilter current = filter;
+        return current == null || current.mightContain(keyHash(transaction));
+    }
+
+    /**
+     * Record newly written transactions
+     */
+    public void add(Collection<TransactionMaster> transactions) {
+        BloomFilter current = filter;
+        BloomFilter next = rebuilding;
+        for (TransactionMaster transaction : transactions) {
+            if (!hasKey(transaction)) {
+                continue;
+            }
+            long hash = keyHash(transaction);
+            if (current != null) {
+                current.put(hash);
+            }
+            if (next != null) {
+                next.put(hash);
+            }
+        }
+    }
+
+    /**
+     * Start filling a replacement; keys written meanwhile go into both filters
+     */
+    public void beginRebuild(BloomFilter replacement) {
+        this.rebuilding = replacement;
+    }
+
+    /**
+     * Swap in the filter passed to {@link #beginRebuild}
+     */
+    public void finishRebuild(Instant at) {
+        BloomFilter replacement = rebuilding;
+        if (replacement != null) {
+            this.filter = replacement;
+            this.rebuilding = null;
+            this.loadedAt = at;
+        }
+    }
+
+    public void abortRebuild() {
+        this.rebuilding = null;
+    }
+
+    /**
+     * Count the outcome of one pre-check: how many keys were checked, how many the
+     * filter could not rule out, and how many of those the database confirmed
+     */
+    public void recordChecks(long checked, long possible, long confirmed) {
+        checks.add(checked);
+        possibleHits.add(possible);
+        confirmedDuplicates.add(confirmed);
+    }
+
+    public boolean isReady() {
+        return filter != null;
+    }
+
+    public Instant getLoadedAt() {
+        return loadedAt;
+    }
+
+    /**
+     * The active filter, or null before the first load
+     */
+    public BloomFilter getFilter() {
+        return filter;
+    }
+
+    public long getChecks() {
+        return checks.sum();
+    }
+
+    public long getPossibleHits() {
+        return possibleHits.sum();
+    }
+
+    public long getConfirmedDuplicates() {
+        return confirmedDuplicates.sum();
+    }
+
+    /**
+     * Share of genuinely new keys the filter could not rule out
+     */
+    public double getObservedFalsePositiveRate() {
+        long confirmed = confirmedDuplicates.sum();
+        long fresh = checks.sum() - confirmed;
+        return fresh > 0 ? (double) (possibleHits.sum() - confirmed) / fresh : 0.0;
+    }
+
+    private static long mix(long h, String value) {
+        if (value == null) {
+            return fmix64(h ^ FNV_PRIME);
+        }
+        for (int i = 0; i < value.length(); i++) {
+            h = (h ^ value.charAt(i)) * FNV_PRIME;
+        }
+        return fmix64(h ^ value.length());
+    }
+
+    /**
+     * MurmurHash3 64-bit finalizer
+     */
+    private static long fmix64(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,172 @@
+package com.payment.cache;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The txn_ids a tail has skipped, so rows that commit out of id order are
+ * still read.
+ *
+ * Ids are drawn from the sequence before the row commits: an ingest reserves
+ * a whole batch up front, and other nodes and direct writers commit in any
+ * order. A tail reading ids above the highest one seen would step over the
+ * ids of every transaction still open. Instead, each id the tail skips opens
+ * a gap, and the gaps are read again on every poll until their rows show up
+ * or the gap is older than the commit lag, after which the ids are taken to be
+ * rolled back or rejected as duplicates. The lag must exceed the longest
+ * transaction that inserts transactions; nothing else bounds how far behind
+ * the newest id a commit may land.
+ *
+ * At most maxGaps gaps are kept; beyond that the lowest ids are given up
+ * first, as the newest ids are the ones still in flight. Each tail owns one;
+ * it is synchronized only so its counters can be read from other threads.
+ */
+public final class TxnIdGaps {
+
+    /**
+     * Ids from..to (inclusive) not seen since openedAt
+     */
+    public record Gap(long from, long to, Instant openedAt) {
+    }
+
+    private final Duration commitLag;
+    private final int maxGaps;
+    private final TreeMap<Long, Gap> gaps = new TreeMap<>();
+    private long highestSeen;
+
+    private long filled;
+    private long expired;
+    private long dropped;
+
+    public TxnIdGaps(Duration commitLag, int maxGaps) {
+        if (commitLag.isNegative() || maxGaps < 1) {
+            throw new IllegalArgumentException("commitLag must not be negative and maxGaps must be at least 1");
+        }
+        this.commitLag = commitLag;
+        this.maxGaps = maxGaps;
+    }
+
+    /**
+     * Forget every gap before a full load; the first id seen afterwards opens
+     * no gap below it
+     */
+    public synchronized void reset() {
+        gaps.clear();
+        highestSeen = 0L;
+    }
+
+    /**
+     * Start over from a full load that was not read in id order: it saw ids up
+     * to highestSeen and none of the skipped ranges
+     */
+    public synchronized void reset(long highestSeen, List<Gap> skipped) {
+        gaps.clear();
+        this.highestSeen = highestSeen;
+        for (Gap gap : skipped) {
+            add(gap);
+        }
+    }
+
+    /**
+     * Record an id read by the tail. Ids must arrive in ascending order above
+     * the ones already seen; the ids skipped in between open a gap.
+     */
+    public synchronized void seen(long txnId, Instant now) {
+        if (txnId <= highestSeen) {
+            return;
+        }
+        if (highestSeen > 0 && txnId > highestSeen + 1) {
+            add(new Gap(highestSeen + 1, txnId - 1, now));
+        }
+        highestSeen = txnId;
+    }
+
+    /**
+     * Record an id found inside a gap; the gap closes around it
+     *
+     * @return false if the id was not in a gap
+     */
+    public synchronized boolean fill(long txnId) {
+        Map.Entry<Long, Gap> entry = gaps.floorEntry(txnId);
+        if (entry == null || entry.getValue().to() < txnId) {
+            return false;
+        }
+        Gap gap = gaps.remove(entry.getKey());
+        if (gap.from() < txnId) {
+            add(new Gap(gap.from(), txnId - 1, gap.openedAt()));
+        }
+        if (txnId < gap.to()) {
+            add(new Gap(txnId + 1, gap.to(), gap.openedAt()));
+        }
+        filled++;
+        return true;
+    }
+
+    /**
+     * Close gaps older than the commit lag and return the rest, lowest ids first
+     */
+    public synchronized List<Gap> open(Instant now) {
+        Instant cutoff = now.minus(commitLag);
+        Iterator<Gap> iterator = gaps.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().openedAt().isBefore(cutoff)) {
+                iterator.remove();
+                expired++;
+            }
+        }
+        return new ArrayList<>(gaps.values());
+    }
+
+    private void add(Gap gap) {
+        gaps.put(gap.from(), gap);
+        while (gaps.size() > maxGaps) {
+            gaps.pollFirstEntry();
+            dropped++;
+        }
+    }
+
+    /**
+     * Lower bounds of the gaps, for the repository's range queries
+     */
+    public static long[] froms(List<Gap> gaps) {
+        return gaps.stream().mapToLong(Gap::from).toArray();
+    }
+
+    public static long[] tos(List<Gap> gaps) {
+        return gaps.stream().mapToLong(Gap::to).toArray();
+    }
+
+    public synchronized long getHighestSeen() {
+        return highestSeen;
+    }
+
+    public synchronized int size() {
+        return gaps.size();
+    }
+
+    /**
+     * Ids that committed after the tail had passed them
+     */
+    public synchronized long getFilled() {
+        return filled;
+    }
+
+    /**
+     * Gaps closed after the commit lag without their rows showing up
+     */
+    public synchronized long getExpired() {
+        return expired;
+    }
+
+    /**
+     * Gaps given up because more than maxGaps were open
+     */
+    public synchronized long getDropped() {
+        return dropped;
+    }
+}
@@ -0,0 +1,87 @@
+package com.payment.config;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+
+/**
+ * Settings for the asynchronous payment audit log writer (audit.*)
+ */
+@ConfigurationProperties("audit")
+public class AuditProperties {
+
+    /**
+     * Write audit entries; when false they are discarded
+     */
+    private boolean enabled = true;
+
+    /**
+     * Entries waiting for the writer; past this they are dropped or, under
+     * {@link Durability#FLUSH_BEFORE_ACK}, wait for room
+     */
+    private int queueCapacity = 65_536;
+
+    /**
+     * Most entries written in one INSERT
+     */
+    private int maxBatchSize = 1000;
+
+    /**
+     * How long a {@link Durability#FLUSH_BEFORE_ACK} caller waits for room in a
+     * full queue before its entries are dropped and it is told so
+     */
+    private long offerTimeoutMillis = 1000;
+
+    private Durability durability = Durability.FLUSH_BEFORE_ACK;
+
+    public enum Durability {
+        /**
+         * Callers return as soon as their entries are queued; entries that do
+         * not fit, or whose write fails, are counted and lost
+         */
+        FIRE_AND_FORGET,
+        /**
+         * Callers are acknowledged only once their entries are written; a full
+         * queue makes them wait, and a failed write fails their request
+         */
+        FLUSH_BEFORE_ACK
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public void setMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public long getOfferTimeoutMillis() {
+        return offerTimeoutMillis;
+    }
+
+    public void setOfferTimeoutMillis(long offerTimeoutMillis) {
+        this.offerTimeoutMillis = offerTimeoutMillis;
+    }
+
+    public Durability getDurability() {
+        return durability;
+    }
+
+    public void setDurability(Durability durability) {
+        this.durability = durability;
+    }
+}
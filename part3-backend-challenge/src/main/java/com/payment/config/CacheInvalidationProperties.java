@@ -0,0 +1,51 @@
+package com.payment.config;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+
+/**
+ * Settings for the cluster cache invalidation channel (cache-invalidation.*)
+ */
+@ConfigurationProperties("cache-invalidation")
+public class CacheInvalidationProperties {
+
+    /**
+     * Listen for the invalidation keys sent by the database triggers
+     */
+    private boolean enabled = true;
+
+    /**
+     * How long one wait for notifications lasts before the listener checks
+     * whether it should stop
+     */
+    private int pollTimeoutMillis = 500;
+
+    /**
+     * After this long without a notification the connection is checked, so a
+     * silently dropped connection is noticed and replaced
+     */
+    private int validationIntervalMillis = 30_000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getPollTimeoutMillis() {
+        return pollTimeoutMillis;
+    }
+
+    public void setPollTimeoutMillis(int pollTimeoutMillis) {
+        this.pollTimeoutMillis = pollTimeoutMillis;
+    }
+
+    public int getValidationIntervalMillis() {
+        return validationIntervalMillis;
+    }
+
+    public void setValidationIntervalMillis(int validationIntervalMillis) {
+        this.validationIntervalMillis = validationIntervalMillis;
+    }
+}
@@ -0,0 +1,36 @@
+package com.payment.config;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+
+/**
+ * Settings for the decline counters and their hourly snapshots (decline-analytics.*)
+ */
+@ConfigurationProperties("decline-analytics")
+public class DeclineAnalyticsProperties {
+
+    /**
+     * Count ingested transactions and write the hourly snapshots
+     */
+    private boolean enabled = true;
+
+    /**
+     * Longest window a decline report may cover, in hours
+     */
+    private int maxReportHours = 31 * 24;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxReportHours() {
+        return maxReportHours;
+    }
+
+    public void setMaxReportHours(int maxReportHours) {
+        this.maxReportHours = maxReportHours;
+    }
+}
@@ -0,0 +1,63 @@
+package com.payment.config;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+
+/**
+ * Settings for the in-memory window of recent transactions (hot-window.*)
+ */
+@ConfigurationProperties("hot-window")
+public class HotWindowProperties {
+
+    /**
+     * Number of most recent days (including today) kept in memory
+     */
+    private int days = 7;
+
+    /**
+     * Maximum rows read from the database per tailing query
+     */
+    private int batchSize = 5000;
+
+    /**
+     * Seconds a skipped txn_id is looked for again before it is taken to be
+     * rolled back; must exceed the longest transaction that inserts transactions
+     */
+    private int commitLagSeconds = 120;
+
+    /**
+     * Most skipped id ranges tracked at once; the lowest are given up first
+     */
+    private int maxIdGaps = 10_000;
+
+    public int getDays() {
+        return days;
+    }
+
+    public void setDays(int days) {
+        this.days = days;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public int getCommitLagSeconds() {
+        return commitLagSeconds;
+    }
+
+    public void setCommitLagSeconds(int commitLagSeconds) {
+        this.commitLagSeconds = commitLagSeconds;
+    }
+
+    public int getMaxIdGaps() {
+        return maxIdGaps;
+    }
+
+    public void setMaxIdGaps(int maxIdGaps) {
+        this.maxIdGaps = maxIdGaps;
+    }
+}
@@ -0,0 +1,223 @@
+package com.payment.config;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+
+/**
+ * Settings for the transaction ingestion endpoint (ingestion.*)
+ */
+@ConfigurationProperties("ingestion")
+public class IngestionProperties {
+
+    /**
+     * Largest number of transactions accepted in one batch; each batch is one
+     * database transaction, so this also bounds how long its locks are held
+     */
+    private int maxBatchSize = 5000;
+
+    /**
+     * Largest number of detail rows accepted per transaction
+     */
+    private int maxDetailsPerTransaction = 50;
+
+    /**
+     * Number of most recent days whose natural keys are kept in the dedupe filter;
+     * older redeliveries are still caught by the unique index, just not up front
+     */
+    private int dedupeDays = 30;
+
+    /**
+     * Keys the dedupe filter is sized for; past this the false-positive rate
+     * climbs until the next rebuild
+     */
+    private long dedupeExpectedKeys = 10_000_000L;
+
+    /**
+     * Target false-positive rate of the dedupe filter at dedupeExpectedKeys keys
+     */
+    private double dedupeFalsePositiveRate = 0.01;
+
+    /**
+     * Queue requests and commit them in groups on a single writer thread; when
+     * false every request commits on its own, on the caller's thread
+     */
+    private boolean groupCommitEnabled = true;
+
+    /**
+     * Requests the group-commit ring buffer holds (rounded up to a power of two)
+     */
+    private int ringCapacity = 4096;
+
+    /**
+     * Transactions queued but not yet committed above which requests get a 429
+     */
+    private int maxPendingTransactions = 50_000;
+
+    /**
+     * A group commits once it holds this many transactions...
+     */
+    private int groupMaxTransactions = 5000;
+
+    /**
+     * ...or this many milliseconds after its first request was taken
+     */
+    private int groupMaxDelayMillis = 5;
+
+    /**
+     * Append accepted requests to a local journal and acknowledge them once it
+     * is on disk, before they are written to the database; requires group commit
+     */
+    private boolean journalEnabled = false;
+
+    /**
+     * Directory holding the journal segment files
+     */
+    private String journalDir = "data/ingest-journal";
+
+    /**
+     * Size of each memory-mapped journal segment file
+     */
+    private long journalSegmentBytes = 64L * 1024 * 1024;
+
+    /**
+     * When appended records are forced to disk
+     */
+    private JournalFsync journalFsync = JournalFsync.ALWAYS;
+
+    /**
+     * How often the journal is forced under {@link JournalFsync#INTERVAL}
+     */
+    private int journalFsyncIntervalMillis = 10;
+
+    public enum JournalFsync {
+        /**
+         * A request is acknowledged only after its record is forced to disk
+         * (appends waiting at the same time share one force)
+         */
+        ALWAYS,
+        /**
+         * A request is acknowledged once its record is in the mapped file and
+         * forced within the interval; survives a process crash, not a power loss
+         */
+        INTERVAL
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public void setMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public int getMaxDetailsPerTransaction() {
+        return maxDetailsPerTransaction;
+    }
+
+    public void setMaxDetailsPerTransaction(int maxDetailsPerTransaction) {
+        this.maxDetailsPerTransaction = maxDetailsPerTransaction;
+    }
+
+    public int getDedupeDays() {
+        return dedupeDays;
+    }
+
+    public void setDedupeDays(int dedupeDays) {
+        this.dedupeDays = dedupeDays;
+    }
+
+    public long getDedupeExpectedKeys() {
+        return dedupeExpectedKeys;
+    }
+
+    public void setDedupeExpectedKeys(long dedupeExpectedKeys) {
+        this.dedupeExpectedKeys = dedupeExpectedKeys;
+    }
+
+    public double getDedupeFalsePositiveRate() {
+        return dedupeFalsePositiveRate;
+    }
+
+    public void setDedupeFalsePositiveRate(double dedupeFalsePositiveRate) {
+        this.dedupeFalsePositiveRate = dedupeFalsePositiveRate;
+    }
+
+    public boolean isGroupCommitEnabled() {
+        return groupCommitEnabled;
+    }
+
+    public void setGroupCommitEnabled(boolean groupCommitEnabled) {
+        this.groupCommitEnabled = groupCommitEnabled;
+    }
+
+    public int getRingCapacity() {
+        return ringCapacity;
+    }
+
+    public void setRingCapacity(int ringCapacity) {
+        this.ringCapacity = ringCapacity;
+    }
+
+    public int getMaxPendingTransactions() {
+        return maxPendingTransactions;
+    }
+
+    public void setMaxPendingTransactions(int maxPendingTransactions) {
+        this.maxPendingTransactions = maxPendingTransactions;
+    }
+
+    public int getGroupMaxTransactions() {
+        return groupMaxTransactions;
+    }
+
+    public void setGroupMaxTransactions(int groupMaxTransactions) {
+        this.groupMaxTransactions = groupMaxTransactions;
+    }
+
+    public int getGroupMaxDelayMillis() {
+        return groupMaxDelayMillis;
+    }
+
+    public void setGroupMaxDelayMillis(int groupMaxDelayMillis) {
+        this.groupMaxDelayMillis = groupMaxDelayMillis;
+    }
+
+    public boolean isJournalEnabled() {
+        return journalEnabled;
+    }
+
+    public void setJournalEnabled(boolean journalEnabled) {
+        this.journalEnabled = journalEnabled;
+    }
+
+    public String getJournalDir() {
+        return journalDir;
+    }
+
+    public void setJournalDir(String journalDir) {
+        this.journalDir = journalDir;
+    }
+
+    public long getJournalSegmentBytes() {
+        return journalSegmentBytes;
+    }
+
+    public void setJournalSegmentBytes(long journalSegmentBytes) {
+        this.journalSegmentBytes = journalSegmentBytes;
+    }
+
+    public JournalFsync getJournalFsync() {
+        return journalFsync;
+    }
+
+    public void setJournalFsync(JournalFsync journalFsync) {
+        this.journalFsync = journalFsync;
+    }
+
+    public int getJournalFsyncIntervalMillis() {
+        return journalFsyncIntervalMillis;
+    }
+
+    public void setJournalFsyncIntervalMillis(int journalFsyncIntervalMillis) {
+        this.journalFsyncIntervalMillis = journalFsyncIntervalMillis;
+    }
+}
@@ -0,0 +1,50 @@
+package com.payment.config;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+
+/**
+ * Settings for the live stream of today's transaction metrics (live-metrics.*)
+ */
+@ConfigurationProperties("live-metrics")
+public class LiveMetricsProperties {
+
+    /**
+     * Keep today's totals in memory and publish their changes to subscribers
+     */
+    private boolean enabled = true;
+
+    /**
+     * Open streams allowed at once; further subscribers are turned away with 429
+     */
+    private int maxSubscribers = 1000;
+
+    /**
+     * Least time between resyncs asked for by invalidation notifications of
+     * today's transactions, as changed by other nodes
+     */
+    private int invalidationResyncSeconds = 10;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxSubscribers() {
+        return maxSubscribers;
+    }
+
+    public void setMaxSubscribers(int maxSubscribers) {
+        this.maxSubscribers = maxSubscribers;
+    }
+
+    public int getInvalidationResyncSeconds() {
+        return invalidationResyncSeconds;
+    }
+
+    public void setInvalidationResyncSeconds(int invalidationResyncSeconds) {
+        this.invalidationResyncSeconds = invalidationResyncSeconds;
+    }
+}
@@ -0,0 +1,36 @@
+package com.payment.config;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+
+/**
+ * Settings for the monthly transaction partitions (partitions.transactions.*)
+ */
+@ConfigurationProperties("partitions.transactions")
+public class PartitionProperties {
+
+    /**
+     * Months after the current one that must always have a partition
+     */
+    private int monthsAhead = 3;
+
+    /**
+     * Months kept attached before the current one; 0 keeps every partition
+     */
+    private int retentionMonths = 24;
+
+    public int getMonthsAhead() {
+        return monthsAhead;
+    }
+
+    public void setMonthsAhead(int monthsAhead) {
+        this.monthsAhead = monthsAhead;
+    }
+
+    public int getRetentionMonths() {
+        return retentionMonths;
+    }
+
+    public void setRetentionMonths(int retentionMonths) {
+        this.retentionMonths = retentionMonths;
+    }
+}
@@ -0,0 +1,157 @@
+package com.payment.config;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+
+/**
+ * Settings for settling pending transactions in batches (payment-processing.*)
+ */
+@ConfigurationProperties("payment-processing")
+public class PaymentProcessingProperties {
+
+    /**
+     * Transactions per chunk; each chunk is one UPDATE in its own database transaction
+     */
+    private int chunkSize = 500;
+
+    /**
+     * Settlement lanes, one thread and one database connection each; a merchant
+     * always settles on the same lane, in order
+     */
+    private int lanes = 4;
+
+    /**
+     * Chunks a lane holds before submitters wait for room
+     */
+    private int laneCapacity = 16;
+
+    /**
+     * How long a submitter waits for room in a full lane before that lane's
+     * remaining chunks are reported as not settled
+     */
+    private long submitTimeoutMillis = 5_000;
+
+    /**
+     * Largest number of transactions accepted in one request
+     */
+    private int maxBatchSize = 50_000;
+
+    /**
+     * Attempts at a chunk that keeps failing with a transient error (lost
+     * connection, deadlock) before its transactions are left pending
+     */
+    private int retryMaxAttempts = 5;
+
+    /**
+     * Delay before the first retry of a rolled-back chunk; doubles with each attempt
+     */
+    private long retryInitialDelayMillis = 200;
+
+    /**
+     * Upper bound of the retry delay
+     */
+    private long retryMaxDelayMillis = 30_000;
+
+    /**
+     * Chunks waiting for a retry above which rolled-back chunks are only reported
+     */
+    private int retryMaxScheduled = 10_000;
+
+    /**
+     * Resolution of the retry timer wheel
+     */
+    private long retryTickMillis = 50;
+
+    /**
+     * Buckets of the retry timer wheel (rounded up to a power of two); delays
+     * longer than one turn wait extra turns in their bucket
+     */
+    private int retryWheelSize = 512;
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public int getLanes() {
+        return lanes;
+    }
+
+    public void setLanes(int lanes) {
+        this.lanes = lanes;
+    }
+
+    public int getLaneCapacity() {
+        return laneCapacity;
+    }
+
+    public void setLaneCapacity(int laneCapacity) {
+        this.laneCapacity = laneCapacity;
+    }
+
+    public long getSubmitTimeoutMillis() {
+        return submitTimeoutMillis;
+    }
+
+    public void setSubmitTimeoutMillis(long submitTimeoutMillis) {
+        this.submitTimeoutMillis = submitTimeoutMillis;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public void setMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public int getRetryMaxAttempts() {
+        return retryMaxAttempts;
+    }
+
+    public void setRetryMaxAttempts(int retryMaxAttempts) {
+        this.retryMaxAttempts = retryMaxAttempts;
+    }
+
+    public long getRetryInitialDelayMillis() {
+        return retryInitialDelayMillis;
+    }
+
+    public void setRetryInitialDelayMillis(long retryInitialDelayMillis) {
+        this.retryInitialDelayMillis = retryInitialDelayMillis;
+    }
+
+    public long getRetryMaxDelayMillis() {
+        return retryMaxDelayMillis;
+    }
+
+    public void setRetryMaxDelayMillis(long retryMaxDelayMillis) {
+        this.retryMaxDelayMillis = retryMaxDelayMillis;
+    }
+
+    public int getRetryMaxScheduled() {
+        return retryMaxScheduled;
+    }
+
+    public void setRetryMaxScheduled(int retryMaxScheduled) {
+        this.retryMaxScheduled = retryMaxScheduled;
+    }
+
+    public long getRetryTickMillis() {
+        return retryTickMillis;
+    }
+
+    public void setRetryTickMillis(long retryTickMillis) {
+        this.retryTickMillis = retryTickMillis;
+    }
+
+    public int getRetryWheelSize() {
+        return retryWheelSize;
+    }
+
+    public void setRetryWheelSize(int retryWheelSize) {
+        this.retryWheelSize = retryWheelSize;
+    }
+}
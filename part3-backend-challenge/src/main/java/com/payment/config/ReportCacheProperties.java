@@ -0,0 +1,128 @@
+package com.payment.config;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+
+/**
+ * Settings for the columnar report cache (report-cache.*)
+ */
+@ConfigurationProperties("report-cache")
+public class ReportCacheProperties {
+
+    /**
+     * Number of most recent days (including today) held in columns
+     */
+    private int days = 90;
+
+    /**
+     * Rows per column segment
+     */
+    private int segmentCapacity = 1 << 16;
+
+    /**
+     * Maximum rows read per tailing query
+     */
+    private int batchSize = 10_000;
+
+    /**
+     * Minutes between full rebuilds, which pick up status changes and evict old days
+     */
+    private int rebuildMinutes = 15;
+
+    /**
+     * Seconds a skipped txn_id is looked for again before it is taken to be
+     * rolled back; must exceed the longest transaction that inserts transactions
+     */
+    private int commitLagSeconds = 120;
+
+    /**
+     * Most skipped id ranges tracked at once; the lowest are given up first
+     */
+    private int maxIdGaps = 10_000;
+
+    /**
+     * Aggregate with the Vector API kernels when the JVM enables jdk.incubator.vector
+     */
+    private boolean vectorKernels = true;
+
+    /**
+     * Threads aggregating one report; 1 keeps reports on the request thread
+     */
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Reports covering fewer rows than this are aggregated on the request thread
+     */
+    private long parallelMinRows = 1_000_000L;
+
+    public int getDays() {
+        return days;
+    }
+
+    public void setDays(int days) {
+        this.days = days;
+    }
+
+    public int getSegmentCapacity() {
+        return segmentCapacity;
+    }
+
+    public void setSegmentCapacity(int segmentCapacity) {
+        this.segmentCapacity = segmentCapacity;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public int getRebuildMinutes() {
+        return rebuildMinutes;
+    }
+
+    public void setRebuildMinutes(int rebuildMinutes) {
+        this.rebuildMinutes = rebuildMinutes;
+    }
+
+    public int getCommitLagSeconds() {
+        return commitLagSeconds;
+    }
+
+    public void setCommitLagSeconds(int commitLagSeconds) {
+        this.commitLagSeconds = commitLagSeconds;
+    }
+
+    public int getMaxIdGaps() {
+        return maxIdGaps;
+    }
+
+    public void setMaxIdGaps(int maxIdGaps) {
+        this.maxIdGaps = maxIdGaps;
+    }
+
+    public boolean isVectorKernels() {
+        return vectorKernels;
+    }
+
+    public void setVectorKernels(boolean vectorKernels) {
+        this.vectorKernels = vectorKernels;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    public long getParallelMinRows() {
+        return parallelMinRows;
+    }
+
+    public void setParallelMinRows(long parallelMinRows) {
+        this.parallelMinRows = parallelMinRows;
+    }
+}
@@ -0,0 +1,39 @@
+package com.payment.config;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+
+/**
+ * Settings for sharing one computation between identical concurrent reads
+ * (request-coalescing.*)
+ */
+@ConfigurationProperties("request-coalescing")
+public class RequestCoalescingProperties {
+
+    /**
+     * Let identical report and merchant page requests that overlap wait for the
+     * one already running instead of querying again
+     */
+    private boolean enabled = true;
+
+    /**
+     * Keys counted individually per read; a new key beyond that replaces the
+     * one called least recently
+     */
+    private int maxTrackedKeys = 1000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxTrackedKeys() {
+        return maxTrackedKeys;
+    }
+
+    public void setMaxTrackedKeys(int maxTrackedKeys) {
+        this.maxTrackedKeys = maxTrackedKeys;
+    }
+}
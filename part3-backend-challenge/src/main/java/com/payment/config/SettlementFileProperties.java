@@ -0,0 +1,64 @@
+package com.payment.config;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+
+/**
+ * Settings for settlement file generation (settlement.files.*)
+ */
+@ConfigurationProperties("settlement.files")
+public class SettlementFileProperties {
+
+    /**
+     * Root directory; each run gets a sub-directory, linked as the settlement
+     * date once complete
+     */
+    private String directory = "settlement-files";
+
+    /**
+     * Member files written at the same time. Each holds a database connection
+     * while it streams, so keep this below the datasource pool size.
+     */
+    private int parallelism = 4;
+
+    /**
+     * Rows fetched per round trip from a member's cursor
+     */
+    private int fetchSize = 5000;
+
+    /**
+     * Write buffer per member file, in bytes
+     */
+    private int bufferSize = 64 * 1024;
+
+    public String getDirectory() {
+        return directory;
+    }
+
+    public void setDirectory(String directory) {
+        this.directory = directory;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    public void setFetchSize(int fetchSize) {
+        this.fetchSize = fetchSize;
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public void setBufferSize(int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+}
@@ -0,0 +1,37 @@
+package com.payment.config;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+
+/**
+ * Settings for the settlement position verifier (settlement.verify.*)
+ */
+@ConfigurationProperties("settlement.verify")
+public class SettlementProperties {
+
+    /**
+     * Most recent days checked on each run, today included; older days only
+     * change through late updates and can be checked on demand
+     */
+    private int days = 2;
+
+    /**
+     * Rebuild a day from the raw transactions when its positions differ
+     */
+    private boolean repair = true;
+
+    public int getDays() {
+        return days;
+    }
+
+    public void setDays(int days) {
+        this.days = days;
+    }
+
+    public boolean isRepair() {
+        return repair;
+    }
+
+    public void setRepair(boolean repair) {
+        this.repair = repair;
+    }
+}
@@ -62,7 +62,7 @@ public class MerchantController {
         }
 
         @Get
-        @Operation(summary = "Get all merchants", description = "Retrieve merchants with optional filtering, sorting, and pagination")
+        @Operation(summary = "Get all merchants", description = "Retrieve merchants with optional filtering, sorting, and pagination. Set includeStats=true to attach per-merchant transaction statistics")
         public HttpResponse<ApiResponse<MerchantListResponse>> getMerchants(
                         @QueryValue Optional<String> merchantName,
                         @QueryValue Optional<String> merchantId,
@@ -70,13 +70,14 @@ public class MerchantController {
                         @QueryValue Optional<String> sortBy,
                         @QueryValue Optional<String> sortDirection,
                         @QueryValue Optional<Integer> page,
-                        @QueryValue Optional<Integer> size) {
+                        @QueryValue Optional<Integer> size,
+                        @QueryValue Optional<Boolean> includeStats) {
 
                 LOG.info("GET /api/v1/merchants - merchantName: {}, merchantId: {}, isActive: {}, " +
-                                "sortBy: {}, sortDirection: {}, page: {}, size: {}",
+                                "sortBy: {}, sortDirection: {}, page: {}, size: {}, includeStats: {}",
                                 merchantName.orElse(null), merchantId.orElse(null), isActive.orElse(null),
                                 sortBy.orElse(null), sortDirection.orElse(null),
-                                page.orElse(null), size.orElse(null));
+                                page.orElse(null), size.orElse(null), includeStats.orElse(null));
 
                 // Build request object
                 MerchantSearchRequest request = MerchantSearchRequest.builder()
@@ -87,6 +88,7 @@ public class MerchantController {
                                 .sortDirection(sortDirection.orElse("DESC"))
                                 .page(page.orElse(0))
                                 .size(size.orElse(20))
+                                .includeStats(includeStats.orElse(false))
                                 .build();
 
                 // Get merchants
@@ -0,0 +1,79 @@
+package com.payment.controller;
+
+import com.payment.dto.common.ApiResponse;
+import com.payment.dto.settlement.DailySettlementResponse;
+import com.payment.dto.settlement.SettlementFileManifestResponse;
+import com.payment.dto.settlement.SettlementVerificationResponse;
+import com.payment.service.SettlementFileGenerator;
+import com.payment.service.SettlementService;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.annotation.Controller;
+import io.micronaut.http.annotation.Get;
+import io.micronaut.http.annotation.Post;
+import io.micronaut.http.annotation.QueryValue;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+@Controller("/api/v1/settlements")
+@Tag(name = "Settlements")
+public class SettlementController {
+
+        private static final Logger LOG = LoggerFactory.getLogger(SettlementController.class);
+        private final SettlementService settlementService;
+        private final SettlementFileGenerator settlementFileGenerator;
+
+        public SettlementController(SettlementService settlementService,
+                        SettlementFileGenerator settlementFileGenerator) {
+                this.settlementService = settlementService;
+                this.settlementFileGenerator = settlementFileGenerator;
+        }
+
+        @Get("/daily{?date,memberId}")
+        @Operation(summary = "Get daily settlement positions", description = "Returns each member's completed acquired and issued totals per currency for one day (yesterday by default), and the net amount it receives or pays. Positions are maintained as transactions complete")
+        public HttpResponse<ApiResponse<DailySettlementResponse>> getDailySettlement(
+                        @QueryValue @Nullable @Pattern(regexp = "\\d{4}-\\d{2}-\\d{2}", message = "date must be in ISO date format (YYYY-MM-DD)") String date,
+                        @QueryValue @Nullable Long memberId) {
+
+                LOG.info("GET /api/v1/settlements/daily - date: {}, memberId: {}", date, memberId);
+
+                DailySettlementResponse response = settlementService.getDailySettlement(settlementDate(date), memberId);
+
+                return HttpResponse.ok(ApiResponse.success("Settlement positions retrieved successfully", response));
+        }
+
+        @Post("/verify{?date,repair}")
+        @Operation(summary = "Verify daily settlement positions", description = "Recomputes a day's positions (yesterday by default) from the transactions and lists the ones that differ; with repair=true the day is rebuilt when they do")
+        public HttpResponse<ApiResponse<SettlementVerificationResponse>> verifySettlement(
+                        @QueryValue @Nullable @Pattern(regexp = "\\d{4}-\\d{2}-\\d{2}", message = "date must be in ISO date format (YYYY-MM-DD)") String date,
+                        @QueryValue(defaultValue = "false") boolean repair) {
+
+                LOG.info("POST /api/v1/settlements/verify - date: {}, repair: {}", date, repair);
+
+                SettlementVerificationResponse response = settlementService.verify(settlementDate(date), repair);
+
+                return HttpResponse.ok(ApiResponse.success("Settlement positions verified", response));
+        }
+
+        @Post("/files{?date}")
+        @Operation(summary = "Generate settlement files", description = "Writes one CSV of completed transactions per member for a day (yesterday by default), in parallel, and a manifest with each file's row count, size and SHA-256. Returns the manifest and the generation time")
+        public HttpResponse<ApiResponse<SettlementFileManifestResponse>> generateSettlementFiles(
+                        @QueryValue @Nullable @Pattern(regexp = "\\d{4}-\\d{2}-\\d{2}", message = "date must be in ISO date format (YYYY-MM-DD)") String date) {
+
+                LOG.info("POST /api/v1/settlements/files - date: {}", date);
+
+                SettlementFileManifestResponse response = settlementFileGenerator.generate(settlementDate(date));
+
+                return HttpResponse.ok(ApiResponse.success("Settlement files generated", response));
+        }
+
+        private static LocalDate settlementDate(String date) {
+                return date != null ? LocalDate.parse(date) : LocalDate.now(ZoneOffset.UTC).minusDays(1);
+        }
+}
@@ -1,24 +1,48 @@
 package com.payment.controller;
 
+import com.payment.analytics.LiveDayAggregator;
 import com.payment.dto.common.ApiResponse;
+import com.payment.dto.reports.DeclineAnalyticsResponse;
+import com.payment.dto.reports.LiveMetricsEvent;
+import com.payment.dto.reports.MemberReportsResponse;
 import com.payment.dto.reports.TransactionReportsResponse;
 import com.payment.dto.transaction.MerchantTransactionResponse;
+import com.payment.dto.transaction.PaymentBatchRequest;
+import com.payment.dto.transaction.PaymentBatchResponse;
+import com.payment.dto.transaction.TransactionBatchRequest;
+import com.payment.dto.transaction.TransactionBatchResponse;
+import com.payment.dto.transaction.TransactionFilterRequest;
+import com.payment.dto.transaction.TransactionFilterResponse;
 import com.payment.dto.transaction.TransactionRequest;
+import com.payment.ingest.GroupCommitPipeline;
+import com.payment.repository.MemberReportRepository.Role;
+import com.payment.service.DeclineAnalyticsService;
+import com.payment.service.MemberReportService;
+import com.payment.service.PaymentProcessingService;
 import com.payment.service.TransactionService;
 import io.micronaut.core.annotation.Nullable;
 import io.micronaut.http.HttpResponse;
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.MediaType;
+import io.micronaut.http.annotation.Body;
 import io.micronaut.http.annotation.Controller;
 import io.micronaut.http.annotation.Get;
 import io.micronaut.http.annotation.PathVariable;
+import io.micronaut.http.annotation.Post;
 import io.micronaut.http.annotation.QueryValue;
+import io.micronaut.http.sse.Event;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.Pattern;
+import org.reactivestreams.Publisher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
 
 @Controller("/api/v1/transactions")
 @Tag(name = "Transactions")
@@ -26,23 +50,118 @@ public class TransactionController {
 
         private static final Logger LOG = LoggerFactory.getLogger(TransactionController.class);
         private final TransactionService transactionService;
+        private final GroupCommitPipeline groupCommitPipeline;
+        private final PaymentProcessingService paymentProcessingService;
+        private final MemberReportService memberReportService;
+        private final DeclineAnalyticsService declineAnalyticsService;
+        private final LiveDayAggregator liveDayAggregator;
 
-        public TransactionController(TransactionService transactionService) {
+        public TransactionController(TransactionService transactionService,
+                        GroupCommitPipeline groupCommitPipeline,
+                        PaymentProcessingService paymentProcessingService,
+                        MemberReportService memberReportService,
+                        DeclineAnalyticsService declineAnalyticsService,
+                        LiveDayAggregator liveDayAggregator) {
                 this.transactionService = transactionService;
+                this.groupCommitPipeline = groupCommitPipeline;
+                this.paymentProcessingService = paymentProcessingService;
+                this.memberReportService = memberReportService;
+                this.declineAnalyticsService = declineAnalyticsService;
+                this.liveDayAggregator = liveDayAggregator;
+        }
+
+        @Post("/batch")
+        @Operation(summary = "Ingest a batch of transactions", description = "Writes transactions with their detail lines; either the whole batch is stored or none of it. Batches are queued and committed in groups, and the response is sent once the batch's group has committed. Returns the transaction IDs in request order")
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "201", description = "Batch written")
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "202", description = "Batch stored in the ingestion journal (when enabled); it is written shortly, and its counts are provisional")
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Invalid transaction, or batch too large")
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "429", description = "Ingestion buffer full; retry after the Retry-After delay")
+        public CompletableFuture<HttpResponse<ApiResponse<TransactionBatchResponse>>> ingestTransactions(
+                        @Valid @Body TransactionBatchRequest request) {
+                LOG.info("POST /api/v1/transactions/batch - {} transactions",
+                                request.getTransactions() != null ? request.getTransactions().size() : 0);
+
+                return groupCommitPipeline.submit(request)
+                                .thenApply(response -> {
+                                        if (response.getJournalSequence() != null) {
+                                                return HttpResponse.<ApiResponse<TransactionBatchResponse>>accepted()
+                                                                .body(new ApiResponse<>(
+                                                                                HttpStatus.ACCEPTED.getCode(),
+                                                                                true,
+                                                                                "Transactions accepted for ingestion",
+                                                                                response));
+                                        }
+                                        return HttpResponse.created(new ApiResponse<>(
+                                                        HttpStatus.CREATED.getCode(),
+                                                        true,
+                                                        "Transactions ingested successfully",
+                                                        response));
+                                });
+        }
+
+        @Post("/process")
+        @Operation(summary = "Settle pending transactions", description = "Completes each pending transaction, or marks it failed when its amount is not positive. Transactions are written in chunks, each in its own database transaction; the response lists every transaction that was not completed and why")
+        public HttpResponse<ApiResponse<PaymentBatchResponse>> processPayments(@Valid @Body PaymentBatchRequest request) {
+                LOG.info("POST /api/v1/transactions/process - {} transactions",
+                                request.getTxnIds() != null ? request.getTxnIds().size() : 0);
+
+                PaymentBatchResponse response = paymentProcessingService.processPending(request.getTxnIds());
+
+                return HttpResponse.ok(ApiResponse.success("Transactions processed", response));
+        }
+
+        @Get("/filter")
+        @Operation(summary = "Filter recent transactions across merchants", description = "Counts and pages transactions in the recent-transaction window matching any combination of merchant, status, card type, currency and date. Every filter accepts comma-separated values; results are newest first")
+        public HttpResponse<ApiResponse<TransactionFilterResponse>> filterTransactions(
+                        @QueryValue(defaultValue = "0") @Min(0) Integer page,
+                        @QueryValue(defaultValue = "20") @Min(1) Integer size,
+                        @QueryValue @Nullable @Pattern(regexp = "\\d{4}-\\d{2}-\\d{2}", message = "startDate must be in ISO date format (YYYY-MM-DD)") String startDate,
+                        @QueryValue @Nullable @Pattern(regexp = "\\d{4}-\\d{2}-\\d{2}", message = "endDate must be in ISO date format (YYYY-MM-DD)") String endDate,
+                        @QueryValue @Nullable String merchantId,
+                        @QueryValue @Nullable String status,
+                        @QueryValue @Nullable String cardType,
+                        @QueryValue @Nullable String currency) {
+
+                LOG.info("GET /api/v1/transactions/filter - page: {}, size: {}, startDate: {}, endDate: {}, merchantId: {}, "
+                                + "status: {}, cardType: {}, currency: {}",
+                                page, size, startDate, endDate, merchantId, status, cardType, currency);
+
+                TransactionFilterRequest request = TransactionFilterRequest.builder()
+                                .page(page)
+                                .size(size)
+                                .startDate(startDate != null ? LocalDate.parse(startDate) : null)
+                                .endDate(endDate != null ? LocalDate.parse(endDate) : null)
+                                .merchantId(merchantId)
+                                .status(status)
+                                .cardType(cardType)
+                                .currency(currency)
+                                .build();
+
+                TransactionFilterResponse response = transactionService.filterTransactions(request);
+
+                LOG.info("Filter matched {} transactions in {} us", response.getMatchCount(), response.getQueryMicros());
+
+                return HttpResponse.ok(ApiResponse.success("Transactions filtered successfully", response));
         }
 
         @Get("/{merchantId}")
-        @Operation(summary = "Get merchant transactions", description = "Returns filtered and paginated list of transactions for a merchant with summary information")
+        @Operation(summary = "Get merchant transactions", description = "Returns filtered and paginated list of transactions for a merchant with summary information. status and cardType accept comma-separated values")
         public HttpResponse<ApiResponse<MerchantTransactionResponse>> getTransactions(
                         @PathVariable String merchantId,
                         @QueryValue(defaultValue = "0") @Min(0) Integer page,
                         @QueryValue(defaultValue = "20") @Min(1) Integer size,
                         @QueryValue @Nullable @Pattern(regexp = "\\d{4}-\\d{2}-\\d{2}", message = "startDate must be in ISO date format (YYYY-MM-DD)") String startDate,
                         @QueryValue @Nullable @Pattern(regexp = "\\d{4}-\\d{2}-\\d{2}", message = "endDate must be in ISO date format (YYYY-MM-DD)") String endDate,
-                        @QueryValue @Nullable String status) {
+                        @QueryValue @Nullable String status,
+                        @QueryValue @Nullable String cardType,
+                        @QueryValue @Nullable BigDecimal minAmount,
+                        @QueryValue @Nullable BigDecimal maxAmount,
+                        @QueryValue @Nullable @Pattern(regexp = "[A-Za-z]{3}", message = "currency must be a 3-letter ISO code") String currency) {
 
-                LOG.info("GET /api/v1/merchants/{}/transactions - page: {}, size: {}, startDate: {}, endDate: {}, status: {}",
-                                merchantId, page, size, startDate, endDate, status);
+                LOG.info("GET /api/v1/merchants/{}/transactions - page: {}, size: {}, startDate: {}, endDate: {}, status: {}, "
+                                + "cardType: {}, minAmount: {}, maxAmount: {}, currency: {}",
+                                merchantId, page, size, startDate, endDate, status, cardType, minAmount, maxAmount,
+                                currency);
 
                 TransactionRequest request = TransactionRequest.builder()
                                 .page(page)
@@ -50,6 +169,10 @@ public class TransactionController {
                                 .startDate(startDate != null ? LocalDate.parse(startDate) : null)
                                 .endDate(endDate != null ? LocalDate.parse(endDate) : null)
                                 .status(status)
+                                .cardType(cardType)
+                                .minAmount(minAmount)
+                                .maxAmount(maxAmount)
+                                .currency(currency)
                                 .build();
 
                 MerchantTransactionResponse response = transactionService.getMerchantTransactions(merchantId, request);
@@ -78,4 +201,66 @@ public class TransactionController {
 
                 return HttpResponse.ok(ApiResponse.success("Transaction reports generated successfully", response));
         }
+
+        @Get("/reports/acquirers{?startDate,endDate,memberId}")
+        @Operation(summary = "Get transaction reports per acquirer", description = "Returns volume, success rate and card type mix for each acquiring member (or one member), from per-member daily aggregates")
+        public HttpResponse<ApiResponse<MemberReportsResponse>> getAcquirerReports(
+                        @QueryValue @Nullable @Pattern(regexp = "\\d{4}-\\d{2}-\\d{2}", message = "startDate must be in ISO date format (YYYY-MM-DD)") String startDate,
+                        @QueryValue @Nullable @Pattern(regexp = "\\d{4}-\\d{2}-\\d{2}", message = "endDate must be in ISO date format (YYYY-MM-DD)") String endDate,
+                        @QueryValue @Nullable Long memberId) {
+
+                LOG.info("GET /api/v1/transactions/reports/acquirers - startDate: {}, endDate: {}, memberId: {}",
+                                startDate, endDate, memberId);
+
+                return HttpResponse.ok(ApiResponse.success("Acquirer reports generated successfully",
+                                memberReports(Role.ACQUIRER, startDate, endDate, memberId)));
+        }
+
+        @Get("/reports/issuers{?startDate,endDate,memberId}")
+        @Operation(summary = "Get transaction reports per issuer", description = "Returns volume, success rate and card type mix for each issuing member (or one member), from per-member daily aggregates")
+        public HttpResponse<ApiResponse<MemberReportsResponse>> getIssuerReports(
+                        @QueryValue @Nullable @Pattern(regexp = "\\d{4}-\\d{2}-\\d{2}", message = "startDate must be in ISO date format (YYYY-MM-DD)") String startDate,
+                        @QueryValue @Nullable @Pattern(regexp = "\\d{4}-\\d{2}-\\d{2}", message = "endDate must be in ISO date format (YYYY-MM-DD)") String endDate,
+                        @QueryValue @Nullable Long memberId) {
+
+                LOG.info("GET /api/v1/transactions/reports/issuers - startDate: {}, endDate: {}, memberId: {}",
+                                startDate, endDate, memberId);
+
+                return HttpResponse.ok(ApiResponse.success("Issuer reports generated successfully",
+                                memberReports(Role.ISSUER, startDate, endDate, memberId)));
+        }
+
+        @Get("/reports/declines{?hours,issuerId}")
+        @Operation(summary = "Get decline analytics", description = "Returns declined (failed) transactions per response code, issuer and hour for the last `hours` hours (24 by default), from the hourly snapshots every instance writes, plus this instance's counts not yet written")
+        public HttpResponse<ApiResponse<DeclineAnalyticsResponse>> getDeclineAnalytics(
+                        @QueryValue(defaultValue = "24") @Min(value = 1, message = "hours must be at least 1") int hours,
+                        @QueryValue @Nullable Long issuerId) {
+
+                LOG.info("GET /api/v1/transactions/reports/declines - hours: {}, issuerId: {}", hours, issuerId);
+
+                DeclineAnalyticsResponse response = declineAnalyticsService.getDeclines(hours, issuerId);
+
+                return HttpResponse.ok(ApiResponse.success("Decline analytics generated successfully", response));
+        }
+
+        @Get(value = "/reports/live", produces = MediaType.TEXT_EVENT_STREAM)
+        @Operation(summary = "Stream today's transaction metrics", description = "Server-sent events with today's (UTC) transaction count and amount by status and card type: a `snapshot` event first, then a `delta` event with the changes each time they change. A client that reads slowly gets its pending deltas merged into one event")
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Event stream")
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "429", description = "Too many open streams")
+        public Publisher<Event<LiveMetricsEvent>> streamLiveMetrics() {
+                LOG.info("GET /api/v1/transactions/reports/live - subscribers: {}",
+                                liveDayAggregator.getSubscriberCount());
+
+                return liveDayAggregator.subscribe()
+                                .map(event -> Event.of(event)
+                                                .name(event.getType())
+                                                .id(String.valueOf(event.getSequence())));
+        }
+
+        private MemberReportsResponse memberReports(Role role, String startDate, String endDate, Long memberId) {
+                return memberReportService.getMemberReports(role,
+                                startDate != null ? LocalDate.parse(startDate) : null,
+                                endDate != null ? LocalDate.parse(endDate) : null,
+                                memberId);
+        }
 }
@@ -0,0 +1,31 @@
+package com.payment.dto.common;
+
+import io.micronaut.serde.annotation.Serdeable;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Serdeable
+@Schema(description = "Where the data was read from and how fresh it is")
+public class ConsistencyDTO {
+
+    @Schema(description = "Data source: hot-window, bitmap-index or report-cache (in-memory) or database",
+            example = "hot-window")
+    private String source;
+
+    @Schema(description = "Highest transaction ID applied to the in-memory copy (in-memory sources only)",
+            example = "5012345")
+    private Long watermarkTxnId;
+
+    @Schema(description = "Time of the last completed sync; rows committed before it are included "
+            + "(in-memory sources only)")
+    private Instant watermarkAt;
+}
@@ -49,4 +49,7 @@ public class MerchantResponse {
 
     @Schema(description = "Last update timestamp", example = "2024-11-22T14:30:00Z")
     private Instant updatedAt;
+
+    @Schema(description = "Transaction statistics (only populated when includeStats=true)", nullable = true)
+    private MerchantTransactionStatsDTO transactionStats;
 }
@@ -47,4 +47,8 @@ public class MerchantSearchRequest {
         @Min(value = 1, message = "Size must be greater than or equal to 1")
         @Builder.Default
         private Integer size = 20;
+
+        @Schema(description = "Include per-merchant transaction statistics", example = "false")
+        @Builder.Default
+        private Boolean includeStats = false;
 }
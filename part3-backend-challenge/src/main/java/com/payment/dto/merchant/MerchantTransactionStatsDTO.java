@@ -0,0 +1,29 @@
+package com.payment.dto.merchant;
+
+import io.micronaut.serde.annotation.Serdeable;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Serdeable
+@Schema(description = "Aggregated transaction statistics for a merchant")
+public class MerchantTransactionStatsDTO {
+
+    @Schema(description = "Total number of transactions", example = "1523")
+    private Long totalTransactions;
+
+    @Schema(description = "Total amount of completed transactions", example = "245670.50")
+    private BigDecimal completedAmount;
+
+    @Schema(description = "Date of the most recent transaction", example = "2025-11-18", nullable = true)
+    private LocalDate lastTransactionDate;
+}
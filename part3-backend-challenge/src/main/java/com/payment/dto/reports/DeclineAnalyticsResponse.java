@@ -0,0 +1,47 @@
+package com.payment.dto.reports;
+
+import io.micronaut.serde.annotation.Serdeable;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Response DTO for decline analytics
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Serdeable
+@Schema(description = "Declines per response code, issuer and hour over a window of recent hours")
+public class DeclineAnalyticsResponse {
+
+    @Schema(description = "Window covered, whole hours up to and including the current one")
+    private ReportPeriodDTO reportPeriod;
+
+    @Schema(description = "Where the counts came from: snapshots (hourly table written by every instance), "
+            + "plus memory when this instance's counts not yet written are included", example = "snapshots+memory")
+    private String source;
+
+    @Schema(description = "Number of transactions", example = "196000")
+    private Long totalTransactions;
+
+    @Schema(description = "Number of declined (failed) transactions", example = "3920")
+    private Long totalDeclines;
+
+    @Schema(description = "Decline rate percentage", example = "2.0")
+    private Double declineRate;
+
+    @Schema(description = "Response codes by declines, most first")
+    private List<ResponseCodeDeclineDTO> byResponseCode;
+
+    @Schema(description = "Issuers by declines, most first")
+    private List<IssuerDeclineDTO> byIssuer;
+
+    @Schema(description = "Hours in order; hours without transactions are omitted")
+    private List<HourlyDeclineDTO> hourly;
+}
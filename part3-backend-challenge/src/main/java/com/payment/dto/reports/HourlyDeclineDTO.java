@@ -0,0 +1,34 @@
+package com.payment.dto.reports;
+
+import io.micronaut.serde.annotation.Serdeable;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * DTO for the declines of one hour
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Serdeable
+@Schema(description = "Transactions and declines of one hour")
+public class HourlyDeclineDTO {
+
+    @Schema(description = "Start of the hour", example = "2025-11-18T14:00:00Z")
+    private Instant hourStart;
+
+    @Schema(description = "Number of transactions", example = "8210")
+    private Long transactions;
+
+    @Schema(description = "Number of declined (failed) transactions", example = "164")
+    private Long declines;
+
+    @Schema(description = "Decline rate percentage", example = "2.0")
+    private Double declineRate;
+}
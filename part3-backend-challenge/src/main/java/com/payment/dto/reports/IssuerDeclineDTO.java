@@ -0,0 +1,32 @@
+package com.payment.dto.reports;
+
+import io.micronaut.serde.annotation.Serdeable;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for the declines of one issuer
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Serdeable
+@Schema(description = "Transactions and declines of one issuer")
+public class IssuerDeclineDTO {
+
+    @Schema(description = "Issuer member ID; 0 for transactions without an issuer", example = "12")
+    private Long issuerId;
+
+    @Schema(description = "Number of transactions", example = "1520")
+    private Long transactions;
+
+    @Schema(description = "Number of declined (failed) transactions", example = "95")
+    private Long declines;
+
+    @Schema(description = "Decline rate percentage", example = "6.25")
+    private Double declineRate;
+}
@@ -0,0 +1,28 @@
+package com.payment.dto.reports;
+
+import io.micronaut.serde.annotation.Serdeable;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO for a transaction count and amount in a live metrics event
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Serdeable
+@Schema(description = "Transaction count and amount; in a delta event, the change since the previous event")
+public class LiveCountDTO {
+
+    @Schema(description = "Number of transactions", example = "42")
+    private Long count;
+
+    @Schema(description = "Sum of the transaction amounts", example = "1250.75")
+    private BigDecimal amount;
+}
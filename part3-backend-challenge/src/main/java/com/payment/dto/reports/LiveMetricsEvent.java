@@ -0,0 +1,44 @@
+package com.payment.dto.reports;
+
+import io.micronaut.serde.annotation.Serdeable;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * DTO for one event of the live metrics stream
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Serdeable
+@Schema(description = "Today's transaction totals (snapshot) or their change since the previous event (delta)")
+public class LiveMetricsEvent {
+
+    @Schema(description = "snapshot: the totals replace what the client holds; delta: add the values to them", example = "delta")
+    private String type;
+
+    @Schema(description = "Transaction date (UTC) the totals are for", example = "2025-11-18")
+    private LocalDate date;
+
+    @Schema(description = "Sequence number of the last update included in this event", example = "1024")
+    private Long sequence;
+
+    @Schema(description = "Number of published updates this event carries; above 1 when a slow client's updates were merged", example = "1")
+    private Integer updates;
+
+    @Schema(description = "Transactions and their amount")
+    private LiveCountDTO total;
+
+    @Schema(description = "Transactions and amount by status; a settled transaction moves from pending to its new status")
+    private Map<String, LiveCountDTO> byStatus;
+
+    @Schema(description = "Transactions and amount by card type")
+    private Map<String, LiveCountDTO> byCardType;
+}
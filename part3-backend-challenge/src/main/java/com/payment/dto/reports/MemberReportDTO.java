@@ -0,0 +1,46 @@
+package com.payment.dto.reports;
+
+import io.micronaut.serde.annotation.Serdeable;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO for one member's volume, success rate and card mix
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Serdeable
+@Schema(description = "Transaction metrics of one acquirer or issuer member")
+public class MemberReportDTO {
+
+    @Schema(description = "Member ID", example = "12")
+    private Long memberId;
+
+    @Schema(description = "Member name", example = "First Acquiring Bank")
+    private String memberName;
+
+    @Schema(description = "Member code", example = "ACQ012")
+    private String memberCode;
+
+    @Schema(description = "Number of transactions, all statuses", example = "48211")
+    private Long totalTransactions;
+
+    @Schema(description = "Amount of all transactions", example = "2410550.00")
+    private BigDecimal totalAmount;
+
+    @Schema(description = "Amount of completed transactions", example = "2218006.25")
+    private BigDecimal completedAmount;
+
+    @Schema(description = "Success and failure rates")
+    private SuccessRateMetricsDTO successRateMetrics;
+
+    @Schema(description = "Card type mix")
+    private CardTypeDistributionDTO cardTypeDistribution;
+}
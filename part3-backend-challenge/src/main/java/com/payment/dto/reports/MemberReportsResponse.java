@@ -0,0 +1,34 @@
+package com.payment.dto.reports;
+
+import io.micronaut.serde.annotation.Serdeable;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Response DTO for the acquirer and issuer reports
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Serdeable
+@Schema(description = "Transaction metrics per acquirer or issuer member")
+public class MemberReportsResponse {
+
+    @Schema(description = "Report period")
+    private ReportPeriodDTO reportPeriod;
+
+    @Schema(description = "Side the members are reported on", example = "acquirer")
+    private String role;
+
+    @Schema(description = "Number of members with transactions in the period", example = "480")
+    private Integer memberCount;
+
+    @Schema(description = "Metrics by member")
+    private List<MemberReportDTO> members;
+}
@@ -0,0 +1,32 @@
+package com.payment.dto.reports;
+
+import io.micronaut.serde.annotation.Serdeable;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for the declines of one response code
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Serdeable
+@Schema(description = "Transactions and declines with one response code")
+public class ResponseCodeDeclineDTO {
+
+    @Schema(description = "Response code; unknown when none was recorded", example = "05")
+    private String responseCode;
+
+    @Schema(description = "Number of transactions", example = "410")
+    private Long transactions;
+
+    @Schema(description = "Number of declined (failed) transactions", example = "410")
+    private Long declines;
+
+    @Schema(description = "Share of all declines in the window, percentage", example = "62.5")
+    private Double declineShare;
+}
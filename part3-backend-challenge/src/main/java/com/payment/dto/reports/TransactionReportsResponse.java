@@ -1,5 +1,6 @@
 package com.payment.dto.reports;
 
+import com.payment.dto.common.ConsistencyDTO;
 import io.micronaut.serde.annotation.Serdeable;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.AllArgsConstructor;
@@ -35,4 +36,7 @@ public class TransactionReportsResponse {
 
     @Schema(description = "Card type distribution")
     private CardTypeDistributionDTO cardTypeDistribution;
+
+    @Schema(description = "Source and freshness of the figures")
+    private ConsistencyDTO consistency;
 }
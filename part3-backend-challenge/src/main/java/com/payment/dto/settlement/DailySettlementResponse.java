@@ -0,0 +1,28 @@
+package com.payment.dto.settlement;
+
+import io.micronaut.serde.annotation.Serdeable;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Serdeable
+@Schema(description = "Settlement positions of every member for one day")
+public class DailySettlementResponse {
+
+    @Schema(description = "Settlement date (YYYY-MM-DD)", example = "2025-11-18")
+    private String settlementDate;
+
+    @Schema(description = "Number of members with a position", example = "480")
+    private Integer memberCount;
+
+    @Schema(description = "Positions by member, then currency")
+    private List<MemberSettlementDTO> positions;
+}
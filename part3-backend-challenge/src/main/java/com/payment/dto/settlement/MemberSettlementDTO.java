@@ -0,0 +1,46 @@
+package com.payment.dto.settlement;
+
+import io.micronaut.serde.annotation.Serdeable;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Serdeable
+@Schema(description = "A member's settlement position in one currency for one day")
+public class MemberSettlementDTO {
+
+    @Schema(description = "Member ID", example = "1")
+    private Long memberId;
+
+    @Schema(description = "Member name", example = "Global Acquiring Bank")
+    private String memberName;
+
+    @Schema(description = "Member code", example = "GAB01")
+    private String memberCode;
+
+    @Schema(description = "Currency", example = "USD")
+    private String currency;
+
+    @Schema(description = "Completed transactions the member acquired", example = "1520")
+    private Long acquiredCount;
+
+    @Schema(description = "Amount of the acquired transactions, owed to the member", example = "152340.50")
+    private BigDecimal acquiredAmount;
+
+    @Schema(description = "Completed transactions on cards the member issued", example = "980")
+    private Long issuedCount;
+
+    @Schema(description = "Amount of the issued transactions, owed by the member", example = "98020.00")
+    private BigDecimal issuedAmount;
+
+    @Schema(description = "Acquired minus issued amount; positive when the member receives funds", example = "54320.50")
+    private BigDecimal netAmount;
+}
@@ -0,0 +1,38 @@
+package com.payment.dto.settlement;
+
+import io.micronaut.serde.annotation.Serdeable;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Serdeable
+@Schema(description = "One member's settlement file")
+public class SettlementFileDTO {
+
+    @Schema(description = "File name within the day's directory", example = "member-12.csv")
+    private String fileName;
+
+    @Schema(description = "Member ID", example = "12")
+    private Long memberId;
+
+    @Schema(description = "Member code", example = "ACQ012")
+    private String memberCode;
+
+    @Schema(description = "Transactions in the file", example = "48211")
+    private Long rows;
+
+    @Schema(description = "File size in bytes", example = "4718210")
+    private Long bytes;
+
+    @Schema(description = "SHA-256 of the file, hex encoded")
+    private String sha256;
+
+    @Schema(description = "Time spent writing the file, in milliseconds", example = "412")
+    private Long elapsedMillis;
+}
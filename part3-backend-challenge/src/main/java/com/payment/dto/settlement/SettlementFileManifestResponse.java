@@ -0,0 +1,49 @@
+package com.payment.dto.settlement;
+
+import io.micronaut.serde.annotation.Serdeable;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Serdeable
+@Schema(description = "Settlement files generated for one day and their manifest")
+public class SettlementFileManifestResponse {
+
+    @Schema(description = "Settlement date (YYYY-MM-DD)", example = "2025-11-18")
+    private String settlementDate;
+
+    @Schema(description = "Directory of this run, holding the files and the manifest; the settlement date's link points here once the run is complete")
+    private String directory;
+
+    @Schema(description = "Manifest file name", example = "manifest.csv")
+    private String manifestFile;
+
+    @Schema(description = "Number of member files", example = "480")
+    private Integer fileCount;
+
+    @Schema(description = "Transactions across all files; one issued by one member and acquired by another appears in both files", example = "396420")
+    private Long totalRows;
+
+    @Schema(description = "Bytes across all files", example = "38811204")
+    private Long totalBytes;
+
+    @Schema(description = "Files written at the same time", example = "4")
+    private Integer parallelism;
+
+    @Schema(description = "End-to-end generation time, in milliseconds", example = "5120")
+    private Long elapsedMillis;
+
+    @Schema(description = "Transactions written per second", example = "77426.0")
+    private Double rowsPerSecond;
+
+    @Schema(description = "Files by member")
+    private List<SettlementFileDTO> files;
+}
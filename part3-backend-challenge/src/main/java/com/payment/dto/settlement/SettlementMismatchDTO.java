@@ -0,0 +1,49 @@
+package com.payment.dto.settlement;
+
+import io.micronaut.serde.annotation.Serdeable;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Serdeable
+@Schema(description = "A settlement position that differs from the raw transactions")
+public class SettlementMismatchDTO {
+
+    @Schema(description = "Member ID", example = "1")
+    private Long memberId;
+
+    @Schema(description = "Currency", example = "USD")
+    private String currency;
+
+    @Schema(description = "Acquired count recomputed from transactions", example = "1520")
+    private Long expectedAcquiredCount;
+
+    @Schema(description = "Acquired amount recomputed from transactions", example = "152340.50")
+    private BigDecimal expectedAcquiredAmount;
+
+    @Schema(description = "Issued count recomputed from transactions", example = "980")
+    private Long expectedIssuedCount;
+
+    @Schema(description = "Issued amount recomputed from transactions", example = "98020.00")
+    private BigDecimal expectedIssuedAmount;
+
+    @Schema(description = "Stored acquired count", example = "1519")
+    private Long storedAcquiredCount;
+
+    @Schema(description = "Stored acquired amount", example = "152300.50")
+    private BigDecimal storedAcquiredAmount;
+
+    @Schema(description = "Stored issued count", example = "980")
+    private Long storedIssuedCount;
+
+    @Schema(description = "Stored issued amount", example = "98020.00")
+    private BigDecimal storedIssuedAmount;
+}
@@ -0,0 +1,34 @@
+package com.payment.dto.settlement;
+
+import io.micronaut.serde.annotation.Serdeable;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Serdeable
+@Schema(description = "Reconciliation of one day's settlement positions against the raw transactions")
+public class SettlementVerificationResponse {
+
+    @Schema(description = "Settlement date (YYYY-MM-DD)", example = "2025-11-18")
+    private String settlementDate;
+
+    @Schema(description = "Stored positions compared", example = "480")
+    private Integer checkedPositions;
+
+    @Schema(description = "Positions that differ")
+    private List<SettlementMismatchDTO> mismatches;
+
+    @Schema(description = "Whether the day was rebuilt from the raw transactions", example = "false")
+    private boolean repaired;
+
+    @Schema(description = "Positions written by the rebuild", example = "0")
+    private Integer repairedPositions;
+}
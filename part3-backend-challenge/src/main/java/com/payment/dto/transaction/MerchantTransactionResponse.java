@@ -1,5 +1,6 @@
 package com.payment.dto.transaction;
 
+import com.payment.dto.common.ConsistencyDTO;
 import com.payment.dto.common.DateRangeDTO;
 import com.payment.dto.common.PaginationDTO;
 import io.micronaut.serde.annotation.Serdeable;
@@ -33,4 +34,7 @@ public class MerchantTransactionResponse {
 
     @Schema(description = "Pagination information")
     private PaginationDTO pagination;
-}
\ No newline at end of file
+
+    @Schema(description = "Source and freshness of the transaction list")
+    private ConsistencyDTO consistency;
+}
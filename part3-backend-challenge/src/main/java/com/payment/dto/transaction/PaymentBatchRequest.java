@@ -0,0 +1,29 @@
+package com.payment.dto.transaction;
+
+import io.micronaut.core.annotation.Introspected;
+import io.micronaut.serde.annotation.Serdeable;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for settling a batch of pending transactions
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Serdeable
+@Introspected
+@Schema(description = "Pending transactions to settle")
+public class PaymentBatchRequest {
+
+    @NotEmpty(message = "At least one transaction ID is required")
+    @Schema(description = "IDs of pending transactions", example = "[1001, 1002, 1003]")
+    private List<Long> txnIds;
+}
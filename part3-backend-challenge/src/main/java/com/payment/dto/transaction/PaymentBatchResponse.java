@@ -0,0 +1,41 @@
+package com.payment.dto.transaction;
+
+import io.micronaut.serde.annotation.Serdeable;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Serdeable
+@Schema(description = "Result of settling a batch of pending transactions")
+public class PaymentBatchResponse {
+
+    @Schema(description = "Number of transactions completed", example = "998")
+    private int completedCount;
+
+    @Schema(description = "Number of transactions not completed", example = "2")
+    private int failedCount;
+
+    @Schema(description = "Sum of the completed amounts", example = "125430.50")
+    private BigDecimal totalCompleted;
+
+    @Schema(description = "IDs of the completed transactions, in request order")
+    private List<Long> completedTxnIds;
+
+    @Schema(description = "Transactions not completed, in request order")
+    private List<PaymentFailureDTO> failures;
+
+    @Schema(description = "Number of chunks the batch was written in", example = "2")
+    private int chunkCount;
+
+    @Schema(description = "Time spent settling the batch in milliseconds", example = "35")
+    private long elapsedMillis;
+}
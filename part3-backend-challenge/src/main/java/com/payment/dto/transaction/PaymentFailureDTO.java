@@ -0,0 +1,29 @@
+package com.payment.dto.transaction;
+
+import io.micronaut.serde.annotation.Serdeable;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Serdeable
+@Schema(description = "A transaction that was not completed, and why")
+public class PaymentFailureDTO {
+
+    @Schema(description = "Transaction ID", example = "1002")
+    private Long txnId;
+
+    @Schema(description = "Reason it was not completed", example = "Invalid amount: 0.00")
+    private String reason;
+
+    @Schema(description = "Whether the transaction was marked failed in the database", example = "true")
+    private boolean persisted;
+
+    @Schema(description = "Whether the transaction will be retried in the background", example = "false")
+    private boolean retryScheduled;
+}
@@ -0,0 +1,31 @@
+package com.payment.dto.transaction;
+
+import io.micronaut.core.annotation.Introspected;
+import io.micronaut.serde.annotation.Serdeable;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for ingesting a batch of transactions with their details
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Serdeable
+@Introspected
+@Schema(description = "Batch of transactions to ingest; the whole batch is written in one database transaction")
+public class TransactionBatchRequest {
+
+    @NotEmpty(message = "At least one transaction is required")
+    @Valid
+    @Schema(description = "Transactions to ingest")
+    private List<TransactionIngestDTO> transactions;
+}
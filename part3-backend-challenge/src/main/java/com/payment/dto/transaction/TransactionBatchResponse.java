@@ -0,0 +1,37 @@
+package com.payment.dto.transaction;
+
+import io.micronaut.serde.annotation.Serdeable;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Serdeable
+@Schema(description = "Result of a transaction batch ingestion")
+public class TransactionBatchResponse {
+
+    @Schema(description = "Number of new transactions written", example = "1000")
+    private int transactionCount;
+
+    @Schema(description = "Number of transactions skipped because they were already stored or repeated in the batch", example = "3")
+    private int duplicateCount;
+
+    @Schema(description = "Number of detail rows written", example = "2500")
+    private int detailCount;
+
+    @Schema(description = "Transaction IDs in request order; a duplicate gets the ID of the stored transaction")
+    private List<Long> txnIds;
+
+    @Schema(description = "Time spent writing the batch in milliseconds", example = "42")
+    private long writeMillis;
+
+    @Schema(description = "Set when the batch was accepted into the ingestion journal (202) rather than written: it is on disk and will be written shortly. The counts are then provisional, of accepted rows: duplicates are only skipped when written, a batch the database rejects is kept in ingest_dead_letter instead, and txnIds is omitted", example = "18231")
+    private Long journalSequence;
+}
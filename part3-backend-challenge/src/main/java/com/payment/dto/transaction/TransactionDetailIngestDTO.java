@@ -0,0 +1,50 @@
+package com.payment.dto.transaction;
+
+import io.micronaut.core.annotation.Introspected;
+import io.micronaut.serde.annotation.Serdeable;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * One transaction_details row of an ingested transaction
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Serdeable
+@Introspected
+@Schema(description = "Transaction detail to ingest")
+public class TransactionDetailIngestDTO {
+
+    @NotBlank(message = "Detail type is required")
+    @Pattern(regexp = "^(fee|tax|adjustment|refund|chargeback)$", message = "Detail type must be one of: fee, tax, adjustment, refund, chargeback")
+    @Schema(description = "Detail type", example = "fee", allowableValues = { "fee", "tax", "adjustment", "refund",
+            "chargeback" })
+    private String type;
+
+    @NotNull(message = "Detail amount is required")
+    @Digits(integer = 13, fraction = 2, message = "Detail amount must have at most 13 integer and 2 fraction digits")
+    @Schema(description = "Detail amount", example = "3.50")
+    private BigDecimal amount;
+
+    @Pattern(regexp = "[A-Z]{3}", message = "Currency must be a 3-letter ISO code")
+    @Schema(description = "Currency code; defaults to the transaction currency", example = "USD")
+    private String currency;
+
+    @Schema(description = "Detail description", example = "Processing fee")
+    private String description;
+
+    @Schema(description = "Detail timestamp; defaults to the transaction timestamp", example = "2025-11-18T14:30:00Z")
+    private Instant localTxnDateTime;
+}
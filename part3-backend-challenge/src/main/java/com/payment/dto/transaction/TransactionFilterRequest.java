@@ -0,0 +1,48 @@
+package com.payment.dto.transaction;
+
+import io.micronaut.core.annotation.Introspected;
+import io.micronaut.serde.annotation.Serdeable;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.validation.constraints.Min;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Serdeable
+@Introspected
+@Schema(description = "Cross-merchant transaction filter over the recent-transaction window; every filter accepts comma-separated values")
+public class TransactionFilterRequest {
+
+    @Schema(description = "Page number", example = "0", defaultValue = "0")
+    @Min(0)
+    private Integer page;
+
+    @Schema(description = "Page size", example = "20", defaultValue = "20")
+    @Min(1)
+    private Integer size;
+
+    @Schema(description = "Filter start date in ISO format; defaults to the window start", example = "2025-11-12")
+    private LocalDate startDate;
+
+    @Schema(description = "Filter end date in ISO format", example = "2025-11-18")
+    private LocalDate endDate;
+
+    @Schema(description = "Filter by merchant ID", example = "MCH-00001,MCH-00002")
+    private String merchantId;
+
+    @Schema(description = "Filter by transaction status", example = "failed,reversed")
+    private String status;
+
+    @Schema(description = "Filter by card type", example = "VISA,AMEX")
+    private String cardType;
+
+    @Schema(description = "Filter by currency code", example = "USD,EUR")
+    private String currency;
+}
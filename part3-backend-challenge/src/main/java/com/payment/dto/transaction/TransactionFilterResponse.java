@@ -0,0 +1,36 @@
+package com.payment.dto.transaction;
+
+import com.payment.dto.common.ConsistencyDTO;
+import com.payment.dto.common.PaginationDTO;
+import io.micronaut.serde.annotation.Serdeable;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Serdeable
+@Schema(description = "Transactions matching a cross-merchant filter, newest first")
+public class TransactionFilterResponse {
+
+    @Schema(description = "Number of matching transactions", example = "1523")
+    private Long matchCount;
+
+    @Schema(description = "Time spent evaluating the filter and locating the page, in microseconds", example = "85")
+    private Long queryMicros;
+
+    @Schema(description = "Matching transactions for the requested page")
+    private List<TransactionResponse> transactions;
+
+    @Schema(description = "Pagination information")
+    private PaginationDTO pagination;
+
+    @Schema(description = "Source and freshness of the matches")
+    private ConsistencyDTO consistency;
+}
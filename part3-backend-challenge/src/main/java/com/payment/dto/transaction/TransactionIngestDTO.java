@@ -0,0 +1,81 @@
+package com.payment.dto.transaction;
+
+import io.micronaut.core.annotation.Introspected;
+import io.micronaut.serde.annotation.Serdeable;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * One transaction_master row of an ingestion batch
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Serdeable
+@Introspected
+@Schema(description = "Transaction to ingest")
+public class TransactionIngestDTO {
+
+    @NotBlank(message = "Merchant ID is required")
+    @Schema(description = "Merchant ID", example = "MCH-00001")
+    private String merchantId;
+
+    @Schema(description = "Acquirer member ID", example = "1")
+    private Long gpAcquirerId;
+
+    @Schema(description = "Issuer member ID", example = "2")
+    private Long gpIssuerId;
+
+    @Schema(description = "Transaction date; defaults to the UTC date of localTxnDateTime", example = "2025-11-18")
+    private LocalDate txnDate;
+
+    @NotNull(message = "Transaction timestamp is required")
+    @Schema(description = "Transaction timestamp", example = "2025-11-18T14:30:00Z")
+    private Instant localTxnDateTime;
+
+    @NotNull(message = "Amount is required")
+    @Digits(integer = 13, fraction = 2, message = "Amount must have at most 13 integer and 2 fraction digits")
+    @Schema(description = "Transaction amount", example = "150.00")
+    private BigDecimal amount;
+
+    @Pattern(regexp = "[A-Z]{3}", message = "Currency must be a 3-letter ISO code")
+    @Schema(description = "Currency code", example = "USD", defaultValue = "USD")
+    private String currency;
+
+    @NotBlank(message = "Status is required")
+    @Pattern(regexp = "^(pending|completed|failed|reversed)$", message = "Status must be one of: pending, completed, failed, reversed")
+    @Schema(description = "Transaction status", example = "completed", allowableValues = { "pending", "completed",
+            "failed", "reversed" })
+    private String status;
+
+    @Schema(description = "Card type", example = "VISA")
+    private String cardType;
+
+    @Pattern(regexp = "\\d{4}", message = "Card last 4 must be 4 digits")
+    @Schema(description = "Last 4 digits of card", example = "4242")
+    private String cardLast4;
+
+    @Schema(description = "Authorization code", example = "AUTH123456")
+    private String authCode;
+
+    @Schema(description = "Response code", example = "00")
+    private String responseCode;
+
+    @Valid
+    @Schema(description = "Fees, taxes and other detail lines of the transaction")
+    private List<TransactionDetailIngestDTO> details;
+}
@@ -9,6 +9,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import jakarta.validation.constraints.Min;
+import java.math.BigDecimal;
 import java.time.LocalDate;
 
 @Data
@@ -34,6 +35,18 @@ public class TransactionRequest {
     @Schema(description = "Filter end date in ISO format", example = "2025-11-18")
     private LocalDate endDate;
 
-    @Schema(description = "Filter by transaction status", example = "completed")
+    @Schema(description = "Filter by transaction status (comma-separated for several)", example = "completed,failed")
     private String status;
+
+    @Schema(description = "Filter by card type (comma-separated for several)", example = "VISA,MASTERCARD")
+    private String cardType;
+
+    @Schema(description = "Minimum transaction amount (inclusive)", example = "10.00")
+    private BigDecimal minAmount;
+
+    @Schema(description = "Maximum transaction amount (inclusive)", example = "500.00")
+    private BigDecimal maxAmount;
+
+    @Schema(description = "Filter by currency code", example = "USD")
+    private String currency;
 }
\ No newline at end of file
@@ -0,0 +1,69 @@
+package com.payment.entity;
+
+import io.micronaut.data.annotation.*;
+import io.micronaut.serde.annotation.Serdeable;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Per-merchant transaction aggregate. Rows are maintained by database triggers
+ * on transaction_master and are read-only from the application's point of view.
+ */
+@Serdeable
+@MappedEntity(value = "merchant_txn_stats", schema = "operators")
+public class MerchantTransactionStats {
+
+    @Id
+    private String merchantId;
+
+    private Long txnCount;
+    private BigDecimal completedAmount;
+    private java.sql.Date lastTxnDate;
+    private Instant updatedAt;
+
+    // Constructors
+    public MerchantTransactionStats() {
+    }
+
+    // Getters and Setters
+    public String getMerchantId() {
+        return merchantId;
+    }
+
+    public void setMerchantId(String merchantId) {
+        this.merchantId = merchantId;
+    }
+
+    public Long getTxnCount() {
+        return txnCount;
+    }
+
+    public void setTxnCount(Long txnCount) {
+        this.txnCount = txnCount;
+    }
+
+    public BigDecimal getCompletedAmount() {
+        return completedAmount;
+    }
+
+    public void setCompletedAmount(BigDecimal completedAmount) {
+        this.completedAmount = completedAmount;
+    }
+
+    public java.sql.Date getLastTxnDate() {
+        return lastTxnDate;
+    }
+
+    public void setLastTxnDate(java.sql.Date lastTxnDate) {
+        this.lastTxnDate = lastTxnDate;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -15,6 +15,7 @@ public class TransactionDetail {
     private Long txnDetailId;
 
     private Long masterTxnId;
+    private java.sql.Date txnDate;
     private String detailType;
     private BigDecimal amount;
     private String currency;
@@ -45,6 +46,14 @@ public class TransactionDetail {
         this.masterTxnId = masterTxnId;
     }
 
+    public java.sql.Date getTxnDate() {
+        return txnDate;
+    }
+
+    public void setTxnDate(java.sql.Date txnDate) {
+        this.txnDate = txnDate;
+    }
+
     public String getDetailType() {
         return detailType;
     }
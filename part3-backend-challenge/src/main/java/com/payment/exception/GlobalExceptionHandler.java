@@ -2,6 +2,7 @@ package com.payment.exception;
 
 import com.payment.dto.common.ErrorResponse;
 import io.micronaut.context.annotation.Requires;
+import io.micronaut.http.HttpHeaders;
 import io.micronaut.http.HttpRequest;
 import io.micronaut.http.HttpResponse;
 import io.micronaut.http.HttpStatus;
@@ -39,6 +40,28 @@ public class GlobalExceptionHandler implements ExceptionHandler<Exception, HttpR
                     path));
         }
 
+        // Handle temporarily unavailable features (503)
+        if (exception instanceof ServiceUnavailableException) {
+            LOG.warn("Service Unavailable: {} - {}", path, exception.getMessage());
+            return HttpResponse.<ErrorResponse>status(HttpStatus.SERVICE_UNAVAILABLE).body(new ErrorResponse(
+                    HttpStatus.SERVICE_UNAVAILABLE.getCode(),
+                    "Service Unavailable",
+                    exception.getMessage(),
+                    path));
+        }
+
+        // Handle backpressure (429)
+        if (exception instanceof TooManyRequestsException) {
+            LOG.warn("Too Many Requests: {} - {}", path, exception.getMessage());
+            return HttpResponse.<ErrorResponse>status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(new ErrorResponse(
+                            HttpStatus.TOO_MANY_REQUESTS.getCode(),
+                            "Too Many Requests",
+                            exception.getMessage(),
+                            path));
+        }
+
         // Handle validation errors (400)
         if (exception instanceof ConstraintViolationException) {
             ConstraintViolationException cve = (ConstraintViolationException) exception;
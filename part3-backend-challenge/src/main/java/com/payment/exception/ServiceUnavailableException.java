@@ -0,0 +1,12 @@
+package com.payment.exception;
+
+/**
+ * Custom exception for features that are temporarily unable to answer, e.g. an
+ * in-memory index that is still loading
+ */
+public class ServiceUnavailableException extends RuntimeException {
+
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,12 @@
+package com.payment.exception;
+
+/**
+ * Custom exception for requests turned away under load, e.g. when the
+ * ingestion buffer is full; clients should retry after a short delay
+ */
+public class TooManyRequestsException extends RuntimeException {
+
+    public TooManyRequestsException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,559 @@
+package com.payment.ingest;
+
+import com.payment.config.IngestionProperties;
+import com.payment.dto.transaction.TransactionBatchRequest;
+import com.payment.dto.transaction.TransactionBatchResponse;
+import com.payment.exception.ServiceUnavailableException;
+import com.payment.exception.TooManyRequestsException;
+import com.payment.repository.TransactionIngestRepository.JournalPosition;
+import com.payment.service.TransactionIngestionService;
+import com.payment.service.TransactionIngestionService.PreparedBatch;
+import io.micronaut.core.annotation.Nullable;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Write-behind group commit for transaction ingestion.
+ *
+ * Request threads validate their batch and publish it into an
+ * {@link IngestRingBuffer}, then wait on a future instead of a database
+ * commit. One writer thread drains the buffer into groups and writes each group
+ * through {@link TransactionIngestionService#write} in a single database
+ * transaction, once the group holds ingestion.group-max-transactions
+ * transactions or ingestion.group-max-delay-millis after its first request was
+ * taken. The futures complete when the group has committed.
+ *
+ * A full buffer (or more than ingestion.max-pending-transactions queued) is
+ * rejected with {@link TooManyRequestsException} rather than queued. If the
+ * database rejects a group's data, its requests are retried one by one so only
+ * the offending request fails.
+ *
+ * With an {@link IngestJournal}, a request is appended to the journal before
+ * it is queued and its future completes as soon as the record is on disk,
+ * carrying the journal sequence instead of txn ids. Each group commit then
+ * also records the group's last sequence in the database, and on startup the
+ * writer first replays every journal record after that checkpoint. Requests
+ * are only journaled once the checkpoint has been read, so their sequences
+ * always follow it, even when the journal on disk lost records the database
+ * had already committed. Since
+ * journaled requests are already acknowledged, a group that fails for any
+ * reason other than its data is retried until the database is back, and a
+ * request whose data is rejected is kept in the ingest_dead_letter table
+ * rather than dropped. The counts acknowledged with a journal sequence are
+ * therefore provisional: duplicates are only found, and data only rejected,
+ * when the group is written.
+ */
+@Singleton
+public class GroupCommitPipeline {
+
+    private static final Logger LOG = LoggerFactory.getLogger(GroupCommitPipeline.class);
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long LINGER_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+    private static final long RATE_WINDOW_NANOS = TimeUnit.SECONDS.toNanos(10);
+    private static final long RETRY_MIN_MILLIS = 100;
+    private static final long RETRY_MAX_MILLIS = 5_000;
+
+    /**
+     * A queued request; sequence is its journal sequence, or 0 without a journal
+     */
+    private record Entry(PreparedBatch batch, CompletableFuture<TransactionBatchResponse> ack, long enqueuedNanos,
+            long sequence) {
+    }
+
+    private final TransactionIngestionService ingestionService;
+    private final IngestionProperties properties;
+    private final IngestRingBuffer<Entry> ring;
+    private final Thread writer;
+    private final IngestJournal journal;
+    // Keeps journal order and ring order the same
+    private final Object appendLock = new Object();
+    private final Instant startedAt = Instant.now();
+
+    private volatile boolean running = true;
+    private volatile boolean writerIdle;
+    private volatile boolean abandoned;
+    // Opened once the journal numbers after the database checkpoint
+    private final CountDownLatch journalReady = new CountDownLatch(1);
+    private final AtomicLong pendingTransactions = new AtomicLong();
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder commits = new LongAdder();
+    private final LongAdder committedTransactions = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder replayedRequests = new LongAdder();
+    private final LongAdder deadLettered = new LongAdder();
+    private volatile String lastDeadLetterError;
+    private final LatencyHistogram commitLatency = new LatencyHistogram();
+    private final LatencyHistogram ackLatency = new LatencyHistogram();
+    private volatile int largestGroup;
+
+    // Owned by the writer thread
+    private long windowStartNanos = System.nanoTime();
+    private long windowTransactions;
+    private volatile double recentTransactionsPerSecond;
+
+    public GroupCommitPipeline(TransactionIngestionService ingestionService, IngestionProperties properties) {
+        this(ingestionService, properties, null);
+    }
+
+    @Inject
+    public GroupCommitPipeline(TransactionIngestionService ingestionService, IngestionProperties properties,
+            @Nullable IngestJournal journal) {
+        this.ingestionService = ingestionService;
+        this.properties = properties;
+        this.ring = new IngestRingBuffer<>(properties.getRingCapacity());
+        if (properties.isGroupCommitEnabled()) {
+            this.journal = journal;
+            this.writer = new Thread(this::run, "ingest-group-commit");
+            this.writer.setDaemon(true);
+            this.writer.start();
+        } else {
+            if (journal != null) {
+                LOG.warn("The ingestion journal needs group commit; requests are written directly");
+            }
+            this.journal = null;
+            this.writer = null;
+        }
+    }
+
+    /**
+     * Validate and queue a request
+     *
+     * @return completes with the request's result once its group has committed,
+     *         or with an accepted result once it is in the journal
+     * @throws IllegalArgumentException    when the request is invalid
+     * @throws TooManyRequestsException    when the buffer is full
+     * @throws ServiceUnavailableException while shutting down
+     */
+    public CompletableFuture<TransactionBatchResponse> submit(TransactionBatchRequest request) {
+        PreparedBatch batch = ingestionService.prepare(request);
+        if (writer == null) {
+            return CompletableFuture.completedFuture(ingestionService.write(List.of(batch)).get(0));
+        }
+        if (!running) {
+            throw new ServiceUnavailableException("Ingestion is shutting down");
+        }
+        if (journal != null) {
+            return submitToJournal(batch);
+        }
+
+        Entry entry = new Entry(batch, new CompletableFuture<>(), System.nanoTime(), 0L);
+        long pending = pendingTransactions.addAndGet(batch.size());
+        if (pending > properties.getMaxPendingTransactions() || !ring.offer(entry)) {
+            pendingTransactions.addAndGet(-batch.size());
+            rejected.increment();
+            throw new TooManyRequestsException("Ingestion buffer is full (" + (pending - batch.size())
+                    + " transactions pending); retry shortly");
+        }
+        accepted.increment();
+        if (writerIdle) {
+            LockSupport.unpark(writer);
+        }
+        return entry.ack();
+    }
+
+    private CompletableFuture<TransactionBatchResponse> submitToJournal(PreparedBatch batch) {
+        awaitJournal();
+        byte[] record = JournalCodec.encode(batch);
+        long pending = pendingTransactions.addAndGet(batch.size());
+        IngestJournal.Appended appended = null;
+        synchronized (appendLock) {
+            // Only the writer takes from the ring meanwhile, so a free slot seen here stays free
+            if (pending <= properties.getMaxPendingTransactions() && ring.size() < ring.capacity()) {
+                appended = journal.append(record);
+                ring.offer(new Entry(batch, new CompletableFuture<>(), System.nanoTime(), appended.sequence()));
+            }
+        }
+        if (appended == null) {
+            pendingTransactions.addAndGet(-batch.size());
+            rejected.increment();
+            throw new TooManyRequestsException("Ingestion buffer is full (" + (pending - batch.size())
+                    + " transactions pending); retry shortly");
+        }
+        accepted.increment();
+        if (writerIdle) {
+            LockSupport.unpark(writer);
+        }
+
+        long sequence = appended.sequence();
+        int detailCount = 0;
+        for (List<?> details : batch.details()) {
+            detailCount += details.size();
+        }
+        TransactionBatchResponse response = TransactionBatchResponse.builder()
+                .transactionCount(batch.size())
+                .detailCount(detailCount)
+                .journalSequence(sequence)
+                .build();
+        return appended.durable().thenApply(durable -> response);
+    }
+
+    private void awaitJournal() {
+        try {
+            if (journalReady.await(RETRY_MAX_MILLIS, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        throw new ServiceUnavailableException("Ingestion journal is recovering; retry shortly");
+    }
+
+    private void run() {
+        if (journal != null) {
+            replayJournal();
+        }
+        long maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(properties.getGroupMaxDelayMillis());
+        int maxTransactions = properties.getGroupMaxTransactions();
+        List<Entry> group = new ArrayList<>();
+        while (running || (!ring.isEmpty() && !abandoned)) {
+            Entry first = ring.poll();
+            if (first == null) {
+                writerIdle = true;
+                if (running && ring.isEmpty()) {
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                }
+                writerIdle = false;
+                continue;
+            }
+
+            group.add(first);
+            int transactions = first.batch().size();
+            long deadline = System.nanoTime() + maxDelayNanos;
+            while (transactions < maxTransactions) {
+                Entry next = ring.poll();
+                if (next != null) {
+                    group.add(next);
+                    transactions += next.batch().size();
+                    continue;
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0 || !running) {
+                    break;
+                }
+                LockSupport.parkNanos(this, Math.min(remaining, LINGER_PARK_NANOS));
+            }
+
+            commit(group, transactions);
+            group.clear();
+        }
+    }
+
+    /**
+     * Commit everything the journal holds after the database checkpoint, before
+     * taking new requests
+     */
+    private void replayJournal() {
+        long checkpoint = -1;
+        long backoff = RETRY_MIN_MILLIS;
+        while (checkpoint < 0) {
+            try {
+                checkpoint = ingestionService.journalCheckpoint(journal.getJournalId());
+            } catch (RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                LOG.warn("Cannot read the ingestion journal checkpoint, retrying in {} ms: {}", backoff,
+                        e.getMessage());
+                LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(backoff));
+                backoff = Math.min(backoff * 2, RETRY_MAX_MILLIS);
+            }
+        }
+        journal.advancePast(checkpoint);
+        journal.release(checkpoint);
+        journalReady.countDown();
+        if (checkpoint >= journal.getRecoveredSequence()) {
+            return;
+        }
+
+        LOG.info("Replaying ingestion journal {} from sequence {} to {}", journal.getJournalId(), checkpoint + 1,
+                journal.getRecoveredSequence());
+        int maxTransactions = properties.getGroupMaxTransactions();
+        List<Entry> group = new ArrayList<>();
+        int[] transactions = {0};
+        journal.replay(checkpoint, (sequence, payload) -> {
+            PreparedBatch batch;
+            try {
+                batch = JournalCodec.decode(payload);
+            } catch (IllegalArgumentException e) {
+                LOG.error("Skipping unreadable ingestion journal record {}", sequence, e);
+                return;
+            }
+            pendingTransactions.addAndGet(batch.size());
+            replayedRequests.increment();
+            group.add(new Entry(batch, new CompletableFuture<>(), System.nanoTime(), sequence));
+            transactions[0] += batch.size();
+            if (transactions[0] >= maxTransactions) {
+                commit(group, transactions[0]);
+                group.clear();
+                transactions[0] = 0;
+            }
+        });
+        if (!group.isEmpty()) {
+            commit(group, transactions[0]);
+        }
+    }
+
+    private void commit(List<Entry> group, int transactions) {
+        if (abandoned) {
+            // A lower sequence was left uncommitted; committing past it would move the checkpoint beyond it
+            fail(group, transactions, new ServiceUnavailableException("Ingestion is shutting down"));
+            return;
+        }
+        long backoff = RETRY_MIN_MILLIS;
+        while (true) {
+            long began = System.nanoTime();
+            List<TransactionBatchResponse> responses;
+            try {
+                responses = write(group);
+            } catch (IllegalArgumentException e) {
+                if (group.size() > 1) {
+                    // One request's data was rejected: commit the others without it
+                    for (Entry entry : group) {
+                        commit(List.of(entry), entry.batch().size());
+                    }
+                    return;
+                }
+                if (journal != null) {
+                    deadLetter(group.get(0), e);
+                    return;
+                }
+                fail(group, transactions, e);
+                return;
+            } catch (RuntimeException e) {
+                if (journal != null && running) {
+                    // Already acknowledged and safe in the journal: wait for the database to come back
+                    LOG.warn("Group commit of {} transactions failed, retrying in {} ms: {}", transactions, backoff,
+                            e.getMessage());
+                    retries.increment();
+                    LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(backoff));
+                    backoff = Math.min(backoff * 2, RETRY_MAX_MILLIS);
+                    continue;
+                }
+                LOG.error("Group commit of {} requests ({} transactions) failed", group.size(), transactions, e);
+                if (journal != null) {
+                    // Shutting down: the rest stays in the journal for the next start
+                    abandoned = true;
+                }
+                fail(group, transactions, e);
+                return;
+            }
+
+            long committedAt = System.nanoTime();
+            commitLatency.record(committedAt - began);
+            commits.increment();
+            committedTransactions.add(transactions);
+            largestGroup = Math.max(largestGroup, transactions);
+            updateRate(committedAt, transactions);
+            if (journal != null) {
+                journal.release(group.get(group.size() - 1).sequence());
+            }
+            // Release the buffer space before acknowledging, so a caller's next request sees it
+            pendingTransactions.addAndGet(-transactions);
+            for (int i = 0; i < group.size(); i++) {
+                ackLatency.record(committedAt - group.get(i).enqueuedNanos());
+                group.get(i).ack().complete(responses.get(i));
+            }
+            return;
+        }
+    }
+
+    /**
+     * Keep an acknowledged request whose data the database rejected, retrying
+     * until the database takes it
+     */
+    private void deadLetter(Entry entry, IllegalArgumentException rejection) {
+        JournalPosition position = new JournalPosition(journal.getJournalId(), entry.sequence());
+        byte[] payload = JournalCodec.encode(entry.batch());
+        String error = String.valueOf(rejection.getMessage());
+        long backoff = RETRY_MIN_MILLIS;
+        while (true) {
+            try {
+                ingestionService.deadLetter(position, payload, entry.batch().size(), error);
+                break;
+            } catch (RuntimeException e) {
+                if (!running) {
+                    LOG.error("Cannot keep rejected ingestion journal record {}; it is replayed on the next start",
+                            entry.sequence(), e);
+                    abandoned = true;
+                    fail(List.of(entry), entry.batch().size(), rejection);
+                    return;
+                }
+                LOG.warn("Cannot keep rejected ingestion journal record {}, retrying in {} ms: {}", entry.sequence(),
+                        backoff, e.getMessage());
+                retries.increment();
+                LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(backoff));
+                backoff = Math.min(backoff * 2, RETRY_MAX_MILLIS);
+            }
+        }
+        LOG.error("Ingestion journal record {} was rejected by the database and kept in ingest_dead_letter",
+                entry.sequence(), rejection);
+        deadLettered.increment();
+        lastDeadLetterError = error;
+        journal.release(entry.sequence());
+        fail(List.of(entry), entry.batch().size(), rejection);
+    }
+
+    private List<TransactionBatchResponse> write(List<Entry> group) {
+        List<PreparedBatch> batches = new ArrayList<>(group.size());
+        for (Entry entry : group) {
+            batches.add(entry.batch());
+        }
+        if (journal == null) {
+            return ingestionService.write(batches);
+        }
+        // Entries are in journal order, so the last one carries the group's highest sequence
+        return ingestionService.write(batches,
+                new JournalPosition(journal.getJournalId(), group.get(group.size() - 1).sequence()));
+    }
+
+    private void fail(List<Entry> group, int transactions, RuntimeException e) {
+        pendingTransactions.addAndGet(-transactions);
+        for (Entry entry : group) {
+            failed.increment();
+            entry.ack().completeExceptionally(e);
+        }
+    }
+
+    private void updateRate(long now, int transactions) {
+        windowTransactions += transactions;
+        long elapsed = now - windowStartNanos;
+        if (elapsed >= RATE_WINDOW_NANOS) {
+            recentTransactionsPerSecond = windowTransactions * 1e9 / elapsed;
+            windowStartNanos = now;
+            windowTransactions = 0;
+        }
+    }
+
+    /**
+     * Stop taking requests, commit everything queued, then stop the writer
+     */
+    @PreDestroy
+    void close() throws InterruptedException {
+        running = false;
+        if (writer != null) {
+            LockSupport.unpark(writer);
+            writer.join(TimeUnit.SECONDS.toMillis(30));
+        }
+    }
+
+    /**
+     * The journal in front of the writer, or null when requests are only held in memory
+     */
+    public IngestJournal getJournal() {
+        return journal;
+    }
+
+    public boolean isEnabled() {
+        return writer != null;
+    }
+
+    public int getQueuedRequests() {
+        return ring.size();
+    }
+
+    public int getRingCapacity() {
+        return ring.capacity();
+    }
+
+    public long getPendingTransactions() {
+        return pendingTransactions.get();
+    }
+
+    public long getAccepted() {
+        return accepted.sum();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    public long getCommits() {
+        return commits.sum();
+    }
+
+    public long getCommittedTransactions() {
+        return committedTransactions.sum();
+    }
+
+    /**
+     * Group commits retried after a failure other than rejected data
+     */
+    public long getRetries() {
+        return retries.sum();
+    }
+
+    /**
+     * Requests replayed from the journal on startup
+     */
+    public long getReplayedRequests() {
+        return replayedRequests.sum();
+    }
+
+    /**
+     * Journaled requests rejected by the database and kept as dead letters since startup
+     */
+    public long getDeadLettered() {
+        return deadLettered.sum();
+    }
+
+    public String getLastDeadLetterError() {
+        return lastDeadLetterError;
+    }
+
+    /**
+     * Dead letters stored for this journal, by every run; reads the database
+     */
+    public long countStoredDeadLetters() {
+        return ingestionService.deadLetterCount(journal.getJournalId());
+    }
+
+    public int getLargestGroup() {
+        return largestGroup;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    /**
+     * Committed transactions per second over the last completed 10-second window
+     */
+    public double getRecentTransactionsPerSecond() {
+        return recentTransactionsPerSecond;
+    }
+
+    /**
+     * Time spent in the database write of each group
+     */
+    public LatencyHistogram getCommitLatency() {
+        return commitLatency;
+    }
+
+    /**
+     * Time from a request being queued until its group committed
+     */
+    public LatencyHistogram getAckLatency() {
+        return ackLatency;
+    }
+}
@@ -0,0 +1,608 @@
+package com.payment.ingest;
+
+import com.payment.config.IngestionProperties;
+import com.payment.config.IngestionProperties.JournalFsync;
+import io.micronaut.context.annotation.Requires;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only journal of accepted ingestion requests, in memory-mapped
+ * segment files.
+ *
+ * Each record is a 16-byte header (payload length, CRC-32C of the payload,
+ * sequence number) followed by the payload. Sequences start at 1 and increase
+ * by one across segments; a segment file is named after its first sequence.
+ * The length is written last, so a zero length marks the end of the data, and
+ * on open a record with a bad CRC, a bad length or an unexpected sequence ends
+ * the segment: a torn tail is zeroed and appending resumes in its place.
+ *
+ * A sync thread forces written records to disk. Under
+ * {@link JournalFsync#ALWAYS} an append's durable future completes only after
+ * its record has been forced, and appends waiting at the same time share one
+ * force; under {@link JournalFsync#INTERVAL} it is already complete and the
+ * thread forces on a timer.
+ *
+ * The directory holds a journal id, generated when it is first used, under
+ * which the database keeps the highest committed sequence; segments are
+ * deleted once everything in them is committed ({@link #release}), and
+ * numbering continues after that checkpoint if the journal on disk ends below
+ * it ({@link #advancePast}).
+ */
+@Singleton
+@Requires(property = "ingestion.journal-enabled", value = "true")
+public class IngestJournal {
+
+    private static final Logger LOG = LoggerFactory.getLogger(IngestJournal.class);
+
+    static final int HEADER_BYTES = 16;
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final String ID_FILE = "journal.id";
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final CompletableFuture<Void> DURABLE = CompletableFuture.completedFuture(null);
+
+    /**
+     * Receives records in sequence order
+     */
+    @FunctionalInterface
+    public interface RecordHandler {
+        void accept(long sequence, byte[] payload);
+    }
+
+    /**
+     * An appended record; {@code durable} completes once it is on disk
+     */
+    public record Appended(long sequence, CompletableFuture<Void> durable) {
+    }
+
+    private record Waiter(long sequence, CompletableFuture<Void> durable) {
+    }
+
+    private static final class Segment {
+
+        final Path path;
+        final long firstSequence;
+        final FileChannel channel;
+        final MappedByteBuffer buffer;
+        long lastSequence;
+        int position;
+        // Written by the sync thread only
+        int forcedPosition;
+
+        Segment(Path path, long firstSequence, FileChannel channel, MappedByteBuffer buffer) {
+            this.path = path;
+            this.firstSequence = firstSequence;
+            this.channel = channel;
+            this.buffer = buffer;
+            this.lastSequence = firstSequence - 1;
+        }
+    }
+
+    private final Path directory;
+    private final String journalId;
+    private final long segmentBytes;
+    private final JournalFsync fsync;
+    private final long fsyncIntervalNanos;
+
+    // Guards the segments, the active segment, the next sequence and the waiters
+    private final Object lock = new Object();
+    private final ArrayDeque<Segment> segments = new ArrayDeque<>();
+    private final ArrayDeque<Waiter> waiters = new ArrayDeque<>();
+    private Segment active;
+    private long nextSequence;
+
+    private final long recoveredSequence;
+    private volatile long writtenSequence;
+    private volatile long durableSequence;
+    private volatile long releasedSequence;
+    private int corruptSegments;
+
+    private final Thread syncer;
+    private volatile boolean open = true;
+    private volatile boolean syncerIdle;
+
+    private final LongAdder appendedRecords = new LongAdder();
+    private final LongAdder appendedBytes = new LongAdder();
+    private final LongAdder forces = new LongAdder();
+    private final LatencyHistogram forceLatency = new LatencyHistogram();
+
+    @Inject
+    public IngestJournal(IngestionProperties properties) {
+        this(Path.of(properties.getJournalDir()), properties.getJournalSegmentBytes(), properties.getJournalFsync(),
+                properties.getJournalFsyncIntervalMillis());
+    }
+
+    public IngestJournal(Path directory, long segmentBytes, JournalFsync fsync, long fsyncIntervalMillis) {
+        if (segmentBytes <= HEADER_BYTES || segmentBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Journal segment size must be between " + (HEADER_BYTES + 1)
+                    + " and " + Integer.MAX_VALUE + " bytes");
+        }
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.fsync = fsync;
+        this.fsyncIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, fsyncIntervalMillis));
+        try {
+            Files.createDirectories(directory);
+            this.journalId = loadOrCreateId();
+            recover();
+            if (active == null) {
+                active = createSegment(1, HEADER_BYTES);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open the ingestion journal in " + directory, e);
+        }
+        this.nextSequence = active.lastSequence + 1;
+        this.recoveredSequence = nextSequence - 1;
+        this.writtenSequence = recoveredSequence;
+        this.durableSequence = recoveredSequence;
+        LOG.info("Opened ingestion journal {} in {}: {} segments, last sequence {}", journalId, directory,
+                segments.size(), recoveredSequence);
+
+        this.syncer = new Thread(this::syncLoop, "ingest-journal-sync");
+        this.syncer.setDaemon(true);
+        this.syncer.start();
+    }
+
+    private String loadOrCreateId() throws IOException {
+        Path file = directory.resolve(ID_FILE);
+        if (Files.exists(file)) {
+            return Files.readString(file, StandardCharsets.US_ASCII).trim();
+        }
+        String id = UUID.randomUUID().toString();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(id.getBytes(StandardCharsets.US_ASCII)));
+            channel.force(true);
+        }
+        forceDirectory();
+        return id;
+    }
+
+    private void recover() throws IOException {
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+        for (int i = 0; i < files.size(); i++) {
+            Path path = files.get(i);
+            String name = path.getFileName().toString();
+            long firstSequence = Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+            if (active != null && firstSequence != active.lastSequence + 1) {
+                LOG.error("Ingestion journal gap: {} follows sequence {}", name, active.lastSequence);
+                corruptSegments++;
+            }
+
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            Segment segment = new Segment(path, firstSequence, channel,
+                    channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size()));
+            segment.position = scan(segment, Long.MIN_VALUE, Long.MAX_VALUE, null);
+            segment.forcedPosition = segment.position;
+
+            if (hasGarbageAt(segment.buffer, segment.position)) {
+                if (i < files.size() - 1) {
+                    LOG.error("Ingestion journal segment {} is unreadable after sequence {}; its later records are lost",
+                            name, segment.lastSequence);
+                    corruptSegments++;
+                } else {
+                    LOG.warn("Truncating a torn record at the end of ingestion journal segment {} after sequence {}",
+                            name, segment.lastSequence);
+                    zeroFrom(segment.buffer, segment.position);
+                    segment.buffer.force();
+                }
+            }
+            segments.addLast(segment);
+            active = segment;
+        }
+    }
+
+    /**
+     * Visit the valid records of a segment with a sequence in (after, upTo]
+     * and leave its lastSequence at the last valid record
+     *
+     * @return the offset just past the last valid record
+     */
+    private static int scan(Segment segment, long after, long upTo, RecordHandler handler) {
+        ByteBuffer buffer = segment.buffer;
+        CRC32C crc = new CRC32C();
+        int position = 0;
+        long expected = segment.firstSequence;
+        while (position + HEADER_BYTES <= buffer.capacity() && expected <= upTo) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || length > buffer.capacity() - position - HEADER_BYTES
+                    || buffer.getLong(position + 8) != expected) {
+                break;
+            }
+            crc.reset();
+            crc.update(buffer.slice(position + HEADER_BYTES, length));
+            if ((int) crc.getValue() != buffer.getInt(position + 4)) {
+                break;
+            }
+            if (handler != null && expected > after) {
+                byte[] payload = new byte[length];
+                buffer.get(position + HEADER_BYTES, payload);
+                handler.accept(expected, payload);
+            }
+            position += HEADER_BYTES + length;
+            expected++;
+        }
+        if (handler == null) {
+            segment.lastSequence = expected - 1;
+        }
+        return position;
+    }
+
+    private static boolean hasGarbageAt(ByteBuffer buffer, int position) {
+        for (int i = position; i < Math.min(buffer.capacity(), position + HEADER_BYTES); i++) {
+            if (buffer.get(i) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void zeroFrom(ByteBuffer buffer, int position) {
+        byte[] zeros = new byte[64 * 1024];
+        for (int at = position; at < buffer.capacity(); at += zeros.length) {
+            buffer.put(at, zeros, 0, Math.min(zeros.length, buffer.capacity() - at));
+        }
+    }
+
+    /**
+     * Append a record. Sequences are assigned in call order.
+     *
+     * @throws IllegalStateException after {@link #close()}
+     */
+    public Appended append(byte[] payload) {
+        if (payload.length == 0) {
+            throw new IllegalArgumentException("Journal records cannot be empty");
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        int checksum = (int) crc.getValue();
+        int length = HEADER_BYTES + payload.length;
+
+        long sequence;
+        CompletableFuture<Void> durable;
+        synchronized (lock) {
+            if (!open) {
+                throw new IllegalStateException("Ingestion journal is closed");
+            }
+            if (active.position + length > active.buffer.capacity()) {
+                roll(length);
+            }
+            sequence = nextSequence++;
+            MappedByteBuffer buffer = active.buffer;
+            int position = active.position;
+            buffer.put(position + HEADER_BYTES, payload);
+            buffer.putLong(position + 8, sequence);
+            buffer.putInt(position + 4, checksum);
+            buffer.putInt(position, payload.length);
+            active.position = position + length;
+            active.lastSequence = sequence;
+            writtenSequence = sequence;
+
+            if (fsync == JournalFsync.ALWAYS) {
+                durable = new CompletableFuture<>();
+                waiters.addLast(new Waiter(sequence, durable));
+            } else {
+                durable = DURABLE;
+            }
+        }
+        appendedRecords.increment();
+        appendedBytes.add(length);
+        if (fsync == JournalFsync.ALWAYS && syncerIdle) {
+            LockSupport.unpark(syncer);
+        }
+        return new Appended(sequence, durable);
+    }
+
+    /**
+     * Force the full active segment and start a new one large enough for a
+     * record of {@code length} bytes. Called with the lock held.
+     */
+    private void roll(int length) {
+        try {
+            if (active.position == 0) {
+                // Still empty: replace it, as the new segment starts at the same sequence
+                segments.remove(active);
+                active.channel.close();
+                Files.delete(active.path);
+            } else {
+                active.buffer.force();
+            }
+            active = createSegment(nextSequence, length);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create an ingestion journal segment in " + directory, e);
+        }
+    }
+
+    private Segment createSegment(long firstSequence, int minimumBytes) throws IOException {
+        Path path = directory.resolve(String.format("%020d%s", firstSequence, SEGMENT_SUFFIX));
+        long size = Math.max(segmentBytes, minimumBytes);
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        Segment segment = new Segment(path, firstSequence, channel,
+                channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        forceDirectory();
+        segments.addLast(segment);
+        return segment;
+    }
+
+    /**
+     * Make a created file's directory entry durable; not every platform allows it
+     */
+    private void forceDirectory() {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            LOG.debug("Cannot force the journal directory {}: {}", directory, e.getMessage());
+        }
+    }
+
+    private void syncLoop() {
+        while (open || hasWaiters()) {
+            Segment segment;
+            int from;
+            int to;
+            long target;
+            synchronized (lock) {
+                target = writtenSequence;
+                segment = active;
+                from = segment.forcedPosition;
+                to = segment.position;
+            }
+            if (target == durableSequence) {
+                if (fsync == JournalFsync.ALWAYS) {
+                    syncerIdle = true;
+                    if (open && writtenSequence == durableSequence) {
+                        LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                    }
+                    syncerIdle = false;
+                } else if (open) {
+                    LockSupport.parkNanos(this, fsyncIntervalNanos);
+                }
+                continue;
+            }
+
+            long began = System.nanoTime();
+            if (to > from) {
+                // Earlier segments were forced in full when the journal rolled past them
+                segment.buffer.force(from, to - from);
+                segment.forcedPosition = to;
+            }
+            forceLatency.record(System.nanoTime() - began);
+            forces.increment();
+            durableSequence = target;
+            completeWaiters(target);
+
+            if (fsync == JournalFsync.INTERVAL && open) {
+                LockSupport.parkNanos(this, fsyncIntervalNanos);
+            }
+        }
+    }
+
+    private boolean hasWaiters() {
+        synchronized (lock) {
+            return !waiters.isEmpty();
+        }
+    }
+
+    private void completeWaiters(long durable) {
+        List<Waiter> done = new ArrayList<>();
+        synchronized (lock) {
+            while (!waiters.isEmpty() && waiters.peekFirst().sequence() <= durable) {
+                done.add(waiters.pollFirst());
+            }
+        }
+        for (Waiter waiter : done) {
+            waiter.durable().complete(null);
+        }
+    }
+
+    /**
+     * Pass every record found when the journal was opened with a sequence
+     * above {@code after} to the handler, in order
+     */
+    public void replay(long after, RecordHandler handler) {
+        List<Segment> snapshot;
+        synchronized (lock) {
+            snapshot = new ArrayList<>(segments);
+        }
+        for (Segment segment : snapshot) {
+            if (segment.firstSequence > recoveredSequence) {
+                break;
+            }
+            scan(segment, after, recoveredSequence, handler);
+        }
+    }
+
+    /**
+     * Continue numbering after a checkpoint the database already holds.
+     *
+     * The database commit can run ahead of the disk: under
+     * {@link JournalFsync#INTERVAL} records are committed before they are
+     * forced, and after an OS crash the journal may come back shorter than the
+     * checkpoint. Reusing those sequences would put new records at or below the
+     * checkpoint, where a later replay never looks. Every record on disk is then
+     * committed, so the segments are deleted and a new one starts at
+     * {@code checkpoint + 1}. Does nothing when the journal is already past it.
+     *
+     * @return true if the journal was advanced
+     */
+    public boolean advancePast(long checkpoint) {
+        List<Segment> dropped;
+        synchronized (lock) {
+            if (checkpoint < nextSequence) {
+                return false;
+            }
+            LOG.warn("Ingestion journal {} ends at sequence {} but the database has committed up to {}; "
+                    + "continuing from {}", journalId, nextSequence - 1, checkpoint, checkpoint + 1);
+            dropped = new ArrayList<>(segments);
+            segments.clear();
+            try {
+                for (Segment segment : dropped) {
+                    segment.channel.close();
+                    Files.deleteIfExists(segment.path);
+                }
+                nextSequence = checkpoint + 1;
+                active = createSegment(nextSequence, HEADER_BYTES);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot advance the ingestion journal in " + directory, e);
+            }
+            releasedSequence = Math.max(releasedSequence, checkpoint);
+            writtenSequence = checkpoint;
+        }
+        return true;
+    }
+
+    /**
+     * Everything up to {@code committedSequence} is in the database: delete the
+     * segments holding nothing later (never the active one)
+     */
+    public void release(long committedSequence) {
+        List<Segment> released = new ArrayList<>();
+        synchronized (lock) {
+            releasedSequence = Math.max(releasedSequence, committedSequence);
+            while (segments.size() > 1 && segments.peekFirst().lastSequence <= committedSequence) {
+                released.add(segments.pollFirst());
+            }
+        }
+        for (Segment segment : released) {
+            try {
+                // The mapping itself is only unmapped when the buffer is collected
+                segment.channel.close();
+                Files.deleteIfExists(segment.path);
+            } catch (IOException e) {
+                LOG.warn("Cannot delete ingestion journal segment {}: {}", segment.path, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Stop taking appends, force what was written and close the segments
+     */
+    @PreDestroy
+    public void close() throws InterruptedException {
+        synchronized (lock) {
+            if (!open) {
+                return;
+            }
+            open = false;
+        }
+        LockSupport.unpark(syncer);
+        syncer.join(TimeUnit.SECONDS.toMillis(30));
+        synchronized (lock) {
+            active.buffer.force();
+            for (Segment segment : segments) {
+                try {
+                    segment.channel.close();
+                } catch (IOException e) {
+                    LOG.warn("Cannot close ingestion journal segment {}: {}", segment.path, e.getMessage());
+                }
+            }
+        }
+    }
+
+    public String getJournalId() {
+        return journalId;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public JournalFsync getFsync() {
+        return fsync;
+    }
+
+    public int getSegmentCount() {
+        synchronized (lock) {
+            return segments.size();
+        }
+    }
+
+    /**
+     * Bytes of records held in the segments on disk
+     */
+    public long getJournalBytes() {
+        synchronized (lock) {
+            long bytes = 0;
+            for (Segment segment : segments) {
+                bytes += segment.position;
+            }
+            return bytes;
+        }
+    }
+
+    /**
+     * Last sequence found when the journal was opened
+     */
+    public long getRecoveredSequence() {
+        return recoveredSequence;
+    }
+
+    public long getWrittenSequence() {
+        return writtenSequence;
+    }
+
+    /**
+     * Last sequence known to be forced to disk
+     */
+    public long getDurableSequence() {
+        return durableSequence;
+    }
+
+    /**
+     * Last sequence reported as committed to the database
+     */
+    public long getReleasedSequence() {
+        return releasedSequence;
+    }
+
+    /**
+     * Segments found unreadable part-way, or missing from the sequence, on open
+     */
+    public int getCorruptSegments() {
+        return corruptSegments;
+    }
+
+    public long getAppendedRecords() {
+        return appendedRecords.sum();
+    }
+
+    public long getAppendedBytes() {
+        return appendedBytes.sum();
+    }
+
+    public long getForces() {
+        return forces.sum();
+    }
+
+    public LatencyHistogram getForceLatency() {
+        return forceLatency;
+    }
+}
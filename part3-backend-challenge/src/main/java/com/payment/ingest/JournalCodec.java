@@ -0,0 +1,160 @@
+package com.payment.ingest;
+
+import com.payment.entity.TransactionDetail;
+import com.payment.entity.TransactionMaster;
+import com.payment.service.TransactionIngestionService.PreparedBatch;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary form of a {@link PreparedBatch} in the ingestion journal.
+ *
+ * Only the fields a request sets are kept; ids and timestamps assigned by the
+ * database are not. Values are written field by field with a presence flag
+ * for nullable ones, after a format version, so the layout can change without
+ * misreading journals written by an earlier version.
+ */
+final class JournalCodec {
+
+    private static final int VERSION = 1;
+
+    private JournalCodec() {
+    }
+
+    static byte[] encode(PreparedBatch batch) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + batch.size() * 160);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeInt(batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                TransactionMaster transaction = batch.transactions().get(i);
+                writeString(out, transaction.getMerchantId());
+                writeLong(out, transaction.getGpAcquirerId());
+                writeLong(out, transaction.getGpIssuerId());
+                out.writeLong(transaction.getTxnDate().toLocalDate().toEpochDay());
+                writeInstant(out, transaction.getLocalTxnDateTime());
+                writeDecimal(out, transaction.getAmount());
+                writeString(out, transaction.getCurrency());
+                writeString(out, transaction.getStatus());
+                writeString(out, transaction.getCardType());
+                writeString(out, transaction.getCardLast4());
+                writeString(out, transaction.getAuthCode());
+                writeString(out, transaction.getResponseCode());
+
+                List<TransactionDetail> details = batch.details().get(i);
+                out.writeInt(details.size());
+                for (TransactionDetail detail : details) {
+                    writeString(out, detail.getDetailType());
+                    writeDecimal(out, detail.getAmount());
+                    writeString(out, detail.getCurrency());
+                    writeString(out, detail.getDescription());
+                    writeInstant(out, detail.getLocalTxnDateTime());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @throws IllegalArgumentException when the payload is not a batch this version can read
+     */
+    static PreparedBatch decode(byte[] payload) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            int version = in.readByte();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unsupported journal record version " + version);
+            }
+            int size = in.readInt();
+            List<TransactionMaster> transactions = new ArrayList<>(size);
+            List<List<TransactionDetail>> details = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                TransactionMaster transaction = new TransactionMaster();
+                transaction.setMerchantId(readString(in));
+                transaction.setGpAcquirerId(readLong(in));
+                transaction.setGpIssuerId(readLong(in));
+                transaction.setTxnDate(Date.valueOf(LocalDate.ofEpochDay(in.readLong())));
+                transaction.setLocalTxnDateTime(readInstant(in));
+                transaction.setAmount(readDecimal(in));
+                transaction.setCurrency(readString(in));
+                transaction.setStatus(readString(in));
+                transaction.setCardType(readString(in));
+                transaction.setCardLast4(readString(in));
+                transaction.setAuthCode(readString(in));
+                transaction.setResponseCode(readString(in));
+                transactions.add(transaction);
+
+                int detailCount = in.readInt();
+                List<TransactionDetail> lines = new ArrayList<>(detailCount);
+                for (int d = 0; d < detailCount; d++) {
+                    TransactionDetail detail = new TransactionDetail();
+                    detail.setDetailType(readString(in));
+                    detail.setAmount(readDecimal(in));
+                    detail.setCurrency(readString(in));
+                    detail.setDescription(readString(in));
+                    detail.setLocalTxnDateTime(readInstant(in));
+                    lines.add(detail);
+                }
+                details.add(lines);
+            }
+            return new PreparedBatch(transactions, details);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Truncated journal record", e);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeLong(DataOutputStream out, Long value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value);
+        }
+    }
+
+    private static Long readLong(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readLong() : null;
+    }
+
+    private static void writeInstant(DataOutputStream out, Instant value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value.getEpochSecond());
+            out.writeInt(value.getNano());
+        }
+    }
+
+    private static Instant readInstant(DataInputStream in) throws IOException {
+        return in.readBoolean() ? Instant.ofEpochSecond(in.readLong(), in.readInt()) : null;
+    }
+
+    private static void writeDecimal(DataOutputStream out, BigDecimal value) throws IOException {
+        writeString(out, value != null ? value.toPlainString() : null);
+    }
+
+    private static BigDecimal readDecimal(DataInputStream in) throws IOException {
+        String value = readString(in);
+        return value != null ? new BigDecimal(value) : null;
+    }
+}
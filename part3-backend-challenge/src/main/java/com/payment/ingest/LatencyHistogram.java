@@ -0,0 +1,67 @@
+package com.payment.ingest;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency distribution in power-of-two microsecond buckets: bucket b counts
+ * values in [2^b, 2^(b+1)) microseconds. Percentiles are reported as the upper
+ * bound of their bucket, so they are accurate to within a factor of two, at a
+ * fixed cost of one array increment per sample.
+ */
+public final class LatencyHistogram {
+
+    private static final int BUCKETS = 40;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0L);
+
+    public void record(long nanos) {
+        long micros = Math.max(1L, nanos / 1_000);
+        int bucket = Math.min(BUCKETS - 1, 63 - Long.numberOfLeadingZeros(micros));
+        buckets.incrementAndGet(bucket);
+        count.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+    }
+
+    public long count() {
+        return count.sum();
+    }
+
+    public long meanMicros() {
+        long n = count.sum();
+        return n > 0 ? totalNanos.sum() / n / 1_000 : 0L;
+    }
+
+    public long maxMicros() {
+        return maxNanos.get() / 1_000;
+    }
+
+    /**
+     * Upper bound of the bucket holding the given percentile (0-100), in microseconds
+     */
+    public long percentileMicros(double percentile) {
+        long[] snapshot = new long[BUCKETS];
+        long n = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            snapshot[b] = buckets.get(b);
+            n += snapshot[b];
+        }
+        if (n == 0) {
+            return 0L;
+        }
+        long rank = (long) Math.ceil(percentile / 100.0 * n);
+        long seen = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            seen += snapshot[b];
+            if (seen >= rank) {
+                return 1L << (b + 1);
+            }
+        }
+        return 1L << BUCKETS;
+    }
+}
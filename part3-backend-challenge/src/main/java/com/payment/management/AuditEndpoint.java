@@ -0,0 +1,48 @@
+package com.payment.management;
+
+import com.payment.audit.AuditSink;
+import com.payment.ingest.LatencyHistogram;
+import io.micronaut.management.endpoint.annotation.Endpoint;
+import io.micronaut.management.endpoint.annotation.Read;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Queue depth, drops and write batching of the asynchronous audit log writer at /audit
+ */
+@Endpoint(id = "audit", defaultSensitive = false)
+public class AuditEndpoint {
+
+    private final AuditSink sink;
+
+    public AuditEndpoint(AuditSink sink) {
+        this.sink = sink;
+    }
+
+    @Read
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long batches = sink.getBatches();
+        stats.put("enabled", sink.isEnabled());
+        stats.put("durability", sink.getDurability().name());
+        stats.put("queueDepth", sink.getQueueDepth());
+        stats.put("queueCapacity", sink.getQueueCapacity());
+        stats.put("enqueuedEntries", sink.getEnqueued());
+        stats.put("droppedEntries", sink.getDropped());
+        stats.put("writtenEntries", sink.getWritten());
+        stats.put("failedEntries", sink.getFailed());
+        stats.put("batches", batches);
+        stats.put("meanBatchEntries", batches > 0 ? sink.getWritten() / batches : 0L);
+        stats.put("largestBatchEntries", sink.getLargestBatch());
+        LatencyHistogram histogram = sink.getWriteLatency();
+        Map<String, Object> latency = new LinkedHashMap<>();
+        latency.put("count", histogram.count());
+        latency.put("meanMicros", histogram.meanMicros());
+        latency.put("p50Micros", histogram.percentileMicros(50));
+        latency.put("p99Micros", histogram.percentileMicros(99));
+        latency.put("maxMicros", histogram.maxMicros());
+        stats.put("writeLatency", latency);
+        return stats;
+    }
+}
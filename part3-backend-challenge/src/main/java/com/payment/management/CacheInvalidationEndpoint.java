@@ -0,0 +1,53 @@
+package com.payment.management;
+
+import com.payment.cache.CacheInvalidationListener;
+import com.payment.cache.HotWindowLoader;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.management.endpoint.annotation.Endpoint;
+import io.micronaut.management.endpoint.annotation.Read;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Connection state and traffic of the cluster cache invalidation listener, and
+ * how far the hot window had to reach back for late commits, at /cache-invalidation
+ */
+@Endpoint(id = "cache-invalidation", defaultSensitive = false)
+public class CacheInvalidationEndpoint {
+
+    private final CacheInvalidationListener listener;
+    private final HotWindowLoader hotWindowLoader;
+
+    public CacheInvalidationEndpoint(@Nullable CacheInvalidationListener listener,
+            @Nullable HotWindowLoader hotWindowLoader) {
+        this.listener = listener;
+        this.hotWindowLoader = hotWindowLoader;
+    }
+
+    @Read
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", listener != null);
+        if (listener != null) {
+            stats.put("channel", CacheInvalidationListener.CHANNEL);
+            stats.put("connected", listener.isConnected());
+            stats.put("connects", listener.getConnects());
+            stats.put("notifications", listener.getNotifications());
+            stats.put("invalidations", listener.getInvalidations());
+            stats.put("handlers", listener.getHandlerCount());
+            if (listener.getLastNotificationAt() != null) {
+                stats.put("lastNotificationAt", listener.getLastNotificationAt().toString());
+            }
+        }
+        if (hotWindowLoader != null) {
+            stats.put("hotWindowPendingRefreshes", hotWindowLoader.getPendingRefreshes());
+            stats.put("hotWindowRefreshedDays", hotWindowLoader.getRefreshedDays());
+            stats.put("hotWindowOpenIdGaps", hotWindowLoader.getIdGaps().size());
+            stats.put("hotWindowLateRows", hotWindowLoader.getIdGaps().getFilled());
+            stats.put("hotWindowExpiredIdGaps", hotWindowLoader.getIdGaps().getExpired());
+            stats.put("hotWindowDroppedIdGaps", hotWindowLoader.getIdGaps().getDropped());
+        }
+        return stats;
+    }
+}
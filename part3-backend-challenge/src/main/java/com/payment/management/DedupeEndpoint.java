@@ -0,0 +1,43 @@
+package com.payment.management;
+
+import com.payment.cache.BloomFilter;
+import com.payment.cache.TransactionDedupeFilter;
+import io.micronaut.management.endpoint.annotation.Endpoint;
+import io.micronaut.management.endpoint.annotation.Read;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Size and accuracy of the ingestion dedupe filter, at /dedupe.
+ */
+@Endpoint(id = "dedupe", defaultSensitive = false)
+public class DedupeEndpoint {
+
+    private final TransactionDedupeFilter dedupeFilter;
+
+    public DedupeEndpoint(TransactionDedupeFilter dedupeFilter) {
+        this.dedupeFilter = dedupeFilter;
+    }
+
+    @Read
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        BloomFilter filter = dedupeFilter.getFilter();
+        stats.put("ready", filter != null);
+        if (filter != null) {
+            stats.put("loadedAt", dedupeFilter.getLoadedAt().toString());
+            stats.put("keys", filter.insertions());
+            stats.put("expectedKeys", filter.expectedInsertions());
+            stats.put("bytes", filter.sizeInBytes());
+            stats.put("bitsPerKey", filter.insertions() > 0 ? (double) filter.bitSize() / filter.insertions() : 0.0);
+            stats.put("hashes", filter.hashCount());
+            stats.put("expectedFalsePositiveRate", filter.expectedFalsePositiveRate());
+        }
+        stats.put("checks", dedupeFilter.getChecks());
+        stats.put("possibleHits", dedupeFilter.getPossibleHits());
+        stats.put("confirmedDuplicates", dedupeFilter.getConfirmedDuplicates());
+        stats.put("observedFalsePositiveRate", dedupeFilter.getObservedFalsePositiveRate());
+        return stats;
+    }
+}
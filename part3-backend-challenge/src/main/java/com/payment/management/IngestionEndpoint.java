@@ -0,0 +1,95 @@
+package com.payment.management;
+
+import com.payment.ingest.GroupCommitPipeline;
+import com.payment.ingest.IngestJournal;
+import com.payment.ingest.LatencyHistogram;
+import io.micronaut.management.endpoint.annotation.Endpoint;
+import io.micronaut.management.endpoint.annotation.Read;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Throughput, queue depth and commit latency of the ingestion group-commit pipeline, and the state of
+ * its journal when enabled, including the rejected requests kept in ingest_dead_letter, at /ingestion.
+ */
+@Endpoint(id = "ingestion", defaultSensitive = false)
+public class IngestionEndpoint {
+
+    private final GroupCommitPipeline pipeline;
+
+    public IngestionEndpoint(GroupCommitPipeline pipeline) {
+        this.pipeline = pipeline;
+    }
+
+    @Read
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long commits = pipeline.getCommits();
+        long committed = pipeline.getCommittedTransactions();
+        double uptimeSeconds = Math.max(1L, Duration.between(pipeline.getStartedAt(), Instant.now()).toSeconds());
+        stats.put("groupCommit", pipeline.isEnabled());
+        stats.put("queuedRequests", pipeline.getQueuedRequests());
+        stats.put("ringCapacity", pipeline.getRingCapacity());
+        stats.put("pendingTransactions", pipeline.getPendingTransactions());
+        stats.put("acceptedRequests", pipeline.getAccepted());
+        stats.put("rejectedRequests", pipeline.getRejected());
+        stats.put("failedRequests", pipeline.getFailed());
+        stats.put("commits", commits);
+        stats.put("committedTransactions", committed);
+        stats.put("meanGroupTransactions", commits > 0 ? committed / commits : 0L);
+        stats.put("largestGroupTransactions", pipeline.getLargestGroup());
+        stats.put("transactionsPerSecond", committed / uptimeSeconds);
+        stats.put("recentTransactionsPerSecond", pipeline.getRecentTransactionsPerSecond());
+        stats.put("commitLatency", latency(pipeline.getCommitLatency()));
+        stats.put("ackLatency", latency(pipeline.getAckLatency()));
+        stats.put("commitRetries", pipeline.getRetries());
+
+        IngestJournal journal = pipeline.getJournal();
+        if (journal != null) {
+            Map<String, Object> journalStats = new LinkedHashMap<>();
+            journalStats.put("journalId", journal.getJournalId());
+            journalStats.put("directory", journal.getDirectory().toString());
+            journalStats.put("fsync", journal.getFsync().name());
+            journalStats.put("segments", journal.getSegmentCount());
+            journalStats.put("bytes", journal.getJournalBytes());
+            journalStats.put("appendedRecords", journal.getAppendedRecords());
+            journalStats.put("writtenSequence", journal.getWrittenSequence());
+            journalStats.put("durableSequence", journal.getDurableSequence());
+            journalStats.put("committedSequence", journal.getReleasedSequence());
+            journalStats.put("recoveredSequence", journal.getRecoveredSequence());
+            journalStats.put("replayedRequests", pipeline.getReplayedRequests());
+            journalStats.put("deadLetteredRequests", pipeline.getDeadLettered());
+            journalStats.put("lastDeadLetterError", pipeline.getLastDeadLetterError());
+            journalStats.put("storedDeadLetters", storedDeadLetters());
+            journalStats.put("corruptSegments", journal.getCorruptSegments());
+            journalStats.put("forces", journal.getForces());
+            journalStats.put("forceLatency", latency(journal.getForceLatency()));
+            stats.put("journal", journalStats);
+        }
+        return stats;
+    }
+
+    /**
+     * Null while the database cannot be read
+     */
+    private Long storedDeadLetters() {
+        try {
+            return pipeline.countStoredDeadLetters();
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static Map<String, Object> latency(LatencyHistogram histogram) {
+        Map<String, Object> latency = new LinkedHashMap<>();
+        latency.put("count", histogram.count());
+        latency.put("meanMicros", histogram.meanMicros());
+        latency.put("p50Micros", histogram.percentileMicros(50));
+        latency.put("p99Micros", histogram.percentileMicros(99));
+        latency.put("maxMicros", histogram.maxMicros());
+        return latency;
+    }
+}
@@ -0,0 +1,40 @@
+package com.payment.management;
+
+import com.payment.analytics.LiveDayAggregator;
+import io.micronaut.management.endpoint.annotation.Endpoint;
+import io.micronaut.management.endpoint.annotation.Read;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Subscribers, published updates and conflation of the live metrics stream at /live-metrics
+ */
+@Endpoint(id = "live-metrics", defaultSensitive = false)
+public class LiveMetricsEndpoint {
+
+    private final LiveDayAggregator aggregator;
+
+    public LiveMetricsEndpoint(LiveDayAggregator aggregator) {
+        this.aggregator = aggregator;
+    }
+
+    @Read
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("ready", aggregator.getDay() != null);
+        if (aggregator.getDay() != null) {
+            stats.put("day", aggregator.getDay().toString());
+            stats.put("lastResyncAt", aggregator.getLastResyncAt().toString());
+        }
+        stats.put("subscribers", aggregator.getSubscriberCount());
+        stats.put("recordedTransactions", aggregator.getRecorded());
+        stats.put("publishedUpdates", aggregator.getPublished());
+        stats.put("deliveredEvents", aggregator.getDelivered());
+        stats.put("conflatedUpdates", aggregator.getConflated());
+        if (aggregator.getLastPublishAt() != null) {
+            stats.put("lastPublishAt", aggregator.getLastPublishAt().toString());
+        }
+        return stats;
+    }
+}
@@ -0,0 +1,76 @@
+package com.payment.management;
+
+import com.payment.service.KeyedExecutor.LaneStats;
+import com.payment.service.PaymentProcessingService;
+import io.micronaut.management.endpoint.annotation.Endpoint;
+import io.micronaut.management.endpoint.annotation.Read;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Occupancy and lag of the settlement lanes at /paymentlanes. Merchants are
+ * striped onto lanes, so one lane that is much busier or later than the rest
+ * points at a hot merchant. Also counts background retries of rolled-back
+ * chunks and the poison transactions they turned up.
+ */
+@Endpoint(id = "paymentlanes", defaultSensitive = false)
+public class PaymentLanesEndpoint {
+
+    private final PaymentProcessingService service;
+
+    public PaymentLanesEndpoint(PaymentProcessingService service) {
+        this.service = service;
+    }
+
+    @Read
+    public Map<String, Object> stats() {
+        List<LaneStats> lanes = service.getLaneStats();
+        long totalSubmitted = 0;
+        LaneStats busiest = null;
+        List<Map<String, Object>> laneStats = new ArrayList<>(lanes.size());
+        for (LaneStats lane : lanes) {
+            totalSubmitted += lane.submitted();
+            if (busiest == null || lane.busyMillis() > busiest.busyMillis()) {
+                busiest = lane;
+            }
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("lane", lane.lane());
+            stats.put("depth", lane.depth());
+            stats.put("capacity", lane.capacity());
+            stats.put("busy", lane.busy());
+            stats.put("submittedChunks", lane.submitted());
+            stats.put("completedChunks", lane.completed());
+            stats.put("failedChunks", lane.failed());
+            stats.put("rejectedChunks", lane.rejected());
+            stats.put("oldestQueuedMillis", lane.oldestQueuedMillis());
+            stats.put("runningMillis", lane.runningMillis());
+            stats.put("maxWaitMillis", lane.maxWaitMillis());
+            stats.put("busyMillis", lane.busyMillis());
+            laneStats.add(stats);
+        }
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("lanes", lanes.size());
+        stats.put("completedTransactions", service.getCompletedCount());
+        stats.put("failedTransactions", service.getFailedCount());
+        stats.put("totalCompleted", service.getTotalCompleted());
+        // Busiest lane's share of the work over an even share: 1.0 is no skew
+        long totalBusy = lanes.stream().mapToLong(LaneStats::busyMillis).sum();
+        stats.put("busySkew", totalBusy == 0 ? 1.0 : busiest.busyMillis() * (double) lanes.size() / totalBusy);
+        stats.put("busiestLane", busiest == null ? null : busiest.lane());
+        stats.put("submittedChunks", totalSubmitted);
+        Map<String, Object> retries = new LinkedHashMap<>();
+        retries.put("scheduledChunks", service.getScheduledRetries());
+        retries.put("retriedTransactions", service.getRetriesScheduled());
+        retries.put("succeededTransactions", service.getRetriesSucceeded());
+        retries.put("refusedTransactions", service.getRetriesRefused());
+        retries.put("poisonedTransactions", service.getPoisoned());
+        retries.put("abandonedTransactions", service.getAbandoned());
+        stats.put("retries", retries);
+        stats.put("laneStats", laneStats);
+        return stats;
+    }
+}
@@ -0,0 +1,67 @@
+package com.payment.management;
+
+import com.payment.analytics.ColumnSegment;
+import com.payment.analytics.ColumnarReportLoader;
+import com.payment.analytics.ColumnarReportService;
+import com.payment.analytics.ColumnarStore;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.management.endpoint.annotation.Endpoint;
+import io.micronaut.management.endpoint.annotation.Read;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Size and latency of the columnar report cache, at /reportcache.
+ */
+@Endpoint(id = "reportcache", defaultSensitive = false)
+public class ReportCacheEndpoint {
+
+    private final ColumnarStore store;
+    private final ColumnarReportService reportService;
+    private final ColumnarReportLoader loader;
+
+    public ReportCacheEndpoint(ColumnarStore store, ColumnarReportService reportService,
+            @Nullable ColumnarReportLoader loader) {
+        this.store = store;
+        this.reportService = reportService;
+        this.loader = loader;
+    }
+
+    @Read
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        ColumnarStore.Snapshot snapshot = store.snapshot();
+        stats.put("ready", snapshot != null);
+        if (snapshot != null) {
+            long rows = snapshot.rows();
+            long bytes = snapshot.allocatedBytes();
+            stats.put("windowStart", snapshot.windowStart().toString());
+            stats.put("watermarkTxnId", snapshot.watermarkTxnId());
+            stats.put("syncedAt", snapshot.syncedAt().toString());
+            stats.put("segments", snapshot.segments().length);
+            stats.put("rows", rows);
+            stats.put("allocatedBytes", bytes);
+            stats.put("bytesPerRow", ColumnSegment.BYTES_PER_ROW);
+            stats.put("allocatedBytesPerMillionRows", rows > 0 ? bytes * 1_000_000L / rows : 0L);
+        }
+        if (loader != null) {
+            stats.put("lastRebuildMillis", loader.getLastRebuildMillis());
+            stats.put("openIdGaps", loader.getIdGaps().size());
+            stats.put("lateRows", loader.getIdGaps().getFilled());
+            stats.put("expiredIdGaps", loader.getIdGaps().getExpired());
+            stats.put("droppedIdGaps", loader.getIdGaps().getDropped());
+        }
+        stats.put("allDaysDirty", store.isAllDirty());
+        stats.put("dirtyDays", store.getDirtyDays());
+        stats.put("dirtyFallbacks", reportService.getDirtyFallbacks());
+        stats.put("cardTypes", store.cardTypes().names().length);
+        stats.put("kernels", reportService.getKernels());
+        stats.put("parallelism", reportService.getParallelism());
+        stats.put("reports", reportService.getReportCount());
+        stats.put("lastReportMicros", reportService.getLastReportNanos() / 1_000);
+        stats.put("meanReportMicros", reportService.getMeanReportNanos() / 1_000);
+        stats.put("maxReportMicros", reportService.getMaxReportNanos() / 1_000);
+        return stats;
+    }
+}
@@ -0,0 +1,65 @@
+package com.payment.management;
+
+import com.payment.config.RequestCoalescingProperties;
+import com.payment.service.SingleFlight;
+import com.payment.service.SingleFlight.KeyStats;
+import com.payment.service.TransactionService;
+import io.micronaut.management.endpoint.annotation.Endpoint;
+import io.micronaut.management.endpoint.annotation.Read;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * How many report and merchant page requests were served by a computation
+ * another caller had already started, at /request-coalescing. The keys listed
+ * first are the ones most often requested at the same moment.
+ */
+@Endpoint(id = "request-coalescing", defaultSensitive = false)
+public class RequestCoalescingEndpoint {
+
+    private static final int TOP_KEYS = 20;
+
+    private final TransactionService service;
+    private final RequestCoalescingProperties properties;
+
+    public RequestCoalescingEndpoint(TransactionService service, RequestCoalescingProperties properties) {
+        this.service = service;
+        this.properties = properties;
+    }
+
+    @Read
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", properties.isEnabled());
+        stats.put("reports", flightStats(service.getReportFlights()));
+        stats.put("merchantTransactions", flightStats(service.getMerchantPageFlights()));
+        return stats;
+    }
+
+    private static Map<String, Object> flightStats(SingleFlight<?, ?> flights) {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("calls", flights.getCalls());
+        stats.put("executions", flights.getExecutions());
+        stats.put("collapsedCalls", flights.getCollapsed());
+        stats.put("failedExecutions", flights.getFailures());
+        stats.put("inFlight", flights.getInFlight());
+        stats.put("trackedKeys", flights.getTrackedKeys());
+        stats.put("maxTrackedKeys", flights.getMaxTrackedKeys());
+        stats.put("evictedKeys", flights.getEvictedKeys());
+        List<Map<String, Object>> keys = new ArrayList<>();
+        for (KeyStats key : flights.topKeys(TOP_KEYS)) {
+            Map<String, Object> keyStats = new LinkedHashMap<>();
+            keyStats.put("key", key.key());
+            keyStats.put("calls", key.calls());
+            keyStats.put("executions", key.executions());
+            keyStats.put("collapsedCalls", key.collapsed());
+            keyStats.put("largestFlight", key.largestFlight());
+            keys.add(keyStats);
+        }
+        stats.put("topKeys", keys);
+        return stats;
+    }
+}
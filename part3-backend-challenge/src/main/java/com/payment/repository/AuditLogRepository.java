@@ -0,0 +1,76 @@
+package com.payment.repository;
+
+import com.payment.audit.AuditEntry;
+import io.micronaut.data.exceptions.DataAccessException;
+import jakarta.inject.Singleton;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Appends to operators.payment_audit_log, one INSERT ... SELECT FROM unnest(...)
+ * per batch, as TransactionIngestRepository does for transactions
+ */
+@Singleton
+public class AuditLogRepository {
+
+        private static final String INSERT_SQL = "INSERT INTO operators.payment_audit_log "
+                        + "(txn_id, txn_date, merchant_id, from_status, to_status, amount, detail, occurred_at) "
+                        + "SELECT txn_id, txn_date::date, merchant_id, from_status, to_status, amount::numeric, "
+                        + "detail, occurred_at::timestamptz "
+                        + "FROM unnest(?::bigint[], ?::text[], ?::text[], ?::text[], ?::text[], ?::text[], ?::text[], "
+                        + "?::text[]) AS u(txn_id, txn_date, merchant_id, from_status, to_status, amount, detail, "
+                        + "occurred_at)";
+
+        private final DataSource dataSource;
+
+        public AuditLogRepository(DataSource dataSource) {
+                this.dataSource = dataSource;
+        }
+
+        /**
+         * Write the entries in one statement; autocommitted, as the log is append-only
+         */
+        public void insertBatch(List<AuditEntry> entries) {
+                if (entries.isEmpty()) {
+                        return;
+                }
+                int size = entries.size();
+                Long[] txnIds = new Long[size];
+                String[] txnDates = new String[size];
+                String[] merchantIds = new String[size];
+                String[] fromStatuses = new String[size];
+                String[] toStatuses = new String[size];
+                String[] amounts = new String[size];
+                String[] details = new String[size];
+                String[] occurredAts = new String[size];
+                for (int i = 0; i < size; i++) {
+                        AuditEntry entry = entries.get(i);
+                        txnIds[i] = entry.txnId();
+                        txnDates[i] = entry.txnDate().toString();
+                        merchantIds[i] = entry.merchantId();
+                        fromStatuses[i] = entry.fromStatus();
+                        toStatuses[i] = entry.toStatus();
+                        amounts[i] = entry.amount() == null ? null : entry.amount().toPlainString();
+                        details[i] = entry.detail();
+                        occurredAts[i] = entry.occurredAt().toString();
+                }
+                try (Connection connection = dataSource.getConnection();
+                                PreparedStatement statement = connection.prepareStatement(INSERT_SQL)) {
+                        statement.setArray(1, connection.createArrayOf("bigint", txnIds));
+                        statement.setArray(2, connection.createArrayOf("text", txnDates));
+                        statement.setArray(3, connection.createArrayOf("text", merchantIds));
+                        statement.setArray(4, connection.createArrayOf("text", fromStatuses));
+                        statement.setArray(5, connection.createArrayOf("text", toStatuses));
+                        statement.setArray(6, connection.createArrayOf("text", amounts));
+                        statement.setArray(7, connection.createArrayOf("text", details));
+                        statement.setArray(8, connection.createArrayOf("text", occurredAts));
+                        statement.executeUpdate();
+                } catch (SQLException e) {
+                        throw new DataAccessException("Failed to write " + size + " audit entries", e);
+                }
+        }
+}
@@ -0,0 +1,142 @@
+package com.payment.repository;
+
+import io.micronaut.data.exceptions.DataAccessException;
+import jakarta.inject.Singleton;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hourly decline counts in operators.decline_hourly, added to by
+ * DeclineSnapshotWriter and read back for windows longer than the in-memory
+ * counters keep.
+ */
+@Singleton
+public class DeclineSnapshotRepository {
+
+        // Sorted so concurrent writers lock rows in the same order
+        private static final String ADD_SQL = "INSERT INTO operators.decline_hourly AS d "
+                        + "(hour_start, issuer_id, response_code, txn_count, decline_count, updated_at) "
+                        + "SELECT hour_start::timestamptz, issuer_id, response_code, txn_count, decline_count, NOW() "
+                        + "FROM unnest(?::text[], ?::bigint[], ?::text[], ?::bigint[], ?::bigint[]) "
+                        + "AS u(hour_start, issuer_id, response_code, txn_count, decline_count) "
+                        + "ORDER BY 1, 2, 3 "
+                        + "ON CONFLICT (hour_start, issuer_id, response_code) DO UPDATE "
+                        + "SET txn_count = d.txn_count + EXCLUDED.txn_count, "
+                        + "decline_count = d.decline_count + EXCLUDED.decline_count, updated_at = NOW()";
+
+        // One row per hour, per issuer and per response code; GROUPING() tells them apart
+        private static final String BREAKDOWN_SQL = "SELECT GROUPING(hour_start, issuer_id, response_code), "
+                        + "hour_start, issuer_id, response_code, SUM(txn_count), SUM(decline_count) "
+                        + "FROM operators.decline_hourly WHERE hour_start >= ? AND hour_start < ? ";
+
+        private static final String BREAKDOWN_GROUPING = "GROUP BY GROUPING SETS ((hour_start), (issuer_id), "
+                        + "(response_code))";
+
+        /**
+         * Counts of one hour, issuer and response code
+         */
+        public record DeclineCount(Instant hourStart, long issuerId, String responseCode, long transactions,
+                        long declines) {
+        }
+
+        /**
+         * Which of the hour, issuer and response code a breakdown row is for
+         */
+        public enum Dimension {
+                HOUR, ISSUER, RESPONSE_CODE
+        }
+
+        /**
+         * Counts summed over a window for one hour, one issuer or one response code;
+         * only the key of the row's dimension is set
+         */
+        public record DeclineGroup(Dimension dimension, Instant hourStart, Long issuerId, String responseCode,
+                        long transactions, long declines) {
+        }
+
+        private final DataSource dataSource;
+
+        public DeclineSnapshotRepository(DataSource dataSource) {
+                this.dataSource = dataSource;
+        }
+
+        /**
+         * Add counts to their rows, creating the rows that do not exist, in one statement
+         */
+        public void addCounts(List<DeclineCount> counts) {
+                if (counts.isEmpty()) {
+                        return;
+                }
+                int size = counts.size();
+                String[] hours = new String[size];
+                Long[] issuerIds = new Long[size];
+                String[] responseCodes = new String[size];
+                Long[] transactions = new Long[size];
+                Long[] declines = new Long[size];
+                for (int i = 0; i < size; i++) {
+                        DeclineCount count = counts.get(i);
+                        hours[i] = count.hourStart().toString();
+                        issuerIds[i] = count.issuerId();
+                        responseCodes[i] = count.responseCode();
+                        transactions[i] = count.transactions();
+                        declines[i] = count.declines();
+                }
+                try (Connection connection = dataSource.getConnection();
+                                PreparedStatement statement = connection.prepareStatement(ADD_SQL)) {
+                        statement.setArray(1, connection.createArrayOf("text", hours));
+                        statement.setArray(2, connection.createArrayOf("bigint", issuerIds));
+                        statement.setArray(3, connection.createArrayOf("text", responseCodes));
+                        statement.setArray(4, connection.createArrayOf("bigint", transactions));
+                        statement.setArray(5, connection.createArrayOf("bigint", declines));
+                        statement.executeUpdate();
+                } catch (SQLException e) {
+                        throw new DataAccessException("Failed to write " + size + " decline counts", e);
+                }
+        }
+
+        /**
+         * Counts of the hours from (inclusive) to until (exclusive) summed per hour,
+         * per issuer and per response code, optionally for one issuer only
+         */
+        public List<DeclineGroup> findBreakdown(Instant from, Instant until, Long issuerId) {
+                String sql = BREAKDOWN_SQL + (issuerId != null ? "AND issuer_id = ? " : "") + BREAKDOWN_GROUPING;
+                try (Connection connection = dataSource.getConnection();
+                                PreparedStatement statement = connection.prepareStatement(sql)) {
+                        statement.setTimestamp(1, Timestamp.from(from));
+                        statement.setTimestamp(2, Timestamp.from(until));
+                        if (issuerId != null) {
+                                statement.setLong(3, issuerId);
+                        }
+                        List<DeclineGroup> groups = new ArrayList<>();
+                        try (ResultSet rs = statement.executeQuery()) {
+                                while (rs.next()) {
+                                        // Bits are hour, issuer, code; a set bit is a column rolled up
+                                        int grouping = rs.getInt(1);
+                                        long transactions = rs.getLong(5);
+                                        long declines = rs.getLong(6);
+                                        if ((grouping & 4) == 0) {
+                                                groups.add(new DeclineGroup(Dimension.HOUR, rs.getTimestamp(2).toInstant(),
+                                                                null, null, transactions, declines));
+                                        } else if ((grouping & 2) == 0) {
+                                                groups.add(new DeclineGroup(Dimension.ISSUER, null, rs.getLong(3), null,
+                                                                transactions, declines));
+                                        } else {
+                                                groups.add(new DeclineGroup(Dimension.RESPONSE_CODE, null, null,
+                                                                rs.getString(4), transactions, declines));
+                                        }
+                                }
+                        }
+                        return groups;
+                } catch (SQLException e) {
+                        throw new DataAccessException("Failed to read decline breakdown from " + from + " to " + until, e);
+                }
+        }
+}
@@ -0,0 +1,94 @@
+package com.payment.repository;
+
+import io.micronaut.data.exceptions.DataAccessException;
+import jakarta.inject.Singleton;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Transaction counts per acquirer or issuer member, read from the
+ * member_daily_stats aggregate kept by the triggers installed in V10.
+ */
+@Singleton
+public class MemberReportRepository {
+
+        private static final String STATS_SQL = "SELECT s.member_id, m.member_name, m.member_code, s.status, "
+                        + "s.card_type, SUM(s.txn_count), SUM(s.amount) "
+                        + "FROM operators.member_daily_stats s "
+                        + "JOIN operators.members m ON m.member_id = s.member_id "
+                        + "WHERE s.role = ? AND s.txn_date BETWEEN ? AND ? ";
+
+        private static final String STATS_GROUPING = "GROUP BY s.member_id, m.member_name, m.member_code, s.status, "
+                        + "s.card_type "
+                        + "HAVING SUM(s.txn_count) <> 0 "
+                        + "ORDER BY s.member_id, s.status, s.card_type";
+
+        /**
+         * The side of a transaction a member is reported on
+         */
+        public enum Role {
+                ACQUIRER("A"),
+                ISSUER("I");
+
+                private final String code;
+
+                Role(String code) {
+                        this.code = code;
+                }
+
+                public String getCode() {
+                        return code;
+                }
+        }
+
+        /**
+         * A member's transactions with one status and card type over a date range
+         */
+        public record MemberStatRow(long memberId, String memberName, String memberCode, String status,
+                        String cardType, long count, BigDecimal amount) {
+        }
+
+        private final DataSource dataSource;
+
+        public MemberReportRepository(DataSource dataSource) {
+                this.dataSource = dataSource;
+        }
+
+        /**
+         * Counts by member, status and card type for a date range, optionally for
+         * one member only, ordered by member
+         */
+        public List<MemberStatRow> findMemberStats(Role role, LocalDate startDate, LocalDate endDate, Long memberId) {
+                String sql = STATS_SQL + (memberId != null ? "AND s.member_id = ? " : "") + STATS_GROUPING;
+                try (Connection connection = dataSource.getConnection();
+                                PreparedStatement statement = connection.prepareStatement(sql)) {
+                        statement.setString(1, role.getCode());
+                        statement.setDate(2, Date.valueOf(startDate));
+                        statement.setDate(3, Date.valueOf(endDate));
+                        if (memberId != null) {
+                                statement.setLong(4, memberId);
+                        }
+                        List<MemberStatRow> rows = new ArrayList<>();
+                        try (ResultSet rs = statement.executeQuery()) {
+                                while (rs.next()) {
+                                        rows.add(new MemberStatRow(rs.getLong(1), rs.getString(2), rs.getString(3),
+                                                        rs.getString(4), rs.getString(5), rs.getLong(6),
+                                                        rs.getBigDecimal(7)));
+                                }
+                        }
+                        return rows;
+                } catch (SQLException e) {
+                        throw new DataAccessException("Failed to read " + role.name().toLowerCase()
+                                        + " member statistics for " + startDate + " to " + endDate, e);
+                }
+        }
+}
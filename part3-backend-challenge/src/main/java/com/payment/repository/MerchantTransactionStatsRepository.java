@@ -0,0 +1,19 @@
+package com.payment.repository;
+
+import com.payment.entity.MerchantTransactionStats;
+import io.micronaut.data.annotation.Repository;
+import io.micronaut.data.jdbc.annotation.JdbcRepository;
+import io.micronaut.data.model.query.builder.sql.Dialect;
+import io.micronaut.data.repository.CrudRepository;
+
+import java.util.List;
+
+/**
+ * Repository for the trigger-maintained per-merchant transaction aggregate.
+ */
+@Repository
+@JdbcRepository(dialect = Dialect.POSTGRES)
+public interface MerchantTransactionStatsRepository extends CrudRepository<MerchantTransactionStats, String> {
+
+    List<MerchantTransactionStats> findByMerchantIdInList(List<String> merchantIds);
+}
@@ -0,0 +1,315 @@
+package com.payment.repository;
+
+import io.micronaut.data.exceptions.DataAccessException;
+import jakarta.inject.Singleton;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Daily settlement positions per member, kept in member_daily_settlement by the
+ * triggers installed in V8, their reconciliation against transaction_master,
+ * and the per-member transaction streams that settlement files are written from.
+ */
+@Singleton
+public class SettlementRepository {
+
+        private static final String DAILY_SQL = "SELECT s.member_id, m.member_name, m.member_code, s.currency, "
+                        + "s.acquired_count, s.acquired_amount, s.issued_count, s.issued_amount "
+                        + "FROM operators.member_daily_settlement s "
+                        + "JOIN operators.members m ON m.member_id = s.member_id "
+                        + "WHERE s.settlement_date = ? AND (s.acquired_count <> 0 OR s.issued_count <> 0) ";
+
+        // Same shape as the V8 trigger, from the raw rows of one day
+        private static final String RAW_SQL = "SELECT member_id, currency, "
+                        + "SUM(acquired) AS acquired_count, SUM(acquired * amount) AS acquired_amount, "
+                        + "SUM(issued) AS issued_count, SUM(issued * amount) AS issued_amount "
+                        + "FROM (SELECT gp_acquirer_id AS member_id, currency, amount, 1 AS acquired, 0 AS issued "
+                        + "FROM operators.transaction_master "
+                        + "WHERE txn_date = ? AND status = 'completed' AND gp_acquirer_id IS NOT NULL "
+                        + "UNION ALL "
+                        + "SELECT gp_issuer_id, currency, amount, 0, 1 "
+                        + "FROM operators.transaction_master "
+                        + "WHERE txn_date = ? AND status = 'completed' AND gp_issuer_id IS NOT NULL) d "
+                        + "GROUP BY member_id, currency";
+
+        // One statement, so both sides come from the same snapshot
+        private static final String VERIFY_SQL = "WITH raw AS (" + RAW_SQL + "), "
+                        + "kept AS (SELECT member_id, currency, acquired_count, acquired_amount, issued_count, issued_amount "
+                        + "FROM operators.member_daily_settlement "
+                        + "WHERE settlement_date = ? AND (acquired_count <> 0 OR issued_count <> 0 "
+                        + "OR acquired_amount <> 0 OR issued_amount <> 0)) "
+                        + "SELECT COALESCE(r.member_id, k.member_id), COALESCE(r.currency, k.currency), "
+                        + "COALESCE(r.acquired_count, 0), COALESCE(r.acquired_amount, 0), "
+                        + "COALESCE(r.issued_count, 0), COALESCE(r.issued_amount, 0), "
+                        + "COALESCE(k.acquired_count, 0), COALESCE(k.acquired_amount, 0), "
+                        + "COALESCE(k.issued_count, 0), COALESCE(k.issued_amount, 0), "
+                        + "(SELECT COUNT(*) FROM kept) AS checked "
+                        + "FROM raw r FULL JOIN kept k ON k.member_id = r.member_id AND k.currency = r.currency "
+                        + "WHERE (COALESCE(r.acquired_count, 0), COALESCE(r.acquired_amount, 0), "
+                        + "COALESCE(r.issued_count, 0), COALESCE(r.issued_amount, 0)) IS DISTINCT FROM "
+                        + "(COALESCE(k.acquired_count, 0), COALESCE(k.acquired_amount, 0), "
+                        + "COALESCE(k.issued_count, 0), COALESCE(k.issued_amount, 0)) "
+                        + "ORDER BY 1, 2";
+
+        private static final String COUNT_SQL = "SELECT COUNT(*) FROM operators.member_daily_settlement "
+                        + "WHERE settlement_date = ? AND (acquired_count <> 0 OR issued_count <> 0)";
+
+        // Largest first, so the big files start early and the small ones fill the gaps
+        private static final String MEMBERS_SQL = "SELECT s.member_id, m.member_code, "
+                        + "SUM(s.acquired_count + s.issued_count) AS transactions "
+                        + "FROM operators.member_daily_settlement s "
+                        + "JOIN operators.members m ON m.member_id = s.member_id "
+                        + "WHERE s.settlement_date = ? "
+                        + "GROUP BY s.member_id, m.member_code "
+                        + "HAVING SUM(s.acquired_count + s.issued_count) > 0 "
+                        + "ORDER BY transactions DESC, s.member_id";
+
+        // Each side is served by its V9 partial index
+        private static final String MEMBER_TRANSACTIONS_SQL = "SELECT 'A' AS side, txn_id, merchant_id, "
+                        + "local_txn_date_time, amount, currency, card_type, gp_issuer_id AS counterparty "
+                        + "FROM operators.transaction_master "
+                        + "WHERE gp_acquirer_id = ? AND txn_date = ? AND status = 'completed' "
+                        + "UNION ALL "
+                        + "SELECT 'I', txn_id, merchant_id, local_txn_date_time, amount, currency, card_type, "
+                        + "gp_acquirer_id "
+                        + "FROM operators.transaction_master "
+                        + "WHERE gp_issuer_id = ? AND txn_date = ? AND status = 'completed' "
+                        + "ORDER BY 1, 2";
+
+        private static final String DELETE_DAY_SQL = "DELETE FROM operators.member_daily_settlement "
+                        + "WHERE settlement_date = ?";
+
+        private static final String REBUILD_DAY_SQL = "INSERT INTO operators.member_daily_settlement "
+                        + "(settlement_date, member_id, currency, acquired_count, acquired_amount, issued_count, "
+                        + "issued_amount, updated_at) "
+                        + "SELECT ?, member_id, currency, acquired_count, acquired_amount, issued_count, issued_amount, "
+                        + "NOW() FROM (" + RAW_SQL + ") raw";
+
+        /**
+         * A member's position for one currency on one day
+         */
+        public record SettlementRow(long memberId, String memberName, String memberCode, String currency,
+                        long acquiredCount, BigDecimal acquiredAmount, long issuedCount, BigDecimal issuedAmount) {
+        }
+
+        /**
+         * Totals that differ between transaction_master and member_daily_settlement
+         */
+        public record SettlementMismatch(long memberId, String currency,
+                        long expectedAcquiredCount, BigDecimal expectedAcquiredAmount,
+                        long expectedIssuedCount, BigDecimal expectedIssuedAmount,
+                        long storedAcquiredCount, BigDecimal storedAcquiredAmount,
+                        long storedIssuedCount, BigDecimal storedIssuedAmount) {
+        }
+
+        /**
+         * Outcome of reconciling one day
+         *
+         * @param checkedRows stored positions of the day that were compared
+         */
+        public record Verification(LocalDate settlementDate, int checkedRows, List<SettlementMismatch> mismatches) {
+        }
+
+        /**
+         * A member with completed transactions on a settlement date
+         */
+        public record SettlementMember(long memberId, String memberCode, long transactions) {
+        }
+
+        /**
+         * One completed transaction as seen by a member: side A when it acquired
+         * it, I when it issued it; the counterparty is the member on the other side
+         */
+        public record SettlementLine(char side, long txnId, String merchantId, OffsetDateTime localTxnDateTime,
+                        BigDecimal amount, String currency, String cardType, Long counterpartyId) {
+        }
+
+        private final DataSource dataSource;
+
+        public SettlementRepository(DataSource dataSource) {
+                this.dataSource = dataSource;
+        }
+
+        /**
+         * Positions of one day, optionally for one member only, by member then currency
+         */
+        public List<SettlementRow> findDaily(LocalDate settlementDate, Long memberId) {
+                String sql = DAILY_SQL + (memberId != null ? "AND s.member_id = ? " : "")
+                                + "ORDER BY s.member_id, s.currency";
+                try (Connection connection = dataSource.getConnection();
+                                PreparedStatement statement = connection.prepareStatement(sql)) {
+                        statement.setDate(1, Date.valueOf(settlementDate));
+                        if (memberId != null) {
+                                statement.setLong(2, memberId);
+                        }
+                        List<SettlementRow> rows = new ArrayList<>();
+                        try (ResultSet rs = statement.executeQuery()) {
+                                while (rs.next()) {
+                                        rows.add(new SettlementRow(rs.getLong(1), rs.getString(2), rs.getString(3),
+                                                        rs.getString(4), rs.getLong(5), rs.getBigDecimal(6),
+                                                        rs.getLong(7), rs.getBigDecimal(8)));
+                                }
+                        }
+                        return rows;
+                } catch (SQLException e) {
+                        throw new DataAccessException("Failed to read settlement positions for " + settlementDate, e);
+                }
+        }
+
+        /**
+         * Recompute a day from transaction_master and compare it with the stored positions
+         */
+        public Verification verify(LocalDate settlementDate) {
+                Date date = Date.valueOf(settlementDate);
+                try (Connection connection = dataSource.getConnection();
+                                PreparedStatement statement = connection.prepareStatement(VERIFY_SQL)) {
+                        statement.setDate(1, date);
+                        statement.setDate(2, date);
+                        statement.setDate(3, date);
+                        List<SettlementMismatch> mismatches = new ArrayList<>();
+                        int checked = 0;
+                        try (ResultSet rs = statement.executeQuery()) {
+                                while (rs.next()) {
+                                        checked = rs.getInt(11);
+                                        mismatches.add(new SettlementMismatch(rs.getLong(1), rs.getString(2),
+                                                        rs.getLong(3), rs.getBigDecimal(4), rs.getLong(5), rs.getBigDecimal(6),
+                                                        rs.getLong(7), rs.getBigDecimal(8), rs.getLong(9), rs.getBigDecimal(10)));
+                                }
+                        }
+                        if (mismatches.isEmpty()) {
+                                checked = countRows(connection, date);
+                        }
+                        return new Verification(settlementDate, checked, mismatches);
+                } catch (SQLException e) {
+                        throw new DataAccessException("Failed to verify settlement positions for " + settlementDate, e);
+                }
+        }
+
+        /**
+         * Replace a day's positions with totals recomputed from transaction_master.
+         *
+         * The table lock waits for transactions that are changing positions and
+         * holds new ones back until the rebuild commits, so no delta is lost or
+         * counted twice.
+         *
+         * @return the number of positions written
+         */
+        public int rebuild(LocalDate settlementDate) {
+                Date date = Date.valueOf(settlementDate);
+                try (Connection connection = dataSource.getConnection()) {
+                        boolean autoCommit = connection.getAutoCommit();
+                        connection.setAutoCommit(false);
+                        try (Statement lock = connection.createStatement();
+                                        PreparedStatement delete = connection.prepareStatement(DELETE_DAY_SQL);
+                                        PreparedStatement insert = connection.prepareStatement(REBUILD_DAY_SQL)) {
+                                lock.execute("LOCK TABLE operators.member_daily_settlement IN SHARE ROW EXCLUSIVE MODE");
+                                delete.setDate(1, date);
+                                delete.executeUpdate();
+                                insert.setDate(1, date);
+                                insert.setDate(2, date);
+                                insert.setDate(3, date);
+                                int written = insert.executeUpdate();
+                                connection.commit();
+                                return written;
+                        } catch (SQLException | RuntimeException e) {
+                                connection.rollback();
+                                throw e;
+                        } finally {
+                                connection.setAutoCommit(autoCommit);
+                        }
+                } catch (SQLException e) {
+                        throw new DataAccessException("Failed to rebuild settlement positions for " + settlementDate, e);
+                }
+        }
+
+        /**
+         * Members with completed transactions on a day, by descending number of
+         * transactions
+         */
+        public List<SettlementMember> findMembersWithPositions(LocalDate settlementDate) {
+                try (Connection connection = dataSource.getConnection();
+                                PreparedStatement statement = connection.prepareStatement(MEMBERS_SQL)) {
+                        statement.setDate(1, Date.valueOf(settlementDate));
+                        List<SettlementMember> members = new ArrayList<>();
+                        try (ResultSet rs = statement.executeQuery()) {
+                                while (rs.next()) {
+                                        members.add(new SettlementMember(rs.getLong(1), rs.getString(2), rs.getLong(3)));
+                                }
+                        }
+                        return members;
+                } catch (SQLException e) {
+                        throw new DataAccessException("Failed to read settlement members for " + settlementDate, e);
+                }
+        }
+
+        /**
+         * Pass a member's completed transactions of one day to a handler, acquired
+         * ones first, each side in txn_id order.
+         *
+         * Rows are read through a server-side cursor, fetchSize at a time, so the
+         * heap holds one fetch whatever the member's volume.
+         *
+         * @return the number of rows handled
+         */
+        public long streamMemberTransactions(LocalDate settlementDate, long memberId, int fetchSize,
+                        Consumer<SettlementLine> handler) {
+                Date date = Date.valueOf(settlementDate);
+                try (Connection connection = dataSource.getConnection()) {
+                        boolean autoCommit = connection.getAutoCommit();
+                        // The driver only uses a cursor inside a transaction
+                        connection.setAutoCommit(false);
+                        try (PreparedStatement statement = connection.prepareStatement(MEMBER_TRANSACTIONS_SQL,
+                                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                                statement.setFetchSize(Math.max(1, fetchSize));
+                                statement.setLong(1, memberId);
+                                statement.setDate(2, date);
+                                statement.setLong(3, memberId);
+                                statement.setDate(4, date);
+                                long rows = 0;
+                                try (ResultSet rs = statement.executeQuery()) {
+                                        while (rs.next()) {
+                                                long counterparty = rs.getLong(8);
+                                                handler.accept(new SettlementLine(rs.getString(1).charAt(0),
+                                                                rs.getLong(2), rs.getString(3),
+                                                                rs.getObject(4, OffsetDateTime.class), rs.getBigDecimal(5),
+                                                                rs.getString(6), rs.getString(7),
+                                                                rs.wasNull() ? null : counterparty));
+                                                rows++;
+                                        }
+                                }
+                                connection.commit();
+                                return rows;
+                        } catch (SQLException | RuntimeException e) {
+                                connection.rollback();
+                                throw e;
+                        } finally {
+                                connection.setAutoCommit(autoCommit);
+                        }
+                } catch (SQLException e) {
+                        throw new DataAccessException("Failed to stream settlement transactions of member " + memberId
+                                        + " for " + settlementDate, e);
+                }
+        }
+
+        private static int countRows(Connection connection, Date date) throws SQLException {
+                try (PreparedStatement statement = connection.prepareStatement(COUNT_SQL)) {
+                        statement.setDate(1, date);
+                        try (ResultSet rs = statement.executeQuery()) {
+                                rs.next();
+                                return rs.getInt(1);
+                        }
+                }
+        }
+}
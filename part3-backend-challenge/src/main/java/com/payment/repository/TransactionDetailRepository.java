@@ -17,5 +17,8 @@ public interface TransactionDetailRepository extends CrudRepository<TransactionD
 
     List<TransactionDetail> findByMasterTxnId(Long masterTxnId);
 
+    // txnDate is the partition key; passing it limits the lookup to one partition
+    List<TransactionDetail> findByMasterTxnIdAndTxnDate(Long masterTxnId, java.sql.Date txnDate);
+
     List<TransactionDetail> findByMasterTxnIdInList(List<Long> masterTxnIds);
 }
@@ -0,0 +1,385 @@
+package com.payment.repository;
+
+import com.payment.entity.TransactionDetail;
+import com.payment.entity.TransactionMaster;
+import io.micronaut.data.exceptions.DataAccessException;
+import jakarta.inject.Singleton;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Batch writes of transaction_master rows with their transaction_details.
+ *
+ * A batch is one database transaction of three statements: the master ids are
+ * reserved from the txn_id sequence up front, so every detail row knows its
+ * master before anything is written, then each table takes a single
+ * INSERT ... SELECT FROM unnest(...) with one array parameter per column. One
+ * statement per table also means the merchant_txn_stats trigger runs once per
+ * batch instead of once per row.
+ *
+ * Masters whose natural key (merchant_id, auth_code, local_txn_date_time,
+ * amount, txn_date) is already stored are skipped by ON CONFLICT DO NOTHING,
+ * together with their details.
+ *
+ * Writes replayed from the ingestion journal also advance the journal's
+ * checkpoint row in the same transaction, so a committed record is never
+ * replayed. A journal record whose data is rejected is kept in
+ * ingest_dead_letter, again together with the checkpoint.
+ */
+@Singleton
+public class TransactionIngestRepository {
+
+        private static final String RESERVE_IDS_SQL = "SELECT nextval('operators.transaction_master_txn_id_seq') "
+                        + "FROM generate_series(1, ?)";
+
+        // Values travel as text arrays and are cast in SQL, so no driver-side type mapping is involved
+        private static final String INSERT_MASTER_SQL = "INSERT INTO operators.transaction_master (txn_id, merchant_id, "
+                        + "gp_acquirer_id, gp_issuer_id, txn_date, local_txn_date_time, amount, currency, status, "
+                        + "card_type, card_last4, auth_code, response_code) "
+                        + "SELECT u.txn_id, u.merchant_id, u.gp_acquirer_id, u.gp_issuer_id, u.txn_date::date, "
+                        + "u.local_txn_date_time::timestamptz, u.amount::numeric, u.currency, u.status, u.card_type, "
+                        + "u.card_last4, u.auth_code, u.response_code "
+                        + "FROM unnest(?::bigint[], ?::text[], ?::bigint[], ?::bigint[], ?::text[], ?::text[], ?::text[], "
+                        + "?::text[], ?::text[], ?::text[], ?::text[], ?::text[], ?::text[]) "
+                        + "AS u(txn_id, merchant_id, gp_acquirer_id, gp_issuer_id, txn_date, local_txn_date_time, amount, "
+                        + "currency, status, card_type, card_last4, auth_code, response_code) "
+                        + "ON CONFLICT DO NOTHING "
+                        + "RETURNING txn_id, created_at";
+
+        private static final String INSERT_DETAILS_SQL = "INSERT INTO operators.transaction_details (master_txn_id, "
+                        + "txn_date, detail_type, amount, currency, description, local_txn_date_time) "
+                        + "SELECT u.master_txn_id, u.txn_date::date, u.detail_type, u.amount::numeric, u.currency, "
+                        + "u.description, u.local_txn_date_time::timestamptz "
+                        + "FROM unnest(?::bigint[], ?::text[], ?::text[], ?::text[], ?::text[], ?::text[], ?::text[]) "
+                        + "AS u(master_txn_id, txn_date, detail_type, amount, currency, description, local_txn_date_time)";
+
+        // Natural-key lookup through idx_txn_master_natural_key, one probe per key
+        private static final String FIND_BY_KEY_SQL = "SELECT u.ord, m.txn_id "
+                        + "FROM unnest(?::text[], ?::text[], ?::text[], ?::text[], ?::text[]) WITH ORDINALITY "
+                        + "AS u(merchant_id, auth_code, local_txn_date_time, amount, txn_date, ord) "
+                        + "JOIN operators.transaction_master m ON m.merchant_id = u.merchant_id "
+                        + "AND m.auth_code = u.auth_code "
+                        + "AND m.local_txn_date_time = u.local_txn_date_time::timestamptz "
+                        + "AND m.amount = u.amount::numeric "
+                        + "AND m.txn_date = u.txn_date::date";
+
+        // Only ever moves forward: groups retried one request at a time may commit out of order
+        private static final String SAVE_CHECKPOINT_SQL = "INSERT INTO operators.ingest_journal_checkpoint "
+                        + "(journal_id, sequence, updated_at) VALUES (?, ?, now()) "
+                        + "ON CONFLICT (journal_id) DO UPDATE SET "
+                        + "sequence = GREATEST(operators.ingest_journal_checkpoint.sequence, EXCLUDED.sequence), "
+                        + "updated_at = now()";
+
+        // A replay of a record already kept leaves the first copy
+        private static final String SAVE_DEAD_LETTER_SQL = "INSERT INTO operators.ingest_dead_letter "
+                        + "(journal_id, sequence, transaction_count, payload, error) VALUES (?, ?, ?, ?, ?) "
+                        + "ON CONFLICT (journal_id, sequence) DO NOTHING";
+
+        private static final String COUNT_DEAD_LETTERS_SQL = "SELECT count(*) FROM operators.ingest_dead_letter "
+                        + "WHERE journal_id = ?";
+
+        private static final String FIND_CHECKPOINT_SQL = "SELECT sequence FROM operators.ingest_journal_checkpoint "
+                        + "WHERE journal_id = ?";
+
+        /**
+         * A journal and the highest of its sequences a write covers
+         */
+        public record JournalPosition(String journalId, long sequence) {
+        }
+
+        private final DataSource dataSource;
+
+        public TransactionIngestRepository(DataSource dataSource) {
+                this.dataSource = dataSource;
+        }
+
+        /**
+         * Insert the transactions and their details in one database transaction.
+         *
+         * On success every written transaction has its txnId and createdAt set,
+         * and each of its details its masterTxnId and txnDate. Transactions skipped
+         * as duplicates of a stored natural key are left with a null txnId.
+         * Nothing is written if any row fails.
+         *
+         * @param details the details of each transaction, index-aligned with transactions
+         * @return the number of detail rows written
+         * @throws IllegalArgumentException when the database rejects the data (a
+         *                                  check or foreign key violation, or a
+         *                                  txn_date without a partition)
+         */
+        public int insertBatch(List<TransactionMaster> transactions, List<List<TransactionDetail>> details) {
+                return insertBatch(transactions, details, null);
+        }
+
+        /**
+         * {@link #insertBatch(List, List)}, also advancing the journal checkpoint
+         * to {@code position} when it is given
+         */
+        public int insertBatch(List<TransactionMaster> transactions, List<List<TransactionDetail>> details,
+                        JournalPosition position) {
+                try (Connection connection = dataSource.getConnection()) {
+                        boolean autoCommit = connection.getAutoCommit();
+                        connection.setAutoCommit(false);
+                        try {
+                                int written = insert(connection, transactions, details);
+                                if (position != null) {
+                                        saveCheckpoint(connection, position);
+                                }
+                                connection.commit();
+                                return written;
+                        } catch (SQLException | RuntimeException e) {
+                                connection.rollback();
+                                for (TransactionMaster transaction : transactions) {
+                                        transaction.setTxnId(null);
+                                        transaction.setCreatedAt(null);
+                                }
+                                throw e;
+                        } finally {
+                                connection.setAutoCommit(autoCommit);
+                        }
+                } catch (SQLException e) {
+                        if (isDataError(e)) {
+                                throw new IllegalArgumentException("Transaction batch rejected: " + e.getMessage(), e);
+                        }
+                        throw new DataAccessException("Failed to insert a batch of " + transactions.size()
+                                        + " transactions", e);
+                }
+        }
+
+        private int insert(Connection connection, List<TransactionMaster> transactions,
+                        List<List<TransactionDetail>> details) throws SQLException {
+                long[] ids = reserveIds(connection, transactions.size());
+                for (int i = 0; i < transactions.size(); i++) {
+                        transactions.get(i).setTxnId(ids[i]);
+                }
+
+                Map<Long, TransactionMaster> byId = new HashMap<>(transactions.size() * 2);
+                try (PreparedStatement statement = connection.prepareStatement(INSERT_MASTER_SQL)) {
+                        int p = 1;
+                        statement.setArray(p++, longs(connection, transactions, TransactionMaster::getTxnId));
+                        statement.setArray(p++, texts(connection, transactions, TransactionMaster::getMerchantId));
+                        statement.setArray(p++, longs(connection, transactions, TransactionMaster::getGpAcquirerId));
+                        statement.setArray(p++, longs(connection, transactions, TransactionMaster::getGpIssuerId));
+                        statement.setArray(p++, texts(connection, transactions, TransactionMaster::getTxnDate));
+                        statement.setArray(p++, texts(connection, transactions, TransactionMaster::getLocalTxnDateTime));
+                        statement.setArray(p++, texts(connection, transactions, TransactionMaster::getAmount));
+                        statement.setArray(p++, texts(connection, transactions, TransactionMaster::getCurrency));
+                        statement.setArray(p++, texts(connection, transactions, TransactionMaster::getStatus));
+                        statement.setArray(p++, texts(connection, transactions, TransactionMaster::getCardType));
+                        statement.setArray(p++, texts(connection, transactions, TransactionMaster::getCardLast4));
+                        statement.setArray(p++, texts(connection, transactions, TransactionMaster::getAuthCode));
+                        statement.setArray(p, texts(connection, transactions, TransactionMaster::getResponseCode));
+                        for (TransactionMaster transaction : transactions) {
+                                byId.put(transaction.getTxnId(), transaction);
+                        }
+                        try (ResultSet rs = statement.executeQuery()) {
+                                while (rs.next()) {
+                                        byId.remove(rs.getLong(1)).setCreatedAt(rs.getTimestamp(2).toInstant());
+                                }
+                        }
+                }
+                // Whatever was not returned hit an existing natural key
+                for (TransactionMaster skipped : byId.values()) {
+                        skipped.setTxnId(null);
+                }
+
+                List<TransactionDetail> rows = new ArrayList<>();
+                for (int i = 0; i < details.size(); i++) {
+                        TransactionMaster transaction = transactions.get(i);
+                        if (transaction.getTxnId() == null) {
+                                continue;
+                        }
+                        for (TransactionDetail detail : details.get(i)) {
+                                detail.setMasterTxnId(transaction.getTxnId());
+                                detail.setTxnDate(transaction.getTxnDate());
+                                rows.add(detail);
+                        }
+                }
+                if (rows.isEmpty()) {
+                        return 0;
+                }
+
+                try (PreparedStatement statement = connection.prepareStatement(INSERT_DETAILS_SQL)) {
+                        int p = 1;
+                        statement.setArray(p++, longs(connection, rows, TransactionDetail::getMasterTxnId));
+                        statement.setArray(p++, texts(connection, rows, TransactionDetail::getTxnDate));
+                        statement.setArray(p++, texts(connection, rows, TransactionDetail::getDetailType));
+                        statement.setArray(p++, texts(connection, rows, TransactionDetail::getAmount));
+                        statement.setArray(p++, texts(connection, rows, TransactionDetail::getCurrency));
+                        statement.setArray(p++, texts(connection, rows, TransactionDetail::getDescription));
+                        statement.setArray(p, texts(connection, rows, TransactionDetail::getLocalTxnDateTime));
+                        return statement.executeUpdate();
+                }
+        }
+
+        /**
+         * The stored txn_id of each transaction's natural key, index-aligned with
+         * transactions; null where the key is not stored or there is no auth code
+         */
+        public List<Long> findExistingIds(List<TransactionMaster> transactions) {
+                List<Long> ids = new ArrayList<>(Collections.nCopies(transactions.size(), (Long) null));
+                if (transactions.isEmpty()) {
+                        return ids;
+                }
+                try (Connection connection = dataSource.getConnection();
+                                PreparedStatement statement = connection.prepareStatement(FIND_BY_KEY_SQL)) {
+                        int p = 1;
+                        statement.setArray(p++, texts(connection, transactions, TransactionMaster::getMerchantId));
+                        statement.setArray(p++, texts(connection, transactions, TransactionMaster::getAuthCode));
+                        statement.setArray(p++, texts(connection, transactions, TransactionMaster::getLocalTxnDateTime));
+                        statement.setArray(p++, texts(connection, transactions, TransactionMaster::getAmount));
+                        statement.setArray(p, texts(connection, transactions, TransactionMaster::getTxnDate));
+                        try (ResultSet rs = statement.executeQuery()) {
+                                while (rs.next()) {
+                                        ids.set((int) rs.getLong(1) - 1, rs.getLong(2));
+                                }
+                        }
+                        return ids;
+                } catch (SQLException e) {
+                        throw new DataAccessException("Failed to look up " + transactions.size()
+                                        + " transactions by natural key", e);
+                }
+        }
+
+        /**
+         * Advance a journal checkpoint on its own, for writes that turned out to
+         * contain only duplicates
+         */
+        public void saveJournalCheckpoint(JournalPosition position) {
+                try (Connection connection = dataSource.getConnection()) {
+                        saveCheckpoint(connection, position);
+                } catch (SQLException e) {
+                        throw new DataAccessException("Failed to save the checkpoint of journal "
+                                        + position.journalId(), e);
+                }
+        }
+
+        /**
+         * Keep a journal record the database rejected and advance the checkpoint
+         * past it, in one transaction
+         */
+        public void saveDeadLetter(JournalPosition position, byte[] payload, int transactionCount, String error) {
+                try (Connection connection = dataSource.getConnection()) {
+                        boolean autoCommit = connection.getAutoCommit();
+                        connection.setAutoCommit(false);
+                        try (PreparedStatement statement = connection.prepareStatement(SAVE_DEAD_LETTER_SQL)) {
+                                statement.setString(1, position.journalId());
+                                statement.setLong(2, position.sequence());
+                                statement.setInt(3, transactionCount);
+                                statement.setBytes(4, payload);
+                                statement.setString(5, error);
+                                statement.executeUpdate();
+                                saveCheckpoint(connection, position);
+                                connection.commit();
+                        } catch (SQLException | RuntimeException e) {
+                                connection.rollback();
+                                throw e;
+                        } finally {
+                                connection.setAutoCommit(autoCommit);
+                        }
+                } catch (SQLException e) {
+                        throw new DataAccessException("Failed to keep record " + position.sequence() + " of journal "
+                                        + position.journalId() + " as a dead letter", e);
+                }
+        }
+
+        /**
+         * Dead letters kept for a journal
+         */
+        public long countDeadLetters(String journalId) {
+                try (Connection connection = dataSource.getConnection();
+                                PreparedStatement statement = connection.prepareStatement(COUNT_DEAD_LETTERS_SQL)) {
+                        statement.setString(1, journalId);
+                        try (ResultSet rs = statement.executeQuery()) {
+                                rs.next();
+                                return rs.getLong(1);
+                        }
+                } catch (SQLException e) {
+                        throw new DataAccessException("Failed to count the dead letters of journal " + journalId, e);
+                }
+        }
+
+        /**
+         * Highest committed sequence of a journal, or 0 when nothing was committed from it
+         */
+        public long findJournalCheckpoint(String journalId) {
+                try (Connection connection = dataSource.getConnection();
+                                PreparedStatement statement = connection.prepareStatement(FIND_CHECKPOINT_SQL)) {
+                        statement.setString(1, journalId);
+                        try (ResultSet rs = statement.executeQuery()) {
+                                return rs.next() ? rs.getLong(1) : 0L;
+                        }
+                } catch (SQLException e) {
+                        throw new DataAccessException("Failed to read the checkpoint of journal " + journalId, e);
+                }
+        }
+
+        private static void saveCheckpoint(Connection connection, JournalPosition position) throws SQLException {
+                try (PreparedStatement statement = connection.prepareStatement(SAVE_CHECKPOINT_SQL)) {
+                        statement.setString(1, position.journalId());
+                        statement.setLong(2, position.sequence());
+                        statement.executeUpdate();
+                }
+        }
+
+        /**
+         * Ascending ids from the txn_id sequence, the same values the column default would draw
+         */
+        private long[] reserveIds(Connection connection, int count) throws SQLException {
+                long[] ids = new long[count];
+                try (PreparedStatement statement = connection.prepareStatement(RESERVE_IDS_SQL)) {
+                        statement.setInt(1, count);
+                        try (ResultSet rs = statement.executeQuery()) {
+                                int n = 0;
+                                while (rs.next()) {
+                                        ids[n++] = rs.getLong(1);
+                                }
+                        }
+                }
+                Arrays.sort(ids);
+                return ids;
+        }
+
+        private static <T> Array longs(Connection connection, List<T> rows, Function<T, Long> column)
+                        throws SQLException {
+                Long[] values = new Long[rows.size()];
+                for (int i = 0; i < values.length; i++) {
+                        values[i] = column.apply(rows.get(i));
+                }
+                return connection.createArrayOf("bigint", values);
+        }
+
+        private static <T> Array texts(Connection connection, List<T> rows, Function<T, ?> column)
+                        throws SQLException {
+                String[] values = new String[rows.size()];
+                for (int i = 0; i < values.length; i++) {
+                        Object value = column.apply(rows.get(i));
+                        values[i] = value == null ? null
+                                        : value instanceof BigDecimal amount ? amount.toPlainString()
+                                                        : value.toString();
+                }
+                return connection.createArrayOf("text", values);
+        }
+
+        /**
+         * SQLSTATE classes 22 (data exception) and 23 (integrity constraint violation,
+         * which includes a row with no partition for its txn_date)
+         */
+        private static boolean isDataError(SQLException e) {
+                String state = e.getSQLState();
+                return state != null && (state.startsWith("22") || state.startsWith("23"));
+        }
+}
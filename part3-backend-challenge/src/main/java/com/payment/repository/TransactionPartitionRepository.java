@@ -0,0 +1,99 @@
+package com.payment.repository;
+
+import io.micronaut.data.exceptions.DataAccessException;
+import jakarta.inject.Singleton;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Access to the monthly partitions of transaction_master / transaction_details.
+ *
+ * Creation and detachment go through the SQL functions installed by the V3
+ * migration so both tables always change together.
+ */
+@Singleton
+public class TransactionPartitionRepository {
+
+        static final String PARTITION_PREFIX = "transaction_master_p";
+        static final DateTimeFormatter SUFFIX_FORMAT = DateTimeFormatter.ofPattern("yyyy_MM");
+
+        private static final String LIST_SQL = "SELECT c.relname FROM pg_inherits i "
+                        + "JOIN pg_class c ON c.oid = i.inhrelid "
+                        + "WHERE i.inhparent = 'operators.transaction_master'::regclass";
+
+        private final DataSource dataSource;
+
+        public TransactionPartitionRepository(DataSource dataSource) {
+                this.dataSource = dataSource;
+        }
+
+        /**
+         * Months that currently have an attached transaction_master partition
+         */
+        public List<YearMonth> findAttachedMonths() {
+                try (Connection connection = dataSource.getConnection();
+                                PreparedStatement statement = connection.prepareStatement(LIST_SQL);
+                                ResultSet rs = statement.executeQuery()) {
+                        List<YearMonth> months = new ArrayList<>();
+                        while (rs.next()) {
+                                YearMonth month = parseMonth(rs.getString(1));
+                                if (month != null) {
+                                        months.add(month);
+                                }
+                        }
+                        return months;
+                } catch (SQLException e) {
+                        throw new DataAccessException("Failed to list transaction partitions", e);
+                }
+        }
+
+        /**
+         * @return true if a partition was created, false if the month already existed
+         */
+        public boolean createMonth(YearMonth month) {
+                return callMonthFunction("SELECT operators.create_transaction_partition(?)", month);
+        }
+
+        /**
+         * @return true if a partition was detached, false if the month was not attached
+         */
+        public boolean detachMonth(YearMonth month) {
+                return callMonthFunction("SELECT operators.detach_transaction_partition(?)", month);
+        }
+
+        private boolean callMonthFunction(String sql, YearMonth month) {
+                try (Connection connection = dataSource.getConnection();
+                                PreparedStatement statement = connection.prepareStatement(sql)) {
+                        statement.setDate(1, Date.valueOf(month.atDay(1)));
+                        try (ResultSet rs = statement.executeQuery()) {
+                                return rs.next() && rs.getBoolean(1);
+                        }
+                } catch (SQLException e) {
+                        throw new DataAccessException("Partition maintenance failed for " + month, e);
+                }
+        }
+
+        /**
+         * Parse transaction_master_pYYYY_MM; anything else is not a managed partition
+         */
+        static YearMonth parseMonth(String relationName) {
+                if (relationName == null || !relationName.startsWith(PARTITION_PREFIX)) {
+                        return null;
+                }
+                try {
+                        return YearMonth.parse(relationName.substring(PARTITION_PREFIX.length()), SUFFIX_FORMAT);
+                } catch (DateTimeParseException e) {
+                        return null;
+                }
+        }
+}
@@ -0,0 +1,172 @@
+package com.payment.repository;
+
+import io.micronaut.data.exceptions.DataAccessException;
+import jakarta.inject.Named;
+import jakarta.inject.Singleton;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+/**
+ * Streams the report columns of transaction_master row by row, without building
+ * entities, for the columnar report cache, and the natural keys for the
+ * ingestion dedupe filter. Runs on the "reports" datasource.
+ */
+@Singleton
+public class TransactionScanRepository {
+
+        private static final String COLUMNS = "txn_id, (txn_date - DATE '1970-01-01') AS epoch_day, "
+                        + "(amount * 100)::bigint AS amount_cents, status, card_type, "
+                        + "EXTRACT(HOUR FROM local_txn_date_time)::integer AS hour";
+
+        // Physical order: partitions are scanned oldest first and rows arrive in near date order
+        private static final String SCAN_SQL = "SELECT " + COLUMNS
+                        + " FROM operators.transaction_master WHERE txn_date >= ?";
+
+        private static final String TAIL_SQL = "SELECT " + COLUMNS
+                        + " FROM operators.transaction_master WHERE txn_id > ? AND txn_date >= ? ORDER BY txn_id LIMIT ?";
+
+        private static final String ID_RANGES_SQL = "SELECT " + COLUMNS
+                        + " FROM operators.transaction_master JOIN unnest(?::bigint[], ?::bigint[]) AS g(lo, hi)"
+                        + " ON txn_id BETWEEN g.lo AND g.hi WHERE txn_date >= ? ORDER BY txn_id";
+
+        private static final String KEY_SQL = "SELECT merchant_id, auth_code, "
+                        + "(EXTRACT(EPOCH FROM local_txn_date_time) * 1000000)::bigint AS epoch_micros, "
+                        + "(amount * 100)::bigint AS amount_cents "
+                        + "FROM operators.transaction_master WHERE txn_date >= ? AND auth_code IS NOT NULL";
+
+        private static final int FETCH_SIZE = 10_000;
+
+        /**
+         * Receives one row of report columns
+         */
+        @FunctionalInterface
+        public interface RowConsumer {
+                void accept(long txnId, int epochDay, long amountCents, String status, String cardType, int hour);
+        }
+
+        /**
+         * Receives the natural key of one transaction
+         */
+        @FunctionalInterface
+        public interface KeyConsumer {
+                void accept(String merchantId, String authCode, long epochMicros, long amountCents);
+        }
+
+        private final DataSource dataSource;
+
+        public TransactionScanRepository(@Named("reports") DataSource dataSource) {
+                this.dataSource = dataSource;
+        }
+
+        /**
+         * Stream every row with txn_date on or after fromDate
+         *
+         * @return the number of rows streamed
+         */
+        public long scanFrom(LocalDate fromDate, RowConsumer consumer) {
+                try (Connection connection = dataSource.getConnection()) {
+                        // The driver only streams with a fetch size inside a transaction
+                        connection.setAutoCommit(false);
+                        try (PreparedStatement statement = connection.prepareStatement(SCAN_SQL)) {
+                                statement.setFetchSize(FETCH_SIZE);
+                                statement.setDate(1, Date.valueOf(fromDate));
+                                return consume(statement, consumer);
+                        } finally {
+                                connection.rollback();
+                        }
+                } catch (SQLException e) {
+                        throw new DataAccessException("Failed to scan transactions from " + fromDate, e);
+                }
+        }
+
+        /**
+         * Stream up to limit rows with txn_id above afterTxnId, in txn_id order
+         *
+         * @return the number of rows streamed
+         */
+        public long scanAfter(long afterTxnId, LocalDate fromDate, int limit, RowConsumer consumer) {
+                try (Connection connection = dataSource.getConnection();
+                                PreparedStatement statement = connection.prepareStatement(TAIL_SQL)) {
+                        statement.setLong(1, afterTxnId);
+                        statement.setDate(2, Date.valueOf(fromDate));
+                        statement.setInt(3, limit);
+                        return consume(statement, consumer);
+                } catch (SQLException e) {
+                        throw new DataAccessException("Failed to read transactions after id " + afterTxnId, e);
+                }
+        }
+
+        /**
+         * Stream the rows whose txn_id falls in one of the ranges (pairs of
+         * inclusive bounds) and txn_date is on or after fromDate, in txn_id order
+         *
+         * @return the number of rows streamed
+         */
+        public long scanIdRanges(long[] fromIds, long[] toIds, LocalDate fromDate, RowConsumer consumer) {
+                try (Connection connection = dataSource.getConnection();
+                                PreparedStatement statement = connection.prepareStatement(ID_RANGES_SQL)) {
+                        statement.setArray(1, connection.createArrayOf("bigint", boxed(fromIds)));
+                        statement.setArray(2, connection.createArrayOf("bigint", boxed(toIds)));
+                        statement.setDate(3, Date.valueOf(fromDate));
+                        return consume(statement, consumer);
+                } catch (SQLException e) {
+                        throw new DataAccessException("Failed to read transactions in " + fromIds.length
+                                        + " id ranges", e);
+                }
+        }
+
+        /**
+         * Stream the natural key of every transaction with an auth code and
+         * txn_date on or after fromDate, for the ingestion dedupe filter
+         *
+         * @return the number of keys streamed
+         */
+        public long scanKeysFrom(LocalDate fromDate, KeyConsumer consumer) {
+                try (Connection connection = dataSource.getConnection()) {
+                        connection.setAutoCommit(false);
+                        try (PreparedStatement statement = connection.prepareStatement(KEY_SQL)) {
+                                statement.setFetchSize(FETCH_SIZE);
+                                statement.setDate(1, Date.valueOf(fromDate));
+                                long rows = 0L;
+                                try (ResultSet rs = statement.executeQuery()) {
+                                        while (rs.next()) {
+                                                consumer.accept(rs.getString(1), rs.getString(2), rs.getLong(3),
+                                                                rs.getLong(4));
+                                                rows++;
+                                        }
+                                }
+                                return rows;
+                        } finally {
+                                connection.rollback();
+                        }
+                } catch (SQLException e) {
+                        throw new DataAccessException("Failed to scan transaction keys from " + fromDate, e);
+                }
+        }
+
+        private static Long[] boxed(long[] values) {
+                Long[] boxed = new Long[values.length];
+                for (int i = 0; i < values.length; i++) {
+                        boxed[i] = values[i];
+                }
+                return boxed;
+        }
+
+        private long consume(PreparedStatement statement, RowConsumer consumer) throws SQLException {
+                long rows = 0L;
+                try (ResultSet rs = statement.executeQuery()) {
+                        while (rs.next()) {
+                                consumer.accept(rs.getLong(1), rs.getInt(2), rs.getLong(3), rs.getString(4),
+                                                rs.getString(5), rs.getInt(6));
+                                rows++;
+                        }
+                }
+                return rows;
+        }
+}
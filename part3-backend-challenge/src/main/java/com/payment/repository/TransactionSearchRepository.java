@@ -0,0 +1,229 @@
+package com.payment.repository;
+
+import com.payment.entity.TransactionMaster;
+import com.payment.repository.criteria.TransactionCriteria;
+import com.payment.repository.criteria.TransactionCriteriaQuery;
+import io.micronaut.data.exceptions.DataAccessException;
+import io.micronaut.data.model.Page;
+import io.micronaut.data.model.Pageable;
+import jakarta.inject.Singleton;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Criteria-based transaction search.
+ *
+ * Replaces one derived finder per filter combination with a single entry point:
+ * the SQL comes from the per-shape cache in {@link TransactionCriteriaQuery} and
+ * values are bound positionally, so no SQL is built per request.
+ */
+@Singleton
+public class TransactionSearchRepository {
+
+        private static final String TAIL_SQL = "SELECT " + TransactionCriteriaQuery.COLUMNS
+                        + " FROM operators.transaction_master WHERE txn_id > ? AND txn_date >= ? ORDER BY txn_id LIMIT ?";
+
+        private static final String ID_RANGES_SQL = "SELECT " + TransactionCriteriaQuery.COLUMNS
+                        + " FROM operators.transaction_master JOIN unnest(?::bigint[], ?::bigint[]) AS g(lo, hi)"
+                        + " ON txn_id BETWEEN g.lo AND g.hi WHERE txn_date >= ? ORDER BY txn_id";
+
+        private static final String MERCHANT_DAYS_SQL = "SELECT " + TransactionCriteriaQuery.COLUMNS
+                        + " FROM operators.transaction_master WHERE (merchant_id, txn_date) IN "
+                        + "(SELECT k.merchant_id, k.txn_date::date "
+                        + "FROM unnest(?::text[], ?::text[]) AS k(merchant_id, txn_date))";
+
+        private final DataSource dataSource;
+
+        public TransactionSearchRepository(DataSource dataSource) {
+                this.dataSource = dataSource;
+        }
+
+        /**
+         * Find a page of transactions ordered by txnDate DESC, txnId DESC
+         */
+        public Page<TransactionMaster> findPage(TransactionCriteria criteria, Pageable pageable) {
+                TransactionCriteriaQuery query = TransactionCriteriaQuery.forShape(criteria.shape());
+
+                try (Connection connection = dataSource.getConnection()) {
+                        long total = count(connection, query, criteria);
+
+                        List<TransactionMaster> content = new ArrayList<>(pageable.getSize());
+                        if (total > pageable.getOffset()) {
+                                try (PreparedStatement statement = connection.prepareStatement(query.getPageSql())) {
+                                        int index = bind(connection, statement, criteria);
+                                        statement.setInt(index++, pageable.getSize());
+                                        statement.setLong(index, pageable.getOffset());
+
+                                        try (ResultSet rs = statement.executeQuery()) {
+                                                while (rs.next()) {
+                                                        content.add(mapRow(rs));
+                                                }
+                                        }
+                                }
+                        }
+
+                        return Page.of(content, pageable, total);
+                } catch (SQLException e) {
+                        throw new DataAccessException("Transaction search failed for shape " + query.getShape(), e);
+                }
+        }
+
+        /**
+         * Rows with txn_id above the given id and txn_date on or after fromDate,
+         * in txn_id order. Used to tail new transactions into the hot window.
+         */
+        public List<TransactionMaster> findSince(long afterTxnId, LocalDate fromDate, int limit) {
+                try (Connection connection = dataSource.getConnection();
+                                PreparedStatement statement = connection.prepareStatement(TAIL_SQL)) {
+                        statement.setLong(1, afterTxnId);
+                        statement.setDate(2, Date.valueOf(fromDate));
+                        statement.setInt(3, limit);
+
+                        List<TransactionMaster> rows = new ArrayList<>(limit);
+                        try (ResultSet rs = statement.executeQuery()) {
+                                while (rs.next()) {
+                                        rows.add(mapRow(rs));
+                                }
+                        }
+                        return rows;
+                } catch (SQLException e) {
+                        throw new DataAccessException("Failed to read transactions after id " + afterTxnId, e);
+                }
+        }
+
+        /**
+         * Rows whose txn_id falls in one of the ranges (the two arrays are pairs
+         * of inclusive bounds) and txn_date is on or after fromDate, in txn_id
+         * order. Used to re-read the ids a tail skipped.
+         */
+        public List<TransactionMaster> findInIdRanges(long[] fromIds, long[] toIds, LocalDate fromDate) {
+                try (Connection connection = dataSource.getConnection();
+                                PreparedStatement statement = connection.prepareStatement(ID_RANGES_SQL)) {
+                        statement.setArray(1, connection.createArrayOf("bigint", boxed(fromIds)));
+                        statement.setArray(2, connection.createArrayOf("bigint", boxed(toIds)));
+                        statement.setDate(3, Date.valueOf(fromDate));
+
+                        List<TransactionMaster> rows = new ArrayList<>();
+                        try (ResultSet rs = statement.executeQuery()) {
+                                while (rs.next()) {
+                                        rows.add(mapRow(rs));
+                                }
+                        }
+                        return rows;
+                } catch (SQLException e) {
+                        throw new DataAccessException("Failed to read transactions in " + fromIds.length
+                                        + " id ranges", e);
+                }
+        }
+
+        /**
+         * Every transaction of the given merchants on the given days; the two
+         * lists are pairs. Used to refresh the hot window after invalidations.
+         */
+        public List<TransactionMaster> findByMerchantDays(List<String> merchantIds, List<LocalDate> days) {
+                String[] dayValues = new String[days.size()];
+                for (int i = 0; i < dayValues.length; i++) {
+                        dayValues[i] = days.get(i).toString();
+                }
+                try (Connection connection = dataSource.getConnection();
+                                PreparedStatement statement = connection.prepareStatement(MERCHANT_DAYS_SQL)) {
+                        statement.setArray(1, connection.createArrayOf("text", merchantIds.toArray()));
+                        statement.setArray(2, connection.createArrayOf("text", dayValues));
+
+                        List<TransactionMaster> rows = new ArrayList<>();
+                        try (ResultSet rs = statement.executeQuery()) {
+                                while (rs.next()) {
+                                        rows.add(mapRow(rs));
+                                }
+                        }
+                        return rows;
+                } catch (SQLException e) {
+                        throw new DataAccessException("Failed to read the transactions of " + merchantIds.size()
+                                        + " merchant days", e);
+                }
+        }
+
+        private long count(Connection connection, TransactionCriteriaQuery query, TransactionCriteria criteria)
+                        throws SQLException {
+                try (PreparedStatement statement = connection.prepareStatement(query.getCountSql())) {
+                        bind(connection, statement, criteria);
+                        try (ResultSet rs = statement.executeQuery()) {
+                                return rs.next() ? rs.getLong(1) : 0L;
+                        }
+                }
+        }
+
+        /**
+         * Bind criteria values in the same order TransactionCriteriaQuery emits predicates
+         *
+         * @return the next free parameter index
+         */
+        private int bind(Connection connection, PreparedStatement statement, TransactionCriteria criteria)
+                        throws SQLException {
+                int index = 1;
+                statement.setString(index++, criteria.getMerchantId());
+                if (criteria.has(TransactionCriteria.START_DATE)) {
+                        statement.setDate(index++, Date.valueOf(criteria.getStartDate()));
+                }
+                if (criteria.has(TransactionCriteria.END_DATE)) {
+                        statement.setDate(index++, Date.valueOf(criteria.getEndDate()));
+                }
+                if (criteria.has(TransactionCriteria.STATUS)) {
+                        statement.setArray(index++, connection.createArrayOf("varchar", criteria.getStatuses()));
+                }
+                if (criteria.has(TransactionCriteria.CARD_TYPE)) {
+                        statement.setArray(index++, connection.createArrayOf("varchar", criteria.getCardTypes()));
+                }
+                if (criteria.has(TransactionCriteria.MIN_AMOUNT)) {
+                        statement.setBigDecimal(index++, criteria.getMinAmount());
+                }
+                if (criteria.has(TransactionCriteria.MAX_AMOUNT)) {
+                        statement.setBigDecimal(index++, criteria.getMaxAmount());
+                }
+                if (criteria.has(TransactionCriteria.CURRENCY)) {
+                        statement.setString(index++, criteria.getCurrency());
+                }
+                return index;
+        }
+
+        private static Long[] boxed(long[] values) {
+                Long[] boxed = new Long[values.length];
+                for (int i = 0; i < values.length; i++) {
+                        boxed[i] = values[i];
+                }
+                return boxed;
+        }
+
+        private TransactionMaster mapRow(ResultSet rs) throws SQLException {
+                TransactionMaster transaction = new TransactionMaster();
+                transaction.setTxnId(rs.getLong("txn_id"));
+                transaction.setMerchantId(rs.getString("merchant_id"));
+                transaction.setGpAcquirerId(rs.getObject("gp_acquirer_id", Long.class));
+                transaction.setGpIssuerId(rs.getObject("gp_issuer_id", Long.class));
+                transaction.setTxnDate(rs.getDate("txn_date"));
+
+                Timestamp localTxnDateTime = rs.getTimestamp("local_txn_date_time");
+                transaction.setLocalTxnDateTime(localTxnDateTime != null ? localTxnDateTime.toInstant() : null);
+
+                transaction.setAmount(rs.getBigDecimal("amount"));
+                transaction.setCurrency(rs.getString("currency"));
+                transaction.setStatus(rs.getString("status"));
+                transaction.setCardType(rs.getString("card_type"));
+                transaction.setCardLast4(rs.getString("card_last4"));
+                transaction.setAuthCode(rs.getString("auth_code"));
+                transaction.setResponseCode(rs.getString("response_code"));
+
+                Timestamp createdAt = rs.getTimestamp("created_at");
+                transaction.setCreatedAt(createdAt != null ? createdAt.toInstant() : null);
+                return transaction;
+        }
+}
@@ -0,0 +1,81 @@
+package com.payment.repository;
+
+import io.micronaut.data.exceptions.DataAccessException;
+import jakarta.inject.Singleton;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Batched status changes of pending transaction_master rows, for settlement.
+ *
+ * A chunk of transactions is one UPDATE ... FROM unnest(...) in its own
+ * database transaction. Rows are matched on (txn_id, txn_date), so each probe
+ * goes to a single partition, and only rows still pending change: a
+ * transaction settled concurrently, or twice, is reported back rather than
+ * overwritten. One statement per chunk also means the merchant_txn_stats
+ * update trigger runs once per chunk instead of once per row.
+ */
+@Singleton
+public class TransactionStatusRepository {
+
+        // Dates travel as text and are cast in SQL, as in TransactionIngestRepository
+        private static final String SETTLE_SQL = "UPDATE operators.transaction_master m SET status = u.status "
+                        + "FROM unnest(?::bigint[], ?::text[], ?::text[]) AS u(txn_id, txn_date, status) "
+                        + "WHERE m.txn_id = u.txn_id AND m.txn_date = u.txn_date::date AND m.status = 'pending' "
+                        + "RETURNING m.txn_id";
+
+        private final DataSource dataSource;
+
+        public TransactionStatusRepository(DataSource dataSource) {
+                this.dataSource = dataSource;
+        }
+
+        /**
+         * Move the given pending transactions to their new statuses in one transaction
+         *
+         * @param txnDates index-aligned with txnIds
+         * @param statuses index-aligned with txnIds
+         * @return the ids that were still pending and have changed
+         */
+        public Set<Long> settle(List<Long> txnIds, List<Date> txnDates, List<String> statuses) {
+                Set<Long> updated = new HashSet<>(txnIds.size() * 2);
+                if (txnIds.isEmpty()) {
+                        return updated;
+                }
+                try (Connection connection = dataSource.getConnection()) {
+                        boolean autoCommit = connection.getAutoCommit();
+                        connection.setAutoCommit(false);
+                        try (PreparedStatement statement = connection.prepareStatement(SETTLE_SQL)) {
+                                statement.setArray(1, connection.createArrayOf("bigint", txnIds.toArray()));
+                                String[] dates = new String[txnDates.size()];
+                                for (int i = 0; i < dates.length; i++) {
+                                        dates[i] = txnDates.get(i).toString();
+                                }
+                                statement.setArray(2, connection.createArrayOf("text", dates));
+                                statement.setArray(3, connection.createArrayOf("text", statuses.toArray()));
+                                try (ResultSet rs = statement.executeQuery()) {
+                                        while (rs.next()) {
+                                                updated.add(rs.getLong(1));
+                                        }
+                                }
+                                connection.commit();
+                                return updated;
+                        } catch (SQLException | RuntimeException e) {
+                                connection.rollback();
+                                throw e;
+                        } finally {
+                                connection.setAutoCommit(autoCommit);
+                        }
+                } catch (SQLException e) {
+                        throw new DataAccessException("Failed to settle a chunk of " + txnIds.size() + " transactions", e);
+                }
+        }
+}
@@ -0,0 +1,216 @@
+package com.payment.repository.criteria;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.function.UnaryOperator;
+
+/**
+ * Immutable filter definition for merchant transaction searches.
+ *
+ * Every optional filter owns one bit of {@link #shape()}; two criteria with the
+ * same shape share the same compiled SQL and only differ in bound parameters.
+ */
+public final class TransactionCriteria {
+
+    public static final int START_DATE = 1;
+    public static final int END_DATE = 1 << 1;
+    public static final int STATUS = 1 << 2;
+    public static final int CARD_TYPE = 1 << 3;
+    public static final int MIN_AMOUNT = 1 << 4;
+    public static final int MAX_AMOUNT = 1 << 5;
+    public static final int CURRENCY = 1 << 6;
+
+    /** Number of distinct filter combinations. */
+    public static final int SHAPE_COUNT = 1 << 7;
+
+    private final String merchantId;
+    private final LocalDate startDate;
+    private final LocalDate endDate;
+    private final String[] statuses;
+    private final String[] cardTypes;
+    private final BigDecimal minAmount;
+    private final BigDecimal maxAmount;
+    private final String currency;
+    private final int shape;
+
+    private TransactionCriteria(Builder builder) {
+        this.merchantId = Objects.requireNonNull(builder.merchantId, "merchantId is required");
+        this.startDate = builder.startDate;
+        this.endDate = builder.endDate;
+        this.statuses = builder.statuses;
+        this.cardTypes = builder.cardTypes;
+        this.minAmount = builder.minAmount;
+        this.maxAmount = builder.maxAmount;
+        this.currency = builder.currency;
+
+        int bits = 0;
+        if (startDate != null) {
+            bits |= START_DATE;
+        }
+        if (endDate != null) {
+            bits |= END_DATE;
+        }
+        if (statuses != null) {
+            bits |= STATUS;
+        }
+        if (cardTypes != null) {
+            bits |= CARD_TYPE;
+        }
+        if (minAmount != null) {
+            bits |= MIN_AMOUNT;
+        }
+        if (maxAmount != null) {
+            bits |= MAX_AMOUNT;
+        }
+        if (currency != null) {
+            bits |= CURRENCY;
+        }
+        this.shape = bits;
+    }
+
+    /**
+     * A status as stored in transaction_master: trimmed and lower-cased
+     */
+    public static String normalizeStatus(String status) {
+        return status.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * A card type as stored in transaction_master: trimmed and upper-cased
+     */
+    public static String normalizeCardType(String cardType) {
+        return cardType.trim().toUpperCase(Locale.ROOT);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public String getMerchantId() {
+        return merchantId;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    /**
+     * @return lower-cased statuses, or null when not filtering by status
+     */
+    public String[] getStatuses() {
+        return statuses;
+    }
+
+    /**
+     * @return upper-cased card types, or null when not filtering by card type
+     */
+    public String[] getCardTypes() {
+        return cardTypes;
+    }
+
+    public BigDecimal getMinAmount() {
+        return minAmount;
+    }
+
+    public BigDecimal getMaxAmount() {
+        return maxAmount;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    /**
+     * Bitmask of the optional filters present on this criteria
+     */
+    public int shape() {
+        return shape;
+    }
+
+    public boolean has(int filter) {
+        return (shape & filter) != 0;
+    }
+
+    public static final class Builder {
+
+        private String merchantId;
+        private LocalDate startDate;
+        private LocalDate endDate;
+        private String[] statuses;
+        private String[] cardTypes;
+        private BigDecimal minAmount;
+        private BigDecimal maxAmount;
+        private String currency;
+
+        private Builder() {
+        }
+
+        public Builder merchantId(String merchantId) {
+            this.merchantId = merchantId;
+            return this;
+        }
+
+        public Builder startDate(LocalDate startDate) {
+            this.startDate = startDate;
+            return this;
+        }
+
+        public Builder endDate(LocalDate endDate) {
+            this.endDate = endDate;
+            return this;
+        }
+
+        public Builder statuses(Collection<String> statuses) {
+            this.statuses = normalize(statuses, TransactionCriteria::normalizeStatus);
+            return this;
+        }
+
+        public Builder cardTypes(Collection<String> cardTypes) {
+            this.cardTypes = normalize(cardTypes, TransactionCriteria::normalizeCardType);
+            return this;
+        }
+
+        public Builder minAmount(BigDecimal minAmount) {
+            this.minAmount = minAmount;
+            return this;
+        }
+
+        public Builder maxAmount(BigDecimal maxAmount) {
+            this.maxAmount = maxAmount;
+            return this;
+        }
+
+        public Builder currency(String currency) {
+            this.currency = currency == null || currency.isBlank()
+                    ? null
+                    : currency.trim().toUpperCase(Locale.ROOT);
+            return this;
+        }
+
+        public TransactionCriteria build() {
+            return new TransactionCriteria(this);
+        }
+
+        // Values are normalised to the case stored in transaction_master so the
+        // column can be compared directly and stay index-friendly
+        private static String[] normalize(Collection<String> values, UnaryOperator<String> normalizer) {
+            if (values == null) {
+                return null;
+            }
+            String[] normalized = values.stream()
+                    .filter(Objects::nonNull)
+                    .filter(value -> !value.isBlank())
+                    .map(normalizer)
+                    .distinct()
+                    .toArray(String[]::new);
+            return normalized.length == 0 ? null : normalized;
+        }
+    }
+}
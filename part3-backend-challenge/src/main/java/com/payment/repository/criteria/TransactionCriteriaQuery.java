@@ -0,0 +1,94 @@
+package com.payment.repository.criteria;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * SQL for one {@link TransactionCriteria} shape.
+ *
+ * Statements are generated once per shape and cached, so the request path only
+ * looks up a slot by bitmask. Keeping the SQL text stable per shape also lets the
+ * PostgreSQL driver reuse its server-side prepared statement for that text.
+ * Set-valued filters bind a single array parameter ({@code = ANY(?)}) so the
+ * number of values never changes the statement.
+ */
+public final class TransactionCriteriaQuery {
+
+    public static final String COLUMNS = "txn_id, merchant_id, gp_acquirer_id, gp_issuer_id, txn_date, "
+            + "local_txn_date_time, amount, currency, status, card_type, card_last4, auth_code, "
+            + "response_code, created_at";
+
+    private static final AtomicReferenceArray<TransactionCriteriaQuery> CACHE = new AtomicReferenceArray<>(
+            TransactionCriteria.SHAPE_COUNT);
+
+    private final int shape;
+    private final String pageSql;
+    private final String countSql;
+
+    private TransactionCriteriaQuery(int shape) {
+        this.shape = shape;
+
+        String where = buildWhere(shape);
+        this.pageSql = "SELECT " + COLUMNS + " FROM operators.transaction_master WHERE " + where
+                + " ORDER BY txn_date DESC, txn_id DESC LIMIT ? OFFSET ?";
+        this.countSql = "SELECT COUNT(*) FROM operators.transaction_master WHERE " + where;
+    }
+
+    /**
+     * Get the compiled query for a criteria shape, compiling it on first use
+     */
+    public static TransactionCriteriaQuery forShape(int shape) {
+        if (shape < 0 || shape >= TransactionCriteria.SHAPE_COUNT) {
+            throw new IllegalArgumentException("Unknown criteria shape: " + shape);
+        }
+        TransactionCriteriaQuery query = CACHE.get(shape);
+        if (query == null) {
+            // Compilation is deterministic, so a lost race only wastes one build
+            CACHE.compareAndSet(shape, null, new TransactionCriteriaQuery(shape));
+            query = CACHE.get(shape);
+        }
+        return query;
+    }
+
+    public int getShape() {
+        return shape;
+    }
+
+    /**
+     * Page query; the last two parameters are LIMIT and OFFSET
+     */
+    public String getPageSql() {
+        return pageSql;
+    }
+
+    public String getCountSql() {
+        return countSql;
+    }
+
+    // Predicate order mirrors the bind order in TransactionSearchRepository and
+    // leads with merchant_id / txn_date so the composite index prefix is used
+    private static String buildWhere(int shape) {
+        StringBuilder where = new StringBuilder("merchant_id = ?");
+        if ((shape & TransactionCriteria.START_DATE) != 0) {
+            where.append(" AND txn_date >= ?");
+        }
+        if ((shape & TransactionCriteria.END_DATE) != 0) {
+            where.append(" AND txn_date <= ?");
+        }
+        if ((shape & TransactionCriteria.STATUS) != 0) {
+            where.append(" AND status = ANY(?)");
+        }
+        if ((shape & TransactionCriteria.CARD_TYPE) != 0) {
+            where.append(" AND card_type = ANY(?)");
+        }
+        if ((shape & TransactionCriteria.MIN_AMOUNT) != 0) {
+            where.append(" AND amount >= ?");
+        }
+        if ((shape & TransactionCriteria.MAX_AMOUNT) != 0) {
+            where.append(" AND amount <= ?");
+        }
+        if ((shape & TransactionCriteria.CURRENCY) != 0) {
+            where.append(" AND currency = ?");
+        }
+        return where.toString();
+    }
+}
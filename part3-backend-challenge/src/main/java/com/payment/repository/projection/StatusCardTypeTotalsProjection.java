@@ -0,0 +1,55 @@
+package com.payment.repository.projection;
+
+import io.micronaut.core.annotation.Introspected;
+
+import java.math.BigDecimal;
+
+@Introspected
+public class StatusCardTypeTotalsProjection {
+    private String status;
+    private String cardType;
+    private Long count;
+    private BigDecimal total;
+
+    public StatusCardTypeTotalsProjection() {
+    }
+
+    public StatusCardTypeTotalsProjection(String status, String cardType, Long count, BigDecimal total) {
+        this.status = status;
+        this.cardType = cardType;
+        this.count = count;
+        this.total = total;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getCardType() {
+        return cardType;
+    }
+
+    public void setCardType(String cardType) {
+        this.cardType = cardType;
+    }
+
+    public Long getCount() {
+        return count;
+    }
+
+    public void setCount(Long count) {
+        this.count = count;
+    }
+
+    public BigDecimal getTotal() {
+        return total;
+    }
+
+    public void setTotal(BigDecimal total) {
+        this.total = total;
+    }
+}
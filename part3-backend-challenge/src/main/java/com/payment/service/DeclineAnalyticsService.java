@@ -0,0 +1,140 @@
+package com.payment.service;
+
+import com.payment.analytics.DeclineCounters;
+import com.payment.analytics.DeclineCounters.Breakdown;
+import com.payment.analytics.DeclineCounters.Totals;
+import com.payment.config.DeclineAnalyticsProperties;
+import com.payment.dto.reports.DeclineAnalyticsResponse;
+import com.payment.dto.reports.HourlyDeclineDTO;
+import com.payment.dto.reports.IssuerDeclineDTO;
+import com.payment.dto.reports.ReportPeriodDTO;
+import com.payment.dto.reports.ResponseCodeDeclineDTO;
+import com.payment.repository.DeclineSnapshotRepository;
+import com.payment.repository.DeclineSnapshotRepository.DeclineGroup;
+import jakarta.inject.Singleton;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Declines per response code, issuer and hour for the most recent hours.
+ *
+ * Counts are read from the hourly snapshots, which every instance adds to,
+ * plus what this instance's {@link DeclineCounters} hold that is not written
+ * yet; counts other instances have not written yet are missing, for at most
+ * decline-analytics.snapshot-interval.
+ */
+@Singleton
+public class DeclineAnalyticsService {
+
+    static final String SOURCE_SNAPSHOTS = "snapshots";
+    static final String SOURCE_SNAPSHOTS_AND_MEMORY = "snapshots+memory";
+
+    // A flush landing between the two reads counts its rows twice; read again
+    private static final int MAX_READS = 3;
+
+    private final DeclineCounters counters;
+    private final DeclineSnapshotRepository snapshotRepository;
+    private final DeclineAnalyticsProperties properties;
+
+    public DeclineAnalyticsService(DeclineCounters counters, DeclineSnapshotRepository snapshotRepository,
+            DeclineAnalyticsProperties properties) {
+        this.counters = counters;
+        this.snapshotRepository = snapshotRepository;
+        this.properties = properties;
+    }
+
+    /**
+     * Declines of the last {@code hours} hours, the current one included,
+     * optionally for one issuer
+     */
+    public DeclineAnalyticsResponse getDeclines(int hours, Long issuerId) {
+        return getDeclines(hours, issuerId, Instant.now());
+    }
+
+    DeclineAnalyticsResponse getDeclines(int hours, Long issuerId, Instant now) {
+        if (hours < 1 || hours > properties.getMaxReportHours()) {
+            throw new IllegalArgumentException("hours must be between 1 and " + properties.getMaxReportHours());
+        }
+        Instant until = DeclineCounters.hourStart(now).plus(1, ChronoUnit.HOURS);
+        Instant from = until.minus(hours, ChronoUnit.HOURS);
+
+        Breakdown breakdown;
+        String source;
+        if (properties.isEnabled()) {
+            int reads = 0;
+            boolean consistent;
+            do {
+                long flushes = counters.getFlushes();
+                breakdown = fromSnapshots(snapshotRepository.findBreakdown(from, until, issuerId));
+                consistent = counters.addPending(breakdown, from, until, issuerId, flushes);
+            } while (!consistent && ++reads < MAX_READS);
+            source = SOURCE_SNAPSHOTS_AND_MEMORY;
+        } else {
+            breakdown = fromSnapshots(snapshotRepository.findBreakdown(from, until, issuerId));
+            source = SOURCE_SNAPSHOTS;
+        }
+
+        Totals total = breakdown.total();
+        return DeclineAnalyticsResponse.builder()
+                .reportPeriod(ReportPeriodDTO.builder()
+                        .start(from)
+                        .end(until.minusSeconds(1))
+                        .build())
+                .source(source)
+                .totalTransactions(total.transactions())
+                .totalDeclines(total.declines())
+                .declineRate(total.declineRate())
+                .byResponseCode(breakdown.byResponseCode().entrySet().stream()
+                        .sorted(byDeclines())
+                        .map(code -> ResponseCodeDeclineDTO.builder()
+                                .responseCode(code.getKey())
+                                .transactions(code.getValue().transactions())
+                                .declines(code.getValue().declines())
+                                .declineShare(total.declines() > 0
+                                        ? Math.round(code.getValue().declines() * 100.0 / total.declines() * 100.0)
+                                                / 100.0
+                                        : 0.0)
+                                .build())
+                        .toList())
+                .byIssuer(breakdown.byIssuer().entrySet().stream()
+                        .sorted(byDeclines())
+                        .map(issuer -> IssuerDeclineDTO.builder()
+                                .issuerId(issuer.getKey())
+                                .transactions(issuer.getValue().transactions())
+                                .declines(issuer.getValue().declines())
+                                .declineRate(issuer.getValue().declineRate())
+                                .build())
+                        .toList())
+                .hourly(breakdown.hourly().entrySet().stream()
+                        .map(hour -> HourlyDeclineDTO.builder()
+                                .hourStart(hour.getKey())
+                                .transactions(hour.getValue().transactions())
+                                .declines(hour.getValue().declines())
+                                .declineRate(hour.getValue().declineRate())
+                                .build())
+                        .toList())
+                .build();
+    }
+
+    private static Breakdown fromSnapshots(List<DeclineGroup> groups) {
+        Breakdown breakdown = new Breakdown();
+        for (DeclineGroup group : groups) {
+            Totals totals = new Totals(group.transactions(), group.declines());
+            switch (group.dimension()) {
+                case HOUR -> breakdown.hourly().put(group.hourStart(), totals);
+                case ISSUER -> breakdown.byIssuer().put(group.issuerId(), totals);
+                case RESPONSE_CODE -> breakdown.byResponseCode().put(group.responseCode(), totals);
+            }
+        }
+        return breakdown;
+    }
+
+    private static <K extends Comparable<K>> Comparator<Map.Entry<K, Totals>> byDeclines() {
+        return Comparator.<Map.Entry<K, Totals>>comparingLong(entry -> entry.getValue().declines()).reversed()
+                .thenComparing(Map.Entry::getKey);
+    }
+}
@@ -0,0 +1,230 @@
+package com.payment.service;
+
+import com.payment.exception.ServiceUnavailableException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs tasks in parallel while keeping the order of tasks that share a key.
+ *
+ * Keys are striped onto a fixed number of lanes, each a bounded FIFO queue
+ * drained by one thread, so tasks with the same key always run one after the
+ * other in submission order and tasks with different keys run in parallel
+ * unless they hash to the same lane. A full lane blocks the submitter for up to
+ * the submit timeout and then rejects the task; it is never run elsewhere, as
+ * that would break the order of its key.
+ *
+ * Each lane counts what it ran and how long tasks waited, so a lane that is
+ * always deeper or later than the others shows a hot key.
+ */
+public final class KeyedExecutor {
+
+    private static final Logger LOG = LoggerFactory.getLogger(KeyedExecutor.class);
+
+    private final Lane[] lanes;
+    private final int laneCapacity;
+    private final long submitTimeoutNanos;
+    private volatile boolean closed;
+
+    /**
+     * Occupancy and lag of one lane; times in milliseconds
+     */
+    public record LaneStats(int lane, int depth, int capacity, boolean busy, long submitted, long completed,
+            long failed, long rejected, long oldestQueuedMillis, long runningMillis, long maxWaitMillis,
+            long busyMillis) {
+    }
+
+    private record Task(Runnable runnable, CompletableFuture<Void> done, long enqueuedNanos) {
+    }
+
+    private final class Lane implements Runnable {
+
+        final int index;
+        final ArrayBlockingQueue<Task> queue;
+        final Thread thread;
+        final AtomicLong submitted = new AtomicLong();
+        final AtomicLong rejected = new AtomicLong();
+
+        // Written by the lane thread only
+        volatile long completed;
+        volatile long failed;
+        volatile long maxWaitNanos;
+        volatile long busyNanos;
+        volatile long runningSinceNanos;
+
+        Lane(int index, String threadPrefix) {
+            this.index = index;
+            this.queue = new ArrayBlockingQueue<>(laneCapacity);
+            this.thread = new Thread(this, threadPrefix + index);
+            this.thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            while (!closed || !queue.isEmpty()) {
+                Task task;
+                try {
+                    task = queue.poll(100, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    break;
+                }
+                if (task != null) {
+                    runTask(task);
+                }
+            }
+            Task abandoned;
+            while ((abandoned = queue.poll()) != null) {
+                abandoned.done().completeExceptionally(new ServiceUnavailableException("Executor closed"));
+            }
+        }
+
+        private void runTask(Task task) {
+            long started = System.nanoTime();
+            maxWaitNanos = Math.max(maxWaitNanos, started - task.enqueuedNanos());
+            runningSinceNanos = started;
+            try {
+                task.runnable().run();
+                completed++;
+                task.done().complete(null);
+            } catch (Throwable t) {
+                failed++;
+                LOG.error("Task failed on lane {}", index, t);
+                task.done().completeExceptionally(t);
+            } finally {
+                runningSinceNanos = 0;
+                busyNanos += System.nanoTime() - started;
+            }
+        }
+    }
+
+    /**
+     * @param laneCount     number of lanes, one thread each
+     * @param laneCapacity  tasks a lane holds before submitters wait
+     * @param submitTimeout how long a submitter waits for room in a full lane
+     */
+    public KeyedExecutor(String threadPrefix, int laneCount, int laneCapacity, long submitTimeout, TimeUnit unit) {
+        if (laneCount < 1 || laneCapacity < 1) {
+            throw new IllegalArgumentException("laneCount and laneCapacity must be at least 1");
+        }
+        this.laneCapacity = laneCapacity;
+        this.submitTimeoutNanos = unit.toNanos(submitTimeout);
+        this.lanes = new Lane[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            lanes[i] = new Lane(i, threadPrefix);
+        }
+        for (Lane lane : lanes) {
+            lane.thread.start();
+        }
+    }
+
+    /**
+     * The lane a key's tasks run on
+     */
+    public int laneOf(Object key) {
+        int h = key == null ? 0 : key.hashCode();
+        return Math.floorMod(h ^ (h >>> 16), lanes.length);
+    }
+
+    /**
+     * Run a task after every task previously submitted with the same key
+     *
+     * @throws ServiceUnavailableException when the key's lane stays full for the
+     *                                     submit timeout, or the executor is closed
+     */
+    public CompletableFuture<Void> submit(Object key, Runnable task) {
+        return submitToLane(laneOf(key), task);
+    }
+
+    /**
+     * Run a task on a lane, after every task previously submitted to it. Lets a
+     * caller group the work of several keys that share a lane.
+     */
+    public CompletableFuture<Void> submitToLane(int laneIndex, Runnable task) {
+        if (closed) {
+            throw new ServiceUnavailableException("Executor closed");
+        }
+        Lane lane = lanes[laneIndex];
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        boolean queued;
+        try {
+            queued = lane.queue.offer(new Task(task, done, System.nanoTime()), submitTimeoutNanos,
+                    TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Interrupted while waiting for lane " + laneIndex);
+        }
+        if (!queued) {
+            lane.rejected.incrementAndGet();
+            throw new ServiceUnavailableException("Lane " + laneIndex + " is full (" + laneCapacity + " tasks)");
+        }
+        lane.submitted.incrementAndGet();
+        return done;
+    }
+
+    /**
+     * Queue a task on a lane if it has room, without waiting
+     *
+     * @return false if the lane is full or the executor is closed
+     */
+    public boolean tryExecute(int laneIndex, Runnable task) {
+        Lane lane = lanes[laneIndex];
+        if (closed || !lane.queue.offer(new Task(task, new CompletableFuture<>(), System.nanoTime()))) {
+            lane.rejected.incrementAndGet();
+            return false;
+        }
+        lane.submitted.incrementAndGet();
+        return true;
+    }
+
+    public int getLaneCount() {
+        return lanes.length;
+    }
+
+    public int getLaneCapacity() {
+        return laneCapacity;
+    }
+
+    public List<LaneStats> stats() {
+        long now = System.nanoTime();
+        List<LaneStats> stats = new ArrayList<>(lanes.length);
+        for (Lane lane : lanes) {
+            Task oldest = lane.queue.peek();
+            long runningSince = lane.runningSinceNanos;
+            stats.add(new LaneStats(
+                    lane.index,
+                    lane.queue.size(),
+                    laneCapacity,
+                    runningSince != 0,
+                    lane.submitted.get(),
+                    lane.completed,
+                    lane.failed,
+                    lane.rejected.get(),
+                    oldest == null ? 0 : TimeUnit.NANOSECONDS.toMillis(now - oldest.enqueuedNanos()),
+                    runningSince == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(now - runningSince),
+                    TimeUnit.NANOSECONDS.toMillis(lane.maxWaitNanos),
+                    TimeUnit.NANOSECONDS.toMillis(lane.busyNanos)));
+        }
+        return stats;
+    }
+
+    /**
+     * Stop accepting tasks and let the lanes finish what is queued
+     */
+    public void close(long timeout, TimeUnit unit) throws InterruptedException {
+        closed = true;
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (Lane lane : lanes) {
+            lane.thread.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+        }
+        for (Lane lane : lanes) {
+            lane.thread.interrupt();
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.payment.service;
+
+import com.payment.dto.reports.CardTypeDistributionDTO;
+import com.payment.dto.reports.MemberReportDTO;
+import com.payment.dto.reports.MemberReportsResponse;
+import com.payment.dto.reports.ReportPeriodDTO;
+import com.payment.dto.reports.SuccessRateMetricsDTO;
+import com.payment.repository.MemberReportRepository;
+import com.payment.repository.MemberReportRepository.MemberStatRow;
+import com.payment.repository.MemberReportRepository.Role;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Volume, success rate and card mix per acquirer or issuer member.
+ *
+ * Figures come from the member_daily_stats aggregate, already summed by the
+ * database per member, status and card type, so the cost depends on the
+ * number of members and days rather than on the number of transactions.
+ */
+@Singleton
+public class MemberReportService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MemberReportService.class);
+
+    private final MemberReportRepository memberReportRepository;
+
+    public MemberReportService(MemberReportRepository memberReportRepository) {
+        this.memberReportRepository = memberReportRepository;
+    }
+
+    /**
+     * Metrics of every member on one side, or of one member, for a date range
+     * (the last 30 days by default, like the transaction reports)
+     */
+    public MemberReportsResponse getMemberReports(Role role, LocalDate startDate, LocalDate endDate, Long memberId) {
+        if (endDate == null) {
+            endDate = LocalDate.now();
+        }
+        if (startDate == null) {
+            startDate = endDate.minusDays(30);
+        }
+        if (startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("startDate must not be after endDate");
+        }
+        LOG.info("Generating {} reports for period: {} to {}", role.name().toLowerCase(), startDate, endDate);
+
+        List<MemberStatRow> rows = memberReportRepository.findMemberStats(role, startDate, endDate, memberId);
+        List<MemberReportDTO> members = new ArrayList<>();
+        int from = 0;
+        for (int i = 1; i <= rows.size(); i++) {
+            if (i == rows.size() || rows.get(i).memberId() != rows.get(from).memberId()) {
+                members.add(buildMemberReport(rows.subList(from, i)));
+                from = i;
+            }
+        }
+
+        return MemberReportsResponse.builder()
+                .reportPeriod(ReportPeriodDTO.builder()
+                        .start(startDate.atStartOfDay(ZoneOffset.UTC).toInstant())
+                        .end(endDate.atTime(23, 59, 59).atZone(ZoneOffset.UTC).toInstant())
+                        .build())
+                .role(role.name().toLowerCase())
+                .memberCount(members.size())
+                .members(members)
+                .build();
+    }
+
+    /**
+     * One member's report from its rows, which are adjacent in the result
+     */
+    private static MemberReportDTO buildMemberReport(List<MemberStatRow> rows) {
+        Map<String, Long> byStatus = new HashMap<>();
+        Map<String, Long> byType = new HashMap<>();
+        long total = 0;
+        BigDecimal totalAmount = BigDecimal.ZERO;
+        BigDecimal completedAmount = BigDecimal.ZERO;
+        for (MemberStatRow row : rows) {
+            byStatus.merge(row.status(), row.count(), Long::sum);
+            byType.merge(row.cardType(), row.count(), Long::sum);
+            total += row.count();
+            totalAmount = totalAmount.add(row.amount());
+            if ("completed".equals(row.status())) {
+                completedAmount = completedAmount.add(row.amount());
+            }
+        }
+
+        long completed = byStatus.getOrDefault("completed", 0L);
+        long failed = byStatus.getOrDefault("failed", 0L);
+        Map<String, Double> percentages = new HashMap<>();
+        for (Map.Entry<String, Long> type : byType.entrySet()) {
+            percentages.put(type.getKey(), percentage(type.getValue(), total));
+        }
+
+        MemberStatRow member = rows.get(0);
+        return MemberReportDTO.builder()
+                .memberId(member.memberId())
+                .memberName(member.memberName())
+                .memberCode(member.memberCode())
+                .totalTransactions(total)
+                .totalAmount(totalAmount)
+                .completedAmount(completedAmount)
+                .successRateMetrics(SuccessRateMetricsDTO.builder()
+                        .totalTransactions(total)
+                        .completed(completed)
+                        .failed(failed)
+                        .successRate(percentage(completed, total))
+                        .failureRate(percentage(failed, total))
+                        .byStatus(byStatus)
+                        .build())
+                .cardTypeDistribution(CardTypeDistributionDTO.builder()
+                        .byType(byType)
+                        .percentages(percentages)
+                        .build())
+                .build();
+    }
+
+    // Rounded to 2 decimal places, as in the transaction reports
+    private static double percentage(long count, long total) {
+        return total > 0 ? Math.round(count * 100.0 / total * 100.0) / 100.0 : 0.0;
+    }
+}
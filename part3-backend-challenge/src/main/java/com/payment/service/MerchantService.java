@@ -5,10 +5,13 @@ import com.payment.dto.merchant.CreateMerchantRequest;
 import com.payment.dto.merchant.MerchantListResponse;
 import com.payment.dto.merchant.MerchantResponse;
 import com.payment.dto.merchant.MerchantSearchRequest;
+import com.payment.dto.merchant.MerchantTransactionStatsDTO;
 import com.payment.dto.merchant.UpdateMerchantRequest;
 import com.payment.entity.Merchant;
+import com.payment.entity.MerchantTransactionStats;
 import com.payment.exception.NotFoundException;
 import com.payment.repository.MerchantRepository;
+import com.payment.repository.MerchantTransactionStatsRepository;
 import io.micronaut.data.model.Page;
 import io.micronaut.data.model.Pageable;
 import io.micronaut.data.model.Sort;
@@ -16,8 +19,11 @@ import jakarta.inject.Singleton;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Singleton
@@ -26,9 +32,12 @@ public class MerchantService {
     private static final Logger LOG = LoggerFactory.getLogger(MerchantService.class);
 
     private final MerchantRepository merchantRepository;
+    private final MerchantTransactionStatsRepository merchantTransactionStatsRepository;
 
-    public MerchantService(MerchantRepository merchantRepository) {
+    public MerchantService(MerchantRepository merchantRepository,
+            MerchantTransactionStatsRepository merchantTransactionStatsRepository) {
         this.merchantRepository = merchantRepository;
+        this.merchantTransactionStatsRepository = merchantTransactionStatsRepository;
     }
 
     /**
@@ -86,6 +95,10 @@ public class MerchantService {
                 .map(this::convertToMerchantResponse)
                 .collect(Collectors.toList());
 
+        if (Boolean.TRUE.equals(request.getIncludeStats())) {
+            attachTransactionStats(merchantResponses);
+        }
+
         LOG.info("Returning {} merchants out of {} total",
                 merchantResponses.size(), merchantPage.getTotalSize());
 
@@ -101,6 +114,39 @@ public class MerchantService {
                 .build();
     }
 
+    /**
+     * Attach pre-aggregated transaction statistics to a page of merchants using a
+     * single lookup keyed by the merchant IDs on the page
+     */
+    private void attachTransactionStats(List<MerchantResponse> merchantResponses) {
+        if (merchantResponses.isEmpty()) {
+            return;
+        }
+
+        List<String> merchantIds = merchantResponses.stream()
+                .map(MerchantResponse::getMerchantId)
+                .collect(Collectors.toList());
+
+        Map<String, MerchantTransactionStats> statsById = merchantTransactionStatsRepository
+                .findByMerchantIdInList(merchantIds).stream()
+                .collect(Collectors.toMap(MerchantTransactionStats::getMerchantId, Function.identity()));
+
+        for (MerchantResponse merchantResponse : merchantResponses) {
+            MerchantTransactionStats stats = statsById.get(merchantResponse.getMerchantId());
+
+            // Merchants without any transactions have no aggregate row yet
+            merchantResponse.setTransactionStats(MerchantTransactionStatsDTO.builder()
+                    .totalTransactions(stats != null && stats.getTxnCount() != null ? stats.getTxnCount() : 0L)
+                    .completedAmount(stats != null && stats.getCompletedAmount() != null
+                            ? stats.getCompletedAmount()
+                            : BigDecimal.ZERO)
+                    .lastTransactionDate(stats != null && stats.getLastTxnDate() != null
+                            ? stats.getLastTxnDate().toLocalDate()
+                            : null)
+                    .build());
+        }
+    }
+
     /**
      * Build Pageable with multi-sort configuration
      */
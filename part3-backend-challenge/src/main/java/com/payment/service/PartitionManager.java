@@ -0,0 +1,73 @@
+package com.payment.service;
+
+import com.payment.config.PartitionProperties;
+import com.payment.repository.TransactionPartitionRepository;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.scheduling.annotation.Scheduled;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+
+/**
+ * Keeps the monthly transaction partitions rolling: future months are created
+ * ahead of time so inserts never hit a missing partition, and months older than
+ * the retention window are detached (not dropped) so they can be archived.
+ * Detached months leave merchant_txn_stats as well, so merchant counts and
+ * totals only cover the months still attached.
+ */
+@Singleton
+@Requires(property = "partitions.transactions.enabled", notEquals = "false")
+public class PartitionManager {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PartitionManager.class);
+
+    private final TransactionPartitionRepository partitionRepository;
+    private final PartitionProperties properties;
+
+    public PartitionManager(TransactionPartitionRepository partitionRepository, PartitionProperties properties) {
+        this.partitionRepository = partitionRepository;
+        this.properties = properties;
+    }
+
+    @Scheduled(initialDelay = "${partitions.transactions.initial-delay:10s}",
+            fixedDelay = "${partitions.transactions.check-interval:6h}")
+    void runMaintenance() {
+        try {
+            maintain(LocalDate.now(ZoneOffset.UTC));
+        } catch (RuntimeException e) {
+            LOG.error("Transaction partition maintenance failed", e);
+        }
+    }
+
+    /**
+     * Create the current and upcoming months, then detach expired ones
+     */
+    public void maintain(LocalDate today) {
+        YearMonth current = YearMonth.from(today);
+
+        int created = 0;
+        for (int i = 0; i <= properties.getMonthsAhead(); i++) {
+            if (partitionRepository.createMonth(current.plusMonths(i))) {
+                created++;
+            }
+        }
+
+        int detached = 0;
+        if (properties.getRetentionMonths() > 0) {
+            YearMonth oldestKept = current.minusMonths(properties.getRetentionMonths());
+            for (YearMonth month : partitionRepository.findAttachedMonths()) {
+                if (month.isBefore(oldestKept) && partitionRepository.detachMonth(month)) {
+                    detached++;
+                }
+            }
+        }
+
+        if (created > 0 || detached > 0) {
+            LOG.info("Transaction partitions: {} created, {} detached", created, detached);
+        }
+    }
+}
@@ -0,0 +1,598 @@
+package com.payment.service;
+
+import com.payment.analytics.DeclineCounters;
+import com.payment.analytics.LiveDayAggregator;
+import com.payment.audit.AuditEntry;
+import com.payment.audit.AuditSink;
+import com.payment.config.PaymentProcessingProperties;
+import com.payment.dto.transaction.PaymentBatchResponse;
+import com.payment.dto.transaction.PaymentFailureDTO;
+import com.payment.entity.TransactionMaster;
+import com.payment.exception.ServiceUnavailableException;
+import com.payment.repository.TransactionRepository;
+import com.payment.repository.TransactionStatusRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.sql.SQLException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Settles pending transactions in batches: each becomes completed, or failed
+ * when its amount is not positive.
+ *
+ * A batch is validated up front, then each merchant's transactions are
+ * routed to one of payment-processing.lanes lanes of a {@link KeyedExecutor}
+ * and split into chunks of payment-processing.chunk-size. A lane runs its
+ * chunks one at a time in the order they were submitted, so a merchant's
+ * payments are applied in request order, also across concurrent requests,
+ * while other merchants' lanes run in parallel. Each chunk is written with one
+ * batched UPDATE in its own database transaction through
+ * {@link TransactionStatusRepository}, so a failing chunk rolls back alone and
+ * is reported, without touching the others. Invalid transactions are written
+ * as failed in the same statement. When a lane stays full, that lane's
+ * remaining chunks of the batch are reported as not settled rather than run
+ * out of order.
+ *
+ * A chunk that rolls back is retried later, off the request: the
+ * {@link RetryWheel} puts it back on its lane after an exponential backoff.
+ * Transient errors (lost connections, deadlocks, serialization failures)
+ * retry the whole chunk up to payment-processing.retry-max-attempts times and
+ * then leave it pending. A data error on a row (SQLState class 22 or 23)
+ * splits the chunk in halves on each retry until the rows that fail are on
+ * their own; such a poison transaction is written as failed so it stops being
+ * picked up again. Any other error (a missing table, a permission, a bug in
+ * the statement) would fail every row alike, so the chunk is not retried but
+ * left pending and logged as an error for someone to look at. A retried chunk
+ * runs behind whatever its lane was given meanwhile.
+ *
+ * Every outcome is returned to the caller. Completed amounts are summed as
+ * cents in {@link LongAdder}s, so chunks finishing together never contend.
+ * Each committed status change is handed to the {@link AuditSink}, which
+ * writes them in batches off the lanes; under audit.durability
+ * FLUSH_BEFORE_ACK the batch is answered only once its audit entries are
+ * written, and a failed audit write fails the request even though the
+ * settlement itself is committed. The changes also move the transactions
+ * between statuses in the {@link LiveDayAggregator}, and count those that
+ * fail as declines in the {@link DeclineCounters}.
+ */
+@Singleton
+public class PaymentProcessingService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PaymentProcessingService.class);
+
+    private static final String PENDING = "pending";
+    private static final String COMPLETED = "completed";
+    private static final String FAILED = "failed";
+
+    private final TransactionRepository transactionRepository;
+    private final TransactionStatusRepository statusRepository;
+    private final PaymentProcessingProperties properties;
+    private final AuditSink auditSink;
+    private final LiveDayAggregator liveMetrics;
+    private final DeclineCounters declineCounters;
+    private final KeyedExecutor lanes;
+    private final RetryWheel retryWheel;
+
+    private final LongAdder completedCents = new LongAdder();
+    private final LongAdder completedCount = new LongAdder();
+    private final LongAdder failedCount = new LongAdder();
+    private final LongAdder retriesScheduled = new LongAdder();
+    private final LongAdder retriesSucceeded = new LongAdder();
+    private final LongAdder retriesRefused = new LongAdder();
+    private final LongAdder poisoned = new LongAdder();
+    private final LongAdder abandoned = new LongAdder();
+
+    /**
+     * Outcome of each transaction of a batch, by position; chunks write disjoint ranges
+     */
+    private static final class Outcomes {
+
+        final boolean[] completed;
+        final boolean[] persisted;
+        final boolean[] retrying;
+        final String[] reasons;
+        final LongAdder cents = new LongAdder();
+        final ConcurrentLinkedQueue<CompletableFuture<Void>> audits = new ConcurrentLinkedQueue<>();
+
+        Outcomes(int size) {
+            completed = new boolean[size];
+            persisted = new boolean[size];
+            retrying = new boolean[size];
+            reasons = new String[size];
+        }
+    }
+
+    /**
+     * A validated status change; detail is why a transaction fails, for the audit log
+     */
+    private record Change(int index, TransactionMaster transaction, String status, String detail) {
+    }
+
+    public PaymentProcessingService(TransactionRepository transactionRepository,
+            TransactionStatusRepository statusRepository, PaymentProcessingProperties properties,
+            AuditSink auditSink, LiveDayAggregator liveMetrics, DeclineCounters declineCounters) {
+        this.transactionRepository = transactionRepository;
+        this.statusRepository = statusRepository;
+        this.properties = properties;
+        this.auditSink = auditSink;
+        this.liveMetrics = liveMetrics;
+        this.declineCounters = declineCounters;
+        this.lanes = new KeyedExecutor("payment-lane-", properties.getLanes(), properties.getLaneCapacity(),
+                properties.getSubmitTimeoutMillis(), TimeUnit.MILLISECONDS);
+        this.retryWheel = new RetryWheel("payment-retry", properties.getRetryTickMillis(), TimeUnit.MILLISECONDS,
+                properties.getRetryWheelSize());
+    }
+
+    /**
+     * Load the given transactions and settle them; ids not found are reported
+     * as failures
+     *
+     * @throws IllegalArgumentException when there are no ids or too many
+     */
+    public PaymentBatchResponse processPending(List<Long> txnIds) {
+        if (txnIds == null || txnIds.isEmpty()) {
+            throw new IllegalArgumentException("At least one transaction ID is required");
+        }
+        if (txnIds.size() > properties.getMaxBatchSize()) {
+            throw new IllegalArgumentException("Batch of " + txnIds.size() + " transactions exceeds the maximum of "
+                    + properties.getMaxBatchSize());
+        }
+        Set<Long> ids = new LinkedHashSet<>(txnIds);
+        ids.remove(null);
+        Map<Long, TransactionMaster> found = new HashMap<>(ids.size() * 2);
+        for (TransactionMaster transaction : transactionRepository.findByTxnIdIn(ids)) {
+            found.put(transaction.getTxnId(), transaction);
+        }
+
+        List<TransactionMaster> transactions = new ArrayList<>(found.size());
+        List<PaymentFailureDTO> missing = new ArrayList<>();
+        for (Long id : ids) {
+            TransactionMaster transaction = found.get(id);
+            if (transaction != null) {
+                transactions.add(transaction);
+            } else {
+                missing.add(new PaymentFailureDTO(id, "Transaction not found", false, false));
+            }
+        }
+        PaymentBatchResponse response = processPaymentBatch(transactions);
+        if (!missing.isEmpty()) {
+            failedCount.add(missing.size());
+            response.getFailures().addAll(missing);
+            response.setFailedCount(response.getFailedCount() + missing.size());
+        }
+        return response;
+    }
+
+    /**
+     * Settle a batch of transactions. Transactions that are not pending are
+     * reported and left unchanged; on success each transaction's status is
+     * updated in place.
+     */
+    public PaymentBatchResponse processPaymentBatch(List<TransactionMaster> transactions) {
+        long began = System.nanoTime();
+        Outcomes outcomes = new Outcomes(transactions.size());
+        List<Change> changes = new ArrayList<>(transactions.size());
+        for (int i = 0; i < transactions.size(); i++) {
+            TransactionMaster transaction = transactions.get(i);
+            BigDecimal amount = transaction.getAmount();
+            if (!PENDING.equals(transaction.getStatus())) {
+                outcomes.reasons[i] = "Transaction is " + transaction.getStatus() + ", not pending";
+            } else if (amount == null || amount.signum() <= 0) {
+                outcomes.reasons[i] = "Invalid amount: " + amount;
+                changes.add(new Change(i, transaction, FAILED, outcomes.reasons[i]));
+            } else {
+                changes.add(new Change(i, transaction, COMPLETED, null));
+            }
+        }
+
+        int chunkCount = submit(changes, outcomes);
+        awaitAudits(outcomes);
+
+        List<Long> completedIds = new ArrayList<>();
+        List<PaymentFailureDTO> failures = new ArrayList<>();
+        for (int i = 0; i < transactions.size(); i++) {
+            if (outcomes.completed[i]) {
+                completedIds.add(transactions.get(i).getTxnId());
+            } else {
+                failures.add(new PaymentFailureDTO(transactions.get(i).getTxnId(), outcomes.reasons[i],
+                        outcomes.persisted[i], outcomes.retrying[i]));
+            }
+        }
+        long cents = outcomes.cents.sum();
+        completedCents.add(cents);
+        completedCount.add(completedIds.size());
+        failedCount.add(failures.size());
+        long elapsedMillis = (System.nanoTime() - began) / 1_000_000;
+
+        LOG.info("Settled {} transactions in {} chunks in {} ms: {} completed, {} failed", transactions.size(),
+                chunkCount, elapsedMillis, completedIds.size(), failures.size());
+
+        return PaymentBatchResponse.builder()
+                .completedCount(completedIds.size())
+                .failedCount(failures.size())
+                .totalCompleted(BigDecimal.valueOf(cents, 2))
+                .completedTxnIds(completedIds)
+                .failures(failures)
+                .chunkCount(chunkCount)
+                .elapsedMillis(elapsedMillis)
+                .build();
+    }
+
+    /**
+     * Split the changes by lane, keeping request order within each lane, and
+     * submit each lane's chunks in order; chunks of different lanes are
+     * interleaved so that one full lane does not hold back the others
+     *
+     * @return the number of chunks
+     */
+    private int submit(List<Change> changes, Outcomes outcomes) {
+        int chunkSize = Math.max(1, properties.getChunkSize());
+        List<List<List<Change>>> chunksByLane = new ArrayList<>(lanes.getLaneCount());
+        List<List<Change>> open = new ArrayList<>(lanes.getLaneCount());
+        for (int lane = 0; lane < lanes.getLaneCount(); lane++) {
+            chunksByLane.add(new ArrayList<>());
+            open.add(null);
+        }
+        int chunkCount = 0;
+        for (Change change : changes) {
+            int lane = lanes.laneOf(change.transaction().getMerchantId());
+            List<Change> chunk = open.get(lane);
+            if (chunk == null || chunk.size() == chunkSize) {
+                chunk = new ArrayList<>(chunkSize);
+                open.set(lane, chunk);
+                chunksByLane.get(lane).add(chunk);
+                chunkCount++;
+            }
+            chunk.add(change);
+        }
+
+        List<CompletableFuture<Void>> submitted = new ArrayList<>(chunkCount);
+        String[] refused = new String[lanes.getLaneCount()];
+        for (int round = 0, remaining = chunkCount; remaining > 0; round++) {
+            for (int lane = 0; lane < chunksByLane.size(); lane++) {
+                List<List<Change>> laneChunks = chunksByLane.get(lane);
+                if (round >= laneChunks.size()) {
+                    continue;
+                }
+                remaining--;
+                List<Change> chunk = laneChunks.get(round);
+                if (refused[lane] == null) {
+                    try {
+                        submitted.add(lanes.submitToLane(lane, () -> settle(chunk, outcomes)));
+                        continue;
+                    } catch (ServiceUnavailableException e) {
+                        LOG.warn("Settlement lane {} refused a chunk: {}", lane, e.getMessage());
+                        refused[lane] = "Not settled, " + e.getMessage();
+                    }
+                }
+                for (Change change : chunk) {
+                    outcomes.reasons[change.index()] = refused[lane];
+                }
+            }
+        }
+        await(submitted);
+        return chunkCount;
+    }
+
+    /**
+     * Write one chunk in its own transaction and record its outcomes
+     */
+    private void settle(List<Change> chunk, Outcomes outcomes) {
+        Set<Long> updated;
+        try {
+            updated = write(chunk);
+        } catch (RuntimeException e) {
+            LOG.error("Settlement chunk of {} transactions rolled back, from txn {}", chunk.size(),
+                    chunk.get(0).transaction().getTxnId(), e);
+            boolean retrying;
+            if (isTransient(e) || isDataError(e)) {
+                retrying = scheduleRetry(chunk, 1);
+            } else {
+                abandon(chunk, 1, e);
+                retrying = false;
+            }
+            for (Change change : chunk) {
+                outcomes.reasons[change.index()] = "Not settled, chunk rolled back: " + e.getMessage()
+                        + (retrying ? " (retry scheduled)" : "");
+                outcomes.retrying[change.index()] = retrying;
+            }
+            return;
+        }
+
+        for (Change change : chunk) {
+            if (!updated.contains(change.transaction().getTxnId())) {
+                outcomes.reasons[change.index()] = "Transaction is no longer pending";
+            }
+        }
+        outcomes.audits.add(apply(chunk, updated, outcomes));
+    }
+
+    private Set<Long> write(List<Change> chunk) {
+        List<Long> txnIds = new ArrayList<>(chunk.size());
+        List<Date> txnDates = new ArrayList<>(chunk.size());
+        List<String> statuses = new ArrayList<>(chunk.size());
+        for (Change change : chunk) {
+            txnIds.add(change.transaction().getTxnId());
+            txnDates.add(change.transaction().getTxnDate());
+            statuses.add(change.status());
+        }
+        return statusRepository.settle(txnIds, txnDates, statuses);
+    }
+
+    /**
+     * Record the committed changes of a chunk: new statuses, completed cents
+     * (into the batch's outcomes when there is one) and audit entries
+     *
+     * @return the audit write
+     */
+    private CompletableFuture<Void> apply(List<Change> chunk, Set<Long> updated, Outcomes outcomes) {
+        Instant settledAt = Instant.now();
+        List<AuditEntry> audit = new ArrayList<>(updated.size());
+        for (Change change : chunk) {
+            TransactionMaster transaction = change.transaction();
+            if (!updated.contains(transaction.getTxnId())) {
+                continue;
+            }
+            audit.add(new AuditEntry(transaction.getTxnId(), transaction.getTxnDate(), transaction.getMerchantId(),
+                    PENDING, change.status(), transaction.getAmount(), change.detail(), settledAt));
+            liveMetrics.recordStatusChange(transaction, PENDING, change.status());
+            declineCounters.recordStatusChange(transaction, PENDING, change.status());
+            transaction.setStatus(change.status());
+            if (COMPLETED.equals(change.status())) {
+                long cents = transaction.getAmount().setScale(2, RoundingMode.HALF_UP).unscaledValue()
+                        .longValueExact();
+                if (outcomes != null) {
+                    outcomes.completed[change.index()] = true;
+                    outcomes.cents.add(cents);
+                } else {
+                    completedCents.add(cents);
+                    completedCount.increment();
+                }
+            }
+            if (outcomes != null) {
+                outcomes.persisted[change.index()] = true;
+            }
+        }
+        return auditSink.record(audit);
+    }
+
+    /**
+     * Put a rolled-back chunk back on its lane after the backoff for this
+     * attempt
+     *
+     * @return false if too many retries are already waiting
+     */
+    private boolean scheduleRetry(List<Change> chunk, int attempt) {
+        if (retryWheel.getPending() >= properties.getRetryMaxScheduled()) {
+            retriesRefused.add(chunk.size());
+            LOG.warn("Not retrying {} transactions: {} retries already scheduled", chunk.size(),
+                    retryWheel.getPending());
+            return false;
+        }
+        int lane = lanes.laneOf(chunk.get(0).transaction().getMerchantId());
+        long delay = Math.min(properties.getRetryMaxDelayMillis(),
+                properties.getRetryInitialDelayMillis() << Math.min(attempt - 1, 20));
+        retryWheel.schedule(() -> {
+            // The wheel's thread must not wait: a full lane gets the chunk back next round
+            if (!lanes.tryExecute(lane, () -> retry(chunk, attempt))) {
+                scheduleRetry(chunk, attempt);
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+        retriesScheduled.add(chunk.size());
+        return true;
+    }
+
+    private void retry(List<Change> chunk, int attempt) {
+        Set<Long> updated;
+        try {
+            updated = write(chunk);
+        } catch (RuntimeException e) {
+            retryFailed(chunk, attempt, e);
+            return;
+        }
+        retriesSucceeded.add(updated.size());
+        apply(chunk, updated, null).exceptionally(e -> {
+            LOG.error("Audit log write failed for {} retried transactions", updated.size(), e);
+            return null;
+        });
+    }
+
+    private void retryFailed(List<Change> chunk, int attempt, RuntimeException e) {
+        if (isTransient(e)) {
+            if (attempt < properties.getRetryMaxAttempts()) {
+                scheduleRetry(chunk, attempt + 1);
+            } else {
+                abandoned.add(chunk.size());
+                LOG.error("Giving up on {} transactions after {} attempts; they stay pending", chunk.size(),
+                        attempt, e);
+            }
+        } else if (!isDataError(e)) {
+            abandon(chunk, attempt, e);
+        } else if (chunk.size() > 1) {
+            int half = chunk.size() / 2;
+            scheduleRetry(chunk.subList(0, half), attempt + 1);
+            scheduleRetry(chunk.subList(half, chunk.size()), attempt + 1);
+        } else {
+            Change change = chunk.get(0);
+            LOG.error("Transaction {} fails to settle on its own, marking it failed", change.transaction().getTxnId(),
+                    e);
+            List<Change> failed = List.of(new Change(change.index(), change.transaction(), FAILED,
+                    "Fails to settle on its own after " + attempt + " attempts: " + e.getMessage()));
+            try {
+                Set<Long> updated = write(failed);
+                poisoned.add(updated.size());
+                apply(failed, updated, null);
+            } catch (RuntimeException again) {
+                abandoned.increment();
+                LOG.error("Could not mark transaction {} failed; it stays pending", change.transaction().getTxnId(),
+                        again);
+            }
+        }
+    }
+
+    /**
+     * Leave a chunk pending after an error that neither retrying nor
+     * splitting it can fix
+     */
+    private void abandon(List<Change> chunk, int attempt, RuntimeException e) {
+        abandoned.add(chunk.size());
+        LOG.error("Settlement of {} transactions from txn {} failed on attempt {} with an error that is neither "
+                + "transient nor in the data; they stay pending until it is fixed", chunk.size(),
+                chunk.get(0).transaction().getTxnId(), attempt, e);
+    }
+
+    /**
+     * Whether a failure is worth retrying as is: connection loss, deadlock,
+     * serialization failure or resource exhaustion, or no SQL error at all
+     */
+    static boolean isTransient(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLTransientException || cause instanceof SQLRecoverableException) {
+                return true;
+            }
+            if (cause instanceof SQLException sql) {
+                String state = sql.getSQLState();
+                return state == null || state.startsWith("08") || state.startsWith("40") || state.startsWith("53")
+                        || state.startsWith("57");
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Whether the database rejected the data of a row (SQLState class 22, data
+     * exception, or 23, integrity constraint violation), so the row can be
+     * found by splitting the chunk
+     */
+    static boolean isDataError(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sql) {
+                String state = sql.getSQLState();
+                return state != null && (state.startsWith("22") || state.startsWith("23"));
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Wait for the batch's audit entries, which are complete at once unless
+     * the sink flushes before acknowledging
+     */
+    private static void awaitAudits(Outcomes outcomes) {
+        for (CompletableFuture<Void> audit : outcomes.audits) {
+            try {
+                audit.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ServiceUnavailableException("Interrupted while writing the audit log");
+            } catch (ExecutionException e) {
+                throw new ServiceUnavailableException(
+                        "Transactions were settled but the audit log could not be written: " + e.getCause().getMessage());
+            }
+        }
+    }
+
+    private static void await(List<CompletableFuture<Void>> chunks) {
+        for (CompletableFuture<Void> chunk : chunks) {
+            try {
+                chunk.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ServiceUnavailableException("Interrupted while settling transactions");
+            } catch (ExecutionException e) {
+                // settle() records its own failures; anything else is a bug
+                throw new IllegalStateException("Settlement chunk failed unexpectedly", e.getCause());
+            }
+        }
+    }
+
+    @PreDestroy
+    void close() throws InterruptedException {
+        int discarded = retryWheel.stop();
+        if (discarded > 0) {
+            LOG.warn("Discarded {} scheduled settlement retries on shutdown; their transactions stay pending",
+                    discarded);
+        }
+        lanes.close(30, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Occupancy and lag of each settlement lane
+     */
+    public List<KeyedExecutor.LaneStats> getLaneStats() {
+        return lanes.stats();
+    }
+
+    /**
+     * Sum of all amounts completed since startup
+     */
+    public BigDecimal getTotalCompleted() {
+        return BigDecimal.valueOf(completedCents.sum(), 2);
+    }
+
+    public long getCompletedCount() {
+        return completedCount.sum();
+    }
+
+    public long getFailedCount() {
+        return failedCount.sum();
+    }
+
+    /**
+     * Retries waiting on the wheel
+     */
+    public int getScheduledRetries() {
+        return retryWheel.getPending();
+    }
+
+    /**
+     * Transactions put back for retry, counted once per attempt
+     */
+    public long getRetriesScheduled() {
+        return retriesScheduled.sum();
+    }
+
+    public long getRetriesSucceeded() {
+        return retriesSucceeded.sum();
+    }
+
+    /**
+     * Transactions not retried because too many retries were waiting
+     */
+    public long getRetriesRefused() {
+        return retriesRefused.sum();
+    }
+
+    /**
+     * Transactions written as failed because they kept failing on their own
+     */
+    public long getPoisoned() {
+        return poisoned.sum();
+    }
+
+    /**
+     * Transactions left pending after their retries ran out
+     */
+    public long getAbandoned() {
+        return abandoned.sum();
+    }
+}
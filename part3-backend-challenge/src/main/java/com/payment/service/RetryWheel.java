@@ -0,0 +1,147 @@
+package com.payment.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hashed-wheel timer for delayed retries.
+ *
+ * Time is cut into ticks, and the wheel has one bucket per tick, reused every
+ * turn: a task due in d ticks goes in bucket (now + d) mod size with d / size
+ * turns still to wait. Scheduling is an append to a lock-free queue, and each
+ * tick the single worker thread files the new tasks and looks only at the
+ * current bucket, so thousands of pending retries cost no more per tick than
+ * a few. Deadlines are rounded up to the tick; tasks run on the worker thread
+ * and must be short.
+ */
+public final class RetryWheel {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RetryWheel.class);
+
+    private final long tickNanos;
+    private final List<List<Timeout>> buckets;
+    private final int mask;
+    private final ConcurrentLinkedQueue<Timeout> incoming = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final Thread worker;
+    private final long startNanos;
+    private volatile boolean running = true;
+
+    private static final class Timeout {
+
+        final long deadlineNanos;
+        final Runnable task;
+        long remainingRounds;
+
+        Timeout(long deadlineNanos, Runnable task) {
+            this.deadlineNanos = deadlineNanos;
+            this.task = task;
+        }
+    }
+
+    /**
+     * @param wheelSize buckets, rounded up to a power of two
+     */
+    public RetryWheel(String threadName, long tick, TimeUnit unit, int wheelSize) {
+        if (tick <= 0 || wheelSize < 1 || wheelSize > 1 << 20) {
+            throw new IllegalArgumentException("tick must be positive and wheelSize between 1 and 2^20");
+        }
+        int size = wheelSize == 1 ? 1 : Integer.highestOneBit(wheelSize - 1) << 1;
+        this.tickNanos = unit.toNanos(tick);
+        this.mask = size - 1;
+        this.buckets = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            buckets.add(new ArrayList<>());
+        }
+        this.startNanos = System.nanoTime();
+        this.worker = new Thread(this::run, threadName);
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Run a task on the wheel's thread once the delay has passed
+     */
+    public void schedule(Runnable task, long delay, TimeUnit unit) {
+        if (!running) {
+            throw new IllegalStateException("Retry wheel stopped");
+        }
+        pending.incrementAndGet();
+        incoming.add(new Timeout(System.nanoTime() + unit.toNanos(Math.max(0, delay)), task));
+    }
+
+    /**
+     * Tasks scheduled and not yet run
+     */
+    public int getPending() {
+        return pending.get();
+    }
+
+    private void run() {
+        long tick = 0;
+        while (running) {
+            long wakeAt = startNanos + (tick + 1) * tickNanos;
+            long sleep;
+            while (running && (sleep = wakeAt - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(this, sleep);
+            }
+            if (!running) {
+                break;
+            }
+            file(tick);
+            expire(buckets.get((int) (tick & mask)));
+            tick++;
+        }
+    }
+
+    /**
+     * Put newly scheduled tasks in their buckets; one already due goes in the
+     * current one
+     */
+    private void file(long tick) {
+        Timeout timeout;
+        while ((timeout = incoming.poll()) != null) {
+            long dueTick = Math.max(tick, (timeout.deadlineNanos - startNanos + tickNanos - 1) / tickNanos - 1);
+            timeout.remainingRounds = (dueTick - tick) / buckets.size();
+            buckets.get((int) (dueTick & mask)).add(timeout);
+        }
+    }
+
+    private void expire(List<Timeout> bucket) {
+        Iterator<Timeout> timeouts = bucket.iterator();
+        while (timeouts.hasNext()) {
+            Timeout timeout = timeouts.next();
+            if (timeout.remainingRounds > 0) {
+                timeout.remainingRounds--;
+                continue;
+            }
+            timeouts.remove();
+            pending.decrementAndGet();
+            try {
+                timeout.task.run();
+            } catch (RuntimeException e) {
+                LOG.error("Scheduled retry failed", e);
+            }
+        }
+    }
+
+    /**
+     * Stop the wheel; tasks not yet run are discarded
+     *
+     * @return the number of tasks discarded
+     */
+    public int stop() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(worker);
+        worker.join(TimeUnit.SECONDS.toMillis(5));
+        return pending.getAndSet(0);
+    }
+}
@@ -0,0 +1,345 @@
+package com.payment.service;
+
+import com.payment.config.SettlementFileProperties;
+import com.payment.dto.settlement.SettlementFileDTO;
+import com.payment.dto.settlement.SettlementFileManifestResponse;
+import com.payment.exception.ServiceUnavailableException;
+import com.payment.repository.SettlementRepository;
+import com.payment.repository.SettlementRepository.SettlementLine;
+import com.payment.repository.SettlementRepository.SettlementMember;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Writes a day's settlement files, one CSV per member, and a manifest.
+ *
+ * The members with completed transactions are split in halves on a fork/join
+ * pool until each task holds one member, so idle workers steal what is left
+ * of a busy worker's range. A member's file is streamed from a database cursor
+ * through a fixed-size write buffer and a SHA-256 digest, so memory does not
+ * grow with the member's volume.
+ *
+ * Each run writes the files and the manifest (name, rows, bytes and checksum
+ * of every file) into a directory of its own, &lt;date&gt;.&lt;epoch millis&gt;,
+ * and once it is complete repoints the symbolic link &lt;date&gt; at it with a
+ * single rename. A reader therefore sees either the previous run or this one,
+ * never a mix, and files of members that dropped out of the day go with the
+ * run that wrote them. Readers should resolve the link once, or use the
+ * directory returned, and read every file from that run; the previous run is
+ * kept until the next one is published, older ones are deleted.
+ *
+ * Workers block on the database while they stream and the pool does not add
+ * threads to make up for it, so settlement.files.parallelism is also the
+ * number of connections a run holds.
+ */
+@Singleton
+public class SettlementFileGenerator {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SettlementFileGenerator.class);
+
+    static final String MANIFEST_FILE = "manifest.csv";
+    static final String FILE_HEADER = "side,txn_id,merchant_id,local_txn_date_time,amount,currency,card_type,"
+            + "counterparty_member_id";
+    static final String MANIFEST_HEADER = "file,member_id,member_code,rows,bytes,sha256";
+
+    private final SettlementRepository settlementRepository;
+    private final SettlementFileProperties properties;
+    private final ForkJoinPool pool;
+    private final Set<LocalDate> inProgress = ConcurrentHashMap.newKeySet();
+
+    public SettlementFileGenerator(SettlementRepository settlementRepository, SettlementFileProperties properties) {
+        this.settlementRepository = settlementRepository;
+        this.properties = properties;
+        this.pool = new ForkJoinPool(Math.max(1, properties.getParallelism()), pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("settlement-file-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+    }
+
+    /**
+     * Write the settlement files of a day, replacing any written before
+     *
+     * @throws ServiceUnavailableException when the day is already being generated
+     */
+    public SettlementFileManifestResponse generate(LocalDate settlementDate) {
+        if (!inProgress.add(settlementDate)) {
+            throw new ServiceUnavailableException("Settlement files for " + settlementDate
+                    + " are already being generated");
+        }
+        try {
+            return write(settlementDate);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write settlement files for " + settlementDate, e);
+        } finally {
+            inProgress.remove(settlementDate);
+        }
+    }
+
+    private SettlementFileManifestResponse write(LocalDate settlementDate) throws IOException {
+        long began = System.nanoTime();
+        Path root = Path.of(properties.getDirectory());
+        Files.createDirectories(root);
+        Path directory = createRunDirectory(root, settlementDate);
+
+        List<SettlementFileDTO> files;
+        try {
+            List<SettlementMember> members = settlementRepository.findMembersWithPositions(settlementDate);
+            files = members.isEmpty() ? List.of()
+                    : pool.invoke(new MemberFiles(settlementDate, directory, members, 0, members.size()));
+            writeManifest(directory, files);
+            publish(root, settlementDate, directory);
+        } catch (IOException | RuntimeException e) {
+            deleteRecursively(directory);
+            throw e;
+        }
+
+        long elapsedNanos = System.nanoTime() - began;
+        long totalRows = files.stream().mapToLong(SettlementFileDTO::getRows).sum();
+        long totalBytes = files.stream().mapToLong(SettlementFileDTO::getBytes).sum();
+        LOG.info("Wrote {} settlement files for {} ({} rows, {} bytes) in {} ms", files.size(), settlementDate,
+                totalRows, totalBytes, TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+
+        return SettlementFileManifestResponse.builder()
+                .settlementDate(settlementDate.toString())
+                .directory(directory.toAbsolutePath().toString())
+                .manifestFile(MANIFEST_FILE)
+                .fileCount(files.size())
+                .totalRows(totalRows)
+                .totalBytes(totalBytes)
+                .parallelism(pool.getParallelism())
+                .elapsedMillis(TimeUnit.NANOSECONDS.toMillis(elapsedNanos))
+                .rowsPerSecond(elapsedNanos == 0 ? 0.0 : totalRows * 1e9 / elapsedNanos)
+                .files(files)
+                .build();
+    }
+
+    private static Path createRunDirectory(Path root, LocalDate settlementDate) throws IOException {
+        for (long run = System.currentTimeMillis(); ; run++) {
+            try {
+                return Files.createDirectory(root.resolve(settlementDate + "." + run));
+            } catch (FileAlreadyExistsException e) {
+                // A run of the same millisecond; take the next
+            }
+        }
+    }
+
+    /**
+     * Point &lt;root&gt;/&lt;date&gt; at a complete run in one rename, then delete
+     * the runs before the one it replaced
+     */
+    private static void publish(Path root, LocalDate settlementDate, Path run) throws IOException {
+        Path link = root.resolve(settlementDate.toString());
+        Path previous = null;
+        if (Files.isSymbolicLink(link)) {
+            previous = root.resolve(Files.readSymbolicLink(link));
+        } else if (Files.exists(link)) {
+            // Written before runs had directories of their own: keep it as the oldest run
+            previous = root.resolve(settlementDate + ".0");
+            Files.move(link, previous, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        Path newLink = root.resolve(settlementDate + ".link.tmp");
+        Files.deleteIfExists(newLink);
+        Files.createSymbolicLink(newLink, run.getFileName());
+        Files.move(newLink, link, StandardCopyOption.ATOMIC_MOVE);
+
+        String prefix = settlementDate + ".";
+        try (Stream<Path> entries = Files.list(root)) {
+            for (Path entry : (Iterable<Path>) entries::iterator) {
+                String name = entry.getFileName().toString();
+                if (name.startsWith(prefix) && isRunNumber(name.substring(prefix.length()))
+                        && !entry.equals(run) && !entry.equals(previous)) {
+                    deleteRecursively(entry);
+                }
+            }
+        }
+    }
+
+    private static boolean isRunNumber(String suffix) {
+        return !suffix.isEmpty() && suffix.chars().allMatch(Character::isDigit);
+    }
+
+    /**
+     * Files for a range of members, in member order
+     */
+    private final class MemberFiles extends RecursiveTask<List<SettlementFileDTO>> {
+
+        private final LocalDate settlementDate;
+        private final Path directory;
+        private final List<SettlementMember> members;
+        private final int from;
+        private final int to;
+
+        MemberFiles(LocalDate settlementDate, Path directory, List<SettlementMember> members, int from, int to) {
+            this.settlementDate = settlementDate;
+            this.directory = directory;
+            this.members = members;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<SettlementFileDTO> compute() {
+            if (to - from == 1) {
+                return List.of(writeMemberFile(settlementDate, directory, members.get(from)));
+            }
+            int mid = (from + to) >>> 1;
+            MemberFiles left = new MemberFiles(settlementDate, directory, members, from, mid);
+            left.fork();
+            List<SettlementFileDTO> right = new MemberFiles(settlementDate, directory, members, mid, to).compute();
+            List<SettlementFileDTO> files = new ArrayList<>(to - from);
+            files.addAll(left.join());
+            files.addAll(right);
+            return files;
+        }
+    }
+
+    private SettlementFileDTO writeMemberFile(LocalDate settlementDate, Path directory, SettlementMember member) {
+        String fileName = "member-" + member.memberId() + ".csv";
+        Path target = directory.resolve(fileName);
+        MessageDigest digest = sha256();
+        long began = System.nanoTime();
+        long rows;
+        try {
+            try (DigestOutputStream digested = new DigestOutputStream(Files.newOutputStream(target), digest);
+                    Writer out = new BufferedWriter(new OutputStreamWriter(digested, StandardCharsets.UTF_8),
+                            Math.max(1024, properties.getBufferSize()))) {
+                out.write(FILE_HEADER);
+                out.write('\n');
+                StringBuilder line = new StringBuilder(128);
+                rows = settlementRepository.streamMemberTransactions(settlementDate, member.memberId(),
+                        properties.getFetchSize(), settlementLine -> {
+                            line.setLength(0);
+                            format(settlementLine, line);
+                            try {
+                                out.append(line);
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                        });
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write " + target, e);
+        }
+
+        if (rows != member.transactions()) {
+            LOG.warn("Settlement file of member {} for {} has {} rows but its positions count {}; "
+                    + "verify the day's positions", member.memberId(), settlementDate, rows, member.transactions());
+        }
+        try {
+            return SettlementFileDTO.builder()
+                    .fileName(fileName)
+                    .memberId(member.memberId())
+                    .memberCode(member.memberCode())
+                    .rows(rows)
+                    .bytes(Files.size(target))
+                    .sha256(HexFormat.of().formatHex(digest.digest()))
+                    .elapsedMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - began))
+                    .build();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read the size of " + target, e);
+        }
+    }
+
+    private static void writeManifest(Path directory, List<SettlementFileDTO> files) throws IOException {
+        try (Writer out = Files.newBufferedWriter(directory.resolve(MANIFEST_FILE), StandardCharsets.UTF_8)) {
+            out.write(MANIFEST_HEADER);
+            out.write('\n');
+            for (SettlementFileDTO file : files) {
+                StringBuilder line = new StringBuilder(128)
+                        .append(file.getFileName()).append(',')
+                        .append(file.getMemberId()).append(',');
+                appendField(line, file.getMemberCode());
+                line.append(',').append(file.getRows())
+                        .append(',').append(file.getBytes())
+                        .append(',').append(file.getSha256())
+                        .append('\n');
+                out.append(line);
+            }
+        }
+    }
+
+    static void format(SettlementLine settlementLine, StringBuilder line) {
+        line.append(settlementLine.side()).append(',')
+                .append(settlementLine.txnId()).append(',');
+        appendField(line, settlementLine.merchantId());
+        line.append(',').append(settlementLine.localTxnDateTime())
+                .append(',').append(settlementLine.amount().toPlainString())
+                .append(',');
+        appendField(line, settlementLine.currency());
+        line.append(',');
+        appendField(line, settlementLine.cardType());
+        line.append(',');
+        if (settlementLine.counterpartyId() != null) {
+            line.append(settlementLine.counterpartyId());
+        }
+        line.append('\n');
+    }
+
+    private static void appendField(StringBuilder line, String value) {
+        if (value == null) {
+            return;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            line.append(value);
+            return;
+        }
+        line.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Delete a run directory; what cannot be deleted is left for the next run
+     * to try again
+     */
+    private static void deleteRecursively(Path directory) {
+        try (Stream<Path> tree = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) tree.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(path);
+            }
+        } catch (IOException | UncheckedIOException e) {
+            LOG.warn("Could not delete {}", directory, e);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        pool.shutdownNow();
+    }
+}
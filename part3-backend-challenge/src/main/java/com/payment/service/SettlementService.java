@@ -0,0 +1,103 @@
+package com.payment.service;
+
+import com.payment.dto.settlement.DailySettlementResponse;
+import com.payment.dto.settlement.MemberSettlementDTO;
+import com.payment.dto.settlement.SettlementMismatchDTO;
+import com.payment.dto.settlement.SettlementVerificationResponse;
+import com.payment.repository.SettlementRepository;
+import com.payment.repository.SettlementRepository.SettlementMismatch;
+import com.payment.repository.SettlementRepository.SettlementRow;
+import com.payment.repository.SettlementRepository.Verification;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Daily settlement positions per member.
+ *
+ * Positions are not computed here: the V8 triggers add every completed
+ * transaction to its acquirer's and issuer's position as it is written or
+ * settled, so reading a day costs one row per member and currency. Verifying
+ * recomputes a day from transaction_master and, when asked, rebuilds it.
+ */
+@Singleton
+public class SettlementService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SettlementService.class);
+
+    private final SettlementRepository settlementRepository;
+
+    public SettlementService(SettlementRepository settlementRepository) {
+        this.settlementRepository = settlementRepository;
+    }
+
+    /**
+     * Positions of every member, or of one, for a day
+     */
+    public DailySettlementResponse getDailySettlement(LocalDate settlementDate, Long memberId) {
+        List<SettlementRow> rows = settlementRepository.findDaily(settlementDate, memberId);
+        List<MemberSettlementDTO> positions = rows.stream()
+                .map(row -> MemberSettlementDTO.builder()
+                        .memberId(row.memberId())
+                        .memberName(row.memberName())
+                        .memberCode(row.memberCode())
+                        .currency(row.currency())
+                        .acquiredCount(row.acquiredCount())
+                        .acquiredAmount(row.acquiredAmount())
+                        .issuedCount(row.issuedCount())
+                        .issuedAmount(row.issuedAmount())
+                        .netAmount(row.acquiredAmount().subtract(row.issuedAmount()))
+                        .build())
+                .toList();
+
+        return DailySettlementResponse.builder()
+                .settlementDate(settlementDate.toString())
+                .memberCount((int) rows.stream().mapToLong(SettlementRow::memberId).distinct().count())
+                .positions(positions)
+                .build();
+    }
+
+    /**
+     * Compare a day's positions with its transactions
+     *
+     * @param repair rebuild the day when they differ
+     */
+    public SettlementVerificationResponse verify(LocalDate settlementDate, boolean repair) {
+        Verification verification = settlementRepository.verify(settlementDate);
+        List<SettlementMismatch> mismatches = verification.mismatches();
+        Integer repairedPositions = null;
+        if (!mismatches.isEmpty()) {
+            LOG.warn("Settlement positions for {} differ from transactions for {} member/currency pairs{}",
+                    settlementDate, mismatches.size(), repair ? "; rebuilding the day" : "");
+            if (repair) {
+                repairedPositions = settlementRepository.rebuild(settlementDate);
+            }
+        }
+
+        return SettlementVerificationResponse.builder()
+                .settlementDate(settlementDate.toString())
+                .checkedPositions(verification.checkedRows())
+                .mismatches(mismatches.stream().map(SettlementService::toDto).toList())
+                .repaired(repairedPositions != null)
+                .repairedPositions(repairedPositions)
+                .build();
+    }
+
+    private static SettlementMismatchDTO toDto(SettlementMismatch mismatch) {
+        return SettlementMismatchDTO.builder()
+                .memberId(mismatch.memberId())
+                .currency(mismatch.currency())
+                .expectedAcquiredCount(mismatch.expectedAcquiredCount())
+                .expectedAcquiredAmount(mismatch.expectedAcquiredAmount())
+                .expectedIssuedCount(mismatch.expectedIssuedCount())
+                .expectedIssuedAmount(mismatch.expectedIssuedAmount())
+                .storedAcquiredCount(mismatch.storedAcquiredCount())
+                .storedAcquiredAmount(mismatch.storedAcquiredAmount())
+                .storedIssuedCount(mismatch.storedIssuedCount())
+                .storedIssuedAmount(mismatch.storedIssuedAmount())
+                .build();
+    }
+}
@@ -0,0 +1,59 @@
+package com.payment.service;
+
+import com.payment.config.SettlementProperties;
+import com.payment.dto.settlement.SettlementVerificationResponse;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.scheduling.annotation.Scheduled;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+/**
+ * Periodically reconciles the most recent days' settlement positions with
+ * transaction_master, rebuilding a day that drifted (for example after rows
+ * were changed with the triggers disabled).
+ */
+@Singleton
+@Requires(property = "settlement.verify.enabled", notEquals = "false")
+public class SettlementVerifier {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SettlementVerifier.class);
+
+    private final SettlementService settlementService;
+    private final SettlementProperties properties;
+
+    public SettlementVerifier(SettlementService settlementService, SettlementProperties properties) {
+        this.settlementService = settlementService;
+        this.properties = properties;
+    }
+
+    @Scheduled(initialDelay = "${settlement.verify.initial-delay:2m}",
+            fixedDelay = "${settlement.verify.interval:1h}")
+    void runVerification() {
+        try {
+            verifyRecent(LocalDate.now(ZoneOffset.UTC));
+        } catch (RuntimeException e) {
+            LOG.error("Settlement verification failed", e);
+        }
+    }
+
+    /**
+     * Verify the configured number of days up to and including today
+     *
+     * @return the number of days whose positions differed
+     */
+    public int verifyRecent(LocalDate today) {
+        int drifted = 0;
+        for (int i = Math.max(1, properties.getDays()) - 1; i >= 0; i--) {
+            SettlementVerificationResponse result = settlementService.verify(today.minusDays(i),
+                    properties.isRepair());
+            if (!result.getMismatches().isEmpty()) {
+                drifted++;
+            }
+        }
+        return drifted;
+    }
+}
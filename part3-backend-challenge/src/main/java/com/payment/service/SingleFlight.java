@@ -0,0 +1,215 @@
+package com.payment.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent calls for the same key into one computation.
+ *
+ * The first caller for a key becomes the leader and computes the value on its
+ * own thread; callers that arrive while it runs wait for it and get the same
+ * value, or the same exception. The key is forgotten once the leader finishes,
+ * so a call that arrives afterwards computes again: nothing is cached, only
+ * work already in progress is shared. Callers therefore receive the same
+ * object and must not modify it. A loader must not call back into the same
+ * key, as it would wait for itself.
+ *
+ * Counts are kept in total and for up to maxTrackedKeys keys. A new key
+ * arriving when that many are tracked replaces the key called least recently,
+ * so the per-key counts follow the keys in use now rather than the first ones
+ * ever seen; finding it scans the tracked keys, which only new keys pay for.
+ */
+public final class SingleFlight<K, V> {
+
+    private final int maxTrackedKeys;
+    private final ConcurrentHashMap<K, Flight<V>> inFlight = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<K, KeyCounters> keys = new ConcurrentHashMap<>();
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder collapsed = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder evictedKeys = new LongAdder();
+    // Serialises evictions, so concurrent new keys do not evict more than needed
+    private final Object evictionLock = new Object();
+
+    /**
+     * Calls for one key; largestFlight is the most callers that shared one
+     * computation, the leader included
+     */
+    public record KeyStats(String key, long calls, long executions, long collapsed, int largestFlight) {
+    }
+
+    private static final class Flight<V> {
+
+        final CompletableFuture<V> result = new CompletableFuture<>();
+        final AtomicInteger callers = new AtomicInteger(1);
+    }
+
+    private static final class KeyCounters {
+
+        final LongAdder executions = new LongAdder();
+        final LongAdder collapsed = new LongAdder();
+        volatile int largestFlight;
+        volatile long lastCallNanos;
+    }
+
+    public SingleFlight(int maxTrackedKeys) {
+        if (maxTrackedKeys < 0) {
+            throw new IllegalArgumentException("maxTrackedKeys must not be negative");
+        }
+        this.maxTrackedKeys = maxTrackedKeys;
+    }
+
+    /**
+     * Compute the value for a key, or wait for the computation already running
+     * for it
+     */
+    public V execute(K key, Supplier<V> loader) {
+        calls.increment();
+        KeyCounters counters = counters(key);
+        Flight<V> flight = new Flight<>();
+        Flight<V> running;
+        while ((running = inFlight.putIfAbsent(key, flight)) != null) {
+            if (running.callers.getAndIncrement() > 0) {
+                collapsed.increment();
+                if (counters != null) {
+                    counters.collapsed.increment();
+                }
+                return await(running.result);
+            }
+            // The flight closed between putIfAbsent and the join; start a new one
+            inFlight.remove(key, running);
+        }
+
+        executions.increment();
+        if (counters != null) {
+            counters.executions.increment();
+        }
+        try {
+            V value = loader.get();
+            flight.result.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            failures.increment();
+            flight.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+            // Close the flight to latecomers, so every caller it counted got its result
+            int shared = flight.callers.getAndSet(0);
+            if (counters != null && shared > counters.largestFlight) {
+                counters.largestFlight = shared;
+            }
+        }
+    }
+
+    private KeyCounters counters(K key) {
+        if (maxTrackedKeys == 0) {
+            return null;
+        }
+        KeyCounters counters = keys.get(key);
+        if (counters == null) {
+            evictLeastRecent();
+            counters = keys.computeIfAbsent(key, k -> new KeyCounters());
+        }
+        counters.lastCallNanos = System.nanoTime();
+        return counters;
+    }
+
+    /**
+     * Make room for one more key by forgetting the ones called least recently
+     */
+    private void evictLeastRecent() {
+        synchronized (evictionLock) {
+            while (keys.size() >= maxTrackedKeys) {
+                Map.Entry<K, KeyCounters> oldest = null;
+                for (Map.Entry<K, KeyCounters> entry : keys.entrySet()) {
+                    if (oldest == null || entry.getValue().lastCallNanos - oldest.getValue().lastCallNanos < 0) {
+                        oldest = entry;
+                    }
+                }
+                if (oldest == null) {
+                    return;
+                }
+                if (keys.remove(oldest.getKey(), oldest.getValue())) {
+                    evictedKeys.increment();
+                }
+            }
+        }
+    }
+
+    private static <V> V await(CompletableFuture<V> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Tracked keys, most collapsed first
+     */
+    public List<KeyStats> topKeys(int limit) {
+        List<KeyStats> stats = new ArrayList<>(keys.size());
+        for (Map.Entry<K, KeyCounters> entry : keys.entrySet()) {
+            KeyCounters counters = entry.getValue();
+            long keyExecutions = counters.executions.sum();
+            long keyCollapsed = counters.collapsed.sum();
+            stats.add(new KeyStats(String.valueOf(entry.getKey()), keyExecutions + keyCollapsed, keyExecutions,
+                    keyCollapsed, counters.largestFlight));
+        }
+        stats.sort(Comparator.comparingLong(KeyStats::collapsed).reversed()
+                .thenComparing(Comparator.comparingLong(KeyStats::calls).reversed()));
+        return stats.size() > limit ? new ArrayList<>(stats.subList(0, limit)) : stats;
+    }
+
+    public int getInFlight() {
+        return inFlight.size();
+    }
+
+    public int getTrackedKeys() {
+        return keys.size();
+    }
+
+    public int getMaxTrackedKeys() {
+        return maxTrackedKeys;
+    }
+
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    public long getExecutions() {
+        return executions.sum();
+    }
+
+    public long getCollapsed() {
+        return collapsed.sum();
+    }
+
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    /**
+     * Keys forgotten to make room for newer ones
+     */
+    public long getEvictedKeys() {
+        return evictedKeys.sum();
+    }
+}
@@ -0,0 +1,374 @@
+package com.payment.service;
+
+import com.payment.analytics.DeclineCounters;
+import com.payment.analytics.LiveDayAggregator;
+import com.payment.cache.HotWindowStore;
+import com.payment.cache.TransactionBitmapIndex;
+import com.payment.cache.TransactionDedupeFilter;
+import com.payment.config.IngestionProperties;
+import com.payment.dto.transaction.TransactionBatchRequest;
+import com.payment.dto.transaction.TransactionBatchResponse;
+import com.payment.dto.transaction.TransactionDetailIngestDTO;
+import com.payment.dto.transaction.TransactionIngestDTO;
+import com.payment.entity.TransactionDetail;
+import com.payment.entity.TransactionMaster;
+import com.payment.repository.TransactionIngestRepository;
+import com.payment.repository.TransactionIngestRepository.JournalPosition;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Write path for transactions: validates a batch, writes it through
+ * {@link TransactionIngestRepository} in one database transaction and pushes
+ * the committed rows into the in-memory read caches, so they show up in the
+ * hot window and the bitmap filters without waiting for the next poll, and
+ * into the {@link DeclineCounters} and the {@link LiveDayAggregator}. The columnar report cache picks them up on
+ * its own tail poll.
+ *
+ * Ingestion is idempotent on the natural key (merchantId, authCode,
+ * localTxnDateTime, amount): a redelivered transaction is not written again
+ * and its original txnId is returned. The {@link TransactionDedupeFilter}
+ * clears most transactions as new without touching the database; only its
+ * possible hits are looked up, and the unique index catches the rest.
+ */
+@Singleton
+public class TransactionIngestionService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TransactionIngestionService.class);
+
+    private static final String DEFAULT_CURRENCY = "USD";
+    private static final Set<String> STATUSES = Set.of("pending", "completed", "failed", "reversed");
+    private static final Set<String> DETAIL_TYPES = Set.of("fee", "tax", "adjustment", "refund", "chargeback");
+
+    private final TransactionIngestRepository ingestRepository;
+    private final HotWindowStore hotWindowStore;
+    private final TransactionBitmapIndex bitmapIndex;
+    private final TransactionDedupeFilter dedupeFilter;
+    private final DeclineCounters declineCounters;
+    private final LiveDayAggregator liveMetrics;
+    private final IngestionProperties properties;
+
+    public TransactionIngestionService(TransactionIngestRepository ingestRepository, HotWindowStore hotWindowStore,
+            TransactionBitmapIndex bitmapIndex, TransactionDedupeFilter dedupeFilter, DeclineCounters declineCounters,
+            LiveDayAggregator liveMetrics, IngestionProperties properties) {
+        this.ingestRepository = ingestRepository;
+        this.hotWindowStore = hotWindowStore;
+        this.bitmapIndex = bitmapIndex;
+        this.dedupeFilter = dedupeFilter;
+        this.declineCounters = declineCounters;
+        this.liveMetrics = liveMetrics;
+        this.properties = properties;
+    }
+
+    /**
+     * Natural key, with the timestamp and amount already normalized to what the database stores
+     */
+    private record NaturalKey(String merchantId, String authCode, Instant localTxnDateTime, BigDecimal amount,
+            Date txnDate) {
+
+        static NaturalKey of(TransactionMaster transaction) {
+            return new NaturalKey(transaction.getMerchantId(), transaction.getAuthCode(),
+                    transaction.getLocalTxnDateTime(), transaction.getAmount(), transaction.getTxnDate());
+        }
+    }
+
+    /**
+     * A validated request, converted to entities but not yet written
+     */
+    public record PreparedBatch(List<TransactionMaster> transactions, List<List<TransactionDetail>> details) {
+
+        public int size() {
+            return transactions.size();
+        }
+    }
+
+    /**
+     * Write a batch of transactions with their details, all or nothing;
+     * transactions already stored (or repeated in the batch) are skipped
+     *
+     * @throws IllegalArgumentException when the batch is empty, too large, or a
+     *                                  row is invalid
+     */
+    public TransactionBatchResponse ingest(TransactionBatchRequest request) {
+        return write(List.of(prepare(request))).get(0);
+    }
+
+    /**
+     * Validate a request and convert it to entities
+     *
+     * @throws IllegalArgumentException when the batch is empty, too large, or a
+     *                                  row is invalid
+     */
+    public PreparedBatch prepare(TransactionBatchRequest request) {
+        List<TransactionIngestDTO> items = request != null ? request.getTransactions() : null;
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("At least one transaction is required");
+        }
+        if (items.size() > properties.getMaxBatchSize()) {
+            throw new IllegalArgumentException("Batch of " + items.size() + " transactions exceeds the maximum of "
+                    + properties.getMaxBatchSize());
+        }
+
+        List<TransactionMaster> transactions = new ArrayList<>(items.size());
+        List<List<TransactionDetail>> details = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            TransactionIngestDTO item = items.get(i);
+            validate(item, i);
+            TransactionMaster transaction = toEntity(item);
+            transactions.add(transaction);
+            details.add(toDetails(item, transaction));
+        }
+        return new PreparedBatch(transactions, details);
+    }
+
+    /**
+     * Write several prepared batches in one database transaction, all or nothing.
+     * Natural keys repeated across the batches are written once.
+     *
+     * @return one response per batch, in order
+     */
+    public List<TransactionBatchResponse> write(List<PreparedBatch> batches) {
+        return write(batches, null);
+    }
+
+    /**
+     * {@link #write(List)} for batches taken from the ingestion journal: the
+     * journal's checkpoint moves to {@code position} in the same transaction
+     */
+    public List<TransactionBatchResponse> write(List<PreparedBatch> batches, JournalPosition position) {
+        List<TransactionMaster> transactions = new ArrayList<>();
+        List<List<TransactionDetail>> details = new ArrayList<>();
+        for (PreparedBatch batch : batches) {
+            transactions.addAll(batch.transactions());
+            details.addAll(batch.details());
+        }
+
+        // Index -> index of the transaction it repeats, within the group or already stored
+        int[] firstCopy = new int[transactions.size()];
+        Long[] storedIds = new Long[transactions.size()];
+        Map<NaturalKey, Integer> seen = new HashMap<>();
+        List<Integer> possible = new ArrayList<>();
+        long checked = 0;
+        for (int i = 0; i < transactions.size(); i++) {
+            firstCopy[i] = i;
+            TransactionMaster transaction = transactions.get(i);
+            if (!TransactionDedupeFilter.hasKey(transaction)) {
+                continue;
+            }
+            Integer earlier = seen.putIfAbsent(NaturalKey.of(transaction), i);
+            if (earlier != null) {
+                firstCopy[i] = earlier;
+                continue;
+            }
+            checked++;
+            if (dedupeFilter.mightContain(transaction)) {
+                possible.add(i);
+            }
+        }
+
+        long began = System.nanoTime();
+        int confirmed = confirmStored(transactions, possible, storedIds);
+        if (dedupeFilter.isReady()) {
+            dedupeFilter.recordChecks(checked, possible.size(), confirmed);
+        }
+
+        List<TransactionMaster> pending = new ArrayList<>();
+        List<List<TransactionDetail>> pendingDetails = new ArrayList<>();
+        List<Integer> pendingIndexes = new ArrayList<>();
+        for (int i = 0; i < transactions.size(); i++) {
+            if (firstCopy[i] == i && storedIds[i] == null) {
+                pending.add(transactions.get(i));
+                pendingDetails.add(details.get(i));
+                pendingIndexes.add(i);
+            }
+        }
+
+        int detailCount = 0;
+        if (!pending.isEmpty()) {
+            detailCount = position == null ? ingestRepository.insertBatch(pending, pendingDetails)
+                    : ingestRepository.insertBatch(pending, pendingDetails, position);
+        } else if (position != null) {
+            ingestRepository.saveJournalCheckpoint(position);
+        }
+        List<TransactionMaster> written = new ArrayList<>(pending.size());
+        boolean[] isWritten = new boolean[transactions.size()];
+        List<Integer> raced = new ArrayList<>();
+        for (int p = 0; p < pending.size(); p++) {
+            if (pending.get(p).getTxnId() != null) {
+                written.add(pending.get(p));
+                isWritten[pendingIndexes.get(p)] = true;
+            } else {
+                // Stored by a concurrent batch after the pre-check
+                raced.add(pendingIndexes.get(p));
+            }
+        }
+        confirmStored(transactions, raced, storedIds);
+        long writeMillis = (System.nanoTime() - began) / 1_000_000;
+
+        dedupeFilter.add(written);
+        hotWindowStore.apply(written);
+        bitmapIndex.apply(written);
+        declineCounters.record(written);
+        liveMetrics.record(written);
+
+        LOG.debug("Ingested {} transactions with {} details in {} ms; {} duplicates skipped, {} filter hits checked",
+                written.size(), detailCount, writeMillis, transactions.size() - written.size(), possible.size());
+
+        List<TransactionBatchResponse> responses = new ArrayList<>(batches.size());
+        int offset = 0;
+        for (PreparedBatch batch : batches) {
+            List<Long> txnIds = new ArrayList<>(batch.size());
+            int batchWritten = 0;
+            int batchDetails = 0;
+            for (int i = offset; i < offset + batch.size(); i++) {
+                int first = firstCopy[i];
+                txnIds.add(storedIds[first] != null ? storedIds[first] : transactions.get(first).getTxnId());
+                if (isWritten[i]) {
+                    batchWritten++;
+                    batchDetails += details.get(i).size();
+                }
+            }
+            offset += batch.size();
+            responses.add(TransactionBatchResponse.builder()
+                    .transactionCount(batchWritten)
+                    .duplicateCount(batch.size() - batchWritten)
+                    .detailCount(batchDetails)
+                    .txnIds(txnIds)
+                    .writeMillis(writeMillis)
+                    .build());
+        }
+        return responses;
+    }
+
+    /**
+     * Keep a journaled request the database rejected, and move the journal's
+     * checkpoint past it
+     */
+    public void deadLetter(JournalPosition position, byte[] payload, int transactionCount, String error) {
+        ingestRepository.saveDeadLetter(position, payload, transactionCount, error);
+    }
+
+    /**
+     * Dead letters kept for a journal
+     */
+    public long deadLetterCount(String journalId) {
+        return ingestRepository.countDeadLetters(journalId);
+    }
+
+    /**
+     * Highest journal sequence already committed, or 0
+     */
+    public long journalCheckpoint(String journalId) {
+        return ingestRepository.findJournalCheckpoint(journalId);
+    }
+
+    /**
+     * Look up the given request indexes by natural key and record the stored ids
+     *
+     * @return how many were found
+     */
+    private int confirmStored(List<TransactionMaster> transactions, List<Integer> indexes, Long[] storedIds) {
+        if (indexes.isEmpty()) {
+            return 0;
+        }
+        List<TransactionMaster> keys = new ArrayList<>(indexes.size());
+        for (int index : indexes) {
+            keys.add(transactions.get(index));
+        }
+        List<Long> ids = ingestRepository.findExistingIds(keys);
+        int found = 0;
+        for (int k = 0; k < indexes.size(); k++) {
+            if (ids.get(k) != null) {
+                storedIds[indexes.get(k)] = ids.get(k);
+                found++;
+            }
+        }
+        return found;
+    }
+
+    private void validate(TransactionIngestDTO item, int index) {
+        if (item == null) {
+            throw new IllegalArgumentException("transactions[" + index + "] is null");
+        }
+        if (item.getMerchantId() == null || item.getMerchantId().isBlank()) {
+            throw new IllegalArgumentException("transactions[" + index + "].merchantId is required");
+        }
+        if (item.getLocalTxnDateTime() == null) {
+            throw new IllegalArgumentException("transactions[" + index + "].localTxnDateTime is required");
+        }
+        if (item.getAmount() == null) {
+            throw new IllegalArgumentException("transactions[" + index + "].amount is required");
+        }
+        if (!STATUSES.contains(item.getStatus())) {
+            throw new IllegalArgumentException("transactions[" + index + "].status must be one of " + STATUSES);
+        }
+        List<TransactionDetailIngestDTO> lines = item.getDetails();
+        if (lines == null) {
+            return;
+        }
+        if (lines.size() > properties.getMaxDetailsPerTransaction()) {
+            throw new IllegalArgumentException("transactions[" + index + "] has " + lines.size()
+                    + " details, more than the maximum of " + properties.getMaxDetailsPerTransaction());
+        }
+        for (int d = 0; d < lines.size(); d++) {
+            TransactionDetailIngestDTO line = lines.get(d);
+            if (line == null || !DETAIL_TYPES.contains(line.getType())) {
+                throw new IllegalArgumentException("transactions[" + index + "].details[" + d
+                        + "].type must be one of " + DETAIL_TYPES);
+            }
+            if (line.getAmount() == null) {
+                throw new IllegalArgumentException("transactions[" + index + "].details[" + d + "].amount is required");
+            }
+        }
+    }
+
+    private static TransactionMaster toEntity(TransactionIngestDTO item) {
+        TransactionMaster transaction = new TransactionMaster();
+        transaction.setMerchantId(item.getMerchantId());
+        transaction.setGpAcquirerId(item.getGpAcquirerId());
+        transaction.setGpIssuerId(item.getGpIssuerId());
+        transaction.setTxnDate(Date.valueOf(item.getTxnDate() != null ? item.getTxnDate()
+                : item.getLocalTxnDateTime().atZone(ZoneOffset.UTC).toLocalDate()));
+        // Stored as timestamptz (microseconds) and DECIMAL(15,2); normalize so natural keys compare as stored
+        transaction.setLocalTxnDateTime(item.getLocalTxnDateTime().truncatedTo(ChronoUnit.MICROS));
+        transaction.setAmount(item.getAmount().setScale(2, RoundingMode.HALF_UP));
+        transaction.setCurrency(item.getCurrency() != null ? item.getCurrency() : DEFAULT_CURRENCY);
+        transaction.setStatus(item.getStatus());
+        transaction.setCardType(item.getCardType());
+        transaction.setCardLast4(item.getCardLast4());
+        transaction.setAuthCode(item.getAuthCode());
+        transaction.setResponseCode(item.getResponseCode());
+        return transaction;
+    }
+
+    private static List<TransactionDetail> toDetails(TransactionIngestDTO item, TransactionMaster transaction) {
+        if (item.getDetails() == null || item.getDetails().isEmpty()) {
+            return List.of();
+        }
+        List<TransactionDetail> details = new ArrayList<>(item.getDetails().size());
+        for (TransactionDetailIngestDTO line : item.getDetails()) {
+            TransactionDetail detail = new TransactionDetail();
+            detail.setDetailType(line.getType());
+            detail.setAmount(line.getAmount());
+            detail.setCurrency(line.getCurrency() != null ? line.getCurrency() : transaction.getCurrency());
+            detail.setDescription(line.getDescription());
+            detail.setLocalTxnDateTime(line.getLocalTxnDateTime() != null ? line.getLocalTxnDateTime()
+                    : transaction.getLocalTxnDateTime());
+            details.add(detail);
+        }
+        return details;
+    }
+}
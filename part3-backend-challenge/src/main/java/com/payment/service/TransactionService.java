@@ -1,5 +1,10 @@
 package com.payment.service;
 
+import com.payment.analytics.ColumnarReportService;
+import com.payment.cache.HotWindowStore;
+import com.payment.cache.TransactionBitmapIndex;
+import com.payment.config.RequestCoalescingProperties;
+import com.payment.dto.common.ConsistencyDTO;
 import com.payment.dto.common.DateRangeDTO;
 import com.payment.dto.common.PaginationDTO;
 import com.payment.dto.reports.AmountStatsDTO;
@@ -18,13 +23,19 @@ import com.payment.dto.reports.VolumeMetricsDTO;
 import com.payment.dto.reports.WeeklyVolumeDTO;
 import com.payment.dto.transaction.MerchantTransactionResponse;
 import com.payment.dto.transaction.TransactionDetailDTO;
+import com.payment.dto.transaction.TransactionFilterRequest;
+import com.payment.dto.transaction.TransactionFilterResponse;
 import com.payment.dto.transaction.TransactionRequest;
 import com.payment.dto.transaction.TransactionResponse;
 import com.payment.dto.transaction.TransactionSummaryDTO;
 import com.payment.entity.TransactionDetail;
 import com.payment.entity.TransactionMaster;
+import com.payment.exception.ServiceUnavailableException;
 import com.payment.repository.TransactionDetailRepository;
 import com.payment.repository.TransactionRepository;
+import com.payment.repository.TransactionReportRepository;
+import com.payment.repository.TransactionSearchRepository;
+import com.payment.repository.criteria.TransactionCriteria;
 import io.micronaut.data.model.Page;
 import io.micronaut.data.model.Pageable;
 import jakarta.inject.Singleton;
@@ -36,9 +47,14 @@ import java.sql.Date;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneOffset;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.function.Function;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
 
 @Singleton
@@ -48,45 +64,78 @@ public class TransactionService {
 
         private final TransactionRepository transactionRepository;
         private final TransactionDetailRepository transactionDetailRepository;
+        private final TransactionSearchRepository transactionSearchRepository;
+        private final TransactionReportRepository transactionReportRepository;
+        private final HotWindowStore hotWindowStore;
+        private final ColumnarReportService columnarReportService;
+        private final TransactionBitmapIndex transactionBitmapIndex;
+        private final RequestCoalescingProperties coalescingProperties;
+
+        // Identical reads that overlap share one computation
+        private final SingleFlight<ReportKey, TransactionReportsResponse> reportFlights;
+        private final SingleFlight<MerchantPageKey, MerchantTransactionResponse> merchantPageFlights;
+
+        private record ReportKey(LocalDate startDate, LocalDate endDate) {
+
+                @Override
+                public String toString() {
+                        return startDate + ".." + endDate;
+                }
+        }
+
+        private record MerchantPageKey(String merchantId, TransactionRequest request) {
+
+                @Override
+                public String toString() {
+                        return merchantId + " " + request;
+                }
+        }
 
         public TransactionService(TransactionRepository transactionRepository,
-                        TransactionDetailRepository transactionDetailRepository) {
+                        TransactionDetailRepository transactionDetailRepository,
+                        TransactionSearchRepository transactionSearchRepository,
+                        TransactionReportRepository transactionReportRepository,
+                        HotWindowStore hotWindowStore,
+                        ColumnarReportService columnarReportService,
+                        TransactionBitmapIndex transactionBitmapIndex,
+                        RequestCoalescingProperties coalescingProperties) {
                 this.transactionRepository = transactionRepository;
                 this.transactionDetailRepository = transactionDetailRepository;
+                this.transactionSearchRepository = transactionSearchRepository;
+                this.transactionReportRepository = transactionReportRepository;
+                this.hotWindowStore = hotWindowStore;
+                this.columnarReportService = columnarReportService;
+                this.transactionBitmapIndex = transactionBitmapIndex;
+                this.coalescingProperties = coalescingProperties;
+                this.reportFlights = new SingleFlight<>(coalescingProperties.getMaxTrackedKeys());
+                this.merchantPageFlights = new SingleFlight<>(coalescingProperties.getMaxTrackedKeys());
         }
 
         public MerchantTransactionResponse getMerchantTransactions(String merchantId, TransactionRequest request) {
                 LOG.info("Fetching transactions for merchant: {}", merchantId);
+                if (!coalescingProperties.isEnabled()) {
+                        return loadMerchantTransactions(merchantId, request);
+                }
+                return merchantPageFlights.execute(new MerchantPageKey(merchantId, request),
+                                () -> loadMerchantTransactions(merchantId, request));
+        }
 
+        private MerchantTransactionResponse loadMerchantTransactions(String merchantId, TransactionRequest request) {
                 // Prepare date range
                 Date startDate = request.getStartDate() != null ? Date.valueOf(request.getStartDate()) : null;
                 Date endDate = request.getEndDate() != null ? Date.valueOf(request.getEndDate()) : null;
 
-                // Prepare page parameters with default sorting by txnDate DESC (latest first)
+                // Prepare page parameters (ordering is fixed to txnDate DESC, latest first)
                 int page = request.getPage() != null ? request.getPage() : 0;
                 int size = request.getSize() != null ? request.getSize() : 20;
-                Pageable pageable = Pageable.from(page, size, io.micronaut.data.model.Sort.of(
-                                io.micronaut.data.model.Sort.Order.desc("txnDate")));
-
-                // Apply filters and get paginated results
-                Page<TransactionMaster> transactionPage;
-
-                if (startDate != null && endDate != null && request.getStatus() != null) {
-                        // Filter by date range and status
-                        transactionPage = transactionRepository.findByMerchantIdAndTxnDateBetweenAndStatusEquals(
-                                        merchantId, startDate, endDate, request.getStatus(), pageable);
-                } else if (startDate != null && endDate != null) {
-                        // Filter by date range only
-                        transactionPage = transactionRepository.findByMerchantIdAndTxnDateBetween(
-                                        merchantId, startDate, endDate, pageable);
-                } else if (request.getStatus() != null) {
-                        // Filter by status only
-                        transactionPage = transactionRepository.findByMerchantIdAndStatusEquals(
-                                        merchantId, request.getStatus(), pageable);
-                } else {
-                        // No filters
-                        transactionPage = transactionRepository.findByMerchantId(merchantId, pageable);
-                }
+                Pageable pageable = Pageable.from(page, size);
+
+                // Apply filters and get paginated results; recent ranges are served from memory
+                TransactionCriteria criteria = buildCriteria(merchantId, request);
+                boolean fromHotWindow = hotWindowStore.covers(criteria);
+                Page<TransactionMaster> transactionPage = fromHotWindow
+                                ? hotWindowStore.findPage(criteria, pageable)
+                                : transactionSearchRepository.findPage(criteria, pageable);
 
                 // Calculate summary
                 TransactionSummaryDTO summary = calculateSummary(merchantId);
@@ -133,9 +182,115 @@ public class TransactionService {
                                                 .totalPages(transactionPage.getTotalPages())
                                                 .totalElements(transactionPage.getTotalSize())
                                                 .build())
+                                .consistency(buildConsistency(fromHotWindow))
+                                .build();
+        }
+
+        private ConsistencyDTO buildConsistency(boolean fromHotWindow) {
+                if (!fromHotWindow) {
+                        return ConsistencyDTO.builder()
+                                        .source("database")
+                                        .build();
+                }
+                return ConsistencyDTO.builder()
+                                .source(HotWindowStore.SOURCE)
+                                .watermarkTxnId(hotWindowStore.getWatermarkTxnId())
+                                .watermarkAt(hotWindowStore.getWatermarkAt())
                                 .build();
         }
 
+        /**
+         * Cross-merchant filter over the recent-transaction window, answered from the bitmap indexes
+         */
+        public TransactionFilterResponse filterTransactions(TransactionFilterRequest request) {
+                if (request.getStartDate() != null && request.getEndDate() != null
+                                && request.getStartDate().isAfter(request.getEndDate())) {
+                        throw new IllegalArgumentException("startDate must be on or before endDate");
+                }
+                if (!transactionBitmapIndex.isReady()) {
+                        throw new ServiceUnavailableException("Transaction filter index is still loading");
+                }
+
+                TransactionBitmapIndex.Filter filter = new TransactionBitmapIndex.Filter(
+                                valueSet(request.getMerchantId(), String::trim),
+                                valueSet(request.getStatus(), TransactionCriteria::normalizeStatus),
+                                valueSet(request.getCardType(), TransactionCriteria::normalizeCardType),
+                                valueSet(request.getCurrency(), value -> value.trim().toUpperCase(Locale.ROOT)),
+                                request.getStartDate(),
+                                request.getEndDate());
+                if (!transactionBitmapIndex.covers(filter)) {
+                        throw new IllegalArgumentException("startDate must be on or after "
+                                        + transactionBitmapIndex.getWindowStart()
+                                        + "; the filter only covers the recent-transaction window");
+                }
+
+                int page = request.getPage() != null ? request.getPage() : 0;
+                int size = request.getSize() != null ? request.getSize() : 20;
+                long began = System.nanoTime();
+                Page<TransactionMaster> matches = transactionBitmapIndex.findPage(filter, Pageable.from(page, size));
+                long queryMicros = (System.nanoTime() - began) / 1_000;
+
+                List<TransactionResponse> transactionResponses = matches.getContent().stream()
+                                .map(this::convertToTransactionResponse)
+                                .collect(Collectors.toList());
+
+                return TransactionFilterResponse.builder()
+                                .matchCount(matches.getTotalSize())
+                                .queryMicros(queryMicros)
+                                .transactions(transactionResponses)
+                                .pagination(PaginationDTO.builder()
+                                                .page(page)
+                                                .size(size)
+                                                .totalPages(matches.getTotalPages())
+                                                .totalElements(matches.getTotalSize())
+                                                .build())
+                                .consistency(ConsistencyDTO.builder()
+                                                .source(TransactionBitmapIndex.SOURCE)
+                                                .watermarkTxnId(transactionBitmapIndex.getWatermarkTxnId())
+                                                .watermarkAt(transactionBitmapIndex.getWatermarkAt())
+                                                .build())
+                                .build();
+        }
+
+        /**
+         * Comma-separated values in the case the index stores them, as the merchant search does
+         */
+        private Set<String> valueSet(String value, UnaryOperator<String> normalizer) {
+                if (value == null || value.isBlank()) {
+                        return null;
+                }
+                return Arrays.stream(value.split(","))
+                                .filter(v -> !v.isBlank())
+                                .map(normalizer)
+                                .collect(Collectors.toSet());
+        }
+
+        private TransactionCriteria buildCriteria(String merchantId, TransactionRequest request) {
+                if (request.getStartDate() != null && request.getEndDate() != null
+                                && request.getStartDate().isAfter(request.getEndDate())) {
+                        throw new IllegalArgumentException("startDate must be on or before endDate");
+                }
+                if (request.getMinAmount() != null && request.getMaxAmount() != null
+                                && request.getMinAmount().compareTo(request.getMaxAmount()) > 0) {
+                        throw new IllegalArgumentException("minAmount must be less than or equal to maxAmount");
+                }
+
+                return TransactionCriteria.builder()
+                                .merchantId(merchantId)
+                                .startDate(request.getStartDate())
+                                .endDate(request.getEndDate())
+                                .statuses(splitValues(request.getStatus()))
+                                .cardTypes(splitValues(request.getCardType()))
+                                .minAmount(request.getMinAmount())
+                                .maxAmount(request.getMaxAmount())
+                                .currency(request.getCurrency())
+                                .build();
+        }
+
+        private List<String> splitValues(String value) {
+                return value != null ? Arrays.asList(value.split(",")) : null;
+        }
+
         private TransactionSummaryDTO calculateSummary(String merchantId) {
                 Long totalTransactions;
                 BigDecimal totalAmount;
@@ -172,7 +327,8 @@ public class TransactionService {
 
         private TransactionResponse convertToTransactionResponse(TransactionMaster transaction) {
                 // Get transaction details for this transaction
-                List<TransactionDetail> details = transactionDetailRepository.findByMasterTxnId(transaction.getTxnId());
+                List<TransactionDetail> details = transactionDetailRepository.findByMasterTxnIdAndTxnDate(transaction.getTxnId(),
+                                transaction.getTxnDate());
 
                 List<TransactionDetailDTO> detailDTOs = details.stream()
                                 .map(detail -> TransactionDetailDTO.builder()
@@ -215,6 +371,22 @@ public class TransactionService {
                 if (startDate == null) {
                         startDate = endDate.minusDays(30);
                 }
+                if (!coalescingProperties.isEnabled()) {
+                        return loadTransactionReports(startDate, endDate);
+                }
+                LocalDate start = startDate;
+                LocalDate end = endDate;
+                return reportFlights.execute(new ReportKey(start, end), () -> loadTransactionReports(start, end));
+        }
+
+        private TransactionReportsResponse loadTransactionReports(LocalDate startDate, LocalDate endDate) {
+                // Ranges inside the columnar cache are computed in memory
+                Optional<TransactionReportsResponse> cached = columnarReportService.buildReports(startDate, endDate);
+                if (cached.isPresent()) {
+                        TransactionReportsResponse response = cached.get();
+                        response.setReportPeriod(buildReportPeriod(startDate, endDate));
+                        return response;
+                }
 
                 Date sqlStartDate = Date.valueOf(startDate);
                 Date sqlEndDate = Date.valueOf(endDate);
@@ -227,9 +399,18 @@ public class TransactionService {
                                 .amountTrends(buildAmountTrends(sqlStartDate, sqlEndDate))
                                 .peakTimesHeatmap(buildPeakTimesHeatmap(sqlStartDate, sqlEndDate))
                                 .cardTypeDistribution(buildCardTypeDistribution(sqlStartDate, sqlEndDate))
+                                .consistency(buildConsistency(false))
                                 .build();
         }
 
+        public SingleFlight<?, ?> getReportFlights() {
+                return reportFlights;
+        }
+
+        public SingleFlight<?, ?> getMerchantPageFlights() {
+                return merchantPageFlights;
+        }
+
         private ReportPeriodDTO buildReportPeriod(LocalDate startDate, LocalDate endDate) {
                 return ReportPeriodDTO.builder()
                                 .start(startDate.atStartOfDay(ZoneOffset.UTC).toInstant())
@@ -239,7 +420,7 @@ public class TransactionService {
 
         private VolumeMetricsDTO buildVolumeMetrics(Date startDate, Date endDate) {
                 // Daily volume
-                List<com.payment.repository.projection.DailyVolumeProjection> dailyResults = transactionRepository
+                List<com.payment.repository.projection.DailyVolumeProjection> dailyResults = transactionReportRepository
                                 .getDailyVolume(startDate, endDate);
                 LOG.debug("Daily volume query returned {} results", dailyResults != null ? dailyResults.size() : 0);
 
@@ -251,7 +432,7 @@ public class TransactionService {
                                                 .build())
                                 .collect(Collectors.toList());
 
-                List<com.payment.repository.projection.WeeklyVolumeProjection> weeklyResults = transactionRepository
+                List<com.payment.repository.projection.WeeklyVolumeProjection> weeklyResults = transactionReportRepository
                                 .getWeeklyVolume(startDate, endDate);
                 List<WeeklyVolumeDTO> weekly = weeklyResults.stream()
                                 .map(proj -> WeeklyVolumeDTO.builder()
@@ -262,7 +443,7 @@ public class TransactionService {
                                                 .build())
                                 .collect(Collectors.toList());
 
-                List<com.payment.repository.projection.MonthlyVolumeProjection> monthlyResults = transactionRepository
+                List<com.payment.repository.projection.MonthlyVolumeProjection> monthlyResults = transactionReportRepository
                                 .getMonthlyVolume(startDate, endDate);
                 List<MonthlyVolumeDTO> monthly = monthlyResults.stream()
                                 .map(proj -> MonthlyVolumeDTO.builder()
@@ -279,12 +460,12 @@ public class TransactionService {
         }
 
         private SuccessRateMetricsDTO buildSuccessRateMetrics(Date startDate, Date endDate) {
-                Long totalTransactions = transactionRepository.getTotalTransactionCount(startDate, endDate);
+                Long totalTransactions = transactionReportRepository.getTotalTransactionCount(startDate, endDate);
                 if (totalTransactions == null || totalTransactions == 0) {
                         totalTransactions = 0L;
                 }
 
-                List<com.payment.repository.projection.StatusCountProjection> statusResults = transactionRepository
+                List<com.payment.repository.projection.StatusCountProjection> statusResults = transactionReportRepository
                                 .getTransactionsByStatus(startDate, endDate);
                 Map<String, Long> byStatus = statusResults.stream()
                                 .collect(Collectors.toMap(
@@ -308,7 +489,7 @@ public class TransactionService {
         }
 
         private AmountTrendsDTO buildAmountTrends(Date startDate, Date endDate) {
-                com.payment.repository.projection.AmountStatsProjection stats = transactionRepository
+                com.payment.repository.projection.AmountStatsProjection stats = transactionReportRepository
                                 .getAmountStatistics(startDate, endDate);
                 AmountStatsDTO overallStats = null;
                 if (stats != null) {
@@ -332,7 +513,7 @@ public class TransactionService {
                                         .build();
                 }
 
-                List<com.payment.repository.projection.DailyAmountProjection> dailyResults = transactionRepository
+                List<com.payment.repository.projection.DailyAmountProjection> dailyResults = transactionReportRepository
                                 .getDailyAverageAmount(startDate, endDate);
                 List<DailyAmountTrendDTO> dailyTrends = dailyResults.stream()
                                 .map(proj -> DailyAmountTrendDTO.builder()
@@ -351,7 +532,7 @@ public class TransactionService {
         }
 
         private PeakTimesHeatmapDTO buildPeakTimesHeatmap(Date startDate, Date endDate) {
-                List<com.payment.repository.projection.HourlyCountProjection> hourlyResults = transactionRepository
+                List<com.payment.repository.projection.HourlyCountProjection> hourlyResults = transactionReportRepository
                                 .getHourlyDistribution(startDate, endDate);
                 List<HourlyDistributionDTO> hourly = hourlyResults.stream()
                                 .map(proj -> HourlyDistributionDTO.builder()
@@ -361,7 +542,7 @@ public class TransactionService {
                                 .collect(Collectors.toList());
 
                 String[] dayNames = { "SUNDAY", "MONDAY", "TUESDAY", "WEDNESDAY", "THURSDAY", "FRIDAY", "SATURDAY" };
-                List<com.payment.repository.projection.DayOfWeekCountProjection> dowResults = transactionRepository
+                List<com.payment.repository.projection.DayOfWeekCountProjection> dowResults = transactionReportRepository
                                 .getDayOfWeekDistribution(startDate, endDate);
                 List<DayOfWeekDistributionDTO> dayOfWeek = dowResults.stream()
                                 .map(proj -> {
@@ -380,7 +561,7 @@ public class TransactionService {
         }
 
         private CardTypeDistributionDTO buildCardTypeDistribution(Date startDate, Date endDate) {
-                List<com.payment.repository.projection.CardTypeCountProjection> results = transactionRepository
+                List<com.payment.repository.projection.CardTypeCountProjection> results = transactionReportRepository
                                 .getCardTypeDistribution(startDate, endDate);
 
                 long total = results.stream()
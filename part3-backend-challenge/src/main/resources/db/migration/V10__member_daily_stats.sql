@@ -0,0 +1,112 @@
+-- ============================================================================
+-- V10: Daily transaction counts per member for the acquirer and issuer reports
+-- One row per (txn_date, member, role, status, card type) holding the number
+-- and amount of the transactions the member acquired (role 'A') or issued
+-- (role 'I'). Maintained like member_daily_settlement, but over every status,
+-- so volume, success rate and card mix of all members over a date range are
+-- a scan of at most days x members x ~40 small rows instead of the
+-- transactions themselves. A missing card type is stored as 'unknown'.
+-- ============================================================================
+
+CREATE TABLE IF NOT EXISTS operators.member_daily_stats (
+    txn_date DATE NOT NULL,
+    member_id BIGINT NOT NULL REFERENCES operators.members(member_id),
+    role CHAR(1) NOT NULL CHECK (role IN ('A', 'I')),
+    status VARCHAR(20) NOT NULL,
+    card_type VARCHAR(20) NOT NULL,
+    txn_count BIGINT NOT NULL DEFAULT 0,
+    amount DECIMAL(18,2) NOT NULL DEFAULT 0,
+    CONSTRAINT member_daily_stats_pkey PRIMARY KEY (role, txn_date, member_id, status, card_type)
+);
+
+-- Rows are upserted in key order so that concurrent statements touching the
+-- same members lock them in the same order
+CREATE OR REPLACE FUNCTION operators.member_daily_stats_apply() RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        INSERT INTO operators.member_daily_stats AS s
+               (role, txn_date, member_id, status, card_type, txn_count, amount)
+        SELECT role, txn_date, member_id, status, card_type, -COUNT(*), -SUM(amount)
+          FROM (SELECT 'A' AS role, txn_date, gp_acquirer_id AS member_id, status,
+                       COALESCE(card_type, 'unknown') AS card_type, amount
+                  FROM old_rows
+                 WHERE gp_acquirer_id IS NOT NULL
+                UNION ALL
+                SELECT 'I', txn_date, gp_issuer_id, status, COALESCE(card_type, 'unknown'), amount
+                  FROM old_rows
+                 WHERE gp_issuer_id IS NOT NULL) d
+         GROUP BY role, txn_date, member_id, status, card_type
+         ORDER BY role, txn_date, member_id, status, card_type
+        ON CONFLICT (role, txn_date, member_id, status, card_type) DO UPDATE
+           SET txn_count = s.txn_count + EXCLUDED.txn_count,
+               amount = s.amount + EXCLUDED.amount;
+    END IF;
+
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        INSERT INTO operators.member_daily_stats AS s
+               (role, txn_date, member_id, status, card_type, txn_count, amount)
+        SELECT role, txn_date, member_id, status, card_type, COUNT(*), SUM(amount)
+          FROM (SELECT 'A' AS role, txn_date, gp_acquirer_id AS member_id, status,
+                       COALESCE(card_type, 'unknown') AS card_type, amount
+                  FROM new_rows
+                 WHERE gp_acquirer_id IS NOT NULL
+                UNION ALL
+                SELECT 'I', txn_date, gp_issuer_id, status, COALESCE(card_type, 'unknown'), amount
+                  FROM new_rows
+                 WHERE gp_issuer_id IS NOT NULL) d
+         GROUP BY role, txn_date, member_id, status, card_type
+         ORDER BY role, txn_date, member_id, status, card_type
+        ON CONFLICT (role, txn_date, member_id, status, card_type) DO UPDATE
+           SET txn_count = s.txn_count + EXCLUDED.txn_count,
+               amount = s.amount + EXCLUDED.amount;
+    END IF;
+
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION operators.member_daily_stats_reset() RETURNS TRIGGER AS $$
+BEGIN
+    TRUNCATE operators.member_daily_stats;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_member_daily_stats_insert ON operators.transaction_master;
+CREATE TRIGGER trg_member_daily_stats_insert
+    AFTER INSERT ON operators.transaction_master
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION operators.member_daily_stats_apply();
+
+DROP TRIGGER IF EXISTS trg_member_daily_stats_update ON operators.transaction_master;
+CREATE TRIGGER trg_member_daily_stats_update
+    AFTER UPDATE ON operators.transaction_master
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION operators.member_daily_stats_apply();
+
+DROP TRIGGER IF EXISTS trg_member_daily_stats_delete ON operators.transaction_master;
+CREATE TRIGGER trg_member_daily_stats_delete
+    AFTER DELETE ON operators.transaction_master
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION operators.member_daily_stats_apply();
+
+DROP TRIGGER IF EXISTS trg_member_daily_stats_truncate ON operators.transaction_master;
+CREATE TRIGGER trg_member_daily_stats_truncate
+    AFTER TRUNCATE ON operators.transaction_master
+    FOR EACH STATEMENT EXECUTE FUNCTION operators.member_daily_stats_reset();
+
+-- Seed the counts for databases that already hold transactions
+INSERT INTO operators.member_daily_stats (role, txn_date, member_id, status, card_type, txn_count, amount)
+SELECT role, txn_date, member_id, status, card_type, COUNT(*), SUM(amount)
+  FROM (SELECT 'A' AS role, txn_date, gp_acquirer_id AS member_id, status,
+               COALESCE(card_type, 'unknown') AS card_type, amount
+          FROM operators.transaction_master
+         WHERE gp_acquirer_id IS NOT NULL
+        UNION ALL
+        SELECT 'I', txn_date, gp_issuer_id, status, COALESCE(card_type, 'unknown'), amount
+          FROM operators.transaction_master
+         WHERE gp_issuer_id IS NOT NULL) d
+ GROUP BY role, txn_date, member_id, status, card_type
+ON CONFLICT (role, txn_date, member_id, status, card_type) DO NOTHING;
+
+COMMENT ON TABLE operators.member_daily_stats IS 'Transaction counts and amounts per member role, day, status and card type; maintained by triggers on transaction_master';
@@ -0,0 +1,21 @@
+-- ============================================================================
+-- V11: Hourly decline snapshots
+-- Transactions and declines (status 'failed') per hour of local_txn_date_time,
+-- issuer and response code, written by the backend's DeclineSnapshotWriter
+-- from its in-memory counters. Each flush adds the counts gathered since the
+-- previous one, so several instances can write to the same rows. A transaction
+-- without an issuer is counted under issuer_id 0 and one without a response
+-- code under 'unknown'.
+-- ============================================================================
+
+CREATE TABLE IF NOT EXISTS operators.decline_hourly (
+    hour_start TIMESTAMP WITH TIME ZONE NOT NULL,
+    issuer_id BIGINT NOT NULL,
+    response_code VARCHAR(10) NOT NULL,
+    txn_count BIGINT NOT NULL DEFAULT 0,
+    decline_count BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP WITH TIME ZONE DEFAULT NOW(),
+    CONSTRAINT decline_hourly_pkey PRIMARY KEY (hour_start, issuer_id, response_code)
+);
+
+COMMENT ON TABLE operators.decline_hourly IS 'Transactions and declines per hour, issuer and response code; written by the backend from in-memory counters';
@@ -0,0 +1,72 @@
+-- ============================================================================
+-- V12: Cache invalidation notifications
+-- Every node keeps recent transactions in memory and tails new rows by
+-- txn_id, which does not see rows changed in place. Statement-level triggers
+-- send the keys of changed rows on the payment_cache_invalidation channel,
+-- delivered to every listening node when the transaction commits:
+--   t:<merchant_id>:<txn_date>   transactions of a merchant on a day changed
+--   m:<merchant_id>              a merchant changed
+-- Keys are comma separated and split over as many notifications as needed to
+-- stay under the 8000 byte payload limit. Inserts are not sent: the hot
+-- window and report cache tails re-read every txn_id they stepped over until
+-- its row commits (TxnIdGaps), so a late insert is still found. Handlers:
+--   HotWindowLoader        re-reads the merchant days from the database
+--   ColumnarReportLoader   sends reports covering the days to SQL until its
+--                          next rebuild
+--   LiveMetricsPublisher   re-totals today from the database
+-- ============================================================================
+
+CREATE OR REPLACE FUNCTION operators.notify_cache_keys(keys TEXT[]) RETURNS VOID AS $$
+BEGIN
+    PERFORM pg_notify('payment_cache_invalidation', string_agg(key, ',' ORDER BY key))
+       FROM (SELECT key, (SUM(octet_length(key) + 1) OVER (ORDER BY key)) / 7900 AS chunk
+               FROM unnest(keys) AS k(key)) c
+      GROUP BY chunk;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION operators.transaction_master_notify() RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'UPDATE' THEN
+        PERFORM operators.notify_cache_keys(ARRAY(
+            SELECT 't:' || merchant_id || ':' || txn_date FROM old_rows
+             UNION
+            SELECT 't:' || merchant_id || ':' || txn_date FROM new_rows));
+    ELSE
+        PERFORM operators.notify_cache_keys(ARRAY(
+            SELECT DISTINCT 't:' || merchant_id || ':' || txn_date FROM old_rows));
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION operators.merchants_notify() RETURNS TRIGGER AS $$
+BEGIN
+    PERFORM operators.notify_cache_keys(ARRAY(SELECT DISTINCT 'm:' || merchant_id FROM old_rows));
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_transaction_master_notify_update ON operators.transaction_master;
+CREATE TRIGGER trg_transaction_master_notify_update
+    AFTER UPDATE ON operators.transaction_master
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION operators.transaction_master_notify();
+
+DROP TRIGGER IF EXISTS trg_transaction_master_notify_delete ON operators.transaction_master;
+CREATE TRIGGER trg_transaction_master_notify_delete
+    AFTER DELETE ON operators.transaction_master
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION operators.transaction_master_notify();
+
+DROP TRIGGER IF EXISTS trg_merchants_notify_update ON operators.merchants;
+CREATE TRIGGER trg_merchants_notify_update
+    AFTER UPDATE ON operators.merchants
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION operators.merchants_notify();
+
+DROP TRIGGER IF EXISTS trg_merchants_notify_delete ON operators.merchants;
+CREATE TRIGGER trg_merchants_notify_delete
+    AFTER DELETE ON operators.merchants
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION operators.merchants_notify();
@@ -0,0 +1,22 @@
+-- ============================================================================
+-- V13: Ingestion dead letters
+-- A journaled request has been acknowledged (202) before it reaches the
+-- database. When the database then rejects its data (a check or foreign key
+-- violation, or a txn_date without a partition), the journal record is kept
+-- here instead of being dropped, in the same transaction that moves the
+-- journal checkpoint past it. payload is the journal record as written
+-- (JournalCodec); once the cause is fixed it can be decoded and submitted
+-- again.
+-- ============================================================================
+
+CREATE TABLE IF NOT EXISTS operators.ingest_dead_letter (
+    journal_id        VARCHAR(64) NOT NULL,
+    sequence          BIGINT      NOT NULL,
+    transaction_count INTEGER     NOT NULL,
+    payload           BYTEA       NOT NULL,
+    error             TEXT        NOT NULL,
+    rejected_at       TIMESTAMPTZ NOT NULL DEFAULT now(),
+    CONSTRAINT ingest_dead_letter_pkey PRIMARY KEY (journal_id, sequence)
+);
+
+COMMENT ON TABLE operators.ingest_dead_letter IS 'Acknowledged ingestion journal records the database rejected; written by the backend''s group-commit pipeline';
@@ -0,0 +1,167 @@
+-- ============================================================================
+-- V1: Baseline schema
+-- Idempotent copy of the tables the API depends on. Databases initialised from
+-- part1-database-challenge/schema.sql are baselined at version 0 and this
+-- script only creates what is missing (e.g. the merchants table).
+-- ============================================================================
+
+CREATE SCHEMA IF NOT EXISTS operators;
+
+CREATE EXTENSION IF NOT EXISTS "pg_trgm";
+
+CREATE TABLE IF NOT EXISTS operators.members (
+    member_id BIGSERIAL PRIMARY KEY,
+    member_name VARCHAR(255) NOT NULL,
+    member_type VARCHAR(20) NOT NULL CHECK (member_type IN ('acquirer', 'issuer', 'both')),
+    member_code VARCHAR(20) UNIQUE NOT NULL,
+    country VARCHAR(3) NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'active',
+    created_at TIMESTAMP WITH TIME ZONE DEFAULT NOW(),
+    updated_at TIMESTAMP WITH TIME ZONE DEFAULT NOW()
+);
+
+CREATE TABLE IF NOT EXISTS operators.merchants (
+    merchant_id VARCHAR(50) PRIMARY KEY,
+    merchant_name VARCHAR(255) NOT NULL,
+    business_name VARCHAR(255) NOT NULL,
+    email VARCHAR(255) NOT NULL,
+    phone VARCHAR(50) NOT NULL,
+    business_type VARCHAR(50) NOT NULL,
+    tax_id VARCHAR(50),
+    registration_number VARCHAR(50),
+    is_active BOOLEAN NOT NULL DEFAULT TRUE,
+    created_at TIMESTAMP WITH TIME ZONE DEFAULT NOW(),
+    updated_at TIMESTAMP WITH TIME ZONE DEFAULT NOW()
+);
+
+CREATE TABLE IF NOT EXISTS operators.transaction_master (
+    txn_id BIGSERIAL PRIMARY KEY,
+    merchant_id VARCHAR(50) NOT NULL,
+    gp_acquirer_id BIGINT REFERENCES operators.members(member_id),
+    gp_issuer_id BIGINT REFERENCES operators.members(member_id),
+    txn_date DATE NOT NULL,
+    local_txn_date_time TIMESTAMP WITH TIME ZONE NOT NULL,
+    amount DECIMAL(15,2) NOT NULL,
+    currency VARCHAR(3) NOT NULL DEFAULT 'USD',
+    status VARCHAR(20) NOT NULL CHECK (status IN ('pending', 'completed', 'failed', 'reversed')),
+    card_type VARCHAR(20),
+    card_last4 VARCHAR(4),
+    auth_code VARCHAR(20),
+    response_code VARCHAR(10),
+    created_at TIMESTAMP WITH TIME ZONE DEFAULT NOW()
+);
+
+CREATE TABLE IF NOT EXISTS operators.transaction_details (
+    txn_detail_id BIGSERIAL PRIMARY KEY,
+    master_txn_id BIGINT NOT NULL REFERENCES operators.transaction_master(txn_id),
+    detail_type VARCHAR(50) NOT NULL CHECK (detail_type IN ('fee', 'tax', 'adjustment', 'refund', 'chargeback')),
+    amount DECIMAL(15,2) NOT NULL,
+    currency VARCHAR(3) NOT NULL DEFAULT 'USD',
+    description TEXT,
+    local_txn_date_time TIMESTAMP WITH TIME ZONE NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE DEFAULT NOW()
+);
+
+CREATE INDEX IF NOT EXISTS idx_transaction_details_master_txn_id
+    ON operators.transaction_details(master_txn_id);
+
+-- ============================================================================
+-- Per-merchant aggregate (see schema.sql for the rationale)
+-- ============================================================================
+
+CREATE TABLE IF NOT EXISTS operators.merchant_txn_stats (
+    merchant_id VARCHAR(50) PRIMARY KEY,
+    txn_count BIGINT NOT NULL DEFAULT 0,
+    completed_amount DECIMAL(18,2) NOT NULL DEFAULT 0,
+    last_txn_date DATE,
+    updated_at TIMESTAMP WITH TIME ZONE DEFAULT NOW()
+);
+
+CREATE OR REPLACE FUNCTION operators.merchant_txn_stats_apply() RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        UPDATE operators.merchant_txn_stats s
+           SET txn_count = s.txn_count - d.txn_count,
+               completed_amount = s.completed_amount - d.completed_amount,
+               updated_at = NOW()
+          FROM (SELECT merchant_id,
+                       COUNT(*) AS txn_count,
+                       COALESCE(SUM(amount) FILTER (WHERE status = 'completed'), 0) AS completed_amount
+                  FROM old_rows
+                 GROUP BY merchant_id) d
+         WHERE s.merchant_id = d.merchant_id;
+
+        -- The newest row may have been deleted or moved to another date: take
+        -- the newest date left (an UPDATE's new rows are already in the table)
+        UPDATE operators.merchant_txn_stats s
+           SET last_txn_date = (SELECT MAX(m.txn_date)
+                                  FROM operators.transaction_master m
+                                 WHERE m.merchant_id = s.merchant_id)
+          FROM (SELECT merchant_id, MAX(txn_date) AS txn_date
+                  FROM old_rows
+                 GROUP BY merchant_id) d
+         WHERE s.merchant_id = d.merchant_id
+           AND d.txn_date >= s.last_txn_date;
+    END IF;
+
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        INSERT INTO operators.merchant_txn_stats AS s
+               (merchant_id, txn_count, completed_amount, last_txn_date, updated_at)
+        SELECT merchant_id,
+               COUNT(*),
+               COALESCE(SUM(amount) FILTER (WHERE status = 'completed'), 0),
+               MAX(txn_date),
+               NOW()
+          FROM new_rows
+         GROUP BY merchant_id
+        ON CONFLICT (merchant_id) DO UPDATE
+           SET txn_count = s.txn_count + EXCLUDED.txn_count,
+               completed_amount = s.completed_amount + EXCLUDED.completed_amount,
+               last_txn_date = GREATEST(s.last_txn_date, EXCLUDED.last_txn_date),
+               updated_at = NOW();
+    END IF;
+
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION operators.merchant_txn_stats_reset() RETURNS TRIGGER AS $$
+BEGIN
+    TRUNCATE operators.merchant_txn_stats;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_merchant_txn_stats_insert ON operators.transaction_master;
+CREATE TRIGGER trg_merchant_txn_stats_insert
+    AFTER INSERT ON operators.transaction_master
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION operators.merchant_txn_stats_apply();
+
+DROP TRIGGER IF EXISTS trg_merchant_txn_stats_update ON operators.transaction_master;
+CREATE TRIGGER trg_merchant_txn_stats_update
+    AFTER UPDATE ON operators.transaction_master
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION operators.merchant_txn_stats_apply();
+
+DROP TRIGGER IF EXISTS trg_merchant_txn_stats_delete ON operators.transaction_master;
+CREATE TRIGGER trg_merchant_txn_stats_delete
+    AFTER DELETE ON operators.transaction_master
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION operators.merchant_txn_stats_apply();
+
+DROP TRIGGER IF EXISTS trg_merchant_txn_stats_truncate ON operators.transaction_master;
+CREATE TRIGGER trg_merchant_txn_stats_truncate
+    AFTER TRUNCATE ON operators.transaction_master
+    FOR EACH STATEMENT EXECUTE FUNCTION operators.merchant_txn_stats_reset();
+
+-- Seed the aggregate for databases that already hold transactions
+INSERT INTO operators.merchant_txn_stats (merchant_id, txn_count, completed_amount, last_txn_date, updated_at)
+SELECT merchant_id,
+       COUNT(*),
+       COALESCE(SUM(amount) FILTER (WHERE status = 'completed'), 0),
+       MAX(txn_date),
+       NOW()
+  FROM operators.transaction_master
+ GROUP BY merchant_id
+ON CONFLICT (merchant_id) DO NOTHING;
@@ -0,0 +1,60 @@
+-- ============================================================================
+-- V2: Composite indexes for the API's access paths
+-- Each index names the repository queries it serves. RepositoryQueryPlanTest
+-- runs EXPLAIN for every one of those query shapes.
+-- ============================================================================
+
+-- TransactionSearchRepository.findPage and its count query (every criteria
+-- shape), TransactionSearchRepository.findByMerchantDays and
+-- TransactionRepository.countByMerchantId:
+--   merchant_id = ? [AND txn_date >= ?] [AND txn_date <= ?] [AND ...]
+--   ORDER BY txn_date DESC, txn_id DESC LIMIT ? OFFSET ?
+-- The key order returns rows pre-sorted so the LIMIT stops early; status and
+-- amount are carried so the remaining filters are checked without a heap visit
+-- in index-only plans.
+CREATE INDEX IF NOT EXISTS idx_txn_master_merchant_date
+    ON operators.transaction_master (merchant_id, txn_date DESC, txn_id DESC)
+    INCLUDE (status, amount);
+
+-- TransactionRepository.countByMerchantIdAndStatus, findDistinctStatusByMerchantId
+-- and sumAmountByMerchantId (the merchant page summary), and
+-- TransactionSearchRepository shapes with a status filter:
+--   merchant_id = ? AND status = ANY(?) [AND txn_date >= ?] [AND txn_date <= ?]
+CREATE INDEX IF NOT EXISTS idx_txn_master_merchant_status_date
+    ON operators.transaction_master (merchant_id, status, txn_date DESC)
+    INCLUDE (amount);
+
+-- Report queries (txn_date BETWEEN ? AND ?, grouped by date/status/card/hour):
+-- every referenced column is covered so reports run as index-only scans
+CREATE INDEX IF NOT EXISTS idx_txn_master_date_covering
+    ON operators.transaction_master (txn_date)
+    INCLUDE (amount, status, card_type, local_txn_date_time);
+
+-- Superseded by the composite indexes above; dropping them saves a write per insert
+DROP INDEX IF EXISTS operators.idx_transaction_master_merchant_id;
+DROP INDEX IF EXISTS operators.idx_transaction_master_txn_date;
+
+-- Redundant with the members primary key
+DROP INDEX IF EXISTS operators.idx_members_member_id;
+
+-- MerchantRepository.findByMerchantNameContainsIgnoreCase (+ AndIsActive / AndBusinessType):
+--   LOWER(merchant_name) LIKE '%' || ? || '%'
+CREATE INDEX IF NOT EXISTS idx_merchants_name_trgm
+    ON operators.merchants USING gin (LOWER(merchant_name) gin_trgm_ops);
+
+-- MerchantRepository.findAll(Pageable) default sort (createdAt DESC)
+CREATE INDEX IF NOT EXISTS idx_merchants_created_at
+    ON operators.merchants (created_at DESC);
+
+-- MerchantRepository.findByIsActive ordered by createdAt
+CREATE INDEX IF NOT EXISTS idx_merchants_active_created_at
+    ON operators.merchants (is_active, created_at DESC);
+
+-- MerchantRepository.findByBusinessType / findByBusinessTypeAndIsActive
+CREATE INDEX IF NOT EXISTS idx_merchants_business_type_active
+    ON operators.merchants (business_type, is_active);
+
+-- Duplicate checks in MerchantService.createMerchant
+CREATE INDEX IF NOT EXISTS idx_merchants_email ON operators.merchants (email);
+CREATE INDEX IF NOT EXISTS idx_merchants_tax_id ON operators.merchants (tax_id);
+CREATE INDEX IF NOT EXISTS idx_merchants_registration_number ON operators.merchants (registration_number);
@@ -0,0 +1,237 @@
+-- ============================================================================
+-- V3: Monthly range partitioning of transaction_master and transaction_details
+-- Both tables are partitioned on txn_date with identical monthly bounds so a
+-- detail row always lives in the same month as its master. transaction_details
+-- gains txn_date to make that possible; the foreign key is (master_txn_id,
+-- txn_date) because keys on a partitioned table must include the partition key.
+-- Future partitions are pre-created and expired ones detached by the backend's
+-- PartitionManager through the functions defined below.
+-- ============================================================================
+
+-- Keep the existing tables (and their sequences) aside while the data is copied
+ALTER TABLE operators.transaction_details RENAME TO transaction_details_legacy;
+ALTER TABLE operators.transaction_details_legacy RENAME CONSTRAINT transaction_details_pkey TO transaction_details_legacy_pkey;
+ALTER TABLE operators.transaction_master RENAME TO transaction_master_legacy;
+ALTER TABLE operators.transaction_master_legacy RENAME CONSTRAINT transaction_master_pkey TO transaction_master_legacy_pkey;
+
+CREATE TABLE operators.transaction_master (
+    txn_id BIGINT NOT NULL DEFAULT nextval('operators.transaction_master_txn_id_seq'),
+    merchant_id VARCHAR(50) NOT NULL,
+    gp_acquirer_id BIGINT REFERENCES operators.members(member_id),
+    gp_issuer_id BIGINT REFERENCES operators.members(member_id),
+    txn_date DATE NOT NULL,
+    local_txn_date_time TIMESTAMP WITH TIME ZONE NOT NULL,
+    amount DECIMAL(15,2) NOT NULL,
+    currency VARCHAR(3) NOT NULL DEFAULT 'USD',
+    status VARCHAR(20) NOT NULL CHECK (status IN ('pending', 'completed', 'failed', 'reversed')),
+    card_type VARCHAR(20),
+    card_last4 VARCHAR(4),
+    auth_code VARCHAR(20),
+    response_code VARCHAR(10),
+    created_at TIMESTAMP WITH TIME ZONE DEFAULT NOW(),
+    CONSTRAINT transaction_master_pkey PRIMARY KEY (txn_id, txn_date)
+) PARTITION BY RANGE (txn_date);
+
+CREATE TABLE operators.transaction_details (
+    txn_detail_id BIGINT NOT NULL DEFAULT nextval('operators.transaction_details_txn_detail_id_seq'),
+    master_txn_id BIGINT NOT NULL,
+    txn_date DATE NOT NULL,
+    detail_type VARCHAR(50) NOT NULL CHECK (detail_type IN ('fee', 'tax', 'adjustment', 'refund', 'chargeback')),
+    amount DECIMAL(15,2) NOT NULL,
+    currency VARCHAR(3) NOT NULL DEFAULT 'USD',
+    description TEXT,
+    local_txn_date_time TIMESTAMP WITH TIME ZONE NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE DEFAULT NOW(),
+    CONSTRAINT transaction_details_pkey PRIMARY KEY (txn_detail_id, txn_date),
+    CONSTRAINT transaction_details_master_fk FOREIGN KEY (master_txn_id, txn_date)
+        REFERENCES operators.transaction_master (txn_id, txn_date)
+) PARTITION BY RANGE (txn_date);
+
+-- ============================================================================
+-- Partition maintenance
+-- Partitions are named <table>_pYYYY_MM and cover [first of month, first of
+-- next month). Both functions are idempotent.
+-- ============================================================================
+
+CREATE OR REPLACE FUNCTION operators.create_transaction_partition(p_month DATE) RETURNS BOOLEAN AS $$
+DECLARE
+    v_from DATE := date_trunc('month', p_month)::date;
+    v_to DATE := (date_trunc('month', p_month) + INTERVAL '1 month')::date;
+    v_suffix TEXT := to_char(date_trunc('month', p_month), '"p"YYYY_MM');
+    v_created BOOLEAN := FALSE;
+BEGIN
+    IF to_regclass('operators.transaction_master_' || v_suffix) IS NULL THEN
+        EXECUTE format('CREATE TABLE operators.%I PARTITION OF operators.transaction_master FOR VALUES FROM (%L) TO (%L)',
+                       'transaction_master_' || v_suffix, v_from, v_to);
+        v_created := TRUE;
+    END IF;
+
+    IF to_regclass('operators.transaction_details_' || v_suffix) IS NULL THEN
+        EXECUTE format('CREATE TABLE operators.%I PARTITION OF operators.transaction_details FOR VALUES FROM (%L) TO (%L)',
+                       'transaction_details_' || v_suffix, v_from, v_to);
+        v_created := TRUE;
+    END IF;
+
+    RETURN v_created;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION operators.create_transaction_partitions(p_from DATE, p_to DATE) RETURNS INTEGER AS $$
+DECLARE
+    v_month DATE := date_trunc('month', p_from)::date;
+    v_created INTEGER := 0;
+BEGIN
+    WHILE v_month <= p_to LOOP
+        IF operators.create_transaction_partition(v_month) THEN
+            v_created := v_created + 1;
+        END IF;
+        v_month := (v_month + INTERVAL '1 month')::date;
+    END LOOP;
+    RETURN v_created;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Detaches the month from both tables, details first so the master partition is
+-- no longer referenced. The detached tables are left in place for archiving;
+-- the copied foreign key on the detached details table is dropped because it
+-- would still point at the partitioned master. A detach fires no DELETE
+-- trigger, so the month's rows are taken out of merchant_txn_stats here, in the
+-- same transaction, and last_txn_date falls back to the newest month still
+-- attached; the stats keep matching the live tables.
+CREATE OR REPLACE FUNCTION operators.detach_transaction_partition(p_month DATE) RETURNS BOOLEAN AS $$
+DECLARE
+    v_suffix TEXT := to_char(date_trunc('month', p_month), '"p"YYYY_MM');
+    v_details REGCLASS := to_regclass('operators.transaction_details_' || v_suffix);
+    v_master REGCLASS := to_regclass('operators.transaction_master_' || v_suffix);
+    v_from DATE := date_trunc('month', p_month)::date;
+    v_to DATE := (date_trunc('month', p_month) + INTERVAL '1 month')::date;
+    v_constraint RECORD;
+    v_detached BOOLEAN := FALSE;
+BEGIN
+    IF v_details IS NOT NULL AND EXISTS (SELECT 1 FROM pg_inherits WHERE inhrelid = v_details) THEN
+        EXECUTE format('ALTER TABLE operators.transaction_details DETACH PARTITION %s', v_details);
+        FOR v_constraint IN
+            SELECT conname FROM pg_constraint WHERE conrelid = v_details AND contype = 'f'
+        LOOP
+            EXECUTE format('ALTER TABLE %s DROP CONSTRAINT %I', v_details, v_constraint.conname);
+        END LOOP;
+        v_detached := TRUE;
+    END IF;
+
+    IF v_master IS NOT NULL AND EXISTS (SELECT 1 FROM pg_inherits WHERE inhrelid = v_master) THEN
+        EXECUTE format('ALTER TABLE operators.transaction_master DETACH PARTITION %s', v_master);
+
+        -- Nothing reaches the detached table through the parent any more, so
+        -- these are exactly the rows that left transaction_master
+        EXECUTE format(
+            'UPDATE operators.merchant_txn_stats s
+                SET txn_count = s.txn_count - d.txn_count,
+                    completed_amount = s.completed_amount - d.completed_amount,
+                    updated_at = NOW()
+               FROM (SELECT merchant_id,
+                            COUNT(*) AS txn_count,
+                            COALESCE(SUM(amount) FILTER (WHERE status = ''completed''), 0) AS completed_amount
+                       FROM %s
+                      GROUP BY merchant_id) d
+              WHERE s.merchant_id = d.merchant_id', v_master);
+
+        UPDATE operators.merchant_txn_stats s
+           SET last_txn_date = (SELECT MAX(m.txn_date)
+                                  FROM operators.transaction_master m
+                                 WHERE m.merchant_id = s.merchant_id),
+               updated_at = NOW()
+         WHERE s.last_txn_date >= v_from
+           AND s.last_txn_date < v_to;
+
+        v_detached := TRUE;
+    END IF;
+
+    RETURN v_detached;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Cover everything already stored, including rows dated in the future, plus the
+-- next three months
+SELECT operators.create_transaction_partitions(
+    LEAST(COALESCE((SELECT MIN(txn_date) FROM operators.transaction_master_legacy), CURRENT_DATE), CURRENT_DATE),
+    GREATEST(COALESCE((SELECT MAX(txn_date) FROM operators.transaction_master_legacy), CURRENT_DATE),
+             (CURRENT_DATE + INTERVAL '3 months')::date));
+
+-- ============================================================================
+-- Data copy
+-- The merchant_txn_stats triggers are attached afterwards: the aggregate
+-- already accounts for these rows.
+-- ============================================================================
+
+INSERT INTO operators.transaction_master (txn_id, merchant_id, gp_acquirer_id, gp_issuer_id, txn_date,
+                                          local_txn_date_time, amount, currency, status, card_type, card_last4,
+                                          auth_code, response_code, created_at)
+SELECT txn_id, merchant_id, gp_acquirer_id, gp_issuer_id, txn_date,
+       local_txn_date_time, amount, currency, status, card_type, card_last4,
+       auth_code, response_code, created_at
+  FROM operators.transaction_master_legacy;
+
+INSERT INTO operators.transaction_details (txn_detail_id, master_txn_id, txn_date, detail_type, amount, currency,
+                                           description, local_txn_date_time, created_at)
+SELECT d.txn_detail_id, d.master_txn_id, m.txn_date, d.detail_type, d.amount, d.currency,
+       d.description, d.local_txn_date_time, d.created_at
+  FROM operators.transaction_details_legacy d
+  JOIN operators.transaction_master_legacy m ON m.txn_id = d.master_txn_id;
+
+-- Hand the sequences over before the legacy tables go
+ALTER SEQUENCE operators.transaction_master_txn_id_seq OWNED BY NONE;
+ALTER SEQUENCE operators.transaction_details_txn_detail_id_seq OWNED BY NONE;
+
+DROP TABLE operators.transaction_details_legacy;
+DROP TABLE operators.transaction_master_legacy;
+
+ALTER SEQUENCE operators.transaction_master_txn_id_seq OWNED BY operators.transaction_master.txn_id;
+ALTER SEQUENCE operators.transaction_details_txn_detail_id_seq OWNED BY operators.transaction_details.txn_detail_id;
+
+-- ============================================================================
+-- Indexes (V2 access paths, now created per partition through the parent)
+-- ============================================================================
+
+CREATE INDEX idx_txn_master_merchant_date
+    ON operators.transaction_master (merchant_id, txn_date DESC, txn_id DESC)
+    INCLUDE (status, amount);
+
+CREATE INDEX idx_txn_master_merchant_status_date
+    ON operators.transaction_master (merchant_id, status, txn_date DESC)
+    INCLUDE (amount);
+
+CREATE INDEX idx_txn_master_date_covering
+    ON operators.transaction_master (txn_date)
+    INCLUDE (amount, status, card_type, local_txn_date_time);
+
+-- TransactionDetailRepository.findByMasterTxnIdAndTxnDate / findByMasterTxnIdInList
+CREATE INDEX idx_transaction_details_master_txn_id
+    ON operators.transaction_details (master_txn_id, txn_date);
+
+-- ============================================================================
+-- merchant_txn_stats triggers (statement-level triggers with transition tables
+-- are supported on the partitioned parent)
+-- ============================================================================
+
+CREATE TRIGGER trg_merchant_txn_stats_insert
+    AFTER INSERT ON operators.transaction_master
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION operators.merchant_txn_stats_apply();
+
+CREATE TRIGGER trg_merchant_txn_stats_update
+    AFTER UPDATE ON operators.transaction_master
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION operators.merchant_txn_stats_apply();
+
+CREATE TRIGGER trg_merchant_txn_stats_delete
+    AFTER DELETE ON operators.transaction_master
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION operators.merchant_txn_stats_apply();
+
+CREATE TRIGGER trg_merchant_txn_stats_truncate
+    AFTER TRUNCATE ON operators.transaction_master
+    FOR EACH STATEMENT EXECUTE FUNCTION operators.merchant_txn_stats_reset();
+
+COMMENT ON TABLE operators.transaction_master IS 'Main transaction records - header level, partitioned monthly on txn_date';
+COMMENT ON TABLE operators.transaction_details IS 'Transaction detail records - partitioned monthly on txn_date alongside transaction_master';
+COMMENT ON COLUMN operators.transaction_details.txn_date IS 'Copy of the master txn_date; partition key and part of the master foreign key';
@@ -0,0 +1,58 @@
+-- ============================================================================
+-- V5: Natural key for idempotent ingestion
+-- Acquirer feeds redeliver transactions. A transaction is identified by
+-- (merchant_id, auth_code, local_txn_date_time, amount); txn_date joins the key
+-- because unique indexes on a partitioned table must include the partition
+-- key. Rows without an auth code have no natural key (NULLs never conflict).
+-- The ingestion path checks its Bloom filter first and only probes this index
+-- on a possible hit; ON CONFLICT DO NOTHING against it closes the race
+-- between concurrent batches.
+-- ============================================================================
+
+-- Redeliveries already stored: one copy of each key stays, preferring one that
+-- has left 'pending' and then the first one stored (lowest txn_id). The other
+-- copies are moved, with their details, into the quarantine tables below
+-- rather than deleted, so they can be reviewed and restored; kept_txn_id names
+-- the copy that stayed. The delete trigger takes them out of merchant_txn_stats.
+CREATE TABLE operators.transaction_master_quarantine (LIKE operators.transaction_master);
+ALTER TABLE operators.transaction_master_quarantine
+    ADD COLUMN kept_txn_id BIGINT NOT NULL,
+    ADD COLUMN quarantined_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW();
+
+CREATE TABLE operators.transaction_details_quarantine (LIKE operators.transaction_details);
+ALTER TABLE operators.transaction_details_quarantine
+    ADD COLUMN quarantined_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW();
+
+CREATE TEMPORARY TABLE duplicate_transactions ON COMMIT DROP AS
+SELECT txn_id, txn_date, kept_txn_id
+  FROM (SELECT txn_id, txn_date,
+               ROW_NUMBER() OVER copies AS copy,
+               FIRST_VALUE(txn_id) OVER copies AS kept_txn_id
+          FROM operators.transaction_master
+         WHERE auth_code IS NOT NULL
+        WINDOW copies AS (PARTITION BY merchant_id, auth_code, local_txn_date_time, amount, txn_date
+                          ORDER BY status = 'pending', txn_id)) ranked
+ WHERE copy > 1;
+
+INSERT INTO operators.transaction_master_quarantine
+SELECT m.*, x.kept_txn_id, NOW()
+  FROM operators.transaction_master m
+  JOIN duplicate_transactions x ON m.txn_id = x.txn_id AND m.txn_date = x.txn_date;
+
+INSERT INTO operators.transaction_details_quarantine
+SELECT d.*, NOW()
+  FROM operators.transaction_details d
+  JOIN duplicate_transactions x ON d.master_txn_id = x.txn_id AND d.txn_date = x.txn_date;
+
+DELETE FROM operators.transaction_details d
+ USING duplicate_transactions x
+ WHERE d.master_txn_id = x.txn_id
+   AND d.txn_date = x.txn_date;
+
+DELETE FROM operators.transaction_master m
+ USING duplicate_transactions x
+ WHERE m.txn_id = x.txn_id
+   AND m.txn_date = x.txn_date;
+
+CREATE UNIQUE INDEX idx_txn_master_natural_key
+    ON operators.transaction_master (merchant_id, auth_code, local_txn_date_time, amount, txn_date);
@@ -0,0 +1,14 @@
+-- ============================================================================
+-- V6: Ingestion journal checkpoint
+-- With the ingestion journal enabled, requests are acknowledged once they are
+-- on local disk and written here later. Each journal records the highest
+-- sequence whose records are committed, in the same transaction as the rows
+-- themselves, so replay after a crash resumes exactly after the last commit.
+-- journal_id is generated when a journal directory is first created.
+-- ============================================================================
+
+CREATE TABLE IF NOT EXISTS operators.ingest_journal_checkpoint (
+    journal_id  VARCHAR(64) PRIMARY KEY,
+    sequence    BIGINT      NOT NULL,
+    updated_at  TIMESTAMPTZ NOT NULL DEFAULT now()
+);
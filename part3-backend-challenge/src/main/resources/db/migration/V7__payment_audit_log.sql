@@ -0,0 +1,22 @@
+-- ============================================================================
+-- V7: Payment audit log
+-- One row per status change made by settlement, written in batches by the
+-- asynchronous audit writer. Append-only: rows are never updated, and id
+-- order is write order.
+-- ============================================================================
+
+CREATE TABLE IF NOT EXISTS operators.payment_audit_log (
+    id           BIGSERIAL     PRIMARY KEY,
+    txn_id       BIGINT        NOT NULL,
+    txn_date     DATE          NOT NULL,
+    merchant_id  VARCHAR(50)   NOT NULL,
+    from_status  VARCHAR(20)   NOT NULL,
+    to_status    VARCHAR(20)   NOT NULL,
+    amount       NUMERIC(15,2),
+    detail       TEXT,
+    occurred_at  TIMESTAMPTZ   NOT NULL,
+    recorded_at  TIMESTAMPTZ   NOT NULL DEFAULT now()
+);
+
+CREATE INDEX IF NOT EXISTS idx_payment_audit_log_txn
+    ON operators.payment_audit_log (txn_id);
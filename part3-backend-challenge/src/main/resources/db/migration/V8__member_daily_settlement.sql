@@ -0,0 +1,122 @@
+-- ============================================================================
+-- V8: Daily settlement positions per member
+-- One row per (settlement_date, member, currency) with the completed
+-- transactions the member acquired (amounts it receives) and issued (amounts
+-- it pays). Maintained like merchant_txn_stats: statement-level triggers on
+-- transaction_master apply the completed rows of each statement as deltas, so
+-- a settlement report reads a few hundred rows instead of aggregating the
+-- day's transactions. settlement_date is txn_date.
+-- ============================================================================
+
+CREATE TABLE IF NOT EXISTS operators.member_daily_settlement (
+    settlement_date DATE NOT NULL,
+    member_id BIGINT NOT NULL REFERENCES operators.members(member_id),
+    currency VARCHAR(3) NOT NULL,
+    acquired_count BIGINT NOT NULL DEFAULT 0,
+    acquired_amount DECIMAL(18,2) NOT NULL DEFAULT 0,
+    issued_count BIGINT NOT NULL DEFAULT 0,
+    issued_amount DECIMAL(18,2) NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP WITH TIME ZONE DEFAULT NOW(),
+    CONSTRAINT member_daily_settlement_pkey PRIMARY KEY (settlement_date, member_id, currency)
+);
+
+-- Rows are upserted in key order so that concurrent statements touching the
+-- same members lock them in the same order
+CREATE OR REPLACE FUNCTION operators.member_daily_settlement_apply() RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        INSERT INTO operators.member_daily_settlement AS s
+               (settlement_date, member_id, currency, acquired_count, acquired_amount, issued_count, issued_amount,
+                updated_at)
+        SELECT txn_date, member_id, currency,
+               -SUM(acquired), -SUM(acquired * amount), -SUM(issued), -SUM(issued * amount), NOW()
+          FROM (SELECT txn_date, gp_acquirer_id AS member_id, currency, amount, 1 AS acquired, 0 AS issued
+                  FROM old_rows
+                 WHERE status = 'completed' AND gp_acquirer_id IS NOT NULL
+                UNION ALL
+                SELECT txn_date, gp_issuer_id, currency, amount, 0, 1
+                  FROM old_rows
+                 WHERE status = 'completed' AND gp_issuer_id IS NOT NULL) d
+         GROUP BY txn_date, member_id, currency
+         ORDER BY txn_date, member_id, currency
+        ON CONFLICT (settlement_date, member_id, currency) DO UPDATE
+           SET acquired_count = s.acquired_count + EXCLUDED.acquired_count,
+               acquired_amount = s.acquired_amount + EXCLUDED.acquired_amount,
+               issued_count = s.issued_count + EXCLUDED.issued_count,
+               issued_amount = s.issued_amount + EXCLUDED.issued_amount,
+               updated_at = NOW();
+    END IF;
+
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        INSERT INTO operators.member_daily_settlement AS s
+               (settlement_date, member_id, currency, acquired_count, acquired_amount, issued_count, issued_amount,
+                updated_at)
+        SELECT txn_date, member_id, currency,
+               SUM(acquired), SUM(acquired * amount), SUM(issued), SUM(issued * amount), NOW()
+          FROM (SELECT txn_date, gp_acquirer_id AS member_id, currency, amount, 1 AS acquired, 0 AS issued
+                  FROM new_rows
+                 WHERE status = 'completed' AND gp_acquirer_id IS NOT NULL
+                UNION ALL
+                SELECT txn_date, gp_issuer_id, currency, amount, 0, 1
+                  FROM new_rows
+                 WHERE status = 'completed' AND gp_issuer_id IS NOT NULL) d
+         GROUP BY txn_date, member_id, currency
+         ORDER BY txn_date, member_id, currency
+        ON CONFLICT (settlement_date, member_id, currency) DO UPDATE
+           SET acquired_count = s.acquired_count + EXCLUDED.acquired_count,
+               acquired_amount = s.acquired_amount + EXCLUDED.acquired_amount,
+               issued_count = s.issued_count + EXCLUDED.issued_count,
+               issued_amount = s.issued_amount + EXCLUDED.issued_amount,
+               updated_at = NOW();
+    END IF;
+
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION operators.member_daily_settlement_reset() RETURNS TRIGGER AS $$
+BEGIN
+    TRUNCATE operators.member_daily_settlement;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_member_daily_settlement_insert ON operators.transaction_master;
+CREATE TRIGGER trg_member_daily_settlement_insert
+    AFTER INSERT ON operators.transaction_master
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION operators.member_daily_settlement_apply();
+
+DROP TRIGGER IF EXISTS trg_member_daily_settlement_update ON operators.transaction_master;
+CREATE TRIGGER trg_member_daily_settlement_update
+    AFTER UPDATE ON operators.transaction_master
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION operators.member_daily_settlement_apply();
+
+DROP TRIGGER IF EXISTS trg_member_daily_settlement_delete ON operators.transaction_master;
+CREATE TRIGGER trg_member_daily_settlement_delete
+    AFTER DELETE ON operators.transaction_master
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION operators.member_daily_settlement_apply();
+
+DROP TRIGGER IF EXISTS trg_member_daily_settlement_truncate ON operators.transaction_master;
+CREATE TRIGGER trg_member_daily_settlement_truncate
+    AFTER TRUNCATE ON operators.transaction_master
+    FOR EACH STATEMENT EXECUTE FUNCTION operators.member_daily_settlement_reset();
+
+-- Seed the positions for databases that already hold transactions
+INSERT INTO operators.member_daily_settlement
+       (settlement_date, member_id, currency, acquired_count, acquired_amount, issued_count, issued_amount, updated_at)
+SELECT txn_date, member_id, currency,
+       SUM(acquired), SUM(acquired * amount), SUM(issued), SUM(issued * amount), NOW()
+  FROM (SELECT txn_date, gp_acquirer_id AS member_id, currency, amount, 1 AS acquired, 0 AS issued
+          FROM operators.transaction_master
+         WHERE status = 'completed' AND gp_acquirer_id IS NOT NULL
+        UNION ALL
+        SELECT txn_date, gp_issuer_id, currency, amount, 0, 1
+          FROM operators.transaction_master
+         WHERE status = 'completed' AND gp_issuer_id IS NOT NULL) d
+ GROUP BY txn_date, member_id, currency
+ON CONFLICT (settlement_date, member_id, currency) DO NOTHING;
+
+COMMENT ON TABLE operators.member_daily_settlement IS 'Completed acquired and issued totals per member, day and currency; maintained by triggers on transaction_master';
@@ -0,0 +1,16 @@
+-- ============================================================================
+-- V9: Per-member access paths for settlement file generation
+-- SettlementRepository.streamMemberTransactions reads one member's completed
+-- transactions of one day, once on the acquirer side and once on the issuer
+-- side. Without these indexes each of the ~500 member files scans the whole
+-- day. Both are partial on status = 'completed', so pending, failed and
+-- reversed rows cost no index write until they complete.
+-- ============================================================================
+
+CREATE INDEX IF NOT EXISTS idx_txn_master_acquirer_date_completed
+    ON operators.transaction_master (gp_acquirer_id, txn_date, txn_id)
+    WHERE status = 'completed';
+
+CREATE INDEX IF NOT EXISTS idx_txn_master_issuer_date_completed
+    ON operators.transaction_master (gp_issuer_id, txn_date, txn_id)
+    WHERE status = 'completed';
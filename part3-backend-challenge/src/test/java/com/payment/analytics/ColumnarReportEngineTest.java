@@ -0,0 +1,218 @@
+package com.payment.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class ColumnarReportEngineTest {
+
+        private static final int DAY = (int) LocalDate.of(2025, 11, 1).toEpochDay();
+
+        /**
+         * Scalar kernels, plus the vector kernels when the test JVM enables the module
+         */
+        private static List<AggregationKernels> kernels() {
+                AggregationKernels preferred = AggregationKernels.select(true);
+                return preferred instanceof ScalarKernels ? List.of(preferred) : List.of(new ScalarKernels(), preferred);
+        }
+
+        @Test
+        void aggregatesOnlyRowsInsideTheRange() {
+                ColumnarStore store = new ColumnarStore();
+                ColumnarStore.Appender appender = store.newAppender(2);
+                // Segments: [DAY - 1, DAY] partial, [DAY, DAY + 1] fully covered, [DAY + 2] skipped
+                appender.append(1_000, DAY - 1, "completed", "VISA", 9);
+                appender.append(2_500, DAY, "completed", "VISA", 10);
+                appender.append(500, DAY, "failed", "amex", 10);
+                appender.append(4_000, DAY + 1, "pending", null, 23);
+                appender.append(9_900, DAY + 2, "completed", "VISA", 0);
+                store.publish(appender, LocalDate.ofEpochDay(DAY - 1), 5L, java.time.Instant.now());
+
+                for (AggregationKernels kernels : kernels()) {
+                        ReportAggregates aggregates = ColumnarReportEngine.aggregate(store.snapshot().segments(), DAY,
+                                        DAY + 1, kernels);
+
+                        assertThat(aggregates.getTotalCount()).as(kernels.name()).isEqualTo(3);
+                        assertThat(aggregates.getTotalCents()).isEqualTo(7_000);
+                        assertThat(aggregates.getDailyCount(0)).isEqualTo(2);
+                        assertThat(aggregates.getDailyCents(1)).isEqualTo(4_000);
+                        assertThat(aggregates.getStatusCount(ColumnCodes.COMPLETED)).isEqualTo(1);
+                        assertThat(aggregates.getStatusCount(ColumnCodes.FAILED)).isEqualTo(1);
+                        assertThat(aggregates.getStatusCount(ColumnCodes.PENDING)).isEqualTo(1);
+                        assertThat(aggregates.getHourCount(10)).isEqualTo(2);
+                        assertThat(aggregates.getHourCount(23)).isEqualTo(1);
+                        // 2025-11-01 was a Saturday
+                        assertThat(aggregates.getDayOfWeekCount(6)).isEqualTo(2);
+                        assertThat(aggregates.getDayOfWeekCount(0)).isEqualTo(1);
+                        assertThat(aggregates.getMinCents()).isEqualTo(500);
+                        assertThat(aggregates.getMaxCents()).isEqualTo(4_000);
+                        assertThat(aggregates.getMedianCents()).isEqualTo(2_500.0);
+
+                        String[] names = store.cardTypes().names();
+                        assertThat(aggregates.getCardTypeCount(Arrays.asList(names).indexOf("visa"))).isEqualTo(1);
+                        assertThat(aggregates.getCardTypeCount(Arrays.asList(names).indexOf("amex"))).isEqualTo(1);
+                        assertThat(aggregates.getCardTypeCount(Arrays.asList(names).indexOf("unknown"))).isEqualTo(1);
+                }
+        }
+
+        @Test
+        void medianMatchesSortedValuesForEvenAndOddCounts() {
+                Random random = new Random(42);
+                for (int rows : new int[] { 1, 2, 7, 1_000, 100_001 }) {
+                        ColumnarStore store = new ColumnarStore();
+                        ColumnarStore.Appender appender = store.newAppender(4_096);
+                        long[] values = new long[rows];
+                        for (int i = 0; i < rows; i++) {
+                                values[i] = random.nextInt(10_000_000);
+                                appender.append(values[i], DAY + i % 30, "completed", "VISA", i % 24);
+                        }
+                        store.publish(appender, LocalDate.ofEpochDay(DAY), rows, java.time.Instant.now());
+
+                        Arrays.sort(values);
+                        double expected = (values[(rows - 1) / 2] + values[rows / 2]) / 2.0;
+                        for (AggregationKernels kernels : kernels()) {
+                                ReportAggregates aggregates = ColumnarReportEngine
+                                                .aggregate(store.snapshot().segments(), DAY, DAY + 29, kernels);
+
+                                assertThat(aggregates.getMedianCents()).as("median of %d rows", rows)
+                                                .isEqualTo(expected);
+                        }
+                }
+        }
+
+        @Test
+        void emptyRangeHasNoRows() {
+                ColumnarStore store = new ColumnarStore();
+                ColumnarStore.Appender appender = store.newAppender(16);
+                appender.append(100, DAY, "completed", "VISA", 1);
+                store.publish(appender, LocalDate.ofEpochDay(DAY), 1L, java.time.Instant.now());
+
+                ReportAggregates aggregates = ColumnarReportEngine.aggregate(store.snapshot().segments(), DAY + 1,
+                                DAY + 7, new ScalarKernels());
+
+                assertThat(aggregates.getTotalCount()).isZero();
+                assertThat(aggregates.getDays()).isEqualTo(7);
+        }
+
+        @Test
+        void vectorKernelsMatchScalarKernels() {
+                AggregationKernels vector = AggregationKernels.select(true);
+                assumeTrue(!(vector instanceof ScalarKernels), "jdk.incubator.vector not enabled");
+                ScalarKernels scalar = new ScalarKernels();
+
+                // Row counts around the vector widths exercise the tail loops
+                Random random = new Random(7);
+                for (int size : new int[] { 0, 1, 3, 63, 64, 65, 1_000, 4_097 }) {
+                        long[] cents = random.longs(size, -1_000_000, 1_000_000_000).toArray();
+                        int[] days = random.ints(size, DAY, DAY + 3).toArray();
+                        byte[] codes = new byte[size];
+                        for (int i = 0; i < size; i++) {
+                                codes[i] = (byte) (random.nextInt(10) < 8 ? random.nextInt(3) : random.nextInt(256));
+                        }
+
+                        long[] expected = new long[3];
+                        long[] actual = new long[3];
+                        scalar.summarize(cents, size, expected);
+                        vector.summarize(cents, size, actual);
+                        assertThat(actual).as("summary of %d", size).containsExactly(expected);
+
+                        long[][] expectedDaily = { new long[3], new long[3] };
+                        long[][] actualDaily = { new long[3], new long[3] };
+                        scalar.sumByDay(days, cents, size, DAY, DAY + 2, DAY, expectedDaily[0], expectedDaily[1]);
+                        vector.sumByDay(days, cents, size, DAY, DAY + 2, DAY, actualDaily[0], actualDaily[1]);
+                        assertThat(actualDaily).as("daily of %d", size).isDeepEqualTo(expectedDaily);
+
+                        long[] expectedCounts = new long[256];
+                        long[] actualCounts = new long[256];
+                        scalar.countValues(codes, size, expectedCounts);
+                        vector.countValues(codes, size, actualCounts);
+                        assertThat(actualCounts).as("counts of %d", size).containsExactly(expectedCounts);
+                }
+        }
+
+        @Test
+        void fullyCoveredAndBoundarySegmentsAgreeAcrossKernels() {
+                ColumnarStore store = new ColumnarStore();
+                ColumnarStore.Appender appender = store.newAppender(1_000);
+                Random random = new Random(11);
+                for (int day = 0; day < 20; day++) {
+                        for (int i = 0; i < 700; i++) {
+                                appender.append(random.nextInt(500_000), DAY + day, List.of("pending", "completed",
+                                                "failed", "reversed").get(random.nextInt(4)),
+                                                random.nextBoolean() ? "VISA" : "AMEX", random.nextInt(24));
+                        }
+                }
+                store.publish(appender, LocalDate.ofEpochDay(DAY), 14_000L, java.time.Instant.now());
+
+                ReportAggregates reference = ColumnarReportEngine.aggregate(store.snapshot().segments(), DAY + 3,
+                                DAY + 16, new ScalarKernels());
+                for (AggregationKernels kernels : kernels()) {
+                        ReportAggregates aggregates = ColumnarReportEngine.aggregate(store.snapshot().segments(),
+                                        DAY + 3, DAY + 16, kernels);
+                        assertThat(aggregates).usingRecursiveComparison().isEqualTo(reference);
+                }
+                assertThat(reference.getTotalCount()).isEqualTo(14 * 700);
+        }
+
+        @Test
+        void parallelAggregationMatchesSequential() {
+                ColumnarStore store = new ColumnarStore();
+                ColumnarStore.Appender appender = store.newAppender(1_000);
+                Random random = new Random(3);
+                int rows = 0;
+                for (int day = 0; day < 60; day++) {
+                        int perDay = 300 + random.nextInt(900);
+                        for (int i = 0; i < perDay; i++) {
+                                appender.append(random.nextInt(2_000_000), DAY + day, "completed",
+                                                random.nextBoolean() ? "VISA" : "DISCOVER", random.nextInt(24));
+                        }
+                        rows += perDay;
+                }
+                store.publish(appender, LocalDate.ofEpochDay(DAY), rows, java.time.Instant.now());
+                ColumnSegment[] segments = store.snapshot().segments();
+
+                ForkJoinPool pool = new ForkJoinPool(4);
+                try {
+                        for (AggregationKernels kernels : kernels()) {
+                                ReportAggregates sequential = ColumnarReportEngine.aggregate(segments, DAY + 5, DAY + 54,
+                                                kernels);
+                                ReportAggregates parallel = ColumnarReportEngine.aggregate(segments, DAY + 5, DAY + 54,
+                                                kernels, pool, 0L);
+
+                                assertThat(parallel).usingRecursiveComparison().isEqualTo(sequential);
+                        }
+                } finally {
+                        pool.shutdown();
+                }
+        }
+
+        @Test
+        void smallRangesStayOnTheCallingThread() {
+                ColumnarStore store = new ColumnarStore();
+                ColumnarStore.Appender appender = store.newAppender(4);
+                for (int i = 0; i < 40; i++) {
+                        appender.append(i, DAY + i / 4, "completed", "VISA", 1);
+                }
+                store.publish(appender, LocalDate.ofEpochDay(DAY), 40L, java.time.Instant.now());
+
+                ForkJoinPool pool = new ForkJoinPool(2);
+                try {
+                        ReportAggregates aggregates = ColumnarReportEngine.aggregate(store.snapshot().segments(), DAY,
+                                        DAY + 9, new ScalarKernels(), pool, 1_000L);
+
+                        assertThat(aggregates.getTotalCount()).isEqualTo(40);
+                        assertThat(aggregates.getMedianCents()).isEqualTo(19.5);
+                        assertThat(pool.getStealCount()).isZero();
+                        assertThat(pool.getPoolSize()).isZero();
+                } finally {
+                        pool.shutdown();
+                }
+        }
+}
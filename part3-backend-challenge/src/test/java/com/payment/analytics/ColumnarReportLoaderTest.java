@@ -0,0 +1,114 @@
+package com.payment.analytics;
+
+import com.payment.cache.CacheInvalidation;
+import com.payment.config.ReportCacheProperties;
+import com.payment.repository.TransactionScanRepository;
+import com.payment.repository.TransactionScanRepository.RowConsumer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ColumnarReportLoaderTest {
+
+        private static final LocalDate TODAY = LocalDate.of(2025, 11, 18);
+        private static final Instant NOW = Instant.parse("2025-11-18T12:00:00Z");
+
+        @Mock
+        private TransactionScanRepository scanRepository;
+
+        private ColumnarStore store;
+        private ColumnarReportLoader loader;
+
+        @BeforeEach
+        void setUp() {
+                store = new ColumnarStore();
+                loader = new ColumnarReportLoader(scanRepository, store, new ReportCacheProperties());
+                // Id 2 is reserved by a batch that has not committed when the cache is built
+                when(scanRepository.scanFrom(any(), any())).thenAnswer(invocation -> {
+                        RowConsumer consumer = invocation.getArgument(1);
+                        row(consumer, 1L);
+                        row(consumer, 3L);
+                        return 2L;
+                });
+                loader.sync(TODAY, NOW);
+        }
+
+        @Test
+        void sync_RowCommittedBehindWatermark_IsAppendedOnce() {
+                // Arrange
+                when(scanRepository.scanAfter(anyLong(), any(), anyInt(), any())).thenReturn(0L);
+                when(scanRepository.scanIdRanges(any(), any(), any(), any())).thenAnswer(invocation -> {
+                        RowConsumer consumer = invocation.getArgument(3);
+                        // Ids outside the open gaps, as a repeated row, are never appended
+                        row(consumer, 2L);
+                        row(consumer, 2L);
+                        return 2L;
+                });
+
+                // Act
+                loader.sync(TODAY, NOW.plusSeconds(5));
+
+                // Assert
+                assertThat(store.snapshot().rows()).isEqualTo(3);
+                assertThat(store.snapshot().watermarkTxnId()).isEqualTo(3L);
+                assertThat(loader.getIdGaps().getFilled()).isEqualTo(1);
+        }
+
+        @Test
+        void invalidate_MissedNotifications_RebuildsOnNextSyncAndClearsMarks() {
+                // Arrange
+                loader.invalidate(CacheInvalidation.all());
+                assertThat(store.isAllDirty()).isTrue();
+
+                // Act
+                loader.sync(TODAY, Instant.now().plusSeconds(1));
+
+                // Assert
+                verify(scanRepository, times(2)).scanFrom(any(), any());
+                assertThat(store.isAllDirty()).isFalse();
+        }
+
+        @Test
+        void invalidate_ChangedMerchantDays_MarksOnlyThoseDays() {
+                // Act
+                loader.invalidate(CacheInvalidation.parse(List.of("t:M1:2025-11-17,t:M2:2025-11-17,m:M1")));
+
+                // Assert
+                assertThat(store.getDirtyDays()).isEqualTo(1);
+                assertThat(store.isDirty(TODAY.minusDays(1), TODAY.minusDays(1))).isTrue();
+                assertThat(store.isDirty(TODAY, TODAY)).isFalse();
+        }
+
+        @Test
+        void sync_GapOlderThanCommitLag_StopsBeingRead() {
+                // Arrange
+                when(scanRepository.scanAfter(anyLong(), any(), anyInt(), any())).thenReturn(0L);
+
+                // Act
+                loader.sync(TODAY, NOW.plusSeconds(600));
+
+                // Assert
+                assertThat(loader.getIdGaps().size()).isZero();
+                assertThat(loader.getIdGaps().getExpired()).isEqualTo(1);
+                assertThat(store.snapshot().rows()).isEqualTo(2);
+        }
+
+        private static void row(RowConsumer consumer, long txnId) {
+                consumer.accept(txnId, (int) TODAY.toEpochDay(), 1_000L, "completed", "VISA", 12);
+        }
+}
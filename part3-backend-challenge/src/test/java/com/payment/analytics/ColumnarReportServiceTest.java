@@ -0,0 +1,122 @@
+package com.payment.analytics;
+
+import com.payment.config.ReportCacheProperties;
+import com.payment.dto.reports.TransactionReportsResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ColumnarReportServiceTest {
+
+        private ColumnarStore store;
+        private ColumnarReportService reportService;
+
+        @BeforeEach
+        void setUp() {
+                store = new ColumnarStore();
+                reportService = new ColumnarReportService(store, new ReportCacheProperties());
+
+                ColumnarStore.Appender appender = store.newAppender(8);
+                // Sunday 2025-11-02 and Monday 2025-11-03 fall in different ISO weeks
+                appender.append(10_000, day(2025, 11, 2), "completed", "VISA", 9);
+                appender.append(5_050, day(2025, 11, 2), "failed", "MASTERCARD", 9);
+                appender.append(2_000, day(2025, 11, 3), "completed", "visa", 14);
+                appender.append(3_000, day(2025, 12, 1), "completed", "AMEX", 14);
+                store.publish(appender, LocalDate.of(2025, 10, 1), 4L, Instant.now());
+        }
+
+        @Test
+        void buildsEverySectionFromColumns() {
+                TransactionReportsResponse response = reportService
+                                .buildReports(LocalDate.of(2025, 11, 1), LocalDate.of(2025, 12, 31))
+                                .orElseThrow();
+
+                assertThat(response.getVolumeMetrics().getDaily()).hasSize(3);
+                assertThat(response.getVolumeMetrics().getDaily().get(0).getAmount()).isEqualByComparingTo("150.50");
+                assertThat(response.getVolumeMetrics().getWeekly())
+                                .extracting(w -> w.getWeekStart() + "/" + w.getWeekNumber() + "/" + w.getCount())
+                                .containsExactly("2025-10-27/44/2", "2025-11-03/45/1", "2025-12-01/49/1");
+                assertThat(response.getVolumeMetrics().getMonthly())
+                                .extracting(m -> m.getMonth() + "/" + m.getCount())
+                                .containsExactly("2025-11/3", "2025-12/1");
+
+                assertThat(response.getSuccessRateMetrics().getTotalTransactions()).isEqualTo(4);
+                assertThat(response.getSuccessRateMetrics().getSuccessRate()).isEqualTo(75.0);
+                assertThat(response.getSuccessRateMetrics().getByStatus())
+                                .containsEntry("completed", 3L)
+                                .containsEntry("failed", 1L);
+
+                assertThat(response.getAmountTrends().getOverall().getAverage()).isEqualTo(new BigDecimal("50.13"));
+                assertThat(response.getAmountTrends().getOverall().getMedian()).isEqualTo(new BigDecimal("40.25"));
+                assertThat(response.getAmountTrends().getOverall().getMin()).isEqualTo(new BigDecimal("20.00"));
+                assertThat(response.getAmountTrends().getOverall().getMax()).isEqualTo(new BigDecimal("100.00"));
+
+                assertThat(response.getPeakTimesHeatmap().getHourly())
+                                .extracting(h -> h.getHour() + "=" + h.getCount())
+                                .containsExactly("9=2", "14=2");
+                assertThat(response.getPeakTimesHeatmap().getDayOfWeek())
+                                .extracting(d -> d.getDayOfWeek() + "=" + d.getCount())
+                                .containsExactly("SUNDAY=2", "MONDAY=2");
+
+                assertThat(response.getCardTypeDistribution().getByType())
+                                .containsEntry("visa", 2L)
+                                .containsEntry("mastercard", 1L)
+                                .containsEntry("amex", 1L);
+                assertThat(response.getCardTypeDistribution().getPercentages()).containsEntry("visa", 50.0);
+                assertThat(reportService.getReportCount()).isEqualTo(1);
+        }
+
+        @Test
+        void rangesStartingBeforeTheWindowAreNotServed() {
+                Optional<TransactionReportsResponse> response = reportService
+                                .buildReports(LocalDate.of(2025, 9, 30), LocalDate.of(2025, 11, 30));
+
+                assertThat(response).isEmpty();
+        }
+
+        @Test
+        void emptyStoreIsNotServed() {
+                assertThat(new ColumnarReportService(new ColumnarStore(), new ReportCacheProperties())
+                                .buildReports(LocalDate.of(2025, 11, 1), LocalDate.of(2025, 11, 30))).isEmpty();
+        }
+
+        @Test
+        void rangesTouchingADirtyDayAreNotServedUntilCleared() {
+                Instant changed = Instant.parse("2025-12-01T10:00:00Z");
+                store.markDirty(Set.of(LocalDate.of(2025, 11, 3)), changed);
+
+                assertThat(reportService.buildReports(LocalDate.of(2025, 11, 1), LocalDate.of(2025, 11, 30))).isEmpty();
+                assertThat(reportService.buildReports(LocalDate.of(2025, 11, 4), LocalDate.of(2025, 12, 31))).isPresent();
+                assertThat(reportService.getDirtyFallbacks()).isEqualTo(1);
+
+                // A rebuild that started before the change does not clear it
+                store.clearDirty(changed.minusSeconds(1));
+                assertThat(reportService.buildReports(LocalDate.of(2025, 11, 1), LocalDate.of(2025, 11, 30))).isEmpty();
+
+                store.clearDirty(changed.plusSeconds(1));
+                assertThat(reportService.buildReports(LocalDate.of(2025, 11, 1), LocalDate.of(2025, 11, 30))).isPresent();
+        }
+
+        @Test
+        void everyRangeIsDirtyAfterMissedNotifications() {
+                Instant missed = Instant.parse("2025-12-01T10:00:00Z");
+                store.markAllDirty(missed);
+
+                assertThat(reportService.buildReports(LocalDate.of(2025, 12, 1), LocalDate.of(2025, 12, 1))).isEmpty();
+
+                store.clearDirty(missed.plusSeconds(1));
+                assertThat(store.isAllDirty()).isFalse();
+                assertThat(reportService.buildReports(LocalDate.of(2025, 12, 1), LocalDate.of(2025, 12, 1))).isPresent();
+        }
+
+        private static int day(int year, int month, int day) {
+                return (int) LocalDate.of(year, month, day).toEpochDay();
+        }
+}
@@ -0,0 +1,219 @@
+package com.payment.analytics;
+
+import com.payment.config.DeclineAnalyticsProperties;
+import com.payment.entity.TransactionMaster;
+import com.payment.repository.DeclineSnapshotRepository.DeclineCount;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeclineCountersTest {
+
+        private static final Instant HOUR = Instant.parse("2025-11-18T14:00:00Z");
+
+        private DeclineAnalyticsProperties properties;
+        private DeclineCounters counters;
+
+        @BeforeEach
+        void setUp() {
+                properties = new DeclineAnalyticsProperties();
+                counters = new DeclineCounters(properties);
+        }
+
+        @Test
+        void record_GroupsByHourIssuerAndResponseCode() {
+                // Arrange
+                List<TransactionMaster> transactions = List.of(
+                                transaction(HOUR.plusSeconds(10), 1L, "00", "completed"),
+                                transaction(HOUR.plusSeconds(20), 1L, "05", "failed"),
+                                transaction(HOUR.plusSeconds(3600), 2L, "51", "failed"),
+                                transaction(HOUR.plusSeconds(3700), null, null, "failed"));
+
+                // Act
+                counters.record(transactions);
+                DeclineCounters.Breakdown breakdown = pending(HOUR, HOUR.plusSeconds(7200), null);
+
+                // Assert
+                assertEquals(new DeclineCounters.Totals(4, 3), breakdown.total());
+                assertEquals(new DeclineCounters.Totals(2, 1), breakdown.hourly().get(HOUR));
+                assertEquals(new DeclineCounters.Totals(2, 2), breakdown.hourly().get(HOUR.plusSeconds(3600)));
+                assertEquals(new DeclineCounters.Totals(1, 1),
+                                breakdown.byIssuer().get(DeclineCounters.NO_ISSUER));
+                assertEquals(new DeclineCounters.Totals(1, 1),
+                                breakdown.byResponseCode().get(DeclineCounters.UNKNOWN_RESPONSE_CODE));
+                assertEquals(50.0, breakdown.byIssuer().get(1L).declineRate());
+                assertEquals(new DeclineCounters.Totals(1, 1), pending(HOUR, HOUR.plusSeconds(7200), 2L).total());
+        }
+
+        @Test
+        void flush_WritesOnlyWhatChangedAndRetriesAfterAFailure() {
+                // Arrange
+                counters.record(List.of(transaction(HOUR.plusSeconds(5), 1L, "05", "failed")));
+                List<List<DeclineCount>> written = new ArrayList<>();
+
+                // Act
+                assertThrows(IllegalStateException.class, () -> counters.flush(counts -> {
+                        throw new IllegalStateException("database down");
+                }, HOUR));
+                int first = counters.flush(written::add, HOUR);
+                int second = counters.flush(written::add, HOUR);
+
+                // Assert
+                assertEquals(1, first);
+                assertEquals(0, second);
+                assertEquals(List.of(new DeclineCount(HOUR, 1L, "05", 1, 1)), written.get(0));
+                assertEquals(new DeclineCounters.Totals(0, 0), pending(HOUR, HOUR.plusSeconds(3600), null).total());
+                assertEquals(2, counters.getFlushes());
+        }
+
+        @Test
+        void flush_DropsWrittenHoursBeforeTheCurrentOne() {
+                // Arrange
+                counters.record(List.of(transaction(HOUR, 1L, "05", "failed"),
+                                transaction(HOUR.plusSeconds(3600), 1L, "05", "failed")));
+                List<DeclineCount> written = new ArrayList<>();
+
+                // Act
+                counters.flush(written::addAll, HOUR.plusSeconds(3600 + 60));
+                counters.record(List.of(transaction(HOUR.plusSeconds(30), 1L, "05", "completed")));
+                counters.flush(written::addAll, HOUR.plusSeconds(3600 + 120));
+
+                // Assert: the late transaction of the dropped hour is written by the next flush
+                assertEquals(1, counters.getRetainedHours());
+                assertEquals(3, written.stream().mapToLong(DeclineCount::transactions).sum());
+                assertEquals(new DeclineCount(HOUR, 1L, "05", 1, 0), written.get(written.size() - 1));
+        }
+
+        @Test
+        void recordStatusChange_CountsDeclinesGainedAndLost() {
+                // Arrange
+                TransactionMaster settled = transaction(HOUR.plusSeconds(5), 1L, "05", "pending");
+                counters.record(List.of(settled));
+
+                // Act
+                counters.recordStatusChange(settled, "pending", "failed");
+                counters.recordStatusChange(settled, "pending", "completed");
+
+                // Assert
+                assertEquals(new DeclineCounters.Totals(1, 1), pending(HOUR, HOUR.plusSeconds(3600), null).total());
+        }
+
+        @Test
+        void addPending_AfterAFlushCompleted_AsksForAnotherRead() {
+                // Arrange
+                counters.record(List.of(transaction(HOUR, 1L, "05", "failed")));
+                long flushes = counters.getFlushes();
+
+                // Act
+                counters.flush(counts -> {
+                }, HOUR);
+                boolean consistent = counters.addPending(new DeclineCounters.Breakdown(), HOUR, HOUR.plusSeconds(3600),
+                                null, flushes);
+
+                // Assert
+                assertFalse(consistent);
+                assertTrue(counters.addPending(new DeclineCounters.Breakdown(), HOUR, HOUR.plusSeconds(3600), null,
+                                counters.getFlushes()));
+        }
+
+        @Test
+        void record_FromManyThreads_LosesNoCounts() throws Exception {
+                // Arrange
+                int threads = 4;
+                int perThread = 5_000;
+                ExecutorService executor = Executors.newFixedThreadPool(threads);
+                CountDownLatch start = new CountDownLatch(1);
+                List<DeclineCount> written = new ArrayList<>();
+
+                // Act
+                for (int t = 0; t < threads; t++) {
+                        executor.execute(() -> {
+                                try {
+                                        start.await();
+                                } catch (InterruptedException e) {
+                                        Thread.currentThread().interrupt();
+                                        return;
+                                }
+                                for (int i = 0; i < perThread; i++) {
+                                        counters.record(List.of(transaction(HOUR, 1L, "05", i % 2 == 0 ? "failed" : "completed")));
+                                        if (i % 1000 == 0) {
+                                                synchronized (written) {
+                                                        counters.flush(written::addAll, HOUR);
+                                                }
+                                        }
+                                }
+                        });
+                }
+                start.countDown();
+                executor.shutdown();
+                assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+                counters.flush(written::addAll, HOUR);
+
+                // Assert
+                assertEquals(threads * perThread, written.stream().mapToLong(DeclineCount::transactions).sum());
+                assertEquals(threads * perThread / 2, written.stream().mapToLong(DeclineCount::declines).sum());
+        }
+
+        @Test
+        void record_IntoThePreviousHourWhileItIsRetired_LosesNoCounts() throws Exception {
+                // Arrange: late transactions of the previous hour keep arriving while flushes retire it
+                int threads = 4;
+                int perThread = 5_000;
+                Instant nextHour = HOUR.plusSeconds(3600 + 60);
+                ExecutorService executor = Executors.newFixedThreadPool(threads);
+                CountDownLatch start = new CountDownLatch(1);
+                List<DeclineCount> written = new ArrayList<>();
+
+                // Act
+                for (int t = 0; t < threads; t++) {
+                        executor.execute(() -> {
+                                try {
+                                        start.await();
+                                } catch (InterruptedException e) {
+                                        Thread.currentThread().interrupt();
+                                        return;
+                                }
+                                for (int i = 0; i < perThread; i++) {
+                                        counters.record(List.of(transaction(HOUR, 1L, "05", "failed")));
+                                        if (i % 100 == 0) {
+                                                synchronized (written) {
+                                                        counters.flush(written::addAll, nextHour);
+                                                }
+                                        }
+                                }
+                        });
+                }
+                start.countDown();
+                executor.shutdown();
+                assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+                counters.flush(written::addAll, nextHour);
+
+                // Assert
+                assertEquals(threads * perThread, written.stream().mapToLong(DeclineCount::transactions).sum());
+                assertEquals(threads * perThread, written.stream().mapToLong(DeclineCount::declines).sum());
+        }
+
+        private DeclineCounters.Breakdown pending(Instant from, Instant until, Long issuerId) {
+                DeclineCounters.Breakdown breakdown = new DeclineCounters.Breakdown();
+                counters.addPending(breakdown, from, until, issuerId, counters.getFlushes());
+                return breakdown;
+        }
+
+        private static TransactionMaster transaction(Instant at, Long issuerId, String responseCode, String status) {
+                TransactionMaster transaction = new TransactionMaster();
+                transaction.setLocalTxnDateTime(at);
+                transaction.setGpIssuerId(issuerId);
+                transaction.setResponseCode(responseCode);
+                transaction.setStatus(status);
+                return transaction;
+        }
+}
@@ -0,0 +1,172 @@
+package com.payment.analytics;
+
+import com.payment.config.LiveMetricsProperties;
+import com.payment.dto.reports.LiveMetricsEvent;
+import com.payment.entity.TransactionMaster;
+import com.payment.exception.TooManyRequestsException;
+import com.payment.repository.projection.StatusCardTypeTotalsProjection;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import reactor.core.Disposable;
+import reactor.core.publisher.BaseSubscriber;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LiveDayAggregatorTest {
+
+        private static final LocalDate TODAY = LocalDate.of(2025, 11, 18);
+
+        private LiveMetricsProperties properties;
+        private LiveDayAggregator aggregator;
+
+        @BeforeEach
+        void setUp() {
+                properties = new LiveMetricsProperties();
+                aggregator = new LiveDayAggregator(properties);
+                aggregator.resync(TODAY, List.of());
+                aggregator.publish();
+        }
+
+        @Test
+        void publish_SendsOneSharedDeltaOfWhatChangedToEverySubscriber() {
+                // Arrange
+                List<LiveMetricsEvent> first = new ArrayList<>();
+                List<LiveMetricsEvent> second = new ArrayList<>();
+                aggregator.subscribe().subscribe(first::add);
+                aggregator.subscribe().subscribe(second::add);
+                aggregator.record(List.of(
+                                transaction(TODAY, "completed", "VISA", "10.00"),
+                                transaction(TODAY, "completed", "visa", "2.50"),
+                                transaction(TODAY, "pending", null, "1.00"),
+                                transaction(TODAY.minusDays(1), "completed", "visa", "99.00")));
+
+                // Act
+                int offered = aggregator.publish();
+                int idle = aggregator.publish();
+
+                // Assert
+                assertEquals(2, offered);
+                assertEquals(-1, idle);
+                assertEquals(2, first.size());
+                assertEquals(LiveDayAggregator.SNAPSHOT, first.get(0).getType());
+                LiveMetricsEvent delta = first.get(1);
+                assertSame(delta, second.get(1));
+                assertEquals(LiveDayAggregator.DELTA, delta.getType());
+                assertEquals(TODAY, delta.getDate());
+                assertEquals(3L, delta.getTotal().getCount());
+                assertEquals(new BigDecimal("13.50"), delta.getTotal().getAmount());
+                assertEquals(2L, delta.getByStatus().get("completed").getCount());
+                assertEquals(2L, delta.getByCardType().get("visa").getCount());
+                assertEquals(1L, delta.getByCardType().get(LiveDayAggregator.UNKNOWN).getCount());
+        }
+
+        @Test
+        void publish_ToASlowSubscriber_MergesItsPendingDeltas() {
+                // Arrange
+                List<LiveMetricsEvent> received = new ArrayList<>();
+                BaseSubscriber<LiveMetricsEvent> slow = new BaseSubscriber<>() {
+                        @Override
+                        protected void hookOnSubscribe(Subscription subscription) {
+                                request(1);
+                        }
+
+                        @Override
+                        protected void hookOnNext(LiveMetricsEvent event) {
+                                received.add(event);
+                        }
+                };
+                aggregator.subscribe().subscribe(slow);
+
+                // Act
+                for (int i = 0; i < 3; i++) {
+                        aggregator.record(List.of(transaction(TODAY, "completed", "visa", "1.00")));
+                        aggregator.publish();
+                }
+                slow.request(1);
+
+                // Assert
+                assertEquals(2, received.size());
+                LiveMetricsEvent merged = received.get(1);
+                assertEquals(3, merged.getUpdates());
+                assertEquals(4L, merged.getSequence());
+                assertEquals(3L, merged.getTotal().getCount());
+                assertEquals(new BigDecimal("3.00"), merged.getTotal().getAmount());
+                assertEquals(2L, aggregator.getConflated());
+        }
+
+        @Test
+        void subscribe_AfterUpdates_StartsFromThePublishedTotals() {
+                // Arrange
+                aggregator.record(List.of(transaction(TODAY, "completed", "visa", "4.00")));
+                aggregator.publish();
+                aggregator.record(List.of(transaction(TODAY, "failed", "visa", "1.00")));
+                List<LiveMetricsEvent> events = new ArrayList<>();
+
+                // Act
+                aggregator.subscribe().subscribe(events::add);
+                aggregator.publish();
+
+                // Assert
+                assertEquals(LiveDayAggregator.SNAPSHOT, events.get(0).getType());
+                assertEquals(1L, events.get(0).getTotal().getCount());
+                assertEquals(1L, events.get(1).getTotal().getCount());
+                assertEquals(1L, events.get(1).getByStatus().get("failed").getCount());
+        }
+
+        @Test
+        void resync_CorrectsTheTotalsAndSendsASnapshotWhenTheDayChanges() {
+                // Arrange
+                aggregator.record(List.of(transaction(TODAY, "completed", "visa", "4.00")));
+                aggregator.publish();
+                List<LiveMetricsEvent> events = new ArrayList<>();
+                aggregator.subscribe().subscribe(events::add);
+
+                // Act
+                aggregator.resync(TODAY, List.of(
+                                new StatusCardTypeTotalsProjection("completed", "visa", 5L, new BigDecimal("20.00"))));
+                aggregator.publish();
+                aggregator.resync(TODAY.plusDays(1), List.of(
+                                new StatusCardTypeTotalsProjection("pending", "amex", 1L, new BigDecimal("7.00"))));
+                aggregator.record(List.of(transaction(TODAY, "completed", "visa", "4.00")));
+                aggregator.publish();
+
+                // Assert
+                assertEquals(3, events.size());
+                assertEquals(4L, events.get(1).getTotal().getCount());
+                assertEquals(new BigDecimal("16.00"), events.get(1).getTotal().getAmount());
+                LiveMetricsEvent nextDay = events.get(2);
+                assertEquals(LiveDayAggregator.SNAPSHOT, nextDay.getType());
+                assertEquals(TODAY.plusDays(1), nextDay.getDate());
+                assertEquals(1L, nextDay.getTotal().getCount());
+                assertNull(nextDay.getByStatus().get("completed"));
+        }
+
+        @Test
+        void subscribe_AtTheSubscriberLimit_ThrowsTooManyRequests() {
+                // Arrange
+                properties.setMaxSubscribers(1);
+                Disposable first = aggregator.subscribe().subscribe();
+
+                // Act & Assert
+                assertThrows(TooManyRequestsException.class, () -> aggregator.subscribe());
+                first.dispose();
+                assertEquals(0, aggregator.getSubscriberCount());
+                assertNotNull(aggregator.subscribe());
+        }
+
+        private static TransactionMaster transaction(LocalDate txnDate, String status, String cardType, String amount) {
+                TransactionMaster transaction = new TransactionMaster();
+                transaction.setTxnDate(Date.valueOf(txnDate));
+                transaction.setStatus(status);
+                transaction.setCardType(cardType);
+                transaction.setAmount(new BigDecimal(amount));
+                return transaction;
+        }
+}
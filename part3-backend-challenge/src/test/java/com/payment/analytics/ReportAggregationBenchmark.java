@@ -0,0 +1,281 @@
+package com.payment.analytics;
+
+import com.payment.repository.TransactionReportRepository;
+import io.micronaut.data.annotation.Query;
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 90-day report aggregation: Vector API kernels vs scalar kernels vs the SQL
+ * report queries, over the same synthetic rows (the distribution of
+ * ReportQueryBenchmarkTest, {@code rowsPerDay} rows per day).
+ *
+ * The columnar benchmarks time {@link ColumnarReportEngine#aggregate} only (no
+ * DTO building); the kernel benchmarks isolate the amount and status columns.
+ * parallelReport measures fork/join scaling over {@code days} days for each
+ * {@code parallelism} (e.g. -p days=365 -p parallelism=1,2,4,8).
+ * The SQL benchmark needs Docker and seeds PostgreSQL first, so select it
+ * explicitly when wanted.
+ *
+ * Run after mvn test-compile (passing -jvmArgsAppend would drop the module flag):
+ * mvn dependency:build-classpath -Dmdep.outputFile=target/cp.txt -Dmdep.includeScope=test
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) org.openjdk.jmh.Main \
+ *      'ReportAggregationBenchmark.(vector|scalar)' -p rowsPerDay=200000
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "--add-modules=jdk.incubator.vector", "-Xmx4g" })
+public class ReportAggregationBenchmark {
+
+    private static final int DAYS = 90;
+    private static final LocalDate FIRST_DAY = LocalDate.of(2025, 1, 1);
+    private static final int START_DAY = (int) FIRST_DAY.toEpochDay();
+    private static final String[] STATUSES = { "pending", "completed", "completed", "completed", "failed",
+            "reversed" };
+    private static final String[] CARD_TYPES = { "VISA", "MASTERCARD", "AMEX", "DISCOVER" };
+
+    @State(Scope.Benchmark)
+    public static class Columns {
+
+        @Param("20000")
+        public int rowsPerDay;
+
+        @Param("90")
+        public int days;
+
+        int endDay;
+        ColumnSegment[] segments;
+        AggregationKernels vector;
+        AggregationKernels scalar;
+
+        @Setup(Level.Trial)
+        public void load() {
+            vector = AggregationKernels.select(true);
+            scalar = new ScalarKernels();
+            if (vector instanceof ScalarKernels) {
+                throw new IllegalStateException("run with --add-modules jdk.incubator.vector");
+            }
+
+            ColumnarStore store = new ColumnarStore();
+            ColumnarStore.Appender appender = store.newAppender(1 << 16);
+            for (int day = 0; day < days; day++) {
+                for (int i = 1; i <= rowsPerDay; i++) {
+                    appender.append(i % 100_000, START_DAY + day, STATUSES[i % 6], CARD_TYPES[i % 4],
+                            (i % 86_400) / 3_600);
+                }
+            }
+            store.publish(appender, FIRST_DAY, (long) days * rowsPerDay, Instant.now());
+            segments = store.snapshot().segments();
+            endDay = START_DAY + days - 1;
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Parallel {
+
+        @Param({ "1", "2", "4", "8" })
+        public int parallelism;
+
+        ForkJoinPool pool;
+
+        @Setup(Level.Trial)
+        public void start() {
+            pool = new ForkJoinPool(parallelism);
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() {
+            pool.shutdown();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Database {
+
+        /**
+         * Same planner settings as datasources.reports.data-source-properties.options
+         */
+        private static final String REPORTS_OPTIONS = "-c enable_partitionwise_aggregate=on "
+                + "-c max_parallel_workers_per_gather=4 -c parallel_setup_cost=100";
+
+        @Param("20000")
+        public int rowsPerDay;
+
+        PostgreSQLContainer<?> postgres;
+        Connection connection;
+        List<String> queries;
+
+        @Setup(Level.Trial)
+        public void seed() throws SQLException {
+            postgres = new PostgreSQLContainer<>("postgres:15-alpine")
+                    .withCommand("postgres", "-c", "shared_buffers=1GB", "-c", "max_parallel_workers=8",
+                            "-c", "fsync=off")
+                    .withSharedMemorySize(2L * 1024 * 1024 * 1024);
+            postgres.start();
+            Flyway.configure()
+                    .dataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword())
+                    .schemas("operators")
+                    .locations("classpath:db/migration")
+                    .load()
+                    .migrate();
+
+            try (Connection seeding = DriverManager.getConnection(postgres.getJdbcUrl(), postgres.getUsername(),
+                    postgres.getPassword()); Statement statement = seeding.createStatement()) {
+                statement.execute("SELECT operators.create_transaction_partitions('" + FIRST_DAY + "', '"
+                        + FIRST_DAY.plusDays(DAYS) + "')");
+                try (PreparedStatement insert = seeding.prepareStatement(
+                        "INSERT INTO operators.transaction_master (merchant_id, txn_date, local_txn_date_time, "
+                                + "amount, currency, status, card_type) "
+                                + "SELECT 'MER' || LPAD((1 + i % 5000)::text, 6, '0'), ?::date, "
+                                + "?::date + (i % 86400) * INTERVAL '1 second', "
+                                + "(i % 100000) / 100.0, 'USD', "
+                                + "(ARRAY['pending', 'completed', 'completed', 'completed', 'failed', 'reversed'])[1 + i % 6], "
+                                + "(ARRAY['VISA', 'MASTERCARD', 'AMEX', 'DISCOVER'])[1 + i % 4] "
+                                + "FROM generate_series(1, ?) AS i")) {
+                    for (int day = 0; day < DAYS; day++) {
+                        Date date = Date.valueOf(FIRST_DAY.plusDays(day));
+                        insert.setDate(1, date);
+                        insert.setDate(2, date);
+                        insert.setInt(3, rowsPerDay);
+                        insert.executeUpdate();
+                    }
+                }
+                statement.execute("VACUUM ANALYZE operators.transaction_master");
+            }
+
+            Properties properties = new Properties();
+            properties.setProperty("user", postgres.getUsername());
+            properties.setProperty("password", postgres.getPassword());
+            properties.setProperty("options", REPORTS_OPTIONS);
+            connection = DriverManager.getConnection(postgres.getJdbcUrl(), properties);
+            queries = reportQueries();
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() throws SQLException {
+            connection.close();
+            postgres.stop();
+        }
+
+        /**
+         * The SQL of every TransactionReportRepository method, from its @Query annotation
+         */
+        private static List<String> reportQueries() {
+            List<String> queries = new ArrayList<>();
+            Method[] methods = TransactionReportRepository.class.getDeclaredMethods();
+            Arrays.sort(methods, Comparator.comparing(Method::getName));
+            for (Method method : methods) {
+                Query query = method.getAnnotation(Query.class);
+                if (query != null) {
+                    queries.add(query.value().replace(":startDate", "?").replace(":endDate", "?"));
+                }
+            }
+            return queries;
+        }
+    }
+
+    @Benchmark
+    public ReportAggregates vectorReport(Columns columns) {
+        return ColumnarReportEngine.aggregate(columns.segments, START_DAY, columns.endDay, columns.vector);
+    }
+
+    @Benchmark
+    public ReportAggregates scalarReport(Columns columns) {
+        return ColumnarReportEngine.aggregate(columns.segments, START_DAY, columns.endDay, columns.scalar);
+    }
+
+    @Benchmark
+    public ReportAggregates parallelReport(Columns columns, Parallel parallel) {
+        return ColumnarReportEngine.aggregate(columns.segments, START_DAY, columns.endDay, columns.vector,
+                parallel.pool, 0L);
+    }
+
+    @Benchmark
+    public void vectorSummarizeAmounts(Columns columns, Blackhole blackhole) {
+        summarize(columns.segments, columns.vector, blackhole);
+    }
+
+    @Benchmark
+    public void scalarSummarizeAmounts(Columns columns, Blackhole blackhole) {
+        summarize(columns.segments, columns.scalar, blackhole);
+    }
+
+    @Benchmark
+    public long[] vectorCountStatus(Columns columns) {
+        return countStatus(columns.segments, columns.vector);
+    }
+
+    @Benchmark
+    public long[] scalarCountStatus(Columns columns) {
+        return countStatus(columns.segments, columns.scalar);
+    }
+
+    @Benchmark
+    public long sqlReport(Database database) throws SQLException {
+        Date start = Date.valueOf(FIRST_DAY);
+        Date end = Date.valueOf(FIRST_DAY.plusDays(DAYS - 1));
+        long rows = 0;
+        for (String sql : database.queries) {
+            try (PreparedStatement statement = database.connection.prepareStatement(sql)) {
+                statement.setDate(1, start);
+                statement.setDate(2, end);
+                try (ResultSet rs = statement.executeQuery()) {
+                    while (rs.next()) {
+                        rows++;
+                    }
+                }
+            }
+        }
+        return rows;
+    }
+
+    private static void summarize(ColumnSegment[] segments, AggregationKernels kernels, Blackhole blackhole) {
+        long[] summary = new long[3];
+        for (ColumnSegment segment : segments) {
+            kernels.summarize(segment.amountCents, segment.size(), summary);
+            blackhole.consume(summary);
+        }
+    }
+
+    private static long[] countStatus(ColumnSegment[] segments, AggregationKernels kernels) {
+        long[] counts = new long[ColumnCodes.STATUS_COUNT];
+        for (ColumnSegment segment : segments) {
+            kernels.countValues(segment.status, segment.size(), counts);
+        }
+        return counts;
+    }
+}
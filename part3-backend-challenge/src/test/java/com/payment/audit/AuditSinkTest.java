@@ -0,0 +1,149 @@
+package com.payment.audit;
+
+import com.payment.config.AuditProperties;
+import com.payment.config.AuditProperties.Durability;
+import com.payment.exception.ServiceUnavailableException;
+import com.payment.repository.AuditLogRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+class AuditSinkTest {
+
+        private AuditSink sink;
+
+        @AfterEach
+        void tearDown() throws InterruptedException {
+                if (sink != null) {
+                        sink.close();
+                }
+        }
+
+        @Test
+        void record_FlushBeforeAck_CompletesOnceWrittenInBatches() throws Exception {
+                // Arrange
+                AuditLogRepository repository = mock(AuditLogRepository.class);
+                List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+                doAnswer(invocation -> {
+                        batchSizes.add(invocation.<List<AuditEntry>>getArgument(0).size());
+                        return null;
+                }).when(repository).insertBatch(anyList());
+                AuditProperties properties = new AuditProperties();
+                properties.setMaxBatchSize(4);
+                sink = new AuditSink(repository, properties);
+
+                // Act
+                CompletableFuture<Void> ack = sink.record(entries(10));
+                ack.get(5, TimeUnit.SECONDS);
+
+                // Assert
+                assertEquals(10, sink.getWritten());
+                assertEquals(10, batchSizes.stream().mapToInt(Integer::intValue).sum());
+                assertTrue(batchSizes.stream().allMatch(size -> size <= 4));
+                assertEquals(0, sink.getDropped());
+        }
+
+        @Test
+        void record_FlushBeforeAck_FailsWhenTheWriteFails() {
+                // Arrange
+                AuditLogRepository repository = mock(AuditLogRepository.class);
+                doThrow(new IllegalStateException("connection refused")).when(repository).insertBatch(anyList());
+                sink = new AuditSink(repository, new AuditProperties());
+
+                // Act
+                CompletableFuture<Void> ack = sink.record(entries(3));
+
+                // Assert
+                ExecutionException e = assertThrows(ExecutionException.class, () -> ack.get(5, TimeUnit.SECONDS));
+                assertEquals("connection refused", e.getCause().getMessage());
+                // The ack fails with the first failed batch; the rest may still be in flight
+                long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+                while (sink.getFailed() < 3 && System.nanoTime() < deadline) {
+                        Thread.onSpinWait();
+                }
+                assertEquals(3, sink.getFailed());
+        }
+
+        @Test
+        void record_FireAndForget_DropsAndCountsWhatDoesNotFit() throws Exception {
+                // Arrange: the writer is held inside its first write
+                AuditLogRepository repository = mock(AuditLogRepository.class);
+                CountDownLatch writing = new CountDownLatch(1);
+                CountDownLatch release = new CountDownLatch(1);
+                doAnswer(invocation -> {
+                        writing.countDown();
+                        release.await(5, TimeUnit.SECONDS);
+                        return null;
+                }).when(repository).insertBatch(anyList());
+                AuditProperties properties = new AuditProperties();
+                properties.setDurability(Durability.FIRE_AND_FORGET);
+                properties.setQueueCapacity(2);
+                properties.setMaxBatchSize(1);
+                sink = new AuditSink(repository, properties);
+                sink.record(entries(1));
+                assertTrue(writing.await(5, TimeUnit.SECONDS));
+
+                // Act
+                CompletableFuture<Void> ack = sink.record(entries(5));
+
+                // Assert
+                assertTrue(ack.isDone());
+                assertEquals(2, sink.getQueueDepth());
+                assertEquals(3, sink.getDropped());
+                release.countDown();
+        }
+
+        @Test
+        void record_FlushBeforeAck_FailsWhenQueueStaysFull() throws Exception {
+                // Arrange
+                AuditLogRepository repository = mock(AuditLogRepository.class);
+                CountDownLatch writing = new CountDownLatch(1);
+                CountDownLatch release = new CountDownLatch(1);
+                doAnswer(invocation -> {
+                        writing.countDown();
+                        release.await(5, TimeUnit.SECONDS);
+                        return null;
+                }).when(repository).insertBatch(anyList());
+                AuditProperties properties = new AuditProperties();
+                properties.setQueueCapacity(1);
+                properties.setOfferTimeoutMillis(50);
+                sink = new AuditSink(repository, properties);
+                sink.record(entries(1));
+                assertTrue(writing.await(5, TimeUnit.SECONDS));
+
+                // Act
+                CompletableFuture<Void> ack = sink.record(entries(3));
+
+                // Assert
+                ExecutionException e = assertThrows(ExecutionException.class, () -> ack.get(1, TimeUnit.SECONDS));
+                assertInstanceOf(ServiceUnavailableException.class, e.getCause());
+                assertEquals(2, sink.getDropped());
+                release.countDown();
+        }
+
+        private static List<AuditEntry> entries(int count) {
+                List<AuditEntry> entries = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                        entries.add(new AuditEntry(i + 1, Date.valueOf(LocalDate.of(2025, 11, 18)), "MCH-00001",
+                                        "pending", "completed", new BigDecimal("10.00"), null, Instant.now()));
+                }
+                return entries;
+        }
+}
@@ -0,0 +1,187 @@
+package com.payment.cache;
+
+import com.payment.cache.CacheInvalidation.MerchantDay;
+import com.payment.config.CacheInvalidationProperties;
+import com.payment.entity.TransactionDetail;
+import com.payment.entity.TransactionMaster;
+import com.payment.repository.TransactionIngestRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The V12 notification triggers and the listener, against a database built
+ * from the Flyway migrations
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class CacheInvalidationListenerTest {
+
+        private static final LocalDate DAY = LocalDate.of(2025, 1, 15);
+
+        @Container
+        static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:15-alpine");
+
+        private static HikariDataSource dataSource;
+        private static TransactionIngestRepository ingestRepository;
+
+        private final List<CacheInvalidation> received = new CopyOnWriteArrayList<>();
+        private CacheInvalidationListener listener;
+
+        @BeforeAll
+        static void migrate() throws SQLException {
+                Flyway.configure()
+                                .dataSource(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword())
+                                .schemas("operators")
+                                .locations("classpath:db/migration")
+                                .load()
+                                .migrate();
+
+                dataSource = new HikariDataSource();
+                dataSource.setJdbcUrl(POSTGRES.getJdbcUrl());
+                dataSource.setUsername(POSTGRES.getUsername());
+                dataSource.setPassword(POSTGRES.getPassword());
+                try (Connection connection = dataSource.getConnection();
+                                Statement statement = connection.createStatement()) {
+                        statement.execute("SELECT operators.create_transaction_partitions('" + DAY + "', '" + DAY + "')");
+                }
+                ingestRepository = new TransactionIngestRepository(dataSource);
+        }
+
+        @AfterAll
+        static void closePool() {
+                dataSource.close();
+        }
+
+        @BeforeEach
+        void listen() {
+                listener = new CacheInvalidationListener(List.of(received::add), new CacheInvalidationProperties(),
+                                POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+                listener.ensureListening();
+                assertThat(listener.isConnected()).isTrue();
+        }
+
+        @AfterEach
+        void stop() throws InterruptedException {
+                listener.close();
+        }
+
+        @Test
+        void everyListenStartsWithAnInvalidationOfEverything() {
+                assertThat(received).hasSize(1);
+                assertThat(received.get(0).everything()).isTrue();
+        }
+
+        @Test
+        void statusChangesAreSentAsMerchantDaysAndInsertsAreNot() throws SQLException {
+                List<TransactionMaster> transactions = new ArrayList<>();
+                for (int i = 0; i < 400; i++) {
+                        transactions.add(pending(String.format("MER-NOTIFY-%05d", i)));
+                }
+                ingestRepository.insertBatch(transactions, emptyDetails(transactions));
+                execute("UPDATE operators.transaction_master SET status = 'completed' "
+                                + "WHERE merchant_id LIKE 'MER-NOTIFY-%'");
+
+                Set<MerchantDay> keys = awaitTransactionKeys(400);
+                assertThat(keys).contains(new MerchantDay("MER-NOTIFY-00000", DAY),
+                                new MerchantDay("MER-NOTIFY-00399", DAY));
+                // 400 keys do not fit in one 8000 byte payload
+                assertThat(listener.getNotifications()).isGreaterThanOrEqualTo(2);
+        }
+
+        @Test
+        void merchantUpdatesAreSent() throws SQLException {
+                execute("INSERT INTO operators.merchants (merchant_id, merchant_name, business_name, email, phone, "
+                                + "business_type) VALUES ('MER-NOTIFY-M', 'Notify', 'Notify Ltd', 'n@example.com', "
+                                + "'555-0100', 'retail')");
+                execute("UPDATE operators.merchants SET is_active = FALSE WHERE merchant_id = 'MER-NOTIFY-M'");
+
+                long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+                while (received.stream().noneMatch(i -> i.merchants().contains("MER-NOTIFY-M"))
+                                && System.nanoTime() < deadline) {
+                        Thread.onSpinWait();
+                }
+                assertThat(received).anyMatch(i -> i.merchants().contains("MER-NOTIFY-M"));
+        }
+
+        @Test
+        void aLostConnectionIsReplacedAndInvalidatesEverything() throws Exception {
+                execute("SELECT pg_terminate_backend(pid) FROM pg_stat_activity "
+                                + "WHERE query LIKE 'LISTEN payment_cache_invalidation%' AND pid <> pg_backend_pid()");
+                long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+                while (listener.isConnected() && System.nanoTime() < deadline) {
+                        Thread.sleep(50);
+                }
+                assertThat(listener.isConnected()).isFalse();
+
+                listener.ensureListening();
+
+                assertThat(listener.isConnected()).isTrue();
+                assertThat(listener.getConnects()).isEqualTo(2);
+                assertThat(received).filteredOn(CacheInvalidation::everything).hasSize(2);
+        }
+
+        private Set<MerchantDay> awaitTransactionKeys(int expected) {
+                long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+                Set<MerchantDay> keys = new HashSet<>();
+                while (System.nanoTime() < deadline) {
+                        keys.clear();
+                        received.forEach(invalidation -> keys.addAll(invalidation.transactions()));
+                        if (keys.size() >= expected) {
+                                break;
+                        }
+                        Thread.onSpinWait();
+                }
+                assertThat(keys).hasSize(expected);
+                return keys;
+        }
+
+        private static void execute(String sql) throws SQLException {
+                try (Connection connection = dataSource.getConnection();
+                                Statement statement = connection.createStatement()) {
+                        statement.execute(sql);
+                }
+        }
+
+        private static TransactionMaster pending(String merchantId) {
+                TransactionMaster transaction = new TransactionMaster();
+                transaction.setMerchantId(merchantId);
+                transaction.setTxnDate(Date.valueOf(DAY));
+                transaction.setLocalTxnDateTime(DAY.atStartOfDay(ZoneOffset.UTC).toInstant());
+                transaction.setAmount(new BigDecimal("10.00"));
+                transaction.setCurrency("USD");
+                transaction.setStatus("pending");
+                transaction.setCardType("VISA");
+                return transaction;
+        }
+
+        private static List<List<TransactionDetail>> emptyDetails(List<TransactionMaster> transactions) {
+                List<List<TransactionDetail>> details = new ArrayList<>(transactions.size());
+                for (int i = 0; i < transactions.size(); i++) {
+                        details.add(List.of());
+                }
+                return details;
+        }
+}
@@ -0,0 +1,42 @@
+package com.payment.cache;
+
+import com.payment.cache.CacheInvalidation.MerchantDay;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CacheInvalidationTest {
+
+        @Test
+        void parseMergesTheKeysOfSeveralPayloads() {
+                CacheInvalidation invalidation = CacheInvalidation.parse(List.of(
+                                "t:MCH-00001:2025-11-18,t:MCH-00002:2025-11-17,m:MCH-00003",
+                                "t:MCH-00001:2025-11-18"));
+
+                assertThat(invalidation.transactions()).containsExactlyInAnyOrder(
+                                new MerchantDay("MCH-00001", LocalDate.of(2025, 11, 18)),
+                                new MerchantDay("MCH-00002", LocalDate.of(2025, 11, 17)));
+                assertThat(invalidation.merchants()).containsExactly("MCH-00003");
+                assertThat(invalidation.everything()).isFalse();
+        }
+
+        @Test
+        void parseSkipsKeysItCannotRead() {
+                CacheInvalidation invalidation = CacheInvalidation.parse(Arrays.asList(
+                                "t:MCH-00001:not-a-date,t:,x:MCH-00001,m:", "", null));
+
+                assertThat(invalidation.isEmpty()).isTrue();
+        }
+
+        @Test
+        void merchantIdsMayContainColons() {
+                CacheInvalidation invalidation = CacheInvalidation.parse(List.of("t:EU:MCH:7:2025-11-18"));
+
+                assertThat(invalidation.transactions())
+                                .containsExactly(new MerchantDay("EU:MCH:7", LocalDate.of(2025, 11, 18)));
+        }
+}
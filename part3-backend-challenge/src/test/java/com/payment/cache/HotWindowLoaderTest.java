@@ -0,0 +1,100 @@
+package com.payment.cache;
+
+import com.payment.config.HotWindowProperties;
+import com.payment.entity.TransactionMaster;
+import com.payment.repository.TransactionSearchRepository;
+import com.payment.repository.criteria.TransactionCriteria;
+import io.micronaut.data.model.Pageable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class HotWindowLoaderTest {
+
+        private static final LocalDate TODAY = LocalDate.of(2025, 11, 18);
+        private static final String MERCHANT = "MCH-00001";
+
+        @Mock
+        private TransactionSearchRepository transactionSearchRepository;
+
+        private HotWindowStore store;
+        private HotWindowLoader loader;
+
+        @BeforeEach
+        void setUp() {
+                store = new HotWindowStore();
+                loader = new HotWindowLoader(transactionSearchRepository, store, new TransactionBitmapIndex(),
+                                new HotWindowProperties());
+        }
+
+        @Test
+        void sync_RowCommittedBehindWatermark_IsAppliedOnNextPoll() {
+                // Arrange: id 2 is reserved by a batch that has not committed yet
+                when(transactionSearchRepository.findSince(eq(0L), any(), anyInt()))
+                                .thenReturn(List.of(transaction(1L), transaction(3L)));
+                loader.sync(TODAY);
+                when(transactionSearchRepository.findSince(eq(3L), any(), anyInt())).thenReturn(List.of());
+                when(transactionSearchRepository.findInIdRanges(any(), any(), any()))
+                                .thenReturn(List.of(transaction(2L)));
+
+                // Act
+                loader.sync(TODAY);
+
+                // Assert
+                assertThat(merchantPage()).containsExactly(3L, 2L, 1L);
+                assertThat(loader.getIdGaps().size()).isZero();
+                assertThat(loader.getIdGaps().getFilled()).isEqualTo(1);
+        }
+
+        @Test
+        void sync_NoSkippedIds_DoesNotQueryGaps() {
+                // Arrange
+                when(transactionSearchRepository.findSince(eq(0L), any(), anyInt()))
+                                .thenReturn(List.of(transaction(1L), transaction(2L)));
+
+                // Act
+                loader.sync(TODAY);
+
+                // Assert
+                assertThat(merchantPage()).containsExactly(2L, 1L);
+                verify(transactionSearchRepository, never()).findInIdRanges(any(), any(), any());
+        }
+
+        private List<Long> merchantPage() {
+                TransactionCriteria criteria = TransactionCriteria.builder()
+                                .merchantId(MERCHANT)
+                                .startDate(TODAY.minusDays(6))
+                                .build();
+                return store.findPage(criteria, Pageable.from(0, 20)).getContent().stream()
+                                .map(TransactionMaster::getTxnId)
+                                .toList();
+        }
+
+        private static TransactionMaster transaction(long txnId) {
+                TransactionMaster transaction = new TransactionMaster();
+                transaction.setTxnId(txnId);
+                transaction.setMerchantId(MERCHANT);
+                transaction.setTxnDate(Date.valueOf(TODAY));
+                transaction.setStatus("completed");
+                transaction.setCardType("VISA");
+                transaction.setAmount(new BigDecimal("10.00"));
+                transaction.setCurrency("USD");
+                return transaction;
+        }
+}
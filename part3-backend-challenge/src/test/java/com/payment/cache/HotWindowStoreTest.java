@@ -0,0 +1,131 @@
+package com.payment.cache;
+
+import com.payment.entity.TransactionMaster;
+import com.payment.repository.criteria.TransactionCriteria;
+import io.micronaut.data.model.Page;
+import io.micronaut.data.model.Pageable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HotWindowStoreTest {
+
+        private static final String MERCHANT = "MCH-00001";
+
+        private HotWindowStore store;
+
+        @BeforeEach
+        void setUp() {
+                store = new HotWindowStore();
+                store.advanceWindow(LocalDate.of(2025, 11, 12));
+                store.apply(List.of(
+                                transaction(1L, "2025-11-12", "completed", "VISA", "10.00"),
+                                transaction(2L, "2025-11-15", "failed", "AMEX", "20.00"),
+                                transaction(3L, "2025-11-15", "completed", "VISA", "30.00"),
+                                transaction(4L, "2025-11-18", "pending", "MASTERCARD", "40.00")));
+                store.markSynced(4L, Instant.parse("2025-11-18T12:00:00Z"));
+        }
+
+        @Test
+        void pagesAreOrderedNewestFirst() {
+                Page<TransactionMaster> page = store.findPage(criteria().startDate(LocalDate.of(2025, 11, 12)).build(),
+                                Pageable.from(0, 3));
+
+                assertThat(page.getContent()).extracting(TransactionMaster::getTxnId).containsExactly(4L, 3L, 2L);
+                assertThat(page.getTotalSize()).isEqualTo(4);
+        }
+
+        @Test
+        void filtersMatchSqlSemantics() {
+                TransactionCriteria criteria = criteria()
+                                .startDate(LocalDate.of(2025, 11, 12))
+                                .endDate(LocalDate.of(2025, 11, 15))
+                                .statuses(List.of("COMPLETED"))
+                                .cardTypes(List.of("visa"))
+                                .minAmount(new BigDecimal("15"))
+                                .build();
+
+                Page<TransactionMaster> page = store.findPage(criteria, Pageable.from(0, 20));
+
+                assertThat(page.getContent()).extracting(TransactionMaster::getTxnId).containsExactly(3L);
+        }
+
+        @Test
+        void offsetSkipsMatchesButCountsAll() {
+                Page<TransactionMaster> page = store.findPage(criteria().startDate(LocalDate.of(2025, 11, 12)).build(),
+                                Pageable.from(1, 3));
+
+                assertThat(page.getContent()).extracting(TransactionMaster::getTxnId).containsExactly(1L);
+                assertThat(page.getTotalSize()).isEqualTo(4);
+        }
+
+        @Test
+        void coversOnlyRangesStartingInsideTheWindow() {
+                assertThat(store.covers(criteria().startDate(LocalDate.of(2025, 11, 12)).build())).isTrue();
+                assertThat(store.covers(criteria().startDate(LocalDate.of(2025, 11, 11)).build())).isFalse();
+                assertThat(store.covers(criteria().build())).isFalse();
+                assertThat(new HotWindowStore().covers(criteria().startDate(LocalDate.of(2025, 11, 12)).build()))
+                                .isFalse();
+        }
+
+        @Test
+        void advancingTheWindowEvictsOlderDays() {
+                store.advanceWindow(LocalDate.of(2025, 11, 15));
+
+                assertThat(store.size()).isEqualTo(3);
+                store.upsert(transaction(5L, "2025-11-14", "completed", "VISA", "1.00"));
+                assertThat(store.size()).isEqualTo(3);
+        }
+
+        @Test
+        void upsertReplacesExistingTransaction() {
+                store.upsert(transaction(4L, "2025-11-18", "completed", "MASTERCARD", "40.00"));
+
+                Page<TransactionMaster> page = store.findPage(criteria()
+                                .startDate(LocalDate.of(2025, 11, 18))
+                                .statuses(List.of("completed"))
+                                .build(), Pageable.from(0, 20));
+
+                assertThat(page.getContent()).extracting(TransactionMaster::getTxnId).containsExactly(4L);
+                assertThat(store.size()).isEqualTo(4);
+        }
+
+        @Test
+        void replaceDayRefreshesChangedRowsAndDropsDeletedOnes() {
+                List<TransactionMaster> removed = store.replaceDay(MERCHANT, LocalDate.of(2025, 11, 15),
+                                List.of(transaction(3L, "2025-11-15", "reversed", "VISA", "30.00")));
+
+                Page<TransactionMaster> page = store.findPage(criteria()
+                                .startDate(LocalDate.of(2025, 11, 15))
+                                .endDate(LocalDate.of(2025, 11, 15))
+                                .build(), Pageable.from(0, 20));
+
+                assertThat(removed).extracting(TransactionMaster::getTxnId).containsExactly(2L);
+                assertThat(page.getContent()).extracting(TransactionMaster::getStatus).containsExactly("reversed");
+                assertThat(store.size()).isEqualTo(3);
+        }
+
+        private static TransactionCriteria.Builder criteria() {
+                return TransactionCriteria.builder().merchantId(MERCHANT);
+        }
+
+        private static TransactionMaster transaction(long txnId, String date, String status, String cardType,
+                        String amount) {
+                TransactionMaster transaction = new TransactionMaster();
+                transaction.setTxnId(txnId);
+                transaction.setMerchantId(MERCHANT);
+                transaction.setTxnDate(Date.valueOf(date));
+                transaction.setStatus(status);
+                transaction.setCardType(cardType);
+                transaction.setAmount(new BigDecimal(amount));
+                transaction.setCurrency("USD");
+                return transaction;
+        }
+}
@@ -0,0 +1,130 @@
+package com.payment.cache;
+
+import com.payment.entity.TransactionMaster;
+import io.micronaut.data.model.Page;
+import io.micronaut.data.model.Pageable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TransactionBitmapIndexTest {
+
+        private TransactionBitmapIndex index;
+
+        @BeforeEach
+        void setUp() {
+                index = new TransactionBitmapIndex();
+                index.advanceWindow(LocalDate.of(2025, 11, 12));
+                index.apply(List.of(
+                                transaction(1_000L, "MCH-00001", "2025-11-12", "completed", "VISA", "USD"),
+                                transaction(1_001L, "MCH-00002", "2025-11-12", "failed", "AMEX", "USD"),
+                                transaction(1_002L, "MCH-00001", "2025-11-14", "failed", "VISA", "EUR"),
+                                transaction(1_003L, "MCH-00003", "2025-11-15", "reversed", null, "USD"),
+                                transaction(1_004L, "MCH-00002", "2025-11-16", "completed", "MASTERCARD", "GBP"),
+                                transaction(1_005L, "MCH-00001", "2025-11-18", "failed", "AMEX", "USD")));
+                index.markSynced(1_005L, Instant.parse("2025-11-18T12:00:00Z"));
+        }
+
+        @Test
+        void valuesWithinADimensionAreOredAndDimensionsAnded() {
+                assertThat(index.count(filter(null, Set.of("failed"), null, null))).isEqualTo(3);
+                assertThat(index.count(filter(null, Set.of("failed", "reversed"), null, Set.of("USD")))).isEqualTo(3);
+                assertThat(index.count(filter(Set.of("MCH-00001"), Set.of("failed"), Set.of("VISA", "AMEX"), null)))
+                                .isEqualTo(2);
+                assertThat(index.count(filter(Set.of("MCH-00002", "MCH-00003"), null, null, Set.of("USD"))))
+                                .isEqualTo(2);
+                assertThat(index.count(filter(null, null, null, null))).isEqualTo(6);
+        }
+
+        @Test
+        void unknownValuesAndNullCardTypesMatchNothing() {
+                assertThat(index.count(filter(Set.of("MCH-99999"), null, null, null))).isZero();
+                assertThat(index.count(filter(null, Set.of("reversed"), Set.of("VISA"), null))).isZero();
+        }
+
+        @Test
+        void dateRangeSelectsDays() {
+                TransactionBitmapIndex.Filter range = new TransactionBitmapIndex.Filter(null, null, null, null,
+                                LocalDate.of(2025, 11, 14), LocalDate.of(2025, 11, 16));
+
+                assertThat(index.count(range)).isEqualTo(3);
+        }
+
+        @Test
+        void pagesAreNewestFirst() {
+                TransactionBitmapIndex.Filter all = filter(null, null, null, null);
+
+                Page<TransactionMaster> first = index.findPage(all, Pageable.from(0, 4));
+                Page<TransactionMaster> second = index.findPage(all, Pageable.from(1, 4));
+
+                assertThat(first.getTotalSize()).isEqualTo(6);
+                assertThat(first.getContent()).extracting(TransactionMaster::getTxnId)
+                                .containsExactly(1_005L, 1_004L, 1_003L, 1_002L);
+                assertThat(second.getContent()).extracting(TransactionMaster::getTxnId)
+                                .containsExactly(1_001L, 1_000L);
+        }
+
+        @Test
+        void reapplyingARowMovesItBetweenBitmaps() {
+                index.apply(List.of(transaction(1_001L, "MCH-00002", "2025-11-12", "completed", "AMEX", "USD")));
+
+                assertThat(index.count(filter(null, Set.of("failed"), null, null))).isEqualTo(2);
+                assertThat(index.count(filter(null, Set.of("completed"), null, null))).isEqualTo(3);
+                assertThat(index.size()).isEqualTo(6);
+        }
+
+        @Test
+        void removedRowsMatchNothing() {
+                index.removeAll(List.of(transaction(1_002L, "MCH-00001", "2025-11-14", "failed", "VISA", "EUR")));
+
+                assertThat(index.size()).isEqualTo(5);
+                assertThat(index.count(filter(Set.of("MCH-00001"), Set.of("failed"), null, null))).isEqualTo(1);
+                assertThat(index.count(filter(null, null, null, Set.of("EUR")))).isZero();
+        }
+
+        @Test
+        void advancingTheWindowEvictsOldDays() {
+                index.advanceWindow(LocalDate.of(2025, 11, 15));
+
+                assertThat(index.size()).isEqualTo(3);
+                assertThat(index.count(filter(Set.of("MCH-00001"), null, null, null))).isEqualTo(1);
+                assertThat(index.findPage(filter(null, null, null, null), Pageable.from(0, 10)).getContent())
+                                .extracting(TransactionMaster::getTxnId)
+                                .containsExactly(1_005L, 1_004L, 1_003L);
+                assertThat(index.covers(new TransactionBitmapIndex.Filter(null, null, null, null,
+                                LocalDate.of(2025, 11, 14), null))).isFalse();
+        }
+
+        @Test
+        void rowsBeforeTheWindowAreIgnored() {
+                index.apply(List.of(transaction(1_006L, "MCH-00001", "2025-11-01", "completed", "VISA", "USD")));
+
+                assertThat(index.size()).isEqualTo(6);
+        }
+
+        private static TransactionBitmapIndex.Filter filter(Set<String> merchantIds, Set<String> statuses,
+                        Set<String> cardTypes, Set<String> currencies) {
+                return new TransactionBitmapIndex.Filter(merchantIds, statuses, cardTypes, currencies, null, null);
+        }
+
+        private static TransactionMaster transaction(long txnId, String merchantId, String date, String status,
+                        String cardType, String currency) {
+                TransactionMaster transaction = new TransactionMaster();
+                transaction.setTxnId(txnId);
+                transaction.setMerchantId(merchantId);
+                transaction.setTxnDate(Date.valueOf(date));
+                transaction.setStatus(status);
+                transaction.setCardType(cardType);
+                transaction.setAmount(new BigDecimal("10.00"));
+                transaction.setCurrency(currency);
+                return transaction;
+        }
+}
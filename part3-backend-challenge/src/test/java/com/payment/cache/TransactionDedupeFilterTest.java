@@ -0,0 +1,114 @@
+package com.payment.cache;
+
+import com.payment.entity.TransactionMaster;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TransactionDedupeFilterTest {
+
+        private static final Instant AT = Instant.parse("2025-11-18T14:30:00.123456Z");
+
+        @Test
+        void bloomFilterIsSizedFromKeysAndTargetRate() {
+                BloomFilter filter = new BloomFilter(1_000_000L, 0.01);
+
+                // 9.59 bits and 7 probes per key at 1%
+                assertThat(filter.bitSize()).isBetween(9_585_000L, 9_590_000L);
+                assertThat(filter.hashCount()).isEqualTo(7);
+                assertThat(filter.sizeInBytes()).isLessThan(1_200_000L);
+
+                assertThatThrownBy(() -> new BloomFilter(0L, 0.01)).isInstanceOf(IllegalArgumentException.class);
+                assertThatThrownBy(() -> new BloomFilter(10L, 1.0)).isInstanceOf(IllegalArgumentException.class);
+        }
+
+        @Test
+        void measuredFalsePositiveRateMatchesTarget() {
+                int keys = 200_000;
+                BloomFilter filter = new BloomFilter(keys, 0.01);
+                for (int i = 0; i < keys; i++) {
+                        filter.put(TransactionDedupeFilter.keyHash("MCH-" + (i % 5000), "AUTH" + i, i * 1_000L, i % 100_000));
+                }
+                for (int i = 0; i < keys; i++) {
+                        assertThat(filter.mightContain(TransactionDedupeFilter.keyHash("MCH-" + (i % 5000), "AUTH" + i,
+                                        i * 1_000L, i % 100_000))).isTrue();
+                }
+
+                int probes = 200_000;
+                int falsePositives = 0;
+                for (int i = 0; i < probes; i++) {
+                        // Same merchants and amounts, unseen auth codes
+                        if (filter.mightContain(TransactionDedupeFilter.keyHash("MCH-" + (i % 5000), "NEW" + i,
+                                        i * 1_000L, i % 100_000))) {
+                                falsePositives++;
+                        }
+                }
+                double measured = (double) falsePositives / probes;
+
+                assertThat(measured).isBetween(0.005, 0.015);
+                assertThat(filter.expectedFalsePositiveRate()).isBetween(0.009, 0.011);
+        }
+
+        @Test
+        void entityAndStoredFormsHashAlike() {
+                TransactionMaster transaction = transaction("MCH-00001", "AUTH1", "150.00");
+
+                long stored = TransactionDedupeFilter.keyHash("MCH-00001", "AUTH1",
+                                AT.getEpochSecond() * 1_000_000L + 123_456L, 15_000L);
+
+                assertThat(TransactionDedupeFilter.keyHash(transaction)).isEqualTo(stored);
+                assertThat(TransactionDedupeFilter.keyHash(transaction("MCH-00001", "AUTH1", "150.01")))
+                                .isNotEqualTo(stored);
+                assertThat(TransactionDedupeFilter.keyHash(transaction("MCH-00002", "AUTH1", "150.00")))
+                                .isNotEqualTo(stored);
+        }
+
+        @Test
+        void reportsPossibleHitForEverythingUntilLoaded() {
+                TransactionDedupeFilter dedupeFilter = new TransactionDedupeFilter();
+
+                assertThat(dedupeFilter.isReady()).isFalse();
+                assertThat(dedupeFilter.mightContain(transaction("MCH-00001", "AUTH1", "1.00"))).isTrue();
+        }
+
+        @Test
+        void keysWrittenDuringRebuildReachTheNewFilter() {
+                TransactionDedupeFilter dedupeFilter = new TransactionDedupeFilter();
+                TransactionMaster during = transaction("MCH-00001", "AUTH1", "1.00");
+                TransactionMaster unseen = transaction("MCH-00001", "AUTH2", "1.00");
+
+                dedupeFilter.beginRebuild(new BloomFilter(1_000L, 0.001));
+                dedupeFilter.add(List.of(during));
+                dedupeFilter.finishRebuild(AT);
+
+                assertThat(dedupeFilter.isReady()).isTrue();
+                assertThat(dedupeFilter.mightContain(during)).isTrue();
+                assertThat(dedupeFilter.mightContain(unseen)).isFalse();
+        }
+
+        @Test
+        void observedFalsePositiveRateExcludesConfirmedDuplicates() {
+                TransactionDedupeFilter dedupeFilter = new TransactionDedupeFilter();
+
+                // 100 keys checked, 12 possible hits of which 10 were real duplicates
+                dedupeFilter.recordChecks(100, 12, 10);
+
+                assertThat(dedupeFilter.getObservedFalsePositiveRate()).isEqualTo(2.0 / 90);
+        }
+
+        private static TransactionMaster transaction(String merchantId, String authCode, String amount) {
+                TransactionMaster transaction = new TransactionMaster();
+                transaction.setMerchantId(merchantId);
+                transaction.setAuthCode(authCode);
+                transaction.setLocalTxnDateTime(AT);
+                transaction.setAmount(new BigDecimal(amount));
+                transaction.setTxnDate(Date.valueOf("2025-11-18"));
+                return transaction;
+        }
+}
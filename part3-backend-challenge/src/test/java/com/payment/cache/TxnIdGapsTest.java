@@ -0,0 +1,79 @@
+package com.payment.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TxnIdGapsTest {
+
+        private static final Instant NOW = Instant.parse("2025-11-18T12:00:00Z");
+
+        @Test
+        void seen_SkippedIds_OpenGap() {
+                TxnIdGaps gaps = new TxnIdGaps(Duration.ofMinutes(2), 100);
+
+                gaps.seen(10L, NOW);
+                gaps.seen(11L, NOW);
+                gaps.seen(15L, NOW);
+
+                assertThat(gaps.open(NOW)).containsExactly(new TxnIdGaps.Gap(12L, 14L, NOW));
+                assertThat(gaps.getHighestSeen()).isEqualTo(15L);
+        }
+
+        @Test
+        void fill_IdInsideGap_SplitsGap() {
+                TxnIdGaps gaps = new TxnIdGaps(Duration.ofMinutes(2), 100);
+                gaps.seen(10L, NOW);
+                gaps.seen(20L, NOW);
+
+                boolean filled = gaps.fill(15L);
+
+                assertThat(filled).isTrue();
+                assertThat(gaps.open(NOW)).containsExactly(new TxnIdGaps.Gap(11L, 14L, NOW),
+                                new TxnIdGaps.Gap(16L, 19L, NOW));
+                assertThat(gaps.fill(15L)).isFalse();
+                assertThat(gaps.getFilled()).isEqualTo(1);
+        }
+
+        @Test
+        void open_GapOlderThanCommitLag_Expires() {
+                TxnIdGaps gaps = new TxnIdGaps(Duration.ofMinutes(2), 100);
+                gaps.seen(10L, NOW);
+                gaps.seen(12L, NOW);
+                gaps.seen(20L, NOW.plusSeconds(90));
+
+                List<TxnIdGaps.Gap> open = gaps.open(NOW.plusSeconds(150));
+
+                assertThat(open).containsExactly(new TxnIdGaps.Gap(13L, 19L, NOW.plusSeconds(90)));
+                assertThat(gaps.getExpired()).isEqualTo(1);
+        }
+
+        @Test
+        void seen_MoreGapsThanMax_GivesUpLowestIds() {
+                TxnIdGaps gaps = new TxnIdGaps(Duration.ofMinutes(2), 2);
+
+                for (long id = 1; id <= 9; id += 2) {
+                        gaps.seen(id, NOW);
+                }
+
+                assertThat(gaps.open(NOW)).extracting(TxnIdGaps.Gap::from).containsExactly(6L, 8L);
+                assertThat(gaps.getDropped()).isEqualTo(2);
+        }
+
+        @Test
+        void reset_FirstIdAfterReset_OpensNoGapBelowIt() {
+                TxnIdGaps gaps = new TxnIdGaps(Duration.ofMinutes(2), 100);
+                gaps.seen(5L, NOW);
+                gaps.seen(9L, NOW);
+
+                gaps.reset();
+                gaps.seen(1_000L, NOW);
+
+                assertThat(gaps.open(NOW)).isEmpty();
+                assertThat(gaps.getHighestSeen()).isEqualTo(1_000L);
+        }
+}
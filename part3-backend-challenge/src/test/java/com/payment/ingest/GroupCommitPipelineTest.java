@@ -0,0 +1,424 @@
+package com.payment.ingest;
+
+import com.payment.config.IngestionProperties;
+import com.payment.config.IngestionProperties.JournalFsync;
+import com.payment.dto.transaction.TransactionBatchRequest;
+import com.payment.dto.transaction.TransactionBatchResponse;
+import com.payment.dto.transaction.TransactionIngestDTO;
+import com.payment.entity.TransactionDetail;
+import com.payment.entity.TransactionMaster;
+import com.payment.exception.TooManyRequestsException;
+import com.payment.repository.TransactionIngestRepository.JournalPosition;
+import com.payment.service.TransactionIngestionService;
+import com.payment.service.TransactionIngestionService.PreparedBatch;
+import io.micronaut.data.exceptions.DataAccessException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.sql.Date;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class GroupCommitPipelineTest {
+
+        @Mock
+        private TransactionIngestionService ingestionService;
+
+        @TempDir
+        Path journalDir;
+
+        private IngestionProperties properties;
+        private GroupCommitPipeline pipeline;
+        private IngestJournal journal;
+
+        @BeforeEach
+        void setUp() {
+                properties = new IngestionProperties();
+                // Each request carries its merchant ID; the prepared batch has that many transactions
+                when(ingestionService.prepare(any())).thenAnswer(invocation -> {
+                        TransactionBatchRequest request = invocation.getArgument(0);
+                        List<TransactionMaster> transactions = new ArrayList<>();
+                        List<List<TransactionDetail>> details = new ArrayList<>();
+                        for (TransactionIngestDTO item : request.getTransactions()) {
+                                TransactionMaster transaction = new TransactionMaster();
+                                transaction.setMerchantId(item.getMerchantId());
+                                transaction.setTxnDate(Date.valueOf(LocalDate.of(2025, 1, 15)));
+                                transaction.setLocalTxnDateTime(Instant.parse("2025-01-15T10:00:00Z"));
+                                transaction.setAmount(new BigDecimal("10.00"));
+                                transaction.setStatus("completed");
+                                transactions.add(transaction);
+                                details.add(List.of());
+                        }
+                        return new PreparedBatch(transactions, details);
+                });
+                when(ingestionService.write(anyList())).thenAnswer(invocation -> respond(invocation.getArgument(0)));
+                when(ingestionService.write(anyList(), any())).thenAnswer(invocation -> respond(invocation.getArgument(0)));
+        }
+
+        @AfterEach
+        void tearDown() throws InterruptedException {
+                if (pipeline != null) {
+                        pipeline.close();
+                }
+                if (journal != null) {
+                        journal.close();
+                }
+        }
+
+        @Test
+        @SuppressWarnings("unchecked")
+        void submit_QueuedRequestsCommitAsOneGroup() throws Exception {
+                // Arrange
+                properties.setGroupMaxDelayMillis(500);
+                pipeline = new GroupCommitPipeline(ingestionService, properties);
+
+                // Act
+                CompletableFuture<TransactionBatchResponse> first = pipeline.submit(request("MCH-1", 2));
+                CompletableFuture<TransactionBatchResponse> second = pipeline.submit(request("MCH-2", 1));
+                CompletableFuture<TransactionBatchResponse> third = pipeline.submit(request("MCH-3", 3));
+
+                // Assert
+                assertEquals(2, first.get(5, TimeUnit.SECONDS).getTransactionCount());
+                assertEquals(1, second.get(5, TimeUnit.SECONDS).getTransactionCount());
+                assertEquals(3, third.get(5, TimeUnit.SECONDS).getTransactionCount());
+
+                ArgumentCaptor<List<PreparedBatch>> groups = ArgumentCaptor.forClass(List.class);
+                verify(ingestionService, times(1)).write(groups.capture());
+                assertEquals(3, groups.getValue().size());
+                assertEquals(1, pipeline.getCommits());
+                assertEquals(6, pipeline.getCommittedTransactions());
+                assertEquals(0, pipeline.getPendingTransactions());
+                assertEquals(3, pipeline.getAckLatency().count());
+        }
+
+        @Test
+        void submit_FullGroupCommitsWithoutWaitingForDelay() throws Exception {
+                // Arrange
+                properties.setGroupMaxDelayMillis(60_000);
+                properties.setGroupMaxTransactions(3);
+                pipeline = new GroupCommitPipeline(ingestionService, properties);
+
+                // Act
+                CompletableFuture<TransactionBatchResponse> first = pipeline.submit(request("MCH-1", 1));
+                CompletableFuture<TransactionBatchResponse> second = pipeline.submit(request("MCH-2", 2));
+
+                // Assert
+                assertNotNull(first.get(5, TimeUnit.SECONDS));
+                assertNotNull(second.get(5, TimeUnit.SECONDS));
+                assertEquals(3, pipeline.getLargestGroup());
+        }
+
+        @Test
+        void submit_WhenPendingLimitReached_RejectsWithTooManyRequests() throws Exception {
+                // Arrange
+                CountDownLatch writing = new CountDownLatch(1);
+                CountDownLatch release = new CountDownLatch(1);
+                when(ingestionService.write(anyList())).thenAnswer(invocation -> {
+                        writing.countDown();
+                        release.await();
+                        return respond(invocation.getArgument(0));
+                });
+                properties.setGroupMaxDelayMillis(0);
+                properties.setMaxPendingTransactions(2);
+                pipeline = new GroupCommitPipeline(ingestionService, properties);
+
+                CompletableFuture<TransactionBatchResponse> first = pipeline.submit(request("MCH-1", 2));
+                assertTrue(writing.await(5, TimeUnit.SECONDS));
+
+                // Act & Assert
+                assertThrows(TooManyRequestsException.class, () -> pipeline.submit(request("MCH-2", 1)));
+                assertEquals(1, pipeline.getRejected());
+
+                release.countDown();
+                assertNotNull(first.get(5, TimeUnit.SECONDS));
+                assertNotNull(pipeline.submit(request("MCH-2", 1)).get(5, TimeUnit.SECONDS));
+        }
+
+        @Test
+        void submit_WithRejectedDataInGroup_FailsOnlyThatRequest() throws Exception {
+                // Arrange
+                when(ingestionService.write(anyList())).thenAnswer(invocation -> {
+                        List<PreparedBatch> batches = invocation.getArgument(0);
+                        for (PreparedBatch batch : batches) {
+                                if ("BAD".equals(batch.transactions().get(0).getMerchantId())) {
+                                        throw new IllegalArgumentException("Transaction batch rejected");
+                                }
+                        }
+                        return respond(batches);
+                });
+                properties.setGroupMaxDelayMillis(500);
+                pipeline = new GroupCommitPipeline(ingestionService, properties);
+
+                // Act
+                CompletableFuture<TransactionBatchResponse> good = pipeline.submit(request("MCH-1", 1));
+                CompletableFuture<TransactionBatchResponse> bad = pipeline.submit(request("BAD", 1));
+
+                // Assert
+                assertEquals(1, good.get(5, TimeUnit.SECONDS).getTransactionCount());
+                ExecutionException failure = assertThrows(ExecutionException.class, () -> bad.get(5, TimeUnit.SECONDS));
+                assertInstanceOf(IllegalArgumentException.class, failure.getCause());
+                assertEquals(1, pipeline.getFailed());
+                assertEquals(0, pipeline.getPendingTransactions());
+        }
+
+        @Test
+        void submit_WithInvalidRequest_ThrowsBeforeQueueing() {
+                // Arrange
+                doThrow(new IllegalArgumentException("At least one transaction is required"))
+                                .when(ingestionService).prepare(any());
+                pipeline = new GroupCommitPipeline(ingestionService, properties);
+
+                // Act & Assert
+                assertThrows(IllegalArgumentException.class, () -> pipeline.submit(new TransactionBatchRequest()));
+                assertEquals(0, pipeline.getAccepted());
+        }
+
+        @Test
+        void submit_WithGroupCommitDisabled_WritesOnCallerThread() throws Exception {
+                // Arrange
+                properties.setGroupCommitEnabled(false);
+                pipeline = new GroupCommitPipeline(ingestionService, properties);
+
+                // Act
+                CompletableFuture<TransactionBatchResponse> result = pipeline.submit(request("MCH-1", 1));
+
+                // Assert
+                assertTrue(result.isDone());
+                assertEquals(1, result.get().getTransactionCount());
+                assertFalse(pipeline.isEnabled());
+        }
+
+        @Test
+        void close_CommitsEverythingQueued() throws Exception {
+                // Arrange
+                properties.setGroupMaxDelayMillis(60_000);
+                pipeline = new GroupCommitPipeline(ingestionService, properties);
+                CompletableFuture<TransactionBatchResponse> queued = pipeline.submit(request("MCH-1", 1));
+
+                // Act
+                pipeline.close();
+
+                // Assert
+                assertTrue(queued.isDone());
+                assertEquals(1, queued.get().getTransactionCount());
+        }
+
+        @Test
+        @SuppressWarnings("unchecked")
+        void submit_WithJournal_AcknowledgesBeforeTheGroupCommits() throws Exception {
+                // Arrange
+                CountDownLatch release = new CountDownLatch(1);
+                when(ingestionService.write(anyList(), any())).thenAnswer(invocation -> {
+                        release.await();
+                        return respond(invocation.getArgument(0));
+                });
+                properties.setGroupMaxDelayMillis(0);
+                journal = new IngestJournal(journalDir, 1024 * 1024, JournalFsync.ALWAYS, 10);
+                pipeline = new GroupCommitPipeline(ingestionService, properties, journal);
+
+                // Act
+                TransactionBatchResponse response = pipeline.submit(request("MCH-1", 2)).get(5, TimeUnit.SECONDS);
+
+                // Assert
+                assertEquals(1L, response.getJournalSequence());
+                assertEquals(2, response.getTransactionCount());
+                assertNull(response.getTxnIds());
+                assertEquals(1, journal.getDurableSequence());
+
+                release.countDown();
+                ArgumentCaptor<JournalPosition> position = ArgumentCaptor.forClass(JournalPosition.class);
+                verify(ingestionService, timeout(5000)).write(anyList(), position.capture());
+                assertEquals(new JournalPosition(journal.getJournalId(), 1), position.getValue());
+                verify(ingestionService, never()).write(anyList());
+        }
+
+        @Test
+        @SuppressWarnings("unchecked")
+        void start_WithJournal_ReplaysRecordsAfterTheCheckpoint() throws Exception {
+                // Arrange: three requests were journaled, the first of them committed, then the process died
+                IngestJournal previous = new IngestJournal(journalDir, 1024 * 1024, JournalFsync.ALWAYS, 10);
+                for (String merchantId : List.of("MCH-1", "MCH-2", "MCH-3")) {
+                        previous.append(JournalCodec.encode(ingestionService.prepare(request(merchantId, 1))));
+                }
+                previous.close();
+                when(ingestionService.journalCheckpoint(anyString())).thenReturn(1L);
+                journal = new IngestJournal(journalDir, 1024 * 1024, JournalFsync.ALWAYS, 10);
+
+                // Act
+                pipeline = new GroupCommitPipeline(ingestionService, properties, journal);
+
+                // Assert
+                ArgumentCaptor<List<PreparedBatch>> batches = ArgumentCaptor.forClass(List.class);
+                ArgumentCaptor<JournalPosition> position = ArgumentCaptor.forClass(JournalPosition.class);
+                verify(ingestionService, timeout(5000)).write(batches.capture(), position.capture());
+                List<String> merchants = batches.getValue().stream()
+                                .map(batch -> batch.transactions().get(0).getMerchantId())
+                                .toList();
+                assertEquals(List.of("MCH-2", "MCH-3"), merchants);
+                assertEquals(new BigDecimal("10.00"), batches.getValue().get(0).transactions().get(0).getAmount());
+                assertEquals(3, position.getValue().sequence());
+                assertEquals(2, pipeline.getReplayedRequests());
+        }
+
+        @Test
+        void commit_WithJournal_RetriesUntilTheDatabaseIsBack() throws Exception {
+                // Arrange
+                when(ingestionService.write(anyList(), any()))
+                                .thenThrow(new DataAccessException("Connection refused"))
+                                .thenAnswer(invocation -> respond(invocation.getArgument(0)));
+                properties.setGroupMaxDelayMillis(0);
+                journal = new IngestJournal(journalDir, 1024 * 1024, JournalFsync.ALWAYS, 10);
+                pipeline = new GroupCommitPipeline(ingestionService, properties, journal);
+
+                // Act
+                pipeline.submit(request("MCH-1", 1)).get(5, TimeUnit.SECONDS);
+
+                // Assert
+                verify(ingestionService, timeout(5000).times(2)).write(anyList(), any());
+                assertEquals(1, pipeline.getRetries());
+                assertEquals(0, pipeline.getFailed());
+        }
+
+        @Test
+        void commit_WithJournal_KeepsRejectedRecordAsDeadLetter() throws Exception {
+                // Arrange
+                when(ingestionService.write(anyList(), any()))
+                                .thenThrow(new IllegalArgumentException("Transaction batch rejected: no partition"));
+                doThrow(new DataAccessException("Connection refused")).doNothing()
+                                .when(ingestionService).deadLetter(any(), any(), anyInt(), anyString());
+                properties.setGroupMaxDelayMillis(0);
+                journal = new IngestJournal(journalDir, 1024 * 1024, JournalFsync.ALWAYS, 10);
+                pipeline = new GroupCommitPipeline(ingestionService, properties, journal);
+
+                // Act
+                TransactionBatchResponse response = pipeline.submit(request("MCH-1", 2)).get(5, TimeUnit.SECONDS);
+
+                // Assert
+                ArgumentCaptor<byte[]> payload = ArgumentCaptor.forClass(byte[].class);
+                verify(ingestionService, timeout(5000).times(2)).deadLetter(
+                                eq(new JournalPosition(journal.getJournalId(), response.getJournalSequence())),
+                                payload.capture(), eq(2), eq("Transaction batch rejected: no partition"));
+                assertEquals("MCH-1", JournalCodec.decode(payload.getValue()).transactions().get(0).getMerchantId());
+                long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+                while (pipeline.getFailed() == 0 && System.nanoTime() < deadline) {
+                        Thread.sleep(10);
+                }
+                assertEquals(1, pipeline.getDeadLettered());
+                assertEquals(1, pipeline.getRetries());
+                assertEquals(1, pipeline.getFailed());
+        }
+
+        @Test
+        void start_WithJournalBehindTheCheckpoint_NumbersAfterTheCheckpoint() throws Exception {
+                // Arrange: the database committed up to 5, but an OS crash left only record 1 on disk
+                IngestJournal previous = new IngestJournal(journalDir, 1024 * 1024, JournalFsync.ALWAYS, 10);
+                previous.append(JournalCodec.encode(ingestionService.prepare(request("MCH-1", 1))));
+                previous.close();
+                when(ingestionService.journalCheckpoint(anyString())).thenReturn(5L);
+                properties.setGroupMaxDelayMillis(0);
+                journal = new IngestJournal(journalDir, 1024 * 1024, JournalFsync.ALWAYS, 10);
+                pipeline = new GroupCommitPipeline(ingestionService, properties, journal);
+
+                // Act
+                TransactionBatchResponse response = pipeline.submit(request("MCH-2", 1)).get(5, TimeUnit.SECONDS);
+
+                // Assert
+                assertEquals(1, journal.getRecoveredSequence());
+                assertEquals(6L, response.getJournalSequence());
+                ArgumentCaptor<JournalPosition> position = ArgumentCaptor.forClass(JournalPosition.class);
+                verify(ingestionService, timeout(5000)).write(anyList(), position.capture());
+                assertEquals(6, position.getValue().sequence());
+                assertEquals(0, pipeline.getReplayedRequests());
+        }
+
+        @Test
+        void commit_WithJournal_SplitGroupStopsOnceAbandoned() throws Exception {
+                // Arrange: the group is rejected, and its first request fails while shutting down
+                CountDownLatch writing = new CountDownLatch(1);
+                CountDownLatch release = new CountDownLatch(1);
+                when(ingestionService.write(anyList(), any())).thenAnswer(invocation -> {
+                        List<PreparedBatch> batches = invocation.getArgument(0);
+                        if (batches.size() > 1) {
+                                throw new IllegalArgumentException("Transaction batch rejected");
+                        }
+                        if ("MCH-1".equals(batches.get(0).transactions().get(0).getMerchantId())) {
+                                writing.countDown();
+                                release.await();
+                                throw new DataAccessException("Connection refused");
+                        }
+                        return respond(batches);
+                });
+                properties.setGroupMaxDelayMillis(500);
+                journal = new IngestJournal(journalDir, 1024 * 1024, JournalFsync.ALWAYS, 10);
+                pipeline = new GroupCommitPipeline(ingestionService, properties, journal);
+                for (String merchantId : List.of("MCH-1", "MCH-2", "MCH-3")) {
+                        pipeline.submit(request(merchantId, 1)).get(5, TimeUnit.SECONDS);
+                }
+                assertTrue(writing.await(5, TimeUnit.SECONDS));
+
+                // Act
+                Thread closer = new Thread(() -> {
+                        try {
+                                pipeline.close();
+                        } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                        }
+                });
+                closer.start();
+                while (closer.getState() != Thread.State.TIMED_WAITING && closer.isAlive()) {
+                        Thread.sleep(1);
+                }
+                release.countDown();
+                closer.join(5000);
+
+                // Assert: the later requests stay in the journal instead of moving the checkpoint past MCH-1
+                verify(ingestionService, times(2)).write(anyList(), any());
+                assertEquals(3, pipeline.getFailed());
+                assertEquals(0, pipeline.getPendingTransactions());
+        }
+
+        private static List<TransactionBatchResponse> respond(List<PreparedBatch> batches) {
+                List<TransactionBatchResponse> responses = new ArrayList<>();
+                for (PreparedBatch batch : batches) {
+                        responses.add(TransactionBatchResponse.builder()
+                                        .transactionCount(batch.size())
+                                        .txnIds(new ArrayList<>())
+                                        .build());
+                }
+                return responses;
+        }
+
+        private static TransactionBatchRequest request(String merchantId, int transactions) {
+                List<TransactionIngestDTO> items = new ArrayList<>();
+                for (int i = 0; i < transactions; i++) {
+                        items.add(TransactionIngestDTO.builder().merchantId(merchantId).build());
+                }
+                return new TransactionBatchRequest(items);
+        }
+}
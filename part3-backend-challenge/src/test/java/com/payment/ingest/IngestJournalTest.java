@@ -0,0 +1,188 @@
+package com.payment.ingest;
+
+import com.payment.config.IngestionProperties.JournalFsync;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IngestJournalTest {
+
+        private static final long SEGMENT_BYTES = 1024 * 1024;
+
+        @TempDir
+        Path directory;
+
+        @Test
+        void append_ThenReopen_ReplaysRecordsAfterCheckpoint() throws Exception {
+                // Arrange
+                IngestJournal journal = open(SEGMENT_BYTES);
+                String journalId = journal.getJournalId();
+                for (int i = 1; i <= 4; i++) {
+                        journal.append(payload("record-" + i));
+                }
+                journal.close();
+
+                // Act
+                IngestJournal reopened = open(SEGMENT_BYTES);
+                List<String> replayed = new ArrayList<>();
+                reopened.replay(2, (sequence, payload) -> replayed.add(sequence + ":" + text(payload)));
+                IngestJournal.Appended next = reopened.append(payload("record-5"));
+                reopened.close();
+
+                // Assert
+                assertEquals(journalId, reopened.getJournalId());
+                assertEquals(4, reopened.getRecoveredSequence());
+                assertEquals(List.of("3:record-3", "4:record-4"), replayed);
+                assertEquals(5, next.sequence());
+        }
+
+        @Test
+        void open_WithTornLastRecord_TruncatesItAndReusesItsSequence() throws Exception {
+                // Arrange
+                IngestJournal journal = open(SEGMENT_BYTES);
+                journal.append(payload("kept"));
+                journal.append(payload("torn"));
+                journal.close();
+                // Damage a payload byte of the second record, as a crash mid-write would
+                int secondPayload = IngestJournal.HEADER_BYTES + "kept".length() + IngestJournal.HEADER_BYTES;
+                try (FileChannel channel = FileChannel.open(onlySegment(), StandardOpenOption.WRITE)) {
+                        channel.write(ByteBuffer.wrap(new byte[] { 'X' }), secondPayload);
+                }
+
+                // Act
+                IngestJournal reopened = open(SEGMENT_BYTES);
+                IngestJournal.Appended replacement = reopened.append(payload("replacement"));
+                reopened.close();
+                IngestJournal again = open(SEGMENT_BYTES);
+                List<String> replayed = new ArrayList<>();
+                again.replay(0, (sequence, payload) -> replayed.add(sequence + ":" + text(payload)));
+                again.close();
+
+                // Assert
+                assertEquals(1, reopened.getRecoveredSequence());
+                assertEquals(2, replacement.sequence());
+                assertEquals(List.of("1:kept", "2:replacement"), replayed);
+                assertEquals(0, again.getCorruptSegments());
+        }
+
+        @Test
+        void append_PastSegmentSize_RollsAndReleaseDeletesCommittedSegments() throws Exception {
+                // Arrange: every record fills a segment of its own
+                IngestJournal journal = open(64);
+                for (int i = 1; i <= 3; i++) {
+                        journal.append(payload("a-record-that-fills-a-segment-" + i));
+                }
+                assertEquals(3, journal.getSegmentCount());
+
+                // Act
+                journal.release(2);
+
+                // Assert
+                assertEquals(1, journal.getSegmentCount());
+                assertEquals(1, segmentFiles().size());
+                List<Long> replayed = new ArrayList<>();
+                journal.close();
+                IngestJournal reopened = open(64);
+                reopened.replay(0, (sequence, payload) -> replayed.add(sequence));
+                reopened.close();
+                assertEquals(List.of(3L), replayed);
+        }
+
+        @Test
+        void append_WithFsyncAlways_CompletesOnceForced() throws Exception {
+                // Arrange
+                IngestJournal journal = open(SEGMENT_BYTES);
+
+                // Act
+                IngestJournal.Appended appended = journal.append(payload("durable"));
+                appended.durable().get(5, TimeUnit.SECONDS);
+
+                // Assert
+                assertTrue(journal.getDurableSequence() >= appended.sequence());
+                assertTrue(journal.getForces() >= 1);
+                journal.close();
+        }
+
+        @Test
+        void append_RecordLargerThanSegment_GetsSegmentSizedToFit() throws Exception {
+                // Arrange
+                IngestJournal journal = open(64);
+                String large = "x".repeat(500);
+
+                // Act
+                journal.append(payload(large));
+                journal.close();
+                List<String> replayed = new ArrayList<>();
+                IngestJournal reopened = open(64);
+                reopened.replay(0, (sequence, payload) -> replayed.add(text(payload)));
+                reopened.close();
+
+                // Assert
+                assertEquals(List.of(large), replayed);
+        }
+
+        @Test
+        void advancePast_WithCheckpointAboveRecoveredSequence_ContinuesAfterIt() throws Exception {
+                // Arrange: records up to 5 were committed, but only two reached the disk
+                IngestJournal journal = open(SEGMENT_BYTES);
+                journal.append(payload("record-1"));
+                journal.append(payload("record-2"));
+                journal.close();
+                IngestJournal reopened = open(SEGMENT_BYTES);
+
+                // Act
+                boolean advanced = reopened.advancePast(5);
+                IngestJournal.Appended next = reopened.append(payload("record-6"));
+                reopened.close();
+
+                // Assert
+                assertTrue(advanced);
+                assertEquals(2, reopened.getRecoveredSequence());
+                assertEquals(6, next.sequence());
+                assertEquals(1, segmentFiles().size());
+                IngestJournal again = open(SEGMENT_BYTES);
+                List<String> replayed = new ArrayList<>();
+                again.replay(5, (sequence, payload) -> replayed.add(sequence + ":" + text(payload)));
+                assertFalse(again.advancePast(5));
+                again.close();
+                assertEquals(6, again.getRecoveredSequence());
+                assertEquals(0, again.getCorruptSegments());
+                assertEquals(List.of("6:record-6"), replayed);
+        }
+
+        private IngestJournal open(long segmentBytes) {
+                return new IngestJournal(directory, segmentBytes, JournalFsync.ALWAYS, 10);
+        }
+
+        private Path onlySegment() throws Exception {
+                List<Path> segments = segmentFiles();
+                assertEquals(1, segments.size());
+                return segments.get(0);
+        }
+
+        private List<Path> segmentFiles() throws Exception {
+                try (Stream<Path> files = Files.list(directory)) {
+                        return files.filter(path -> path.toString().endsWith(".journal")).sorted().toList();
+                }
+        }
+
+        private static byte[] payload(String text) {
+                return text.getBytes(StandardCharsets.UTF_8);
+        }
+
+        private static String text(byte[] payload) {
+                return new String(payload, StandardCharsets.UTF_8);
+        }
+}
@@ -0,0 +1,105 @@
+package com.payment.ingest;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IngestRingBufferTest {
+
+        @Test
+        void capacityIsRoundedUpToPowerOfTwo() {
+                assertThat(new IngestRingBuffer<Integer>(1000).capacity()).isEqualTo(1024);
+                assertThat(new IngestRingBuffer<Integer>(1024).capacity()).isEqualTo(1024);
+                assertThatThrownBy(() -> new IngestRingBuffer<Integer>(1)).isInstanceOf(IllegalArgumentException.class);
+        }
+
+        @Test
+        void rejectsWhenFullAndAcceptsAgainAfterPoll() {
+                IngestRingBuffer<Integer> ring = new IngestRingBuffer<>(4);
+                for (int i = 0; i < 4; i++) {
+                        assertThat(ring.offer(i)).isTrue();
+                }
+
+                assertThat(ring.offer(4)).isFalse();
+                assertThat(ring.size()).isEqualTo(4);
+
+                assertThat(ring.poll()).isEqualTo(0);
+                assertThat(ring.offer(4)).isTrue();
+        }
+
+        @Test
+        void keepsFifoOrderAcrossWrapAround() {
+                IngestRingBuffer<Integer> ring = new IngestRingBuffer<>(4);
+                List<Integer> taken = new ArrayList<>();
+                for (int i = 0; i < 10; i++) {
+                        assertThat(ring.offer(i)).isTrue();
+                        if (i >= 2) {
+                                taken.add(ring.poll());
+                        }
+                }
+                Integer next;
+                while ((next = ring.poll()) != null) {
+                        taken.add(next);
+                }
+
+                assertThat(taken).containsExactly(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+                assertThat(ring.isEmpty()).isTrue();
+        }
+
+        @Test
+        void concurrentProducersLoseAndDuplicateNothing() throws InterruptedException {
+                int producers = 4;
+                int perProducer = 25_000;
+                IngestRingBuffer<Integer> ring = new IngestRingBuffer<>(256);
+                CountDownLatch start = new CountDownLatch(1);
+                List<Thread> threads = new ArrayList<>();
+                for (int p = 0; p < producers; p++) {
+                        int producer = p;
+                        Thread thread = new Thread(() -> {
+                                try {
+                                        start.await();
+                                } catch (InterruptedException e) {
+                                        return;
+                                }
+                                for (int i = 0; i < perProducer; i++) {
+                                        while (!ring.offer(producer * perProducer + i)) {
+                                                Thread.yield();
+                                        }
+                                }
+                        });
+                        thread.start();
+                        threads.add(thread);
+                }
+
+                start.countDown();
+                boolean[] seen = new boolean[producers * perProducer];
+                int[] lastPerProducer = new int[producers];
+                Arrays.fill(lastPerProducer, -1);
+                int received = 0;
+                while (received < seen.length) {
+                        Integer value = ring.poll();
+                        if (value == null) {
+                                Thread.yield();
+                                continue;
+                        }
+                        assertThat(seen[value]).isFalse();
+                        seen[value] = true;
+                        // Each producer's elements arrive in the order it offered them
+                        int producer = value / perProducer;
+                        assertThat(value).isGreaterThan(lastPerProducer[producer]);
+                        lastPerProducer[producer] = value;
+                        received++;
+                }
+                for (Thread thread : threads) {
+                        thread.join();
+                }
+
+                assertThat(ring.poll()).isNull();
+        }
+}
@@ -0,0 +1,130 @@
+package com.payment.repository;
+
+import com.payment.entity.TransactionDetail;
+import com.payment.entity.TransactionMaster;
+import com.payment.repository.MemberReportRepository.MemberStatRow;
+import com.payment.repository.MemberReportRepository.Role;
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Trigger-maintained member statistics against a database built from the
+ * Flyway migrations
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class MemberReportRepositoryTest {
+
+        private static final LocalDate DAY = LocalDate.of(2025, 3, 5);
+
+        @Container
+        static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:15-alpine");
+
+        private static HikariDataSource dataSource;
+        private static TransactionIngestRepository ingestRepository;
+        private static TransactionStatusRepository statusRepository;
+        private static MemberReportRepository repository;
+        private static long acquirerId;
+        private static long issuerId;
+
+        @BeforeAll
+        static void migrate() throws SQLException {
+                Flyway.configure()
+                                .dataSource(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword())
+                                .schemas("operators")
+                                .locations("classpath:db/migration")
+                                .load()
+                                .migrate();
+
+                dataSource = new HikariDataSource();
+                dataSource.setJdbcUrl(POSTGRES.getJdbcUrl());
+                dataSource.setUsername(POSTGRES.getUsername());
+                dataSource.setPassword(POSTGRES.getPassword());
+                try (Connection connection = dataSource.getConnection();
+                                Statement statement = connection.createStatement()) {
+                        statement.execute("SELECT operators.create_transaction_partitions('" + DAY + "', '" + DAY + "')");
+                        acquirerId = insertMember(statement, "Report Acquirer", "acquirer", "RACQ01");
+                        issuerId = insertMember(statement, "Report Issuer", "issuer", "RISS01");
+                }
+                ingestRepository = new TransactionIngestRepository(dataSource);
+                statusRepository = new TransactionStatusRepository(dataSource);
+                repository = new MemberReportRepository(dataSource);
+        }
+
+        @AfterAll
+        static void closePool() {
+                dataSource.close();
+        }
+
+        @Test
+        void statsFollowInsertsAndStatusChangesOnBothSides() {
+                List<TransactionMaster> transactions = List.of(
+                                transaction("pending", "VISA", "10.00"),
+                                transaction("completed", "VISA", "20.00"),
+                                transaction("failed", null, "5.00"));
+                ingestRepository.insertBatch(transactions, emptyDetails(transactions));
+                TransactionMaster pending = transactions.get(0);
+                statusRepository.settle(List.of(pending.getTxnId()), List.of(pending.getTxnDate()), List.of("completed"));
+
+                List<MemberStatRow> acquired = repository.findMemberStats(Role.ACQUIRER, DAY, DAY, acquirerId);
+                List<MemberStatRow> issued = repository.findMemberStats(Role.ISSUER, DAY, DAY, null);
+
+                assertThat(acquired).extracting(MemberStatRow::status, MemberStatRow::cardType, MemberStatRow::count)
+                                .containsExactly(
+                                                tuple("completed", "VISA", 2L),
+                                                tuple("failed", "unknown", 1L));
+                assertThat(acquired.get(0).amount()).isEqualByComparingTo("30.00");
+                assertThat(issued).extracting(MemberStatRow::memberId).containsOnly(issuerId);
+                assertThat(repository.findMemberStats(Role.ISSUER, DAY, DAY, acquirerId)).isEmpty();
+        }
+
+        private static long insertMember(Statement statement, String name, String type, String code) throws SQLException {
+                try (ResultSet rs = statement.executeQuery("INSERT INTO operators.members (member_name, member_type, "
+                                + "member_code, country, status) VALUES ('" + name + "', '" + type + "', '" + code
+                                + "', 'US', 'active') RETURNING member_id")) {
+                        rs.next();
+                        return rs.getLong(1);
+                }
+        }
+
+        private static TransactionMaster transaction(String status, String cardType, String amount) {
+                TransactionMaster transaction = new TransactionMaster();
+                transaction.setMerchantId("MER-REPORT");
+                transaction.setGpAcquirerId(acquirerId);
+                transaction.setGpIssuerId(issuerId);
+                transaction.setTxnDate(Date.valueOf(DAY));
+                transaction.setLocalTxnDateTime(DAY.atStartOfDay(ZoneOffset.UTC).toInstant().plusSeconds(7200));
+                transaction.setAmount(new BigDecimal(amount));
+                transaction.setCurrency("USD");
+                transaction.setStatus(status);
+                transaction.setCardType(cardType);
+                return transaction;
+        }
+
+        private static List<List<TransactionDetail>> emptyDetails(List<TransactionMaster> transactions) {
+                List<List<TransactionDetail>> details = new ArrayList<>(transactions.size());
+                for (int i = 0; i < transactions.size(); i++) {
+                        details.add(List.of());
+                }
+                return details;
+        }
+}
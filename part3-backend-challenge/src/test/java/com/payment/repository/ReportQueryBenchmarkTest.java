@@ -0,0 +1,165 @@
+package com.payment.repository;
+
+import io.micronaut.data.annotation.Query;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 90-day report benchmark on 18M rows (200K rows/day, the production insert rate).
+ *
+ * Budget: the full report (every TransactionReportRepository query, run one
+ * after another as TransactionService does) completes in under 3 seconds at the
+ * median of 5 runs, on a connection configured like the "reports" datasource.
+ * Override with -Dbenchmark.reports.budget-ms.
+ *
+ * Opt-in: seeding takes several minutes. Run with
+ * mvn test -Dtest=ReportQueryBenchmarkTest -Dbenchmark.reports=true
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@EnabledIfSystemProperty(named = "benchmark.reports", matches = "true")
+class ReportQueryBenchmarkTest {
+
+        private static final int DAYS = 90;
+        private static final int ROWS_PER_DAY = 200_000;
+        private static final int RUNS = 5;
+        private static final long BUDGET_MS = Long.getLong("benchmark.reports.budget-ms", 3_000L);
+
+        private static final LocalDate FIRST_DAY = LocalDate.of(2025, 1, 1);
+
+        /**
+         * Same planner settings as datasources.reports.data-source-properties.options
+         */
+        private static final String REPORTS_OPTIONS = "-c enable_partitionwise_aggregate=on "
+                        + "-c max_parallel_workers_per_gather=4 -c parallel_setup_cost=100";
+
+        @Container
+        static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:15-alpine")
+                        .withCommand("postgres", "-c", "shared_buffers=1GB", "-c", "max_wal_size=8GB",
+                                        "-c", "max_parallel_workers=8", "-c", "fsync=off")
+                        .withSharedMemorySize(2L * 1024 * 1024 * 1024);
+
+        @BeforeAll
+        static void migrateAndSeed() throws SQLException {
+                Flyway.configure()
+                                .dataSource(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword())
+                                .schemas("operators")
+                                .locations("classpath:db/migration")
+                                .load()
+                                .migrate();
+
+                try (Connection connection = DriverManager.getConnection(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(),
+                                POSTGRES.getPassword()); Statement statement = connection.createStatement()) {
+                        statement.execute("SELECT operators.create_transaction_partitions('" + FIRST_DAY + "', '"
+                                        + FIRST_DAY.plusDays(DAYS) + "')");
+
+                        // One statement per day keeps rows in date order, as in production
+                        try (PreparedStatement insert = connection.prepareStatement(
+                                        "INSERT INTO operators.transaction_master (merchant_id, txn_date, local_txn_date_time, "
+                                                        + "amount, currency, status, card_type) "
+                                                        + "SELECT 'MER' || LPAD((1 + i % 5000)::text, 6, '0'), ?::date, "
+                                                        + "?::date + (i % 86400) * INTERVAL '1 second', "
+                                                        + "(i % 100000) / 100.0, 'USD', "
+                                                        + "(ARRAY['pending', 'completed', 'completed', 'completed', 'failed', 'reversed'])[1 + i % 6], "
+                                                        + "(ARRAY['VISA', 'MASTERCARD', 'AMEX', 'DISCOVER'])[1 + i % 4] "
+                                                        + "FROM generate_series(1, ?) AS i")) {
+                                for (int day = 0; day < DAYS; day++) {
+                                        Date date = Date.valueOf(FIRST_DAY.plusDays(day));
+                                        insert.setDate(1, date);
+                                        insert.setDate(2, date);
+                                        insert.setInt(3, ROWS_PER_DAY);
+                                        insert.executeUpdate();
+                                }
+                        }
+                        statement.execute("VACUUM ANALYZE operators.transaction_master");
+                }
+        }
+
+        @Test
+        void ninetyDayReportFitsBudget() throws SQLException {
+                List<String> queries = reportQueries();
+                Date start = Date.valueOf(FIRST_DAY);
+                Date end = Date.valueOf(FIRST_DAY.plusDays(DAYS - 1));
+
+                Properties properties = new Properties();
+                properties.setProperty("user", POSTGRES.getUsername());
+                properties.setProperty("password", POSTGRES.getPassword());
+                properties.setProperty("options", REPORTS_OPTIONS);
+
+                long[] timings = new long[RUNS];
+                try (Connection connection = DriverManager.getConnection(POSTGRES.getJdbcUrl(), properties)) {
+                        runReport(connection, queries, start, end); // warm-up
+
+                        for (int run = 0; run < RUNS; run++) {
+                                long began = System.nanoTime();
+                                runReport(connection, queries, start, end);
+                                timings[run] = (System.nanoTime() - began) / 1_000_000;
+                        }
+                }
+
+                Arrays.sort(timings);
+                long median = timings[RUNS / 2];
+                System.out.printf("90-day report over %,d rows: median %d ms, runs %s ms, budget %d ms%n",
+                                (long) DAYS * ROWS_PER_DAY, median, Arrays.toString(timings), BUDGET_MS);
+
+                assertThat(median).isLessThanOrEqualTo(BUDGET_MS);
+        }
+
+        private static void runReport(Connection connection, List<String> queries, Date start, Date end)
+                        throws SQLException {
+                for (String sql : queries) {
+                        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                                statement.setDate(1, start);
+                                statement.setDate(2, end);
+                                try (ResultSet rs = statement.executeQuery()) {
+                                        while (rs.next()) {
+                                                // drain
+                                        }
+                                }
+                        }
+                }
+        }
+
+        /**
+         * The SQL of every TransactionReportRepository method, read from its @Query
+         * annotation so the benchmark always measures what the service executes
+         */
+        private static List<String> reportQueries() {
+                List<String> queries = new ArrayList<>();
+                Method[] methods = TransactionReportRepository.class.getDeclaredMethods();
+                Arrays.sort(methods, Comparator.comparing(Method::getName));
+                for (Method method : methods) {
+                        Query query = method.getAnnotation(Query.class);
+                        if (query != null) {
+                                String sql = query.value()
+                                                .replace(":startDate", "?")
+                                                .replace(":endDate", "?");
+                                assertThat(sql).containsOnlyOnce("txn_date BETWEEN ? AND ?");
+                                queries.add(sql);
+                        }
+                }
+                assertThat(queries).isNotEmpty();
+                return queries;
+        }
+}
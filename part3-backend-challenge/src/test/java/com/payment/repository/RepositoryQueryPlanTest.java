@@ -0,0 +1,300 @@
+package com.payment.repository;
+
+import com.payment.repository.criteria.TransactionCriteria;
+import com.payment.repository.criteria.TransactionCriteriaQuery;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs EXPLAIN for every repository query shape against a database built from
+ * the Flyway migrations and fails when a plan falls back to a sequential scan.
+ *
+ * Sequential scans are disabled for the session, so the planner only picks one
+ * when no index can serve the predicate - the check holds regardless of how
+ * much data the container is seeded with. Date-bounded queries are also checked
+ * for partition pruning.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class RepositoryQueryPlanTest {
+
+        @Container
+        static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:15-alpine");
+
+        private static final Date START = Date.valueOf("2024-01-01");
+        private static final Date END = Date.valueOf("2024-01-31");
+
+        /**
+         * Micronaut Data derived and @Query methods, written out as the SQL they
+         * execute. Unfiltered counts (findAll count query) are intentionally absent.
+         */
+        private static final Map<String, String> REPOSITORY_QUERIES = Map.ofEntries(
+                        Map.entry("TransactionRepository.findByMerchantId",
+                                        "SELECT * FROM operators.transaction_master WHERE merchant_id = 'MER000001'"),
+                        Map.entry("TransactionRepository.findByMerchantIdAndTxnDateBetween",
+                                        "SELECT * FROM operators.transaction_master WHERE merchant_id = 'MER000001' "
+                                                        + "AND txn_date BETWEEN '2024-01-01' AND '2024-01-31'"),
+                        Map.entry("TransactionRepository.findByMerchantIdAndTxnDateBetweenAndStatusEquals",
+                                        "SELECT * FROM operators.transaction_master WHERE merchant_id = 'MER000001' "
+                                                        + "AND txn_date BETWEEN '2024-01-01' AND '2024-01-31' AND status = 'completed'"),
+                        Map.entry("TransactionRepository.findByMerchantIdAndStatusEquals",
+                                        "SELECT * FROM operators.transaction_master WHERE merchant_id = 'MER000001' AND status = 'failed'"),
+                        Map.entry("TransactionRepository.countByMerchantId",
+                                        "SELECT COUNT(*) FROM operators.transaction_master WHERE merchant_id = 'MER000001'"),
+                        Map.entry("TransactionRepository.countByMerchantIdAndStatus",
+                                        "SELECT COUNT(*) FROM operators.transaction_master WHERE merchant_id = 'MER000001' AND status = 'pending'"),
+                        Map.entry("TransactionRepository.sumAmountByMerchantId",
+                                        "SELECT COALESCE(SUM(amount), 0) FROM operators.transaction_master "
+                                                        + "WHERE merchant_id = 'MER000001' AND status='completed'"),
+                        Map.entry("TransactionRepository.findDistinctStatusByMerchantId",
+                                        "SELECT DISTINCT status FROM operators.transaction_master WHERE merchant_id = 'MER000001'"),
+                        Map.entry("TransactionReportRepository.getDailyVolume",
+                                        "SELECT DATE(txn_date) as date, COUNT(*) as count, COALESCE(SUM(amount), 0) as total "
+                                                        + "FROM operators.transaction_master WHERE txn_date BETWEEN '2024-01-01' AND '2024-01-31' "
+                                                        + "GROUP BY DATE(txn_date) ORDER BY date"),
+                        Map.entry("TransactionReportRepository.getTransactionsByStatus",
+                                        "SELECT COALESCE(status, 'unknown') as status, COUNT(*) as count FROM operators.transaction_master "
+                                                        + "WHERE txn_date BETWEEN '2024-01-01' AND '2024-01-31' GROUP BY status"),
+                        Map.entry("TransactionReportRepository.getHourlyDistribution",
+                                        "SELECT EXTRACT(HOUR FROM local_txn_date_time)::integer as hour, COUNT(*) as count "
+                                                        + "FROM operators.transaction_master WHERE txn_date BETWEEN '2024-01-01' AND '2024-01-31' "
+                                                        + "AND local_txn_date_time IS NOT NULL GROUP BY hour ORDER BY hour"),
+                        Map.entry("TransactionReportRepository.getCardTypeDistribution",
+                                        "SELECT COALESCE(LOWER(card_type), 'unknown') as card_type, COUNT(*) as count "
+                                                        + "FROM operators.transaction_master WHERE txn_date BETWEEN '2024-01-01' AND '2024-01-31' "
+                                                        + "GROUP BY card_type ORDER BY count DESC"),
+                        Map.entry("TransactionDetailRepository.findByMasterTxnIdAndTxnDate",
+                                        "SELECT * FROM operators.transaction_details WHERE master_txn_id = 1 AND txn_date = '2023-01-02'"),
+                        Map.entry("TransactionDetailRepository.findByMasterTxnIdInList",
+                                        "SELECT * FROM operators.transaction_details WHERE master_txn_id IN (1, 2, 3)"),
+                        Map.entry("MerchantRepository.findAll",
+                                        "SELECT * FROM operators.merchants ORDER BY created_at DESC LIMIT 20"),
+                        Map.entry("MerchantRepository.findByMerchantNameContainsIgnoreCase",
+                                        "SELECT * FROM operators.merchants WHERE LOWER(merchant_name) LIKE LOWER(CONCAT('%', 'shop 12', '%'))"),
+                        Map.entry("MerchantRepository.findByMerchantNameContainsIgnoreCaseAndIsActive",
+                                        "SELECT * FROM operators.merchants WHERE LOWER(merchant_name) LIKE LOWER(CONCAT('%', 'shop 12', '%')) "
+                                                        + "AND is_active = true"),
+                        Map.entry("MerchantRepository.findByMerchantId",
+                                        "SELECT * FROM operators.merchants WHERE merchant_id = 'MER000001'"),
+                        Map.entry("MerchantRepository.findByBusinessType",
+                                        "SELECT * FROM operators.merchants WHERE business_type = 'retail'"),
+                        Map.entry("MerchantRepository.findByBusinessTypeAndIsActive",
+                                        "SELECT * FROM operators.merchants WHERE business_type = 'retail' AND is_active = false"),
+                        Map.entry("MerchantRepository.findByIsActive",
+                                        "SELECT * FROM operators.merchants WHERE is_active = false ORDER BY created_at DESC LIMIT 20"),
+                        Map.entry("MerchantRepository.countByEmail",
+                                        "SELECT COUNT(*) FROM operators.merchants WHERE email = 'merchant1@example.com'"),
+                        Map.entry("MerchantRepository.countByTaxId",
+                                        "SELECT COUNT(*) FROM operators.merchants WHERE tax_id = 'TAX1'"),
+                        Map.entry("MerchantRepository.countByRegistrationNumber",
+                                        "SELECT COUNT(*) FROM operators.merchants WHERE registration_number = 'REG1'"),
+                        Map.entry("MerchantTransactionStatsRepository.findByMerchantIdInList",
+                                        "SELECT * FROM operators.merchant_txn_stats WHERE merchant_id IN ('MER000001', 'MER000002')"));
+
+        /**
+         * Date-bounded queries over January 2024 must only touch that month's partition
+         */
+        private static final Map<String, String> DATE_BOUNDED_QUERIES = Map.of(
+                        "TransactionRepository.findByMerchantIdAndTxnDateBetween",
+                        "SELECT * FROM operators.transaction_master WHERE merchant_id = 'MER000001' "
+                                        + "AND txn_date BETWEEN '2024-01-01' AND '2024-01-31'",
+                        "TransactionRepository.findByMerchantIdAndTxnDateBetweenAndStatusEquals",
+                        "SELECT * FROM operators.transaction_master WHERE merchant_id = 'MER000001' "
+                                        + "AND txn_date BETWEEN '2024-01-01' AND '2024-01-31' AND status = 'completed'",
+                        "TransactionReportRepository.getDailyVolume",
+                        "SELECT DATE(txn_date) as date, COUNT(*) as count FROM operators.transaction_master "
+                                        + "WHERE txn_date BETWEEN '2024-01-01' AND '2024-01-31' GROUP BY DATE(txn_date)",
+                        "TransactionReportRepository.getTotalTransactionCount",
+                        "SELECT COUNT(*) FROM operators.transaction_master WHERE txn_date BETWEEN '2024-01-01' AND '2024-01-31'",
+                        "TransactionReportRepository.getCardTypeDistribution",
+                        "SELECT COALESCE(LOWER(card_type), 'unknown') as card_type, COUNT(*) as count "
+                                        + "FROM operators.transaction_master WHERE txn_date BETWEEN '2024-01-01' AND '2024-01-31' "
+                                        + "GROUP BY card_type",
+                        "TransactionDetailRepository.findByMasterTxnIdAndTxnDate",
+                        "SELECT * FROM operators.transaction_details WHERE master_txn_id = 1 AND txn_date = '2024-01-15'");
+
+        private static final Pattern PARTITION = Pattern.compile("transaction_(?:master|details)_p\\d{4}_\\d{2}");
+
+        @BeforeAll
+        static void migrateAndSeed() throws SQLException {
+                Flyway.configure()
+                                .dataSource(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword())
+                                .schemas("operators")
+                                .locations("classpath:db/migration")
+                                .load()
+                                .migrate();
+
+                try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+                        statement.execute("SELECT operators.create_transaction_partitions('2023-01-01', '2024-12-31')");
+                        statement.execute("INSERT INTO operators.merchants (merchant_id, merchant_name, business_name, email, "
+                                        + "phone, business_type, tax_id, registration_number, is_active, created_at) "
+                                        + "SELECT 'MER' || LPAD(i::text, 6, '0'), 'Shop ' || i, 'Shop ' || i || ' LLC', "
+                                        + "'merchant' || i || '@example.com', '555-0100', "
+                                        + "(ARRAY['retail', 'online', 'services'])[1 + i % 3], 'TAX' || i, 'REG' || i, "
+                                        + "i % 10 <> 0, NOW() - (i || ' minutes')::interval "
+                                        + "FROM generate_series(1, 2000) AS i");
+                        statement.execute("INSERT INTO operators.transaction_master (merchant_id, txn_date, local_txn_date_time, "
+                                        + "amount, currency, status, card_type) "
+                                        + "SELECT 'MER' || LPAD((1 + i % 2000)::text, 6, '0'), DATE '2023-01-01' + (i % 730), "
+                                        + "TIMESTAMPTZ '2023-01-01' + (i % 730) * INTERVAL '1 day' + (i % 24) * INTERVAL '1 hour', "
+                                        + "(i % 5000) / 10.0, 'USD', "
+                                        + "(ARRAY['pending', 'completed', 'failed', 'reversed'])[1 + i % 4], "
+                                        + "(ARRAY['VISA', 'MASTERCARD', 'AMEX'])[1 + i % 3] "
+                                        + "FROM generate_series(1, 100000) AS i");
+                        statement.execute("INSERT INTO operators.transaction_details (master_txn_id, txn_date, detail_type, "
+                                        + "amount, local_txn_date_time) "
+                                        + "SELECT txn_id, txn_date, 'fee', 0.30, local_txn_date_time FROM operators.transaction_master");
+                        statement.execute("VACUUM ANALYZE");
+                }
+        }
+
+        @Test
+        void repositoryQueriesUseIndexes() throws SQLException {
+                List<String> regressions = new ArrayList<>();
+                try (Connection connection = connect()) {
+                        disableSequentialScans(connection);
+                        for (Map.Entry<String, String> query : REPOSITORY_QUERIES.entrySet()) {
+                                try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + query.getValue())) {
+                                        collectSequentialScans(query.getKey(), statement, regressions);
+                                }
+                        }
+                }
+
+                assertThat(regressions).isEmpty();
+        }
+
+        @Test
+        void everySearchShapeUsesIndexes() throws SQLException {
+                List<String> regressions = new ArrayList<>();
+                try (Connection connection = connect()) {
+                        disableSequentialScans(connection);
+                        for (int shape = 0; shape < TransactionCriteria.SHAPE_COUNT; shape++) {
+                                TransactionCriteriaQuery query = TransactionCriteriaQuery.forShape(shape);
+                                try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + query.getPageSql())) {
+                                        int index = bindShape(connection, statement, shape);
+                                        statement.setInt(index++, 20);
+                                        statement.setLong(index, 0);
+                                        collectSequentialScans("search page shape " + shape, statement, regressions);
+                                }
+                                try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + query.getCountSql())) {
+                                        bindShape(connection, statement, shape);
+                                        collectSequentialScans("search count shape " + shape, statement, regressions);
+                                }
+                        }
+                }
+
+                assertThat(regressions).isEmpty();
+        }
+
+        @Test
+        void dateBoundedQueriesPruneToOnePartition() throws SQLException {
+                List<String> regressions = new ArrayList<>();
+                try (Connection connection = connect()) {
+                        for (Map.Entry<String, String> query : DATE_BOUNDED_QUERIES.entrySet()) {
+                                try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + query.getValue())) {
+                                        collectPartitions(query.getKey(), statement, regressions);
+                                }
+                        }
+
+                        int bounded = TransactionCriteria.START_DATE | TransactionCriteria.END_DATE;
+                        for (int shape = 0; shape < TransactionCriteria.SHAPE_COUNT; shape++) {
+                                if ((shape & bounded) != bounded) {
+                                        continue;
+                                }
+                                TransactionCriteriaQuery query = TransactionCriteriaQuery.forShape(shape);
+                                try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + query.getCountSql())) {
+                                        bindShape(connection, statement, shape);
+                                        collectPartitions("search count shape " + shape, statement, regressions);
+                                }
+                        }
+                }
+
+                assertThat(regressions).isEmpty();
+        }
+
+        private static void collectPartitions(String name, PreparedStatement statement, List<String> regressions)
+                        throws SQLException {
+                Set<String> partitions = new TreeSet<>();
+                try (ResultSet rs = statement.executeQuery()) {
+                        while (rs.next()) {
+                                Matcher matcher = PARTITION.matcher(rs.getString(1));
+                                while (matcher.find()) {
+                                        partitions.add(matcher.group());
+                                }
+                        }
+                }
+                if (partitions.size() != 1) {
+                        regressions.add(name + " scans " + partitions);
+                }
+        }
+
+        private static int bindShape(Connection connection, PreparedStatement statement, int shape) throws SQLException {
+                int index = 1;
+                statement.setString(index++, "MER000001");
+                if ((shape & TransactionCriteria.START_DATE) != 0) {
+                        statement.setDate(index++, START);
+                }
+                if ((shape & TransactionCriteria.END_DATE) != 0) {
+                        statement.setDate(index++, END);
+                }
+                if ((shape & TransactionCriteria.STATUS) != 0) {
+                        statement.setArray(index++, connection.createArrayOf("varchar", new Object[] { "completed" }));
+                }
+                if ((shape & TransactionCriteria.CARD_TYPE) != 0) {
+                        statement.setArray(index++, connection.createArrayOf("varchar", new Object[] { "VISA" }));
+                }
+                if ((shape & TransactionCriteria.MIN_AMOUNT) != 0) {
+                        statement.setBigDecimal(index++, BigDecimal.ONE);
+                }
+                if ((shape & TransactionCriteria.MAX_AMOUNT) != 0) {
+                        statement.setBigDecimal(index++, BigDecimal.valueOf(400));
+                }
+                if ((shape & TransactionCriteria.CURRENCY) != 0) {
+                        statement.setString(index++, "USD");
+                }
+                return index;
+        }
+
+        private static void collectSequentialScans(String name, PreparedStatement statement, List<String> regressions)
+                        throws SQLException {
+                try (ResultSet rs = statement.executeQuery()) {
+                        while (rs.next()) {
+                                String line = rs.getString(1);
+                                if (line.contains("Seq Scan")) {
+                                        regressions.add(name + ": " + line.trim());
+                                }
+                        }
+                }
+        }
+
+        private static void disableSequentialScans(Connection connection) throws SQLException {
+                try (Statement statement = connection.createStatement()) {
+                        statement.execute("SET enable_seqscan = off");
+                }
+        }
+
+        private static Connection connect() throws SQLException {
+                return DriverManager.getConnection(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+        }
+}
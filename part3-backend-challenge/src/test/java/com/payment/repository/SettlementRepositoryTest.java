@@ -0,0 +1,241 @@
+package com.payment.repository;
+
+import com.payment.config.SettlementFileProperties;
+import com.payment.dto.settlement.SettlementFileDTO;
+import com.payment.dto.settlement.SettlementFileManifestResponse;
+import com.payment.entity.TransactionDetail;
+import com.payment.entity.TransactionMaster;
+import com.payment.repository.SettlementRepository.SettlementLine;
+import com.payment.repository.SettlementRepository.SettlementMember;
+import com.payment.repository.SettlementRepository.SettlementRow;
+import com.payment.repository.SettlementRepository.Verification;
+import com.payment.service.SettlementFileGenerator;
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Trigger-maintained settlement positions and settlement file streams against
+ * a database built from the Flyway migrations.
+ *
+ * The settlement file benchmark is opt-in: it loads a full day for many
+ * members and times generating their files with one writer and with the
+ * configured parallelism. Run with
+ * mvn test -Dtest=SettlementRepositoryTest -Dbenchmark.settlement-files=true
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class SettlementRepositoryTest {
+
+        private static final LocalDate DAY = LocalDate.of(2025, 2, 10);
+        private static final LocalDate BENCHMARK_DAY = LocalDate.of(2025, 2, 11);
+        private static final int BENCHMARK_MEMBERS = Integer.getInteger("benchmark.settlement-files.members", 100);
+        private static final int BENCHMARK_SIZE = Integer.getInteger("benchmark.settlement-files.size", 200_000);
+
+        @Container
+        static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:15-alpine");
+
+        private static HikariDataSource dataSource;
+        private static TransactionIngestRepository ingestRepository;
+        private static TransactionStatusRepository statusRepository;
+        private static SettlementRepository repository;
+        private static long acquirerId;
+        private static long issuerId;
+
+        @BeforeAll
+        static void migrate() throws SQLException {
+                Flyway.configure()
+                                .dataSource(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword())
+                                .schemas("operators")
+                                .locations("classpath:db/migration")
+                                .load()
+                                .migrate();
+
+                dataSource = new HikariDataSource();
+                dataSource.setJdbcUrl(POSTGRES.getJdbcUrl());
+                dataSource.setUsername(POSTGRES.getUsername());
+                dataSource.setPassword(POSTGRES.getPassword());
+                dataSource.setMaximumPoolSize(10);
+                try (Connection connection = dataSource.getConnection();
+                                Statement statement = connection.createStatement()) {
+                        statement.execute("SELECT operators.create_transaction_partitions('" + DAY + "', '" + BENCHMARK_DAY + "')");
+                        acquirerId = insertMember(statement, "Acquirer Bank", "acquirer", "ACQ01");
+                        issuerId = insertMember(statement, "Issuer Bank", "issuer", "ISS01");
+                }
+                ingestRepository = new TransactionIngestRepository(dataSource);
+                statusRepository = new TransactionStatusRepository(dataSource);
+                repository = new SettlementRepository(dataSource);
+        }
+
+        @AfterAll
+        static void closePool() {
+                dataSource.close();
+        }
+
+        @Test
+        void positionsFollowInsertsAndSettlement() {
+                List<TransactionMaster> transactions = List.of(
+                                transaction("completed", "100.00", "USD"),
+                                transaction("completed", "20.50", "USD"),
+                                transaction("pending", "7.00", "USD"),
+                                transaction("completed", "30.00", "EUR"));
+                ingestRepository.insertBatch(transactions, emptyDetails(transactions));
+
+                TransactionMaster pending = transactions.get(2);
+                statusRepository.settle(List.of(pending.getTxnId()), List.of(pending.getTxnDate()), List.of("completed"));
+
+                List<SettlementRow> rows = repository.findDaily(DAY, acquirerId);
+                assertThat(rows).extracting(SettlementRow::currency).containsExactly("EUR", "USD");
+                SettlementRow usd = rows.get(1);
+                assertThat(usd.acquiredCount()).isEqualTo(3);
+                assertThat(usd.acquiredAmount()).isEqualByComparingTo("127.50");
+                assertThat(usd.issuedCount()).isZero();
+                assertThat(repository.findDaily(DAY, issuerId).get(1).issuedAmount()).isEqualByComparingTo("127.50");
+                assertThat(repository.verify(DAY).mismatches()).isEmpty();
+        }
+
+        @Test
+        void verifyFindsDriftAndRebuildRepairsIt() throws SQLException {
+                List<TransactionMaster> transactions = List.of(transaction("completed", "40.00", "GBP"));
+                ingestRepository.insertBatch(transactions, emptyDetails(transactions));
+                try (Connection connection = dataSource.getConnection();
+                                Statement statement = connection.createStatement()) {
+                        statement.executeUpdate("UPDATE operators.member_daily_settlement SET acquired_amount = 1 "
+                                        + "WHERE currency = 'GBP'");
+                }
+
+                Verification drifted = repository.verify(DAY);
+                int rebuilt = repository.rebuild(DAY);
+
+                assertThat(drifted.mismatches()).hasSize(1);
+                assertThat(drifted.mismatches().get(0).expectedAcquiredAmount()).isEqualByComparingTo("40.00");
+                assertThat(rebuilt).isGreaterThan(0);
+                assertThat(repository.verify(DAY).mismatches()).isEmpty();
+        }
+
+        @Test
+        void streamMemberTransactionsReturnsBothSidesInOrder() {
+                List<TransactionMaster> transactions = List.of(transaction("completed", "15.00", "CHF"),
+                                transaction("completed", "16.00", "CHF"));
+                ingestRepository.insertBatch(transactions, emptyDetails(transactions));
+
+                List<SettlementLine> acquired = new ArrayList<>();
+                long rows = repository.streamMemberTransactions(DAY, acquirerId, 1, line -> {
+                        if ("CHF".equals(line.currency())) {
+                                acquired.add(line);
+                        }
+                });
+
+                assertThat(rows).isGreaterThanOrEqualTo(2);
+                assertThat(acquired).extracting(SettlementLine::side).containsOnly('A');
+                assertThat(acquired).extracting(SettlementLine::txnId)
+                                .containsExactly(transactions.get(0).getTxnId(), transactions.get(1).getTxnId());
+                assertThat(acquired.get(0).counterpartyId()).isEqualTo(issuerId);
+                assertThat(repository.findMembersWithPositions(DAY)).extracting(SettlementMember::memberId)
+                                .contains(acquirerId, issuerId);
+        }
+
+        @Test
+        @EnabledIfSystemProperty(named = "benchmark.settlement-files", matches = "true")
+        void parallelSettlementFilesOutpaceASingleWriter(@TempDir Path directory) throws SQLException {
+                List<Long> members = new ArrayList<>(BENCHMARK_MEMBERS);
+                try (Connection connection = dataSource.getConnection();
+                                Statement statement = connection.createStatement()) {
+                        for (int i = 0; i < BENCHMARK_MEMBERS; i++) {
+                                members.add(insertMember(statement, "Bench Bank " + i, "both", "BEN" + i));
+                        }
+                }
+                Instant midnight = BENCHMARK_DAY.atStartOfDay(ZoneOffset.UTC).toInstant();
+                for (int from = 0; from < BENCHMARK_SIZE; from += 10_000) {
+                        List<TransactionMaster> batch = new ArrayList<>(10_000);
+                        for (int i = from; i < Math.min(BENCHMARK_SIZE, from + 10_000); i++) {
+                                TransactionMaster transaction = transaction("completed", "10.00", "USD");
+                                transaction.setTxnDate(Date.valueOf(BENCHMARK_DAY));
+                                transaction.setLocalTxnDateTime(midnight.plusSeconds(i % 86_400));
+                                transaction.setAmount(BigDecimal.valueOf(100 + i % 10_000, 2));
+                                transaction.setGpAcquirerId(members.get(i % BENCHMARK_MEMBERS));
+                                transaction.setGpIssuerId(members.get((i * 7 + 3) % BENCHMARK_MEMBERS));
+                                batch.add(transaction);
+                        }
+                        ingestRepository.insertBatch(batch, emptyDetails(batch));
+                }
+
+                SettlementFileManifestResponse single = generate(directory.resolve("single"), 1);
+                SettlementFileManifestResponse parallel = generate(directory.resolve("parallel"), 4);
+
+                System.out.printf("Settlement files for %,d members, %,d rows: 1 writer %,d ms (%,.0f rows/s), "
+                                + "%d writers %,d ms (%,.0f rows/s)%n",
+                                parallel.getFileCount(), parallel.getTotalRows(), single.getElapsedMillis(),
+                                single.getRowsPerSecond(), parallel.getParallelism(), parallel.getElapsedMillis(),
+                                parallel.getRowsPerSecond());
+
+                assertThat(parallel.getTotalRows()).isEqualTo(2L * BENCHMARK_SIZE);
+                assertThat(parallel.getFiles()).extracting(SettlementFileDTO::getSha256)
+                                .isEqualTo(single.getFiles().stream().map(SettlementFileDTO::getSha256).toList());
+                assertThat(parallel.getElapsedMillis()).isLessThan(single.getElapsedMillis());
+        }
+
+        private static SettlementFileManifestResponse generate(Path directory, int parallelism) {
+                SettlementFileProperties properties = new SettlementFileProperties();
+                properties.setDirectory(directory.toString());
+                properties.setParallelism(parallelism);
+                SettlementFileGenerator generator = new SettlementFileGenerator(repository, properties);
+                try {
+                        return generator.generate(BENCHMARK_DAY);
+                } finally {
+                        generator.close();
+                }
+        }
+
+        private static long insertMember(Statement statement, String name, String type, String code) throws SQLException {
+                try (ResultSet rs = statement.executeQuery("INSERT INTO operators.members (member_name, member_type, "
+                                + "member_code, country, status) VALUES ('" + name + "', '" + type + "', '" + code
+                                + "', 'US', 'active') RETURNING member_id")) {
+                        rs.next();
+                        return rs.getLong(1);
+                }
+        }
+
+        private static TransactionMaster transaction(String status, String amount, String currency) {
+                TransactionMaster transaction = new TransactionMaster();
+                transaction.setMerchantId("MER-SETTLE");
+                transaction.setGpAcquirerId(acquirerId);
+                transaction.setGpIssuerId(issuerId);
+                transaction.setTxnDate(Date.valueOf(DAY));
+                transaction.setLocalTxnDateTime(DAY.atStartOfDay(ZoneOffset.UTC).toInstant().plusSeconds(3600));
+                transaction.setAmount(new BigDecimal(amount));
+                transaction.setCurrency(currency);
+                transaction.setStatus(status);
+                transaction.setCardType("VISA");
+                return transaction;
+        }
+
+        private static List<List<TransactionDetail>> emptyDetails(List<TransactionMaster> transactions) {
+                List<List<TransactionDetail>> details = new ArrayList<>(transactions.size());
+                for (int i = 0; i < transactions.size(); i++) {
+                        details.add(List.of());
+                }
+                return details;
+        }
+}
@@ -0,0 +1,231 @@
+package com.payment.repository;
+
+import com.payment.entity.TransactionDetail;
+import com.payment.entity.TransactionMaster;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.postgresql.ds.PGSimpleDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Batch inserts against a database built from the Flyway migrations.
+ *
+ * The throughput test is opt-in: it writes SECONDS seconds of back-to-back
+ * 1,000-transaction batches (3 details each) and requires a sustained rate of
+ * ten times the production volume of 200K transactions/day. Run with
+ * mvn test -Dtest=TransactionIngestRepositoryTest -Dbenchmark.ingestion=true
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class TransactionIngestRepositoryTest {
+
+        private static final LocalDate DAY = LocalDate.of(2025, 1, 15);
+        private static final long DAILY_VOLUME = 200_000L;
+        private static final long HEADROOM = 10L;
+        private static final int BATCH_SIZE = 1_000;
+        private static final int DETAILS_PER_TRANSACTION = 3;
+        private static final int SECONDS = Integer.getInteger("benchmark.ingestion.seconds", 30);
+
+        @Container
+        static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:15-alpine");
+
+        private static PGSimpleDataSource dataSource;
+        private static TransactionIngestRepository repository;
+
+        @BeforeAll
+        static void migrate() throws SQLException {
+                Flyway.configure()
+                                .dataSource(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword())
+                                .schemas("operators")
+                                .locations("classpath:db/migration")
+                                .load()
+                                .migrate();
+
+                dataSource = new PGSimpleDataSource();
+                dataSource.setUrl(POSTGRES.getJdbcUrl());
+                dataSource.setUser(POSTGRES.getUsername());
+                dataSource.setPassword(POSTGRES.getPassword());
+                try (Connection connection = dataSource.getConnection();
+                                Statement statement = connection.createStatement()) {
+                        statement.execute("SELECT operators.create_transaction_partitions('" + DAY + "', '" + DAY + "')");
+                }
+                repository = new TransactionIngestRepository(dataSource);
+        }
+
+        @Test
+        void insertBatch_WritesMastersAndDetailsWithGeneratedIds() throws SQLException {
+                List<TransactionMaster> transactions = transactions("MER-BATCH", 3, 0);
+                List<List<TransactionDetail>> details = details(transactions, 2);
+
+                int written = repository.insertBatch(transactions, details);
+
+                assertThat(written).isEqualTo(6);
+                assertThat(transactions).allSatisfy(t -> {
+                        assertThat(t.getTxnId()).isNotNull();
+                        assertThat(t.getCreatedAt()).isNotNull();
+                });
+                assertThat(transactions.get(1).getTxnId()).isGreaterThan(transactions.get(0).getTxnId());
+
+                try (Connection connection = dataSource.getConnection();
+                                Statement statement = connection.createStatement();
+                                ResultSet rs = statement.executeQuery("SELECT m.txn_id, m.amount, COUNT(d.*) "
+                                                + "FROM operators.transaction_master m "
+                                                + "JOIN operators.transaction_details d "
+                                                + "ON d.master_txn_id = m.txn_id AND d.txn_date = m.txn_date "
+                                                + "WHERE m.merchant_id = 'MER-BATCH' GROUP BY m.txn_id, m.amount ORDER BY m.txn_id")) {
+                        for (TransactionMaster transaction : transactions) {
+                                assertThat(rs.next()).isTrue();
+                                assertThat(rs.getLong(1)).isEqualTo(transaction.getTxnId());
+                                assertThat(rs.getBigDecimal(2)).isEqualByComparingTo(transaction.getAmount());
+                                assertThat(rs.getInt(3)).isEqualTo(2);
+                        }
+                        assertThat(rs.next()).isFalse();
+                }
+
+                // The statement-level trigger keeps the per-merchant aggregate in step
+                try (Connection connection = dataSource.getConnection();
+                                Statement statement = connection.createStatement();
+                                ResultSet rs = statement.executeQuery("SELECT txn_count FROM operators.merchant_txn_stats "
+                                                + "WHERE merchant_id = 'MER-BATCH'")) {
+                        assertThat(rs.next()).isTrue();
+                        assertThat(rs.getLong(1)).isEqualTo(3L);
+                }
+        }
+
+        @Test
+        void insertBatch_WhenARowIsRejected_WritesNothing() throws SQLException {
+                List<TransactionMaster> transactions = transactions("MER-REJECT", 2, 0);
+                // No partition exists for this date
+                transactions.get(1).setTxnDate(Date.valueOf(DAY.plusYears(5)));
+
+                assertThatThrownBy(() -> repository.insertBatch(transactions, details(transactions, 1)))
+                                .isInstanceOf(IllegalArgumentException.class);
+                assertThat(transactions.get(0).getTxnId()).isNull();
+
+                try (Connection connection = dataSource.getConnection();
+                                Statement statement = connection.createStatement();
+                                ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM operators.transaction_master "
+                                                + "WHERE merchant_id = 'MER-REJECT'")) {
+                        rs.next();
+                        assertThat(rs.getLong(1)).isZero();
+                }
+        }
+
+        @Test
+        void insertBatch_SkipsStoredNaturalKeysAndTheirDetails() throws SQLException {
+                List<TransactionMaster> first = transactions("MER-DEDUPE", 2, 0);
+                repository.insertBatch(first, details(first, 1));
+
+                // The first key again, alongside a new one
+                List<TransactionMaster> redelivered = transactions("MER-DEDUPE", 3, 0);
+                int written = repository.insertBatch(redelivered, details(redelivered, 1));
+
+                assertThat(written).isEqualTo(1);
+                assertThat(redelivered.get(0).getTxnId()).isNull();
+                assertThat(redelivered.get(1).getTxnId()).isNull();
+                assertThat(redelivered.get(2).getTxnId()).isNotNull();
+
+                List<Long> stored = repository.findExistingIds(transactions("MER-DEDUPE", 4, 0));
+                assertThat(stored).containsExactly(first.get(0).getTxnId(), first.get(1).getTxnId(),
+                                redelivered.get(2).getTxnId(), null);
+
+                try (Connection connection = dataSource.getConnection();
+                                Statement statement = connection.createStatement();
+                                ResultSet rs = statement.executeQuery("SELECT COUNT(*), "
+                                                + "(SELECT COUNT(*) FROM operators.transaction_details d "
+                                                + "JOIN operators.transaction_master m ON m.txn_id = d.master_txn_id "
+                                                + "AND m.txn_date = d.txn_date WHERE m.merchant_id = 'MER-DEDUPE') "
+                                                + "FROM operators.transaction_master WHERE merchant_id = 'MER-DEDUPE'")) {
+                        rs.next();
+                        assertThat(rs.getLong(1)).isEqualTo(3L);
+                        assertThat(rs.getLong(2)).isEqualTo(3L);
+                }
+        }
+
+        @Test
+        @EnabledIfSystemProperty(named = "benchmark.ingestion", matches = "true")
+        void sustainedThroughputHasTenfoldHeadroom() {
+                long deadline = System.nanoTime() + SECONDS * 1_000_000_000L;
+                long began = System.nanoTime();
+                long written = 0;
+                int batches = 0;
+                while (System.nanoTime() < deadline) {
+                        List<TransactionMaster> transactions = transactions("MER" + (batches % 100), BATCH_SIZE,
+                                        batches * BATCH_SIZE);
+                        // Unique natural keys across batches
+                        for (TransactionMaster transaction : transactions) {
+                                transaction.setAuthCode("A" + batches + "-" + transaction.getAuthCode());
+                        }
+                        repository.insertBatch(transactions, details(transactions, DETAILS_PER_TRANSACTION));
+                        written += transactions.size();
+                        batches++;
+                }
+                double seconds = (System.nanoTime() - began) / 1e9;
+                double perSecond = written / seconds;
+                double required = DAILY_VOLUME * HEADROOM / 86_400.0;
+
+                System.out.printf("Ingested %,d transactions (%,d details) in %d batches over %.1f s: "
+                                + "%,.0f txn/s, %,.0f txn/day; required %,.0f txn/s%n",
+                                written, written * DETAILS_PER_TRANSACTION, batches, seconds, perSecond,
+                                perSecond * 86_400, required);
+
+                assertThat(perSecond).isGreaterThanOrEqualTo(required);
+        }
+
+        private static List<TransactionMaster> transactions(String merchantId, int count, int offset) {
+                List<TransactionMaster> transactions = new ArrayList<>(count);
+                Instant midnight = DAY.atStartOfDay(ZoneOffset.UTC).toInstant();
+                for (int i = 0; i < count; i++) {
+                        TransactionMaster transaction = new TransactionMaster();
+                        transaction.setMerchantId(merchantId);
+                        transaction.setTxnDate(Date.valueOf(DAY));
+                        transaction.setLocalTxnDateTime(midnight.plusSeconds((offset + i) % 86_400));
+                        transaction.setAmount(BigDecimal.valueOf(100 + (offset + i) % 10_000, 2));
+                        transaction.setCurrency("USD");
+                        transaction.setStatus(i % 5 == 0 ? "failed" : "completed");
+                        transaction.setCardType(i % 2 == 0 ? "VISA" : "MASTERCARD");
+                        transaction.setCardLast4("4242");
+                        transaction.setAuthCode("AUTH" + i);
+                        transaction.setResponseCode("00");
+                        transactions.add(transaction);
+                }
+                return transactions;
+        }
+
+        private static List<List<TransactionDetail>> details(List<TransactionMaster> transactions, int perTransaction) {
+                String[] types = { "fee", "tax", "adjustment" };
+                List<List<TransactionDetail>> details = new ArrayList<>(transactions.size());
+                for (TransactionMaster transaction : transactions) {
+                        List<TransactionDetail> lines = new ArrayList<>(perTransaction);
+                        for (int d = 0; d < perTransaction; d++) {
+                                TransactionDetail detail = new TransactionDetail();
+                                detail.setDetailType(types[d % types.length]);
+                                detail.setAmount(new BigDecimal("1.25"));
+                                detail.setCurrency("USD");
+                                detail.setDescription(types[d % types.length]);
+                                detail.setLocalTxnDateTime(transaction.getLocalTxnDateTime());
+                                lines.add(detail);
+                        }
+                        details.add(lines);
+                }
+                return details;
+        }
+}
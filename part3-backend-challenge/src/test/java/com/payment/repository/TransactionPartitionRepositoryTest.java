@@ -0,0 +1,106 @@
+package com.payment.repository;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Partition maintenance against a database built from the Flyway migrations
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class TransactionPartitionRepositoryTest {
+
+        @Container
+        static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:15-alpine");
+
+        private static HikariDataSource dataSource;
+        private static TransactionPartitionRepository repository;
+
+        @BeforeAll
+        static void migrate() throws SQLException {
+                Flyway.configure()
+                                .dataSource(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword())
+                                .schemas("operators")
+                                .locations("classpath:db/migration")
+                                .load()
+                                .migrate();
+
+                dataSource = new HikariDataSource();
+                dataSource.setJdbcUrl(POSTGRES.getJdbcUrl());
+                dataSource.setUsername(POSTGRES.getUsername());
+                dataSource.setPassword(POSTGRES.getPassword());
+                try (Connection connection = dataSource.getConnection();
+                                Statement statement = connection.createStatement()) {
+                        statement.execute("SELECT operators.create_transaction_partitions('2024-01-01', '2024-02-01')");
+                }
+                repository = new TransactionPartitionRepository(dataSource);
+        }
+
+        @AfterAll
+        static void closePool() {
+                dataSource.close();
+        }
+
+        @Test
+        void detachMonth_TakesTheMonthOutOfMerchantStats() throws SQLException {
+                insert("DETACH1", LocalDate.of(2024, 1, 10), "100.00", "completed");
+                insert("DETACH1", LocalDate.of(2024, 1, 20), "40.00", "pending");
+                insert("DETACH1", LocalDate.of(2024, 2, 5), "25.00", "completed");
+                insert("DETACH2", LocalDate.of(2024, 1, 12), "10.00", "completed");
+
+                assertThat(repository.detachMonth(YearMonth.of(2024, 1))).isTrue();
+
+                assertThat(repository.findAttachedMonths()).doesNotContain(YearMonth.of(2024, 1));
+                assertStats("DETACH1", 1, "25.00", LocalDate.of(2024, 2, 5));
+                assertStats("DETACH2", 0, "0.00", null);
+                assertThat(repository.detachMonth(YearMonth.of(2024, 1))).isFalse();
+                assertStats("DETACH1", 1, "25.00", LocalDate.of(2024, 2, 5));
+        }
+
+        private static void insert(String merchantId, LocalDate day, String amount, String status) throws SQLException {
+                try (Connection connection = dataSource.getConnection();
+                                PreparedStatement statement = connection.prepareStatement(
+                                                "INSERT INTO operators.transaction_master "
+                                                                + "(merchant_id, txn_date, local_txn_date_time, amount, status) "
+                                                                + "VALUES (?, ?, ?::date, ?, ?)")) {
+                        statement.setString(1, merchantId);
+                        statement.setObject(2, day);
+                        statement.setString(3, day.toString());
+                        statement.setBigDecimal(4, new BigDecimal(amount));
+                        statement.setString(5, status);
+                        statement.executeUpdate();
+                }
+        }
+
+        private static void assertStats(String merchantId, long txnCount, String completedAmount, LocalDate lastTxnDate)
+                        throws SQLException {
+                try (Connection connection = dataSource.getConnection();
+                                PreparedStatement statement = connection.prepareStatement(
+                                                "SELECT txn_count, completed_amount, last_txn_date "
+                                                                + "FROM operators.merchant_txn_stats WHERE merchant_id = ?")) {
+                        statement.setString(1, merchantId);
+                        try (ResultSet rs = statement.executeQuery()) {
+                                assertThat(rs.next()).isTrue();
+                                assertThat(rs.getLong("txn_count")).isEqualTo(txnCount);
+                                assertThat(rs.getBigDecimal("completed_amount")).isEqualByComparingTo(completedAmount);
+                                assertThat(rs.getObject("last_txn_date", LocalDate.class)).isEqualTo(lastTxnDate);
+                        }
+                }
+        }
+}
@@ -0,0 +1,194 @@
+package com.payment.repository;
+
+import com.payment.analytics.DeclineCounters;
+import com.payment.analytics.LiveDayAggregator;
+import com.payment.audit.AuditSink;
+import com.payment.config.AuditProperties;
+import com.payment.config.DeclineAnalyticsProperties;
+import com.payment.config.LiveMetricsProperties;
+import com.payment.config.PaymentProcessingProperties;
+import com.payment.dto.transaction.PaymentBatchResponse;
+import com.payment.entity.TransactionDetail;
+import com.payment.entity.TransactionMaster;
+import com.payment.service.PaymentProcessingService;
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Chunked status updates against a database built from the Flyway migrations.
+ *
+ * The benchmark is opt-in: it settles the same number of pending transactions
+ * the way the original PaymentProcessingService did (a parallel stream issuing
+ * one auto-committed UPDATE per payment) and through the chunked engine, and
+ * requires the engine to be faster. Run with
+ * mvn test -Dtest=TransactionStatusRepositoryTest -Dbenchmark.settlement=true
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class TransactionStatusRepositoryTest {
+
+        private static final LocalDate DAY = LocalDate.of(2025, 1, 15);
+        private static final int BENCHMARK_SIZE = Integer.getInteger("benchmark.settlement.size", 20_000);
+
+        @Container
+        static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:15-alpine");
+
+        private static HikariDataSource dataSource;
+        private static TransactionIngestRepository ingestRepository;
+        private static TransactionStatusRepository repository;
+
+        @BeforeAll
+        static void migrate() throws SQLException {
+                Flyway.configure()
+                                .dataSource(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword())
+                                .schemas("operators")
+                                .locations("classpath:db/migration")
+                                .load()
+                                .migrate();
+
+                dataSource = new HikariDataSource();
+                dataSource.setJdbcUrl(POSTGRES.getJdbcUrl());
+                dataSource.setUsername(POSTGRES.getUsername());
+                dataSource.setPassword(POSTGRES.getPassword());
+                dataSource.setMaximumPoolSize(10);
+                try (Connection connection = dataSource.getConnection();
+                                Statement statement = connection.createStatement()) {
+                        statement.execute("SELECT operators.create_transaction_partitions('" + DAY + "', '" + DAY + "')");
+                }
+                ingestRepository = new TransactionIngestRepository(dataSource);
+                repository = new TransactionStatusRepository(dataSource);
+        }
+
+        @AfterAll
+        static void closePool() {
+                dataSource.close();
+        }
+
+        @Test
+        void settle_ChangesOnlyPendingRows() throws SQLException {
+                List<TransactionMaster> transactions = pending("MER-SETTLE", 3);
+                transactions.get(2).setStatus("reversed");
+                ingestRepository.insertBatch(transactions, emptyDetails(transactions));
+
+                Set<Long> updated = repository.settle(ids(transactions), dates(transactions),
+                                List.of("completed", "failed", "completed"));
+
+                assertThat(updated).containsExactlyInAnyOrder(transactions.get(0).getTxnId(),
+                                transactions.get(1).getTxnId());
+                assertThat(statusOf(transactions.get(0))).isEqualTo("completed");
+                assertThat(statusOf(transactions.get(1))).isEqualTo("failed");
+                assertThat(statusOf(transactions.get(2))).isEqualTo("reversed");
+
+                // Settling again changes nothing
+                assertThat(repository.settle(ids(transactions), dates(transactions),
+                                List.of("completed", "completed", "completed"))).isEmpty();
+        }
+
+        @Test
+        @EnabledIfSystemProperty(named = "benchmark.settlement", matches = "true")
+        void chunkedEngineOutperformsRowAtATimeUpdates() throws SQLException {
+                List<TransactionMaster> rowAtATime = pending("MER-ROWS", BENCHMARK_SIZE);
+                ingestRepository.insertBatch(rowAtATime, emptyDetails(rowAtATime));
+                List<TransactionMaster> chunked = pending("MER-CHUNKS", BENCHMARK_SIZE);
+                ingestRepository.insertBatch(chunked, emptyDetails(chunked));
+
+                long began = System.nanoTime();
+                rowAtATime.parallelStream().forEach(transaction -> {
+                        try (Connection connection = dataSource.getConnection();
+                                        PreparedStatement statement = connection.prepareStatement(
+                                                        "UPDATE operators.transaction_master SET status = 'completed' "
+                                                                        + "WHERE txn_id = ? AND txn_date = ?")) {
+                                statement.setLong(1, transaction.getTxnId());
+                                statement.setDate(2, transaction.getTxnDate());
+                                statement.executeUpdate();
+                        } catch (SQLException e) {
+                                throw new IllegalStateException(e);
+                        }
+                });
+                double rowSeconds = (System.nanoTime() - began) / 1e9;
+
+                PaymentProcessingService engine = new PaymentProcessingService(null, repository,
+                                new PaymentProcessingProperties(),
+                                new AuditSink(new AuditLogRepository(dataSource), new AuditProperties()),
+                                new LiveDayAggregator(new LiveMetricsProperties()),
+                                new DeclineCounters(new DeclineAnalyticsProperties()));
+                began = System.nanoTime();
+                PaymentBatchResponse response = engine.processPaymentBatch(chunked);
+                double chunkSeconds = (System.nanoTime() - began) / 1e9;
+
+                System.out.printf("Settled %,d transactions: row at a time %.2f s (%,.0f txn/s), "
+                                + "chunked %.2f s (%,.0f txn/s) in %d chunks%n",
+                                BENCHMARK_SIZE, rowSeconds, BENCHMARK_SIZE / rowSeconds, chunkSeconds,
+                                BENCHMARK_SIZE / chunkSeconds, response.getChunkCount());
+
+                assertThat(response.getCompletedCount()).isEqualTo(BENCHMARK_SIZE);
+                assertThat(chunkSeconds).isLessThan(rowSeconds);
+        }
+
+        private static String statusOf(TransactionMaster transaction) throws SQLException {
+                try (Connection connection = dataSource.getConnection();
+                                PreparedStatement statement = connection.prepareStatement(
+                                                "SELECT status FROM operators.transaction_master WHERE txn_id = ?")) {
+                        statement.setLong(1, transaction.getTxnId());
+                        try (ResultSet rs = statement.executeQuery()) {
+                                assertThat(rs.next()).isTrue();
+                                return rs.getString(1);
+                        }
+                }
+        }
+
+        private static List<TransactionMaster> pending(String merchantId, int count) {
+                List<TransactionMaster> transactions = new ArrayList<>(count);
+                Instant midnight = DAY.atStartOfDay(ZoneOffset.UTC).toInstant();
+                for (int i = 0; i < count; i++) {
+                        TransactionMaster transaction = new TransactionMaster();
+                        transaction.setMerchantId(merchantId);
+                        transaction.setTxnDate(Date.valueOf(DAY));
+                        transaction.setLocalTxnDateTime(midnight.plusSeconds(i % 86_400));
+                        transaction.setAmount(BigDecimal.valueOf(100 + i % 10_000, 2));
+                        transaction.setCurrency("USD");
+                        transaction.setStatus("pending");
+                        transaction.setCardType("VISA");
+                        transactions.add(transaction);
+                }
+                return transactions;
+        }
+
+        private static List<List<TransactionDetail>> emptyDetails(List<TransactionMaster> transactions) {
+                List<List<TransactionDetail>> details = new ArrayList<>(transactions.size());
+                for (int i = 0; i < transactions.size(); i++) {
+                        details.add(List.of());
+                }
+                return details;
+        }
+
+        private static List<Long> ids(List<TransactionMaster> transactions) {
+                return transactions.stream().map(TransactionMaster::getTxnId).toList();
+        }
+
+        private static List<Date> dates(List<TransactionMaster> transactions) {
+                return transactions.stream().map(TransactionMaster::getTxnDate).toList();
+        }
+}
@@ -0,0 +1,71 @@
+package com.payment.repository.criteria;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TransactionCriteriaQueryTest {
+
+        @Test
+        void merchantOnlyShapeFiltersOnMerchantAndOrdersByDate() {
+                TransactionCriteriaQuery query = TransactionCriteriaQuery.forShape(0);
+
+                assertThat(query.getPageSql())
+                                .contains("WHERE merchant_id = ? ORDER BY txn_date DESC, txn_id DESC LIMIT ? OFFSET ?");
+                assertThat(query.getCountSql())
+                                .isEqualTo("SELECT COUNT(*) FROM operators.transaction_master WHERE merchant_id = ?");
+        }
+
+        @Test
+        void everyShapeEmitsOnePlaceholderPerFilter() {
+                for (int shape = 0; shape < TransactionCriteria.SHAPE_COUNT; shape++) {
+                        String countSql = TransactionCriteriaQuery.forShape(shape).getCountSql();
+                        long placeholders = countSql.chars().filter(c -> c == '?').count();
+
+                        assertThat(placeholders).isEqualTo(1 + Integer.bitCount(shape));
+                }
+        }
+
+        @Test
+        void singleDateBoundsProduceOpenRanges() {
+                assertThat(TransactionCriteriaQuery.forShape(TransactionCriteria.START_DATE).getCountSql())
+                                .endsWith("merchant_id = ? AND txn_date >= ?");
+                assertThat(TransactionCriteriaQuery.forShape(TransactionCriteria.END_DATE).getCountSql())
+                                .endsWith("merchant_id = ? AND txn_date <= ?");
+        }
+
+        @Test
+        void setFiltersBindArrays() {
+                int shape = TransactionCriteria.STATUS | TransactionCriteria.CARD_TYPE;
+
+                assertThat(TransactionCriteriaQuery.forShape(shape).getCountSql())
+                                .endsWith("AND status = ANY(?) AND card_type = ANY(?)");
+        }
+
+        @Test
+        void compiledQueriesAreCachedPerShape() {
+                int shape = TransactionCriteria.START_DATE | TransactionCriteria.CURRENCY;
+
+                assertThat(TransactionCriteriaQuery.forShape(shape)).isSameAs(TransactionCriteriaQuery.forShape(shape));
+        }
+
+        @Test
+        void criteriaShapeTracksPresentFilters() {
+                TransactionCriteria criteria = TransactionCriteria.builder()
+                                .merchantId("MCH-00001")
+                                .statuses(java.util.List.of(" ", ""))
+                                .currency("eur")
+                                .build();
+
+                assertThat(criteria.shape()).isEqualTo(TransactionCriteria.CURRENCY);
+                assertThat(criteria.getStatuses()).isNull();
+                assertThat(criteria.getCurrency()).isEqualTo("EUR");
+        }
+
+        @Test
+        void unknownShapeIsRejected() {
+                assertThatThrownBy(() -> TransactionCriteriaQuery.forShape(TransactionCriteria.SHAPE_COUNT))
+                                .isInstanceOf(IllegalArgumentException.class);
+        }
+}
@@ -0,0 +1,143 @@
+package com.payment.service;
+
+import com.payment.analytics.DeclineCounters;
+import com.payment.config.DeclineAnalyticsProperties;
+import com.payment.dto.reports.DeclineAnalyticsResponse;
+import com.payment.entity.TransactionMaster;
+import com.payment.repository.DeclineSnapshotRepository;
+import com.payment.repository.DeclineSnapshotRepository.DeclineGroup;
+import com.payment.repository.DeclineSnapshotRepository.Dimension;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DeclineAnalyticsServiceTest {
+
+        private static final Instant NOW = Instant.parse("2025-11-18T14:25:00Z");
+        private static final Instant HOUR = Instant.parse("2025-11-18T14:00:00Z");
+
+        @Mock
+        private DeclineSnapshotRepository snapshotRepository;
+
+        private DeclineCounters counters;
+        private DeclineAnalyticsService service;
+
+        @BeforeEach
+        void setUp() {
+                DeclineAnalyticsProperties properties = new DeclineAnalyticsProperties();
+                counters = new DeclineCounters(properties);
+                service = new DeclineAnalyticsService(counters, snapshotRepository, properties);
+        }
+
+        @Test
+        void getDeclines_AddsUnwrittenCountsToTheSnapshots() {
+                // Arrange
+                Instant from = Instant.parse("2025-11-17T15:00:00Z");
+                Instant until = Instant.parse("2025-11-18T15:00:00Z");
+                when(snapshotRepository.findBreakdown(from, until, null)).thenReturn(List.of(
+                                new DeclineGroup(Dimension.HOUR, HOUR, null, null, 2, 1),
+                                new DeclineGroup(Dimension.ISSUER, null, 8L, null, 2, 1),
+                                new DeclineGroup(Dimension.RESPONSE_CODE, null, null, "51", 1, 1),
+                                new DeclineGroup(Dimension.RESPONSE_CODE, null, null, "00", 1, 0)));
+                counters.record(List.of(
+                                transaction(7L, "05", "failed"),
+                                transaction(7L, "05", "failed"),
+                                transaction(7L, "00", "completed"),
+                                transaction(8L, "51", "failed")));
+
+                // Act
+                DeclineAnalyticsResponse response = service.getDeclines(24, null, NOW);
+
+                // Assert
+                assertEquals(DeclineAnalyticsService.SOURCE_SNAPSHOTS_AND_MEMORY, response.getSource());
+                assertEquals(from, response.getReportPeriod().getStart());
+                assertEquals(6L, response.getTotalTransactions());
+                assertEquals(4L, response.getTotalDeclines());
+                assertEquals(66.67, response.getDeclineRate());
+                assertEquals("05", response.getByResponseCode().get(0).getResponseCode());
+                assertEquals(50.0, response.getByResponseCode().get(0).getDeclineShare());
+                assertEquals(7L, response.getByIssuer().get(0).getIssuerId());
+                assertEquals(3L, response.getByIssuer().get(1).getTransactions());
+                assertEquals(HOUR, response.getHourly().get(0).getHourStart());
+        }
+
+        @Test
+        void getDeclines_FlushBetweenTheReads_ReadsTheSnapshotsAgain() {
+                // Arrange
+                counters.record(List.of(transaction(7L, "05", "failed")));
+                List<DeclineGroup> written = List.of(
+                                new DeclineGroup(Dimension.HOUR, HOUR, null, null, 1, 1),
+                                new DeclineGroup(Dimension.ISSUER, null, 7L, null, 1, 1),
+                                new DeclineGroup(Dimension.RESPONSE_CODE, null, null, "05", 1, 1));
+                when(snapshotRepository.findBreakdown(any(), any(), isNull()))
+                                .thenAnswer(invocation -> {
+                                        // The flush commits after this read has seen its rows
+                                        counters.flush(counts -> {
+                                        }, NOW);
+                                        return written;
+                                })
+                                .thenReturn(written);
+
+                // Act
+                DeclineAnalyticsResponse response = service.getDeclines(1, null, NOW);
+
+                // Assert
+                verify(snapshotRepository, times(2)).findBreakdown(any(), any(), isNull());
+                assertEquals(1L, response.getTotalTransactions());
+                assertEquals(1L, response.getTotalDeclines());
+        }
+
+        @Test
+        void getDeclines_WhenCountingIsDisabled_ReadsOnlyTheSnapshots() {
+                // Arrange
+                DeclineAnalyticsProperties disabled = new DeclineAnalyticsProperties();
+                disabled.setEnabled(false);
+                service = new DeclineAnalyticsService(counters, snapshotRepository, disabled);
+                Instant from = Instant.parse("2025-11-11T15:00:00Z");
+                Instant until = Instant.parse("2025-11-18T15:00:00Z");
+                when(snapshotRepository.findBreakdown(from, until, 7L)).thenReturn(List.of(
+                                new DeclineGroup(Dimension.HOUR, HOUR, null, null, 100, 10),
+                                new DeclineGroup(Dimension.ISSUER, null, 7L, null, 100, 10),
+                                new DeclineGroup(Dimension.RESPONSE_CODE, null, null, "05", 10, 10),
+                                new DeclineGroup(Dimension.RESPONSE_CODE, null, null, "00", 90, 0)));
+
+                // Act
+                DeclineAnalyticsResponse response = service.getDeclines(7 * 24, 7L, NOW);
+
+                // Assert
+                assertEquals(DeclineAnalyticsService.SOURCE_SNAPSHOTS, response.getSource());
+                assertEquals(10.0, response.getDeclineRate());
+                assertEquals(List.of("05", "00"), response.getByResponseCode().stream()
+                                .map(code -> code.getResponseCode()).toList());
+                assertEquals(10.0, response.getByIssuer().get(0).getDeclineRate());
+        }
+
+        @Test
+        void getDeclines_HoursOutOfRange_ThrowsIllegalArgumentException() {
+                // Act & Assert
+                assertThrows(IllegalArgumentException.class, () -> service.getDeclines(0, null, NOW));
+                assertThrows(IllegalArgumentException.class, () -> service.getDeclines(31 * 24 + 1, null, NOW));
+        }
+
+        private static TransactionMaster transaction(Long issuerId, String responseCode, String status) {
+                TransactionMaster transaction = new TransactionMaster();
+                transaction.setLocalTxnDateTime(HOUR.plusSeconds(60));
+                transaction.setGpIssuerId(issuerId);
+                transaction.setResponseCode(responseCode);
+                transaction.setStatus(status);
+                return transaction;
+        }
+}
@@ -0,0 +1,138 @@
+package com.payment.service;
+
+import com.payment.exception.ServiceUnavailableException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeyedExecutorTest {
+
+        private KeyedExecutor executor;
+
+        @AfterEach
+        void tearDown() throws InterruptedException {
+                executor.close(5, TimeUnit.SECONDS);
+        }
+
+        @Test
+        void submit_FromManyThreads_KeepsOrderWithinEachKey() throws Exception {
+                // Arrange
+                executor = new KeyedExecutor("test-lane-", 4, 64, 5, TimeUnit.SECONDS);
+                int keys = 16;
+                int perKey = 500;
+                Map<String, List<Integer>> applied = new ConcurrentHashMap<>();
+                List<Thread> producers = new ArrayList<>();
+                List<CompletableFuture<Void>> done = Collections.synchronizedList(new ArrayList<>());
+
+                // Act: one producer per key, all submitting at once
+                for (int k = 0; k < keys; k++) {
+                        String key = "MCH-" + k;
+                        applied.put(key, Collections.synchronizedList(new ArrayList<>()));
+                        producers.add(Thread.ofPlatform().start(() -> {
+                                for (int i = 0; i < perKey; i++) {
+                                        int value = i;
+                                        done.add(executor.submit(key, () -> applied.get(key).add(value)));
+                                }
+                        }));
+                }
+                for (Thread producer : producers) {
+                        producer.join();
+                }
+                CompletableFuture.allOf(done.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+
+                // Assert
+                for (List<Integer> values : applied.values()) {
+                        assertEquals(perKey, values.size());
+                        for (int i = 0; i < perKey; i++) {
+                                assertEquals(i, values.get(i));
+                        }
+                }
+        }
+
+        @Test
+        void submit_BlockedKey_DoesNotHoldBackOtherLanes() throws Exception {
+                // Arrange
+                executor = new KeyedExecutor("test-lane-", 2, 8, 5, TimeUnit.SECONDS);
+                String blockedKey = keyOnLane(0);
+                String freeKey = keyOnLane(1);
+                CountDownLatch release = new CountDownLatch(1);
+                CompletableFuture<Void> blocked = executor.submit(blockedKey, () -> await(release));
+
+                // Act
+                CompletableFuture<Void> free = executor.submit(freeKey, () -> { });
+
+                // Assert
+                free.get(5, TimeUnit.SECONDS);
+                assertFalse(blocked.isDone());
+                assertTrue(executor.stats().get(0).busy());
+                release.countDown();
+                blocked.get(5, TimeUnit.SECONDS);
+        }
+
+        @Test
+        void submit_WhenLaneStaysFull_RejectsAndCountsIt() throws Exception {
+                // Arrange
+                executor = new KeyedExecutor("test-lane-", 1, 1, 50, TimeUnit.MILLISECONDS);
+                CountDownLatch release = new CountDownLatch(1);
+                CountDownLatch running = new CountDownLatch(1);
+                executor.submit("MCH-1", () -> {
+                        running.countDown();
+                        await(release);
+                });
+                running.await(5, TimeUnit.SECONDS);
+                executor.submit("MCH-1", () -> { });
+
+                // Act & Assert
+                assertThrows(ServiceUnavailableException.class, () -> executor.submit("MCH-2", () -> { }));
+                KeyedExecutor.LaneStats stats = executor.stats().get(0);
+                assertEquals(1, stats.depth());
+                assertEquals(1, stats.rejected());
+                assertEquals(2, stats.submitted());
+                release.countDown();
+        }
+
+        @Test
+        void submit_TaskThatThrows_FailsItsFutureAndLaneKeepsRunning() throws Exception {
+                // Arrange
+                executor = new KeyedExecutor("test-lane-", 1, 4, 1, TimeUnit.SECONDS);
+
+                // Act
+                CompletableFuture<Void> failing = executor.submit("MCH-1", () -> {
+                        throw new IllegalStateException("boom");
+                });
+                CompletableFuture<Void> next = executor.submit("MCH-1", () -> { });
+
+                // Assert
+                next.get(5, TimeUnit.SECONDS);
+                assertTrue(failing.isCompletedExceptionally());
+                assertEquals(1, executor.stats().get(0).failed());
+                assertEquals(1, executor.stats().get(0).completed());
+        }
+
+        private String keyOnLane(int lane) {
+                for (int i = 0; ; i++) {
+                        String key = "MCH-" + i;
+                        if (executor.laneOf(key) == lane) {
+                                return key;
+                        }
+                }
+        }
+
+        private static void await(CountDownLatch latch) {
+                try {
+                        latch.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                }
+        }
+}
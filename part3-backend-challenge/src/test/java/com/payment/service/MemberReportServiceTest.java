@@ -0,0 +1,93 @@
+package com.payment.service;
+
+import com.payment.dto.reports.MemberReportDTO;
+import com.payment.dto.reports.MemberReportsResponse;
+import com.payment.repository.MemberReportRepository;
+import com.payment.repository.MemberReportRepository.MemberStatRow;
+import com.payment.repository.MemberReportRepository.Role;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class MemberReportServiceTest {
+
+        private static final LocalDate START = LocalDate.of(2025, 11, 1);
+        private static final LocalDate END = LocalDate.of(2025, 11, 30);
+
+        @Mock
+        private MemberReportRepository memberReportRepository;
+
+        private MemberReportService memberReportService;
+
+        @BeforeEach
+        void setUp() {
+                memberReportService = new MemberReportService(memberReportRepository);
+        }
+
+        @Test
+        void getMemberReports_GroupsRowsByMember() {
+                // Arrange
+                when(memberReportRepository.findMemberStats(Role.ACQUIRER, START, END, null)).thenReturn(List.of(
+                                new MemberStatRow(1L, "First Bank", "ACQ01", "completed", "VISA", 6, new BigDecimal("600.00")),
+                                new MemberStatRow(1L, "First Bank", "ACQ01", "completed", "MASTERCARD", 2, new BigDecimal("50.00")),
+                                new MemberStatRow(1L, "First Bank", "ACQ01", "failed", "VISA", 2, new BigDecimal("20.00")),
+                                new MemberStatRow(4L, "Fourth Bank", "ACQ04", "pending", "unknown", 3, new BigDecimal("30.00"))));
+
+                // Act
+                MemberReportsResponse response = memberReportService.getMemberReports(Role.ACQUIRER, START, END, null);
+
+                // Assert
+                assertEquals("acquirer", response.getRole());
+                assertEquals(2, response.getMemberCount());
+
+                MemberReportDTO first = response.getMembers().get(0);
+                assertEquals(1L, first.getMemberId());
+                assertEquals(10L, first.getTotalTransactions());
+                assertEquals(new BigDecimal("670.00"), first.getTotalAmount());
+                assertEquals(new BigDecimal("650.00"), first.getCompletedAmount());
+                assertEquals(80.0, first.getSuccessRateMetrics().getSuccessRate());
+                assertEquals(20.0, first.getSuccessRateMetrics().getFailureRate());
+                assertEquals(8L, first.getCardTypeDistribution().getByType().get("VISA"));
+                assertEquals(20.0, first.getCardTypeDistribution().getPercentages().get("MASTERCARD"));
+
+                MemberReportDTO fourth = response.getMembers().get(1);
+                assertEquals(0.0, fourth.getSuccessRateMetrics().getSuccessRate());
+                assertEquals(3L, fourth.getSuccessRateMetrics().getByStatus().get("pending"));
+        }
+
+        @Test
+        void getMemberReports_DefaultsToLast30Days() {
+                // Arrange
+                when(memberReportRepository.findMemberStats(eq(Role.ISSUER), any(), any(), eq(7L))).thenReturn(List.of());
+
+                // Act
+                MemberReportsResponse response = memberReportService.getMemberReports(Role.ISSUER, null, null, 7L);
+
+                // Assert
+                assertEquals(0, response.getMemberCount());
+                verify(memberReportRepository).findMemberStats(Role.ISSUER, LocalDate.now().minusDays(30),
+                                LocalDate.now(), 7L);
+        }
+
+        @Test
+        void getMemberReports_StartAfterEnd_ThrowsIllegalArgumentException() {
+                // Act & Assert
+                assertThrows(IllegalArgumentException.class,
+                                () -> memberReportService.getMemberReports(Role.ISSUER, END, START, null));
+                verifyNoInteractions(memberReportRepository);
+        }
+}
@@ -6,7 +6,9 @@ import com.payment.dto.merchant.MerchantResponse;
 import com.payment.dto.merchant.MerchantSearchRequest;
 import com.payment.dto.merchant.UpdateMerchantRequest;
 import com.payment.entity.Merchant;
+import com.payment.entity.MerchantTransactionStats;
 import com.payment.repository.MerchantRepository;
+import com.payment.repository.MerchantTransactionStatsRepository;
 import io.micronaut.data.model.Page;
 import io.micronaut.data.model.Pageable;
 import org.junit.jupiter.api.BeforeEach;
@@ -16,7 +18,10 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.math.BigDecimal;
+import java.sql.Date;
 import java.time.Instant;
+import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -31,6 +36,9 @@ class MerchantServiceTest {
         @Mock
         private MerchantRepository merchantRepository;
 
+        @Mock
+        private MerchantTransactionStatsRepository merchantTransactionStatsRepository;
+
         @InjectMocks
         private MerchantService merchantService;
 
@@ -176,6 +184,67 @@ class MerchantServiceTest {
                 assertThat(response.getPagination().getTotalElements()).isEqualTo(0);
         }
 
+        @Test
+        void testGetMerchantsWithStatsAttachesAggregates() {
+                // Arrange
+                List<Merchant> merchants = Arrays.asList(testMerchant1, testMerchant2);
+                mockPage = Page.of(merchants, Pageable.from(0, 20), 2);
+
+                MerchantTransactionStats stats = new MerchantTransactionStats();
+                stats.setMerchantId("MCH-00001");
+                stats.setTxnCount(42L);
+                stats.setCompletedAmount(new BigDecimal("1250.75"));
+                stats.setLastTxnDate(Date.valueOf(LocalDate.of(2025, 11, 18)));
+
+                when(merchantRepository.findAll(any(Pageable.class))).thenReturn(mockPage);
+                when(merchantTransactionStatsRepository.findByMerchantIdInList(
+                                Arrays.asList("MCH-00001", "MCH-00002")))
+                                .thenReturn(Collections.singletonList(stats));
+
+                MerchantSearchRequest request = MerchantSearchRequest.builder()
+                                .page(0)
+                                .size(20)
+                                .includeStats(true)
+                                .build();
+
+                // Act
+                MerchantListResponse response = merchantService.getMerchants(request);
+
+                // Assert
+                MerchantResponse first = response.getMerchants().get(0);
+                assertThat(first.getTransactionStats().getTotalTransactions()).isEqualTo(42L);
+                assertThat(first.getTransactionStats().getCompletedAmount()).isEqualByComparingTo("1250.75");
+                assertThat(first.getTransactionStats().getLastTransactionDate())
+                                .isEqualTo(LocalDate.of(2025, 11, 18));
+
+                // Merchant without an aggregate row gets zeroed stats
+                MerchantResponse second = response.getMerchants().get(1);
+                assertThat(second.getTransactionStats().getTotalTransactions()).isZero();
+                assertThat(second.getTransactionStats().getCompletedAmount()).isEqualByComparingTo("0");
+                assertThat(second.getTransactionStats().getLastTransactionDate()).isNull();
+
+                verify(merchantTransactionStatsRepository, times(1)).findByMerchantIdInList(anyList());
+        }
+
+        @Test
+        void testGetMerchantsWithoutStatsSkipsAggregateLookup() {
+                // Arrange
+                mockPage = Page.of(Collections.singletonList(testMerchant1), Pageable.from(0, 20), 1);
+                when(merchantRepository.findAll(any(Pageable.class))).thenReturn(mockPage);
+
+                MerchantSearchRequest request = MerchantSearchRequest.builder()
+                                .page(0)
+                                .size(20)
+                                .build();
+
+                // Act
+                MerchantListResponse response = merchantService.getMerchants(request);
+
+                // Assert
+                assertThat(response.getMerchants().get(0).getTransactionStats()).isNull();
+                verifyNoInteractions(merchantTransactionStatsRepository);
+        }
+
         @Test
         void testGetMerchantsWithMultiSort() {
                 // Arrange
@@ -0,0 +1,72 @@
+package com.payment.service;
+
+import com.payment.config.PartitionProperties;
+import com.payment.repository.TransactionPartitionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PartitionManagerTest {
+
+        @Mock
+        private TransactionPartitionRepository partitionRepository;
+
+        private PartitionProperties properties;
+        private PartitionManager partitionManager;
+
+        @BeforeEach
+        void setUp() {
+                properties = new PartitionProperties();
+                properties.setMonthsAhead(2);
+                properties.setRetentionMonths(12);
+                partitionManager = new PartitionManager(partitionRepository, properties);
+        }
+
+        @Test
+        void testMaintainCreatesCurrentAndUpcomingMonths() {
+                when(partitionRepository.findAttachedMonths()).thenReturn(List.of());
+
+                partitionManager.maintain(LocalDate.of(2025, 11, 18));
+
+                verify(partitionRepository).createMonth(YearMonth.of(2025, 11));
+                verify(partitionRepository).createMonth(YearMonth.of(2025, 12));
+                verify(partitionRepository).createMonth(YearMonth.of(2026, 1));
+                verify(partitionRepository, times(3)).createMonth(any());
+        }
+
+        @Test
+        void testMaintainDetachesOnlyMonthsOutsideRetention() {
+                when(partitionRepository.findAttachedMonths()).thenReturn(List.of(
+                                YearMonth.of(2024, 9),
+                                YearMonth.of(2024, 10),
+                                YearMonth.of(2024, 11),
+                                YearMonth.of(2025, 11)));
+
+                partitionManager.maintain(LocalDate.of(2025, 11, 18));
+
+                verify(partitionRepository).detachMonth(YearMonth.of(2024, 9));
+                verify(partitionRepository).detachMonth(YearMonth.of(2024, 10));
+                verify(partitionRepository, never()).detachMonth(YearMonth.of(2024, 11));
+                verify(partitionRepository, never()).detachMonth(YearMonth.of(2025, 11));
+        }
+
+        @Test
+        void testMaintainKeepsEverythingWhenRetentionDisabled() {
+                properties.setRetentionMonths(0);
+
+                partitionManager.maintain(LocalDate.of(2025, 11, 18));
+
+                verify(partitionRepository, never()).findAttachedMonths();
+                verify(partitionRepository, never()).detachMonth(any());
+        }
+}
@@ -0,0 +1,496 @@
+package com.payment.service;
+
+import com.payment.analytics.DeclineCounters;
+import com.payment.analytics.LiveDayAggregator;
+import com.payment.audit.AuditEntry;
+import com.payment.audit.AuditSink;
+import com.payment.config.DeclineAnalyticsProperties;
+import com.payment.config.LiveMetricsProperties;
+import com.payment.config.PaymentProcessingProperties;
+import com.payment.dto.reports.LiveMetricsEvent;
+import com.payment.dto.transaction.PaymentBatchResponse;
+import com.payment.dto.transaction.PaymentFailureDTO;
+import com.payment.entity.TransactionMaster;
+import com.payment.exception.ServiceUnavailableException;
+import com.payment.repository.TransactionRepository;
+import com.payment.repository.TransactionStatusRepository;
+import io.micronaut.data.exceptions.DataAccessException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentProcessingServiceTest {
+
+        private static final Date TXN_DATE = Date.valueOf(LocalDate.of(2025, 11, 18));
+
+        @Mock
+        private TransactionRepository transactionRepository;
+
+        @Mock
+        private TransactionStatusRepository statusRepository;
+
+        @Mock
+        private AuditSink auditSink;
+
+        private PaymentProcessingProperties properties;
+        private LiveDayAggregator liveMetrics;
+        private DeclineCounters declineCounters;
+        private PaymentProcessingService service;
+
+        @BeforeEach
+        void setUp() {
+                properties = new PaymentProcessingProperties();
+                liveMetrics = new LiveDayAggregator(new LiveMetricsProperties());
+                declineCounters = new DeclineCounters(new DeclineAnalyticsProperties());
+                lenient().when(auditSink.record(anyList())).thenReturn(CompletableFuture.completedFuture(null));
+        }
+
+        @AfterEach
+        void tearDown() throws InterruptedException {
+                if (service != null) {
+                        service.close();
+                }
+        }
+
+        @Test
+        @SuppressWarnings("unchecked")
+        void processPaymentBatch_CompletesValidAndPersistsInvalidAsFailed() {
+                // Arrange
+                service = new PaymentProcessingService(transactionRepository, statusRepository, properties, auditSink,
+                                liveMetrics, declineCounters);
+                when(statusRepository.settle(anyList(), anyList(), anyList())).thenAnswer(invocation ->
+                                new HashSet<>((List<Long>) invocation.getArgument(0)));
+                List<TransactionMaster> batch = List.of(
+                                pending(1L, "10.50"),
+                                pending(2L, "0.00"),
+                                pending(3L, "4.25"));
+
+                // Act
+                PaymentBatchResponse response = service.processPaymentBatch(batch);
+
+                // Assert
+                assertEquals(2, response.getCompletedCount());
+                assertEquals(List.of(1L, 3L), response.getCompletedTxnIds());
+                assertEquals(new BigDecimal("14.75"), response.getTotalCompleted());
+                assertEquals(1, response.getFailedCount());
+                PaymentFailureDTO failure = response.getFailures().get(0);
+                assertEquals(2L, failure.getTxnId());
+                assertTrue(failure.getReason().startsWith("Invalid amount"));
+                assertTrue(failure.isPersisted());
+
+                ArgumentCaptor<List<String>> statuses = ArgumentCaptor.forClass(List.class);
+                verify(statusRepository, times(1)).settle(anyList(), anyList(), statuses.capture());
+                assertEquals(List.of("completed", "failed", "completed"), statuses.getValue());
+                assertEquals("completed", batch.get(0).getStatus());
+                assertEquals("failed", batch.get(1).getStatus());
+        }
+
+        @Test
+        void processPaymentBatch_SkipsTransactionsThatAreNotPending() {
+                // Arrange
+                service = new PaymentProcessingService(transactionRepository, statusRepository, properties, auditSink,
+                                liveMetrics, declineCounters);
+                TransactionMaster completed = pending(1L, "5.00");
+                completed.setStatus("completed");
+
+                // Act
+                PaymentBatchResponse response = service.processPaymentBatch(List.of(completed));
+
+                // Assert
+                assertEquals(0, response.getCompletedCount());
+                assertEquals("Transaction is completed, not pending", response.getFailures().get(0).getReason());
+                assertFalse(response.getFailures().get(0).isPersisted());
+                assertEquals(0, response.getChunkCount());
+                verifyNoInteractions(statusRepository);
+        }
+
+        @Test
+        @SuppressWarnings("unchecked")
+        void processPaymentBatch_WhenAChunkFails_RollsBackOnlyThatChunk() {
+                // Arrange
+                properties.setChunkSize(2);
+                service = new PaymentProcessingService(transactionRepository, statusRepository, properties, auditSink,
+                                liveMetrics, declineCounters);
+                when(statusRepository.settle(anyList(), anyList(), anyList())).thenAnswer(invocation -> {
+                        List<Long> ids = invocation.getArgument(0);
+                        if (ids.contains(3L)) {
+                                throw new DataAccessException("Deadlock detected");
+                        }
+                        return new HashSet<>(ids);
+                });
+                List<TransactionMaster> batch = new ArrayList<>();
+                for (long id = 1; id <= 6; id++) {
+                        batch.add(pending(id, "1.00"));
+                }
+
+                // Act
+                PaymentBatchResponse response = service.processPaymentBatch(batch);
+
+                // Assert
+                assertEquals(3, response.getChunkCount());
+                assertEquals(List.of(1L, 2L, 5L, 6L), response.getCompletedTxnIds());
+                assertEquals(List.of(3L, 4L), response.getFailures().stream().map(PaymentFailureDTO::getTxnId).toList());
+                assertTrue(response.getFailures().get(0).getReason().contains("rolled back"));
+                assertFalse(response.getFailures().get(0).isPersisted());
+                assertEquals("pending", batch.get(2).getStatus());
+                assertEquals(new BigDecimal("4.00"), response.getTotalCompleted());
+        }
+
+        @Test
+        void processPaymentBatch_ReportsRowsSettledConcurrently() {
+                // Arrange
+                service = new PaymentProcessingService(transactionRepository, statusRepository, properties, auditSink,
+                                liveMetrics, declineCounters);
+                when(statusRepository.settle(anyList(), anyList(), anyList())).thenReturn(Set.of(1L));
+
+                // Act
+                PaymentBatchResponse response = service.processPaymentBatch(List.of(pending(1L, "2.00"), pending(2L, "3.00")));
+
+                // Assert
+                assertEquals(List.of(1L), response.getCompletedTxnIds());
+                assertEquals("Transaction is no longer pending", response.getFailures().get(0).getReason());
+                assertEquals(new BigDecimal("2.00"), response.getTotalCompleted());
+        }
+
+        @Test
+        @SuppressWarnings("unchecked")
+        void processPaymentBatch_SumsTotalsExactlyAcrossParallelChunks() {
+                // Arrange
+                properties.setChunkSize(7);
+                properties.setLanes(4);
+                properties.setLaneCapacity(2);
+                service = new PaymentProcessingService(transactionRepository, statusRepository, properties, auditSink,
+                                liveMetrics, declineCounters);
+                when(statusRepository.settle(anyList(), anyList(), anyList())).thenAnswer(invocation ->
+                                new HashSet<>((List<Long>) invocation.getArgument(0)));
+                List<TransactionMaster> batch = new ArrayList<>();
+                BigDecimal expected = BigDecimal.ZERO;
+                for (long id = 1; id <= 1_000; id++) {
+                        BigDecimal amount = BigDecimal.valueOf(id, 2);
+                        batch.add(pending(id, amount.toPlainString()));
+                        expected = expected.add(amount);
+                }
+
+                // Act
+                PaymentBatchResponse first = service.processPaymentBatch(batch);
+
+                // Assert
+                assertEquals(1_000, first.getCompletedCount());
+                assertEquals(143, first.getChunkCount());
+                assertEquals(0, expected.compareTo(first.getTotalCompleted()));
+                assertEquals(0, expected.compareTo(service.getTotalCompleted()));
+        }
+
+        @Test
+        @SuppressWarnings("unchecked")
+        void processPaymentBatch_SettlesEachMerchantInRequestOrder() {
+                // Arrange
+                properties.setChunkSize(1);
+                properties.setLanes(4);
+                service = new PaymentProcessingService(transactionRepository, statusRepository, properties, auditSink,
+                                liveMetrics, declineCounters);
+                Map<String, List<Long>> settled = new ConcurrentHashMap<>();
+                List<TransactionMaster> batch = new ArrayList<>();
+                Map<Long, String> merchantOf = new HashMap<>();
+                for (long id = 1; id <= 200; id++) {
+                        TransactionMaster transaction = pending(id, "1.00");
+                        transaction.setMerchantId("MCH-" + (id % 5));
+                        merchantOf.put(id, transaction.getMerchantId());
+                        batch.add(transaction);
+                }
+                when(statusRepository.settle(anyList(), anyList(), anyList())).thenAnswer(invocation -> {
+                        List<Long> ids = invocation.getArgument(0);
+                        for (Long id : ids) {
+                                settled.computeIfAbsent(merchantOf.get(id), m -> Collections.synchronizedList(new ArrayList<>()))
+                                                .add(id);
+                        }
+                        return new HashSet<>(ids);
+                });
+
+                // Act
+                PaymentBatchResponse response = service.processPaymentBatch(batch);
+
+                // Assert
+                assertEquals(200, response.getCompletedCount());
+                assertEquals(5, settled.size());
+                for (List<Long> ids : settled.values()) {
+                        assertEquals(ids.stream().sorted().toList(), ids);
+                }
+        }
+
+        @Test
+        @SuppressWarnings("unchecked")
+        void processPaymentBatch_AuditsEachPersistedStatusChange() {
+                // Arrange
+                service = new PaymentProcessingService(transactionRepository, statusRepository, properties, auditSink,
+                                liveMetrics, declineCounters);
+                when(statusRepository.settle(anyList(), anyList(), anyList())).thenReturn(Set.of(1L, 2L));
+
+                // Act
+                service.processPaymentBatch(List.of(pending(1L, "5.00"), pending(2L, "-1.00"), pending(3L, "7.00")));
+
+                // Assert
+                ArgumentCaptor<List<AuditEntry>> entries = ArgumentCaptor.forClass(List.class);
+                verify(auditSink).record(entries.capture());
+                assertEquals(List.of(1L, 2L), entries.getValue().stream().map(AuditEntry::txnId).toList());
+                assertEquals("completed", entries.getValue().get(0).toStatus());
+                assertEquals("failed", entries.getValue().get(1).toStatus());
+                assertTrue(entries.getValue().get(1).detail().startsWith("Invalid amount"));
+        }
+
+        @Test
+        void processPaymentBatch_MovesSettledTransactionsOutOfPendingInLiveMetrics() {
+                // Arrange
+                service = new PaymentProcessingService(transactionRepository, statusRepository, properties, auditSink,
+                                liveMetrics, declineCounters);
+                when(statusRepository.settle(anyList(), anyList(), anyList())).thenReturn(Set.of(1L, 2L));
+                liveMetrics.resync(TXN_DATE.toLocalDate(), List.of());
+                List<TransactionMaster> batch = List.of(pending(1L, "5.00"), pending(2L, "-1.00"));
+                liveMetrics.record(batch);
+                liveMetrics.publish();
+                List<LiveMetricsEvent> events = new ArrayList<>();
+                liveMetrics.subscribe().subscribe(events::add);
+
+                // Act
+                service.processPaymentBatch(batch);
+                liveMetrics.publish();
+
+                // Assert
+                assertEquals(2, events.size());
+                assertEquals(2L, events.get(0).getByStatus().get("pending").getCount());
+                LiveMetricsEvent delta = events.get(1);
+                assertEquals(LiveDayAggregator.DELTA, delta.getType());
+                assertEquals(0L, delta.getTotal().getCount());
+                assertEquals(-2L, delta.getByStatus().get("pending").getCount());
+                assertEquals(new BigDecimal("5.00"), delta.getByStatus().get("completed").getAmount());
+                assertEquals(1L, delta.getByStatus().get("failed").getCount());
+        }
+
+        @Test
+        void processPaymentBatch_CountsTransactionsThatFailAsDeclines() {
+                // Arrange
+                service = new PaymentProcessingService(transactionRepository, statusRepository, properties, auditSink,
+                                liveMetrics, declineCounters);
+                when(statusRepository.settle(anyList(), anyList(), anyList())).thenReturn(Set.of(1L, 2L));
+                Instant hour = Instant.parse("2025-11-18T14:00:00Z");
+                List<TransactionMaster> batch = List.of(pending(1L, "5.00"), pending(2L, "-1.00"));
+                for (TransactionMaster transaction : batch) {
+                        transaction.setLocalTxnDateTime(hour.plusSeconds(60));
+                        transaction.setGpIssuerId(7L);
+                        transaction.setResponseCode("05");
+                }
+                declineCounters.record(batch);
+
+                // Act
+                service.processPaymentBatch(batch);
+
+                // Assert
+                DeclineCounters.Breakdown breakdown = new DeclineCounters.Breakdown();
+                declineCounters.addPending(breakdown, hour, hour.plusSeconds(3600), null, declineCounters.getFlushes());
+                assertEquals(new DeclineCounters.Totals(2, 1), breakdown.total());
+        }
+
+        @Test
+        void processPaymentBatch_WhenAuditWriteFails_DoesNotAcknowledge() {
+                // Arrange
+                service = new PaymentProcessingService(transactionRepository, statusRepository, properties, auditSink,
+                                liveMetrics, declineCounters);
+                when(statusRepository.settle(anyList(), anyList(), anyList())).thenReturn(Set.of(1L));
+                when(auditSink.record(anyList())).thenReturn(CompletableFuture.failedFuture(
+                                new IllegalStateException("disk full")));
+
+                // Act & Assert
+                ServiceUnavailableException e = assertThrows(ServiceUnavailableException.class,
+                                () -> service.processPaymentBatch(List.of(pending(1L, "5.00"))));
+                assertTrue(e.getMessage().contains("audit log"));
+        }
+
+        @Test
+        void processPaymentBatch_TransientFailure_RetriesChunkInTheBackground() {
+                // Arrange
+                fastRetries();
+                service = new PaymentProcessingService(transactionRepository, statusRepository, properties, auditSink,
+                                liveMetrics, declineCounters);
+                when(statusRepository.settle(anyList(), anyList(), anyList()))
+                                .thenThrow(new DataAccessException("Deadlock", new SQLException("deadlock detected", "40P01")))
+                                .thenReturn(Set.of(1L, 2L));
+                List<TransactionMaster> batch = List.of(pending(1L, "1.00"), pending(2L, "2.00"));
+
+                // Act
+                PaymentBatchResponse response = service.processPaymentBatch(batch);
+
+                // Assert
+                assertTrue(response.getFailures().get(0).isRetryScheduled());
+                verify(statusRepository, timeout(5000).times(2)).settle(anyList(), anyList(), anyList());
+                awaitCount(service::getRetriesSucceeded, 2);
+                assertEquals("completed", batch.get(1).getStatus());
+                assertEquals(new BigDecimal("3.00"), service.getTotalCompleted());
+        }
+
+        @Test
+        @SuppressWarnings("unchecked")
+        void processPaymentBatch_PoisonTransaction_IsIsolatedAndMarkedFailed() {
+                // Arrange
+                fastRetries();
+                service = new PaymentProcessingService(transactionRepository, statusRepository, properties, auditSink,
+                                liveMetrics, declineCounters);
+                when(statusRepository.settle(anyList(), anyList(), anyList())).thenAnswer(invocation -> {
+                        List<Long> ids = invocation.getArgument(0);
+                        List<String> statuses = invocation.getArgument(2);
+                        int poison = ids.indexOf(3L);
+                        if (poison >= 0 && statuses.get(poison).equals("completed")) {
+                                throw new DataAccessException("Bad row", new SQLException("value out of range", "22003"));
+                        }
+                        return new HashSet<>(ids);
+                });
+                List<TransactionMaster> batch = new ArrayList<>();
+                for (long id = 1; id <= 4; id++) {
+                        batch.add(pending(id, "1.00"));
+                }
+
+                // Act
+                service.processPaymentBatch(batch);
+
+                // Assert
+                awaitCount(service::getPoisoned, 1);
+                awaitCount(service::getRetriesSucceeded, 3);
+                assertEquals("failed", batch.get(2).getStatus());
+                assertEquals("completed", batch.get(3).getStatus());
+                assertEquals(0, service.getAbandoned());
+        }
+
+        @Test
+        void processPaymentBatch_TransientFailureThatPersists_LeavesChunkPending() {
+                // Arrange
+                fastRetries();
+                properties.setRetryMaxAttempts(2);
+                service = new PaymentProcessingService(transactionRepository, statusRepository, properties, auditSink,
+                                liveMetrics, declineCounters);
+                when(statusRepository.settle(anyList(), anyList(), anyList()))
+                                .thenThrow(new DataAccessException("Connection lost", new SQLException("closed", "08006")));
+                List<TransactionMaster> batch = List.of(pending(1L, "1.00"), pending(2L, "2.00"));
+
+                // Act
+                service.processPaymentBatch(batch);
+
+                // Assert
+                awaitCount(service::getAbandoned, 2);
+                verify(statusRepository, times(3)).settle(anyList(), anyList(), anyList());
+                assertEquals("pending", batch.get(0).getStatus());
+                assertEquals(0, service.getPoisoned());
+        }
+
+        @Test
+        void processPaymentBatch_ErrorOutsideTheData_LeavesChunkPendingWithoutSplitting() {
+                // Arrange
+                fastRetries();
+                service = new PaymentProcessingService(transactionRepository, statusRepository, properties, auditSink,
+                                liveMetrics, declineCounters);
+                when(statusRepository.settle(anyList(), anyList(), anyList())).thenThrow(new DataAccessException(
+                                "Missing table", new SQLException("relation does not exist", "42P01")));
+                List<TransactionMaster> batch = List.of(pending(1L, "1.00"), pending(2L, "2.00"));
+
+                // Act
+                PaymentBatchResponse response = service.processPaymentBatch(batch);
+
+                // Assert
+                verify(statusRepository, times(1)).settle(anyList(), anyList(), anyList());
+                assertEquals(2, service.getAbandoned());
+                assertEquals(0, service.getPoisoned());
+                assertFalse(response.getFailures().get(0).isRetryScheduled());
+                assertEquals("pending", batch.get(0).getStatus());
+        }
+
+        @Test
+        void isDataError_OnlyForDataAndConstraintClasses() {
+                assertTrue(PaymentProcessingService.isDataError(
+                                new DataAccessException("Bad row", new SQLException("out of range", "22003"))));
+                assertTrue(PaymentProcessingService.isDataError(new SQLException("fk", "23503")));
+                assertFalse(PaymentProcessingService.isDataError(new SQLException("no table", "42P01")));
+                assertFalse(PaymentProcessingService.isDataError(new IllegalStateException("no SQL error")));
+        }
+
+        @Test
+        void processPending_ReportsUnknownIds() {
+                // Arrange
+                service = new PaymentProcessingService(transactionRepository, statusRepository, properties, auditSink,
+                                liveMetrics, declineCounters);
+                when(transactionRepository.findByTxnIdIn(anyCollection())).thenReturn(List.of(pending(1L, "9.99")));
+                when(statusRepository.settle(anyList(), anyList(), anyList())).thenReturn(Set.of(1L));
+
+                // Act
+                PaymentBatchResponse response = service.processPending(List.of(1L, 42L, 1L));
+
+                // Assert
+                assertEquals(List.of(1L), response.getCompletedTxnIds());
+                assertEquals(1, response.getFailedCount());
+                assertEquals(42L, response.getFailures().get(0).getTxnId());
+                assertEquals("Transaction not found", response.getFailures().get(0).getReason());
+        }
+
+        @Test
+        void processPending_WithTooManyIds_Throws() {
+                // Arrange
+                properties.setMaxBatchSize(2);
+                service = new PaymentProcessingService(transactionRepository, statusRepository, properties, auditSink,
+                                liveMetrics, declineCounters);
+
+                // Act & Assert
+                assertThrows(IllegalArgumentException.class, () -> service.processPending(List.of(1L, 2L, 3L)));
+                verifyNoInteractions(transactionRepository);
+        }
+
+        private void fastRetries() {
+                properties.setRetryInitialDelayMillis(10);
+                properties.setRetryTickMillis(5);
+        }
+
+        private static void awaitCount(LongSupplier count, long expected) {
+                long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+                while (count.getAsLong() < expected && System.nanoTime() < deadline) {
+                        try {
+                                Thread.sleep(5);
+                        } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                                break;
+                        }
+                }
+                assertEquals(expected, count.getAsLong());
+        }
+
+        private static TransactionMaster pending(long txnId, String amount) {
+                TransactionMaster transaction = new TransactionMaster();
+                transaction.setTxnId(txnId);
+                transaction.setTxnDate(TXN_DATE);
+                transaction.setMerchantId("MCH-00001");
+                transaction.setAmount(new BigDecimal(amount));
+                transaction.setStatus("pending");
+                return transaction;
+        }
+}
@@ -0,0 +1,69 @@
+package com.payment.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RetryWheelTest {
+
+        private RetryWheel wheel;
+
+        @AfterEach
+        void tearDown() throws InterruptedException {
+                wheel.stop();
+        }
+
+        @Test
+        void schedule_RunsTasksInDeadlineOrderAndNotEarly() throws Exception {
+                // Arrange
+                wheel = new RetryWheel("test-wheel", 10, TimeUnit.MILLISECONDS, 8);
+                List<Integer> ran = Collections.synchronizedList(new ArrayList<>());
+                CountDownLatch done = new CountDownLatch(3);
+                long scheduledAt = System.nanoTime();
+                long[] firstRanAfter = new long[1];
+
+                // Act: 250 ms is more than three turns of an 80 ms wheel
+                wheel.schedule(() -> {
+                        ran.add(3);
+                        done.countDown();
+                }, 250, TimeUnit.MILLISECONDS);
+                wheel.schedule(() -> {
+                        firstRanAfter[0] = System.nanoTime() - scheduledAt;
+                        ran.add(1);
+                        done.countDown();
+                }, 30, TimeUnit.MILLISECONDS);
+                wheel.schedule(() -> {
+                        ran.add(2);
+                        done.countDown();
+                }, 95, TimeUnit.MILLISECONDS);
+
+                // Assert
+                assertTrue(done.await(5, TimeUnit.SECONDS));
+                assertEquals(List.of(1, 2, 3), ran);
+                assertTrue(firstRanAfter[0] >= TimeUnit.MILLISECONDS.toNanos(30));
+                assertEquals(0, wheel.getPending());
+        }
+
+        @Test
+        void stop_DiscardsAndCountsPendingTasks() throws Exception {
+                // Arrange
+                wheel = new RetryWheel("test-wheel", 10, TimeUnit.MILLISECONDS, 8);
+                for (int i = 0; i < 5; i++) {
+                        wheel.schedule(() -> fail("must not run"), 1, TimeUnit.HOURS);
+                }
+
+                // Act
+                int discarded = wheel.stop();
+
+                // Assert
+                assertEquals(5, discarded);
+                assertThrows(IllegalStateException.class, () -> wheel.schedule(() -> { }, 1, TimeUnit.MILLISECONDS));
+        }
+}
@@ -0,0 +1,200 @@
+package com.payment.service;
+
+import com.payment.config.SettlementFileProperties;
+import com.payment.dto.settlement.SettlementFileDTO;
+import com.payment.dto.settlement.SettlementFileManifestResponse;
+import com.payment.repository.SettlementRepository;
+import com.payment.repository.SettlementRepository.SettlementLine;
+import com.payment.repository.SettlementRepository.SettlementMember;
+import io.micronaut.data.exceptions.DataAccessException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SettlementFileGeneratorTest {
+
+        private static final LocalDate DAY = LocalDate.of(2025, 11, 18);
+        private static final OffsetDateTime AT = OffsetDateTime.of(2025, 11, 18, 9, 30, 0, 0, ZoneOffset.UTC);
+
+        @Mock
+        private SettlementRepository settlementRepository;
+
+        @TempDir
+        Path root;
+
+        private SettlementFileGenerator generator;
+
+        @BeforeEach
+        void setUp() {
+                SettlementFileProperties properties = new SettlementFileProperties();
+                properties.setDirectory(root.toString());
+                properties.setParallelism(3);
+                generator = new SettlementFileGenerator(settlementRepository, properties);
+        }
+
+        @AfterEach
+        void tearDown() {
+                generator.close();
+        }
+
+        @Test
+        void generate_WritesOneFilePerMemberAndManifestWithChecksums() throws Exception {
+                // Arrange
+                List<SettlementMember> members = List.of(
+                                new SettlementMember(3L, "ACQ03", 250),
+                                new SettlementMember(1L, "ACQ01", 2),
+                                new SettlementMember(2L, "ISS02", 0));
+                when(settlementRepository.findMembersWithPositions(DAY)).thenReturn(members);
+                doAnswer(invocation -> {
+                        long memberId = invocation.getArgument(1);
+                        Consumer<SettlementLine> handler = invocation.getArgument(3);
+                        long rows = memberId == 3 ? 250 : memberId == 1 ? 2 : 0;
+                        for (long i = 0; i < rows; i++) {
+                                handler.accept(new SettlementLine('A', memberId * 1000 + i, "MER-" + memberId, AT,
+                                                new BigDecimal("12.50"), "USD", "VISA", 7L));
+                        }
+                        return rows;
+                }).when(settlementRepository).streamMemberTransactions(eq(DAY), anyLong(), anyInt(), any());
+
+                // Act
+                SettlementFileManifestResponse response = generator.generate(DAY);
+
+                // Assert
+                Path directory = root.resolve("2025-11-18");
+                assertEquals(3, response.getFileCount());
+                assertEquals(252L, response.getTotalRows());
+                assertEquals(3, response.getParallelism());
+                assertEquals(List.of(3L, 1L, 2L), response.getFiles().stream().map(SettlementFileDTO::getMemberId).toList());
+
+                List<String> member1 = Files.readAllLines(directory.resolve("member-1.csv"));
+                assertEquals(SettlementFileGenerator.FILE_HEADER, member1.get(0));
+                assertEquals("A,1000,MER-1,2025-11-18T09:30Z,12.50,USD,VISA,7", member1.get(1));
+                assertEquals(3, member1.size());
+                assertEquals(251, Files.readAllLines(directory.resolve("member-3.csv")).size());
+
+                List<String> manifest = Files.readAllLines(directory.resolve(SettlementFileGenerator.MANIFEST_FILE));
+                assertEquals(SettlementFileGenerator.MANIFEST_HEADER, manifest.get(0));
+                assertEquals(4, manifest.size());
+                for (SettlementFileDTO file : response.getFiles()) {
+                        byte[] content = Files.readAllBytes(directory.resolve(file.getFileName()));
+                        String sha256 = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+                        assertEquals(sha256, file.getSha256());
+                        assertEquals(content.length, file.getBytes());
+                        assertTrue(manifest.contains(file.getFileName() + "," + file.getMemberId() + ","
+                                        + file.getMemberCode() + "," + file.getRows() + "," + file.getBytes() + ","
+                                        + sha256));
+                }
+                try (var listing = Files.list(directory)) {
+                        assertTrue(listing.noneMatch(path -> path.toString().endsWith(".tmp")));
+                }
+        }
+
+        @Test
+        void generate_WhenAMemberFails_LeavesNoPartialFileOrManifest() throws IOException {
+                // Arrange
+                when(settlementRepository.findMembersWithPositions(DAY)).thenReturn(List.of(
+                                new SettlementMember(1L, "ACQ01", 1),
+                                new SettlementMember(2L, "ACQ02", 1)));
+                doAnswer(invocation -> {
+                        long memberId = invocation.getArgument(1);
+                        Consumer<SettlementLine> handler = invocation.getArgument(3);
+                        handler.accept(new SettlementLine('I', memberId, "MER-1", AT, BigDecimal.TEN, "USD", null, null));
+                        if (memberId == 2) {
+                                throw new DataAccessException("connection lost");
+                        }
+                        return 1L;
+                }).when(settlementRepository).streamMemberTransactions(eq(DAY), anyLong(), anyInt(), any());
+
+                // Act & Assert
+                assertThrows(DataAccessException.class, () -> generator.generate(DAY));
+                assertFalse(Files.exists(root.resolve("2025-11-18")));
+                try (var listing = Files.list(root)) {
+                        assertEquals(0, listing.count());
+                }
+        }
+
+        @Test
+        void generate_Rerun_SwapsTheWholeDayAndDropsMembersNoLongerInIt() throws Exception {
+                // Arrange
+                when(settlementRepository.findMembersWithPositions(DAY))
+                                .thenReturn(List.of(new SettlementMember(1L, "ACQ01", 1), new SettlementMember(2L, "ACQ02", 1)))
+                                .thenReturn(List.of(new SettlementMember(1L, "ACQ01", 1)));
+                doAnswer(invocation -> {
+                        long memberId = invocation.getArgument(1);
+                        Consumer<SettlementLine> handler = invocation.getArgument(3);
+                        handler.accept(new SettlementLine('A', memberId, "MER-1", AT, BigDecimal.TEN, "USD", null, null));
+                        return 1L;
+                }).when(settlementRepository).streamMemberTransactions(eq(DAY), anyLong(), anyInt(), any());
+
+                // Act
+                SettlementFileManifestResponse first = generator.generate(DAY);
+                SettlementFileManifestResponse second = generator.generate(DAY);
+                SettlementFileManifestResponse third = generator.generate(DAY);
+
+                // Assert
+                Path day = root.resolve("2025-11-18");
+                assertTrue(Files.isSymbolicLink(day));
+                assertEquals(Path.of(third.getDirectory()).toRealPath(), day.toRealPath());
+                assertTrue(Files.exists(day.resolve("member-1.csv")));
+                assertFalse(Files.exists(day.resolve("member-2.csv")));
+                assertEquals(2, Files.readAllLines(day.resolve(SettlementFileGenerator.MANIFEST_FILE)).size());
+                // The run a reader may still hold is kept, older ones are deleted
+                assertTrue(Files.exists(Path.of(second.getDirectory())));
+                assertFalse(Files.exists(Path.of(first.getDirectory())));
+        }
+
+        @Test
+        void generate_OverADayWrittenBeforeRunDirectories_ReplacesIt() throws Exception {
+                // Arrange
+                Path day = Files.createDirectories(root.resolve("2025-11-18"));
+                Files.writeString(day.resolve("member-9.csv"), "old");
+                when(settlementRepository.findMembersWithPositions(DAY)).thenReturn(List.of());
+
+                // Act
+                SettlementFileManifestResponse response = generator.generate(DAY);
+
+                // Assert
+                assertTrue(Files.isSymbolicLink(day));
+                assertEquals(Path.of(response.getDirectory()).toRealPath(), day.toRealPath());
+                assertFalse(Files.exists(day.resolve("member-9.csv")));
+                assertTrue(Files.exists(root.resolve("2025-11-18.0").resolve("member-9.csv")));
+        }
+
+        @Test
+        void format_QuotesFieldsThatNeedIt() {
+                // Arrange
+                StringBuilder line = new StringBuilder();
+
+                // Act
+                SettlementFileGenerator.format(new SettlementLine('I', 42L, "MER,\"X\"", AT, new BigDecimal("1E+2"),
+                                "EUR", null, null), line);
+
+                // Assert
+                assertEquals("I,42,\"MER,\"\"X\"\"\",2025-11-18T09:30Z,100,EUR,,\n", line.toString());
+        }
+}
@@ -0,0 +1,92 @@
+package com.payment.service;
+
+import com.payment.dto.settlement.DailySettlementResponse;
+import com.payment.dto.settlement.SettlementVerificationResponse;
+import com.payment.repository.SettlementRepository;
+import com.payment.repository.SettlementRepository.SettlementMismatch;
+import com.payment.repository.SettlementRepository.SettlementRow;
+import com.payment.repository.SettlementRepository.Verification;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SettlementServiceTest {
+
+        private static final LocalDate DAY = LocalDate.of(2025, 11, 18);
+
+        @Mock
+        private SettlementRepository settlementRepository;
+
+        private SettlementService settlementService;
+
+        @BeforeEach
+        void setUp() {
+                settlementService = new SettlementService(settlementRepository);
+        }
+
+        @Test
+        void getDailySettlement_ComputesNetPerPositionAndCountsMembers() {
+                // Arrange
+                when(settlementRepository.findDaily(DAY, null)).thenReturn(List.of(
+                                new SettlementRow(1L, "Acquirer One", "ACQ1", "EUR", 2, new BigDecimal("50.00"), 0,
+                                                BigDecimal.ZERO),
+                                new SettlementRow(1L, "Acquirer One", "ACQ1", "USD", 10, new BigDecimal("1000.00"), 4,
+                                                new BigDecimal("250.50")),
+                                new SettlementRow(2L, "Issuer Two", "ISS2", "USD", 0, BigDecimal.ZERO, 6,
+                                                new BigDecimal("749.50"))));
+
+                // Act
+                DailySettlementResponse response = settlementService.getDailySettlement(DAY, null);
+
+                // Assert
+                assertEquals("2025-11-18", response.getSettlementDate());
+                assertEquals(2, response.getMemberCount());
+                assertEquals(3, response.getPositions().size());
+                assertEquals(new BigDecimal("749.50"), response.getPositions().get(1).getNetAmount());
+                assertEquals(new BigDecimal("-749.50"), response.getPositions().get(2).getNetAmount());
+        }
+
+        @Test
+        void verify_WithMismatchAndRepair_RebuildsTheDay() {
+                // Arrange
+                SettlementMismatch mismatch = new SettlementMismatch(1L, "USD",
+                                10, new BigDecimal("1000.00"), 0, BigDecimal.ZERO,
+                                9, new BigDecimal("990.00"), 0, BigDecimal.ZERO);
+                when(settlementRepository.verify(DAY)).thenReturn(new Verification(DAY, 5, List.of(mismatch)));
+                when(settlementRepository.rebuild(DAY)).thenReturn(5);
+
+                // Act
+                SettlementVerificationResponse response = settlementService.verify(DAY, true);
+
+                // Assert
+                assertTrue(response.isRepaired());
+                assertEquals(5, response.getRepairedPositions());
+                assertEquals(1, response.getMismatches().size());
+                assertEquals(9L, response.getMismatches().get(0).getStoredAcquiredCount());
+        }
+
+        @Test
+        void verify_WhenPositionsMatch_DoesNotRebuild() {
+                // Arrange
+                when(settlementRepository.verify(DAY)).thenReturn(new Verification(DAY, 5, List.of()));
+
+                // Act
+                SettlementVerificationResponse response = settlementService.verify(DAY, true);
+
+                // Assert
+                assertFalse(response.isRepaired());
+                assertEquals(5, response.getCheckedPositions());
+                verify(settlementRepository, never()).rebuild(any());
+        }
+}
@@ -0,0 +1,149 @@
+package com.payment.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+        @Test
+        void execute_ConcurrentCallsForSameKey_ShareOneComputation() throws Exception {
+                // Arrange
+                SingleFlight<String, Object> flights = new SingleFlight<>(10);
+                CountDownLatch started = new CountDownLatch(1);
+                CountDownLatch release = new CountDownLatch(1);
+                AtomicInteger loads = new AtomicInteger();
+                Object value = new Object();
+                CompletableFuture<Object> leader = CompletableFuture.supplyAsync(() -> flights.execute("2025-11", () -> {
+                        loads.incrementAndGet();
+                        started.countDown();
+                        await(release);
+                        return value;
+                }));
+                assertTrue(started.await(5, TimeUnit.SECONDS));
+
+                // Act: followers arrive while the leader is still computing
+                int followers = 5;
+                List<CompletableFuture<Object>> results = new ArrayList<>();
+                for (int i = 0; i < followers; i++) {
+                        CompletableFuture<Object> result = new CompletableFuture<>();
+                        Thread.ofPlatform().start(() -> result.complete(flights.execute("2025-11", () -> {
+                                loads.incrementAndGet();
+                                return new Object();
+                        })));
+                        results.add(result);
+                }
+                long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+                while (flights.getCollapsed() < followers && System.nanoTime() < deadline) {
+                        Thread.sleep(5);
+                }
+                release.countDown();
+
+                // Assert
+                assertSame(value, leader.get(5, TimeUnit.SECONDS));
+                for (CompletableFuture<Object> result : results) {
+                        assertSame(value, result.get(5, TimeUnit.SECONDS));
+                }
+                assertEquals(1, loads.get());
+                assertEquals(6, flights.getCalls());
+                assertEquals(1, flights.getExecutions());
+                assertEquals(5, flights.getCollapsed());
+                assertEquals(0, flights.getInFlight());
+                SingleFlight.KeyStats key = flights.topKeys(10).get(0);
+                assertEquals("2025-11", key.key());
+                assertEquals(5, key.collapsed());
+                assertEquals(6, key.largestFlight());
+        }
+
+        @Test
+        void execute_LoaderFails_RethrowsToEveryWaitingCaller() throws Exception {
+                // Arrange
+                SingleFlight<String, Object> flights = new SingleFlight<>(10);
+                CountDownLatch started = new CountDownLatch(1);
+                CountDownLatch release = new CountDownLatch(1);
+                CompletableFuture<Object> leader = CompletableFuture.supplyAsync(() -> flights.execute("MCH-00001", () -> {
+                        started.countDown();
+                        await(release);
+                        throw new IllegalArgumentException("bad range");
+                }));
+                assertTrue(started.await(5, TimeUnit.SECONDS));
+                CompletableFuture<Throwable> follower = new CompletableFuture<>();
+                Thread.ofPlatform().start(() -> {
+                        try {
+                                flights.execute("MCH-00001", Object::new);
+                                follower.complete(null);
+                        } catch (RuntimeException e) {
+                                follower.complete(e);
+                        }
+                });
+                long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+                while (flights.getCollapsed() < 1 && System.nanoTime() < deadline) {
+                        Thread.sleep(5);
+                }
+
+                // Act
+                release.countDown();
+
+                // Assert
+                Throwable thrown = follower.get(5, TimeUnit.SECONDS);
+                assertInstanceOf(IllegalArgumentException.class, thrown);
+                assertEquals("bad range", thrown.getMessage());
+                Exception leaderError = assertThrows(Exception.class, () -> leader.get(5, TimeUnit.SECONDS));
+                assertSame(thrown, leaderError.getCause());
+                assertEquals(1, flights.getFailures());
+        }
+
+        @Test
+        void execute_AfterFlightCompletes_ComputesAgain() {
+                // Arrange
+                SingleFlight<String, Integer> flights = new SingleFlight<>(10);
+                AtomicInteger loads = new AtomicInteger();
+
+                // Act
+                int first = flights.execute("2025-11", loads::incrementAndGet);
+                int second = flights.execute("2025-11", loads::incrementAndGet);
+
+                // Assert
+                assertEquals(1, first);
+                assertEquals(2, second);
+                assertEquals(2, flights.getExecutions());
+                assertEquals(0, flights.getCollapsed());
+        }
+
+        @Test
+        void execute_BeyondMaxTrackedKeys_EvictsLeastRecentlyCalledKey() throws InterruptedException {
+                // Arrange
+                SingleFlight<String, String> flights = new SingleFlight<>(2);
+
+                // Act: "b" is the least recently called key when "c" and then "d" arrive
+                for (String key : List.of("a", "b", "a", "c", "a", "d")) {
+                        flights.execute(key, () -> key);
+                        Thread.sleep(1);
+                }
+
+                // Assert
+                assertEquals(6, flights.getCalls());
+                assertEquals(2, flights.getTrackedKeys());
+                assertEquals(2, flights.getEvictedKeys());
+                List<String> tracked = flights.topKeys(10).stream().map(SingleFlight.KeyStats::key).sorted().toList();
+                assertEquals(List.of("a", "d"), tracked);
+                assertEquals(3, flights.topKeys(10).stream()
+                                .filter(stats -> stats.key().equals("a"))
+                                .findFirst().orElseThrow().calls());
+        }
+
+        private static void await(CountDownLatch latch) {
+                try {
+                        latch.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                }
+        }
+}
@@ -0,0 +1,376 @@
+package com.payment.service;
+
+import com.payment.analytics.DeclineCounters;
+import com.payment.analytics.LiveDayAggregator;
+import com.payment.cache.BloomFilter;
+import com.payment.cache.HotWindowStore;
+import com.payment.cache.TransactionBitmapIndex;
+import com.payment.cache.TransactionDedupeFilter;
+import com.payment.config.DeclineAnalyticsProperties;
+import com.payment.config.IngestionProperties;
+import com.payment.config.LiveMetricsProperties;
+import com.payment.dto.transaction.TransactionBatchRequest;
+import com.payment.dto.transaction.TransactionBatchResponse;
+import com.payment.dto.transaction.TransactionDetailIngestDTO;
+import com.payment.dto.transaction.TransactionIngestDTO;
+import com.payment.entity.TransactionDetail;
+import com.payment.entity.TransactionMaster;
+import com.payment.repository.TransactionIngestRepository;
+import io.micronaut.data.model.Pageable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionIngestionServiceTest {
+
+        private static final LocalDate TODAY = LocalDate.of(2025, 11, 18);
+        private static final Instant TIMESTAMP = Instant.parse("2025-11-18T14:30:00Z");
+
+        @Mock
+        private TransactionIngestRepository ingestRepository;
+
+        private HotWindowStore hotWindowStore;
+        private TransactionBitmapIndex bitmapIndex;
+        private TransactionDedupeFilter dedupeFilter;
+        private DeclineCounters declineCounters;
+        private LiveDayAggregator liveMetrics;
+        private IngestionProperties properties;
+        private TransactionIngestionService ingestionService;
+
+        @BeforeEach
+        void setUp() {
+                hotWindowStore = new HotWindowStore();
+                hotWindowStore.advanceWindow(TODAY.minusDays(6));
+                bitmapIndex = new TransactionBitmapIndex();
+                bitmapIndex.advanceWindow(TODAY.minusDays(6));
+                bitmapIndex.markSynced(0L, TIMESTAMP);
+                dedupeFilter = new TransactionDedupeFilter();
+                dedupeFilter.beginRebuild(new BloomFilter(10_000L, 0.001));
+                dedupeFilter.finishRebuild(TIMESTAMP);
+                declineCounters = new DeclineCounters(new DeclineAnalyticsProperties());
+                liveMetrics = new LiveDayAggregator(new LiveMetricsProperties());
+                properties = new IngestionProperties();
+                ingestionService = new TransactionIngestionService(ingestRepository, hotWindowStore, bitmapIndex,
+                                dedupeFilter, declineCounters, liveMetrics, properties);
+        }
+
+        @Test
+        void ingest_CountsDeclinesPerIssuerAndResponseCode() {
+                // Arrange
+                stubInsertAssigningIds(700L);
+                TransactionIngestDTO approved = transaction("MCH-00001", "10.00", null);
+                approved.setGpIssuerId(9L);
+                approved.setResponseCode("00");
+                TransactionIngestDTO declined = transaction("MCH-00001", "20.00", null);
+                declined.setGpIssuerId(9L);
+                declined.setStatus("failed");
+                declined.setResponseCode("05");
+
+                // Act
+                ingestionService.ingest(new TransactionBatchRequest(List.of(approved, declined)));
+
+                // Assert
+                DeclineCounters.Breakdown breakdown = new DeclineCounters.Breakdown();
+                declineCounters.addPending(breakdown, Instant.parse("2025-11-18T14:00:00Z"),
+                                Instant.parse("2025-11-18T15:00:00Z"), null, declineCounters.getFlushes());
+                assertEquals(new DeclineCounters.Totals(2, 1), breakdown.byIssuer().get(9L));
+                assertEquals(new DeclineCounters.Totals(1, 1), breakdown.byResponseCode().get("05"));
+                assertEquals(2L, declineCounters.getRecorded());
+        }
+
+        @Test
+        @SuppressWarnings("unchecked")
+        void ingest_WritesBatchAndReturnsIdsInRequestOrder() {
+                // Arrange
+                stubInsertAssigningIds(1000L);
+                TransactionBatchRequest request = new TransactionBatchRequest(List.of(
+                                transaction("MCH-00001", "150.00", List.of(
+                                                detail("fee", "3.50"),
+                                                detail("tax", "1.20"))),
+                                transaction("MCH-00002", "75.25", null)));
+
+                // Act
+                TransactionBatchResponse response = ingestionService.ingest(request);
+
+                // Assert
+                assertEquals(2, response.getTransactionCount());
+                assertEquals(2, response.getDetailCount());
+                assertEquals(List.of(1000L, 1001L), response.getTxnIds());
+
+                ArgumentCaptor<List<TransactionMaster>> transactions = ArgumentCaptor.forClass(List.class);
+                ArgumentCaptor<List<List<TransactionDetail>>> details = ArgumentCaptor.forClass(List.class);
+                verify(ingestRepository).insertBatch(transactions.capture(), details.capture());
+
+                TransactionMaster first = transactions.getValue().get(0);
+                assertEquals("MCH-00001", first.getMerchantId());
+                assertEquals(java.sql.Date.valueOf(TODAY), first.getTxnDate());
+                assertEquals("USD", first.getCurrency());
+                assertEquals(2, details.getValue().get(0).size());
+                assertTrue(details.getValue().get(1).isEmpty());
+
+                TransactionDetail fee = details.getValue().get(0).get(0);
+                assertEquals("fee", fee.getDetailType());
+                assertEquals("USD", fee.getCurrency());
+                assertEquals(TIMESTAMP, fee.getLocalTxnDateTime());
+        }
+
+        @Test
+        void ingest_PushesWrittenRowsIntoReadCaches() {
+                // Arrange
+                stubInsertAssigningIds(500L);
+                TransactionBatchRequest request = new TransactionBatchRequest(List.of(
+                                transaction("MCH-00001", "10.00", null),
+                                transaction("MCH-00001", "20.00", null)));
+
+                // Act
+                ingestionService.ingest(request);
+
+                // Assert
+                assertEquals(2, hotWindowStore.size());
+                TransactionBitmapIndex.Filter filter = new TransactionBitmapIndex.Filter(Set.of("MCH-00001"), null,
+                                null, null, null, null);
+                assertEquals(2, bitmapIndex.count(filter));
+                assertEquals(501L, bitmapIndex.findPage(filter, Pageable.from(0, 1)).getContent().get(0).getTxnId());
+        }
+
+        @Test
+        void ingest_WithoutTxnDate_UsesUtcDateOfTimestamp() {
+                // Arrange
+                stubInsertAssigningIds(1L);
+                TransactionIngestDTO late = transaction("MCH-00001", "10.00", null);
+                late.setTxnDate(null);
+                late.setLocalTxnDateTime(Instant.parse("2025-11-17T23:59:59Z"));
+
+                // Act
+                ingestionService.ingest(new TransactionBatchRequest(List.of(late)));
+
+                // Assert
+                ArgumentCaptor<List<TransactionMaster>> transactions = listCaptor();
+                verify(ingestRepository).insertBatch(transactions.capture(), anyList());
+                assertEquals(java.sql.Date.valueOf("2025-11-17"), transactions.getValue().get(0).getTxnDate());
+        }
+
+        @Test
+        void ingest_WithEmptyBatch_ThrowsIllegalArgumentException() {
+                assertThrows(IllegalArgumentException.class,
+                                () -> ingestionService.ingest(new TransactionBatchRequest(List.of())));
+                assertThrows(IllegalArgumentException.class,
+                                () -> ingestionService.ingest(new TransactionBatchRequest(null)));
+                verifyNoInteractions(ingestRepository);
+        }
+
+        @Test
+        void ingest_WithBatchAboveLimit_ThrowsIllegalArgumentException() {
+                // Arrange
+                properties.setMaxBatchSize(2);
+                List<TransactionIngestDTO> items = new ArrayList<>();
+                for (int i = 0; i < 3; i++) {
+                        items.add(transaction("MCH-00001", "1.00", null));
+                }
+
+                // Act & Assert
+                IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                                () -> ingestionService.ingest(new TransactionBatchRequest(items)));
+                assertTrue(exception.getMessage().contains("maximum of 2"));
+                verifyNoInteractions(ingestRepository);
+        }
+
+        @Test
+        void ingest_WithInvalidRow_RejectsWholeBatch() {
+                // Arrange
+                TransactionIngestDTO badStatus = transaction("MCH-00002", "5.00", null);
+                badStatus.setStatus("approved");
+                TransactionIngestDTO badDetail = transaction("MCH-00003", "5.00", List.of(detail("bonus", "1.00")));
+                TransactionIngestDTO noMerchant = transaction(" ", "5.00", null);
+
+                // Act & Assert
+                IllegalArgumentException status = assertThrows(IllegalArgumentException.class,
+                                () -> ingestionService.ingest(new TransactionBatchRequest(
+                                                List.of(transaction("MCH-00001", "5.00", null), badStatus))));
+                assertTrue(status.getMessage().startsWith("transactions[1].status"));
+
+                IllegalArgumentException detail = assertThrows(IllegalArgumentException.class,
+                                () -> ingestionService.ingest(new TransactionBatchRequest(List.of(badDetail))));
+                assertTrue(detail.getMessage().startsWith("transactions[0].details[0].type"));
+
+                assertThrows(IllegalArgumentException.class,
+                                () -> ingestionService.ingest(new TransactionBatchRequest(List.of(noMerchant))));
+                verifyNoInteractions(ingestRepository);
+        }
+
+        @Test
+        void ingest_WhenWriteFails_LeavesCachesUntouched() {
+                // Arrange
+                when(ingestRepository.insertBatch(anyList(), anyList()))
+                                .thenThrow(new IllegalArgumentException("Transaction batch rejected"));
+
+                // Act & Assert
+                assertThrows(IllegalArgumentException.class, () -> ingestionService.ingest(
+                                new TransactionBatchRequest(List.of(transaction("MCH-00001", "5.00", null)))));
+                assertEquals(0, hotWindowStore.size());
+                assertEquals(0, bitmapIndex.size());
+        }
+
+        @Test
+        void ingest_WithFilterMiss_WritesWithoutLookup() {
+                // Arrange
+                stubInsertAssigningIds(10L);
+
+                // Act
+                TransactionBatchResponse response = ingestionService.ingest(new TransactionBatchRequest(List.of(
+                                keyed("AUTH1", "10.00"),
+                                keyed("AUTH2", "10.00"))));
+
+                // Assert
+                assertEquals(2, response.getTransactionCount());
+                assertEquals(0, response.getDuplicateCount());
+                verify(ingestRepository, never()).findExistingIds(anyList());
+                assertEquals(2, dedupeFilter.getChecks());
+                assertEquals(0, dedupeFilter.getPossibleHits());
+        }
+
+        @Test
+        void ingest_WithRedeliveredTransaction_ReturnsStoredIdWithoutWriting() {
+                // Arrange
+                stubInsertAssigningIds(10L);
+                ingestionService.ingest(new TransactionBatchRequest(List.of(keyed("AUTH1", "10.00"))));
+                when(ingestRepository.findExistingIds(anyList())).thenReturn(Arrays.asList(10L));
+
+                // Act
+                TransactionBatchResponse response = ingestionService.ingest(
+                                new TransactionBatchRequest(List.of(keyed("AUTH1", "10.00"))));
+
+                // Assert
+                assertEquals(0, response.getTransactionCount());
+                assertEquals(1, response.getDuplicateCount());
+                assertEquals(List.of(10L), response.getTxnIds());
+                verify(ingestRepository, times(1)).insertBatch(anyList(), anyList());
+                assertEquals(1, dedupeFilter.getConfirmedDuplicates());
+                assertEquals(1, hotWindowStore.size());
+        }
+
+        @Test
+        void ingest_WithRepeatInBatch_WritesOnceAndSharesId() {
+                // Arrange
+                stubInsertAssigningIds(20L);
+                TransactionIngestDTO sameAmountMoreDigits = keyed("AUTH1", "10.00");
+                sameAmountMoreDigits.setAmount(new BigDecimal("10.0"));
+
+                // Act
+                TransactionBatchResponse response = ingestionService.ingest(new TransactionBatchRequest(List.of(
+                                keyed("AUTH1", "10.00"),
+                                keyed("AUTH2", "10.00"),
+                                sameAmountMoreDigits)));
+
+                // Assert
+                ArgumentCaptor<List<TransactionMaster>> transactions = listCaptor();
+                verify(ingestRepository).insertBatch(transactions.capture(), anyList());
+                assertEquals(2, transactions.getValue().size());
+                assertEquals(List.of(20L, 21L, 20L), response.getTxnIds());
+                assertEquals(1, response.getDuplicateCount());
+        }
+
+        @Test
+        void ingest_WhenConcurrentBatchStoredKeyFirst_ReturnsItsId() {
+                // Arrange
+                when(ingestRepository.insertBatch(anyList(), anyList())).thenAnswer(invocation -> {
+                        List<TransactionMaster> transactions = invocation.getArgument(0);
+                        transactions.get(0).setTxnId(null); // skipped by ON CONFLICT
+                        transactions.get(1).setTxnId(31L);
+                        return 0;
+                });
+                when(ingestRepository.findExistingIds(anyList())).thenReturn(Arrays.asList(30L));
+
+                // Act
+                TransactionBatchResponse response = ingestionService.ingest(new TransactionBatchRequest(List.of(
+                                keyed("AUTH1", "10.00"),
+                                keyed("AUTH2", "10.00"))));
+
+                // Assert
+                assertEquals(List.of(30L, 31L), response.getTxnIds());
+                assertEquals(1, response.getTransactionCount());
+                assertEquals(1, response.getDuplicateCount());
+                assertEquals(1, hotWindowStore.size());
+        }
+
+        @Test
+        void ingest_BeforeFilterLoads_ConfirmsEveryKeyAgainstDatabase() {
+                // Arrange
+                TransactionIngestionService coldService = new TransactionIngestionService(ingestRepository,
+                                hotWindowStore, bitmapIndex, new TransactionDedupeFilter(), declineCounters,
+                                liveMetrics, properties);
+                stubInsertAssigningIds(40L);
+                when(ingestRepository.findExistingIds(anyList())).thenReturn(Arrays.asList(null, null));
+
+                // Act
+                TransactionBatchResponse response = coldService.ingest(new TransactionBatchRequest(List.of(
+                                keyed("AUTH1", "10.00"),
+                                keyed("AUTH2", "10.00"))));
+
+                // Assert
+                assertEquals(2, response.getTransactionCount());
+                verify(ingestRepository).findExistingIds(anyList());
+        }
+
+        private void stubInsertAssigningIds(long firstId) {
+                when(ingestRepository.insertBatch(anyList(), anyList())).thenAnswer(invocation -> {
+                        List<TransactionMaster> transactions = invocation.getArgument(0);
+                        List<List<TransactionDetail>> details = invocation.getArgument(1);
+                        long id = firstId;
+                        for (TransactionMaster transaction : transactions) {
+                                transaction.setTxnId(id++);
+                                transaction.setCreatedAt(TIMESTAMP);
+                        }
+                        return details.stream().mapToInt(List::size).sum();
+                });
+        }
+
+        @SuppressWarnings("unchecked")
+        private static ArgumentCaptor<List<TransactionMaster>> listCaptor() {
+                return ArgumentCaptor.forClass(List.class);
+        }
+
+        private static TransactionIngestDTO transaction(String merchantId, String amount,
+                        List<TransactionDetailIngestDTO> details) {
+                return TransactionIngestDTO.builder()
+                                .merchantId(merchantId)
+                                .txnDate(TODAY)
+                                .localTxnDateTime(TIMESTAMP)
+                                .amount(new BigDecimal(amount))
+                                .status("completed")
+                                .cardType("VISA")
+                                .cardLast4("4242")
+                                .details(details)
+                                .build();
+        }
+
+        private static TransactionIngestDTO keyed(String authCode, String amount) {
+                TransactionIngestDTO transaction = transaction("MCH-00001", amount, null);
+                transaction.setAuthCode(authCode);
+                return transaction;
+        }
+
+        private static TransactionDetailIngestDTO detail(String type, String amount) {
+                return TransactionDetailIngestDTO.builder()
+                                .type(type)
+                                .amount(new BigDecimal(amount))
+                                .description(type)
+                                .build();
+        }
+}
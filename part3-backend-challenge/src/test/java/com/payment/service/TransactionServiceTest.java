@@ -1,17 +1,32 @@
 package com.payment.service;
 
+import com.payment.analytics.ColumnarReportService;
+import com.payment.analytics.ColumnarStore;
+import com.payment.cache.HotWindowStore;
+import com.payment.cache.TransactionBitmapIndex;
+import com.payment.config.ReportCacheProperties;
+import com.payment.config.RequestCoalescingProperties;
+import com.payment.dto.reports.TransactionReportsResponse;
 import com.payment.dto.transaction.MerchantTransactionResponse;
+import com.payment.dto.transaction.TransactionFilterRequest;
+import com.payment.dto.transaction.TransactionFilterResponse;
 import com.payment.dto.transaction.TransactionRequest;
 import com.payment.dto.transaction.TransactionResponse;
 import com.payment.entity.TransactionMaster;
 import com.payment.entity.TransactionDetail;
+import com.payment.exception.ServiceUnavailableException;
 import com.payment.repository.TransactionRepository;
 import com.payment.repository.TransactionDetailRepository;
+import com.payment.repository.TransactionReportRepository;
+import com.payment.repository.TransactionSearchRepository;
+import com.payment.repository.criteria.TransactionCriteria;
+import com.payment.repository.projection.StatusCountProjection;
 import io.micronaut.data.model.Page;
 import io.micronaut.data.model.Pageable;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -22,6 +37,9 @@ import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -31,17 +49,32 @@ import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 class TransactionServiceTest {
 
+        private static final Date TXN_DATE = Date.valueOf("2025-11-18");
+
         @Mock
         private TransactionRepository transactionRepository;
 
         @Mock
         private TransactionDetailRepository transactionDetailRepository;
 
+        @Mock
+        private TransactionSearchRepository transactionSearchRepository;
+
+        @Mock
+        private TransactionReportRepository transactionReportRepository;
+
+        private HotWindowStore hotWindowStore;
+        private TransactionBitmapIndex transactionBitmapIndex;
         private TransactionService transactionService;
 
         @BeforeEach
         void setUp() {
-                transactionService = new TransactionService(transactionRepository, transactionDetailRepository);
+                hotWindowStore = new HotWindowStore();
+                transactionBitmapIndex = new TransactionBitmapIndex();
+                transactionService = new TransactionService(transactionRepository, transactionDetailRepository,
+                                transactionSearchRepository, transactionReportRepository, hotWindowStore,
+                                new ColumnarReportService(new ColumnarStore(), new ReportCacheProperties()),
+                                transactionBitmapIndex, new RequestCoalescingProperties());
         }
 
         @Test
@@ -58,6 +91,7 @@ class TransactionServiceTest {
 
                 TransactionMaster transaction = new TransactionMaster();
                 transaction.setTxnId(98765L);
+                transaction.setTxnDate(TXN_DATE);
                 transaction.setMerchantId(merchantId);
                 transaction.setAmount(new BigDecimal("150.00"));
                 transaction.setCurrency("USD");
@@ -78,12 +112,7 @@ class TransactionServiceTest {
                 Page<TransactionMaster> page = Page.of(transactionList, Pageable.from(0, 20), 1);
 
                 // Mock repository calls
-                when(transactionRepository.findByMerchantIdAndTxnDateBetweenAndStatusEquals(
-                                eq(merchantId),
-                                any(Date.class),
-                                any(Date.class),
-                                eq("completed"),
-                                any(Pageable.class)))
+                when(transactionSearchRepository.findPage(any(TransactionCriteria.class), any(Pageable.class)))
                                 .thenReturn(page);
 
                 when(transactionRepository.countByMerchantId(merchantId))
@@ -100,7 +129,7 @@ class TransactionServiceTest {
                                 eq("completed")))
                                 .thenReturn(1L);
 
-                when(transactionDetailRepository.findByMasterTxnId(98765L))
+                when(transactionDetailRepository.findByMasterTxnIdAndTxnDate(98765L, TXN_DATE))
                                 .thenReturn(Arrays.asList(detail));
 
                 // Act
@@ -126,12 +155,12 @@ class TransactionServiceTest {
                 assertEquals(1, transactionResponse.getDetails().size());
                 assertEquals("fee", transactionResponse.getDetails().get(0).getType());
 
-                verify(transactionRepository, times(1)).findByMerchantIdAndTxnDateBetweenAndStatusEquals(
-                                eq(merchantId),
-                                any(Date.class),
-                                any(Date.class),
-                                eq("completed"),
-                                any(Pageable.class));
+                ArgumentCaptor<TransactionCriteria> criteria = ArgumentCaptor.forClass(TransactionCriteria.class);
+                verify(transactionSearchRepository, times(1)).findPage(criteria.capture(), any(Pageable.class));
+                assertEquals(merchantId, criteria.getValue().getMerchantId());
+                assertEquals(TransactionCriteria.START_DATE | TransactionCriteria.END_DATE | TransactionCriteria.STATUS,
+                                criteria.getValue().shape());
+                assertArrayEquals(new String[] { "completed" }, criteria.getValue().getStatuses());
         }
 
         @Test
@@ -145,13 +174,14 @@ class TransactionServiceTest {
 
                 TransactionMaster transaction = new TransactionMaster();
                 transaction.setTxnId(98765L);
+                transaction.setTxnDate(TXN_DATE);
                 transaction.setMerchantId(merchantId);
 
                 List<TransactionMaster> transactionList = Arrays.asList(transaction);
                 Page<TransactionMaster> page = Page.of(transactionList, Pageable.from(0, 20), 1);
 
                 // Mock repository calls
-                when(transactionRepository.findByMerchantId(eq(merchantId), any(Pageable.class)))
+                when(transactionSearchRepository.findPage(any(TransactionCriteria.class), any(Pageable.class)))
                                 .thenReturn(page);
                 when(transactionRepository.countByMerchantId(merchantId))
                                 .thenReturn(1L);
@@ -162,7 +192,7 @@ class TransactionServiceTest {
                 when(transactionRepository.countByMerchantIdAndStatus(eq(merchantId), eq("completed")))
                                 .thenReturn(1L);
 
-                when(transactionDetailRepository.findByMasterTxnId(98765L))
+                when(transactionDetailRepository.findByMasterTxnIdAndTxnDate(98765L, TXN_DATE))
                                 .thenReturn(Collections.emptyList());
 
                 // Act
@@ -174,7 +204,9 @@ class TransactionServiceTest {
                 assertEquals(1, response.getTransactions().size());
                 assertEquals(1, response.getSummary().getTotalTransactions());
 
-                verify(transactionRepository, times(1)).findByMerchantId(eq(merchantId), any(Pageable.class));
+                ArgumentCaptor<TransactionCriteria> criteria = ArgumentCaptor.forClass(TransactionCriteria.class);
+                verify(transactionSearchRepository, times(1)).findPage(criteria.capture(), any(Pageable.class));
+                assertEquals(0, criteria.getValue().shape());
         }
 
         @Test
@@ -190,7 +222,7 @@ class TransactionServiceTest {
                 Page<TransactionMaster> page = Page.of(transactionList, Pageable.from(0, 20), 0);
 
                 // Mock repository calls
-                when(transactionRepository.findByMerchantId(eq(merchantId), any(Pageable.class)))
+                when(transactionSearchRepository.findPage(any(TransactionCriteria.class), any(Pageable.class)))
                                 .thenReturn(page);
                 when(transactionRepository.countByMerchantId(merchantId))
                                 .thenReturn(0L);
@@ -224,17 +256,14 @@ class TransactionServiceTest {
 
                 TransactionMaster transaction = new TransactionMaster();
                 transaction.setTxnId(98765L);
+                transaction.setTxnDate(TXN_DATE);
                 transaction.setMerchantId(merchantId);
 
                 List<TransactionMaster> transactionList = Arrays.asList(transaction);
                 Page<TransactionMaster> page = Page.of(transactionList, Pageable.from(0, 20), 1);
 
                 // Mock repository calls
-                when(transactionRepository.findByMerchantIdAndTxnDateBetween(
-                                eq(merchantId),
-                                any(Date.class),
-                                any(Date.class),
-                                any(Pageable.class)))
+                when(transactionSearchRepository.findPage(any(TransactionCriteria.class), any(Pageable.class)))
                                 .thenReturn(page);
                 when(transactionRepository.countByMerchantId(merchantId))
                                 .thenReturn(1L);
@@ -250,7 +279,7 @@ class TransactionServiceTest {
                                 eq("completed")))
                                 .thenReturn(1L);
 
-                when(transactionDetailRepository.findByMasterTxnId(98765L))
+                when(transactionDetailRepository.findByMasterTxnIdAndTxnDate(98765L, TXN_DATE))
                                 .thenReturn(Collections.emptyList());
 
                 // Act
@@ -262,11 +291,11 @@ class TransactionServiceTest {
                 assertEquals(1, response.getTransactions().size());
                 assertEquals(1, response.getSummary().getTotalTransactions());
 
-                verify(transactionRepository, times(1)).findByMerchantIdAndTxnDateBetween(
-                                eq(merchantId),
-                                any(Date.class),
-                                any(Date.class),
-                                any(Pageable.class));
+                ArgumentCaptor<TransactionCriteria> criteria = ArgumentCaptor.forClass(TransactionCriteria.class);
+                verify(transactionSearchRepository, times(1)).findPage(criteria.capture(), any(Pageable.class));
+                assertEquals(TransactionCriteria.START_DATE | TransactionCriteria.END_DATE, criteria.getValue().shape());
+                assertEquals(LocalDate.of(2025, 11, 1), criteria.getValue().getStartDate());
+                assertEquals(LocalDate.of(2025, 11, 18), criteria.getValue().getEndDate());
         }
 
         @Test
@@ -281,16 +310,14 @@ class TransactionServiceTest {
 
                 TransactionMaster transaction = new TransactionMaster();
                 transaction.setTxnId(98765L);
+                transaction.setTxnDate(TXN_DATE);
                 transaction.setMerchantId(merchantId);
 
                 List<TransactionMaster> transactionList = Arrays.asList(transaction);
                 Page<TransactionMaster> page = Page.of(transactionList, Pageable.from(0, 20), 1);
 
                 // Mock repository calls
-                when(transactionRepository.findByMerchantIdAndStatusEquals(
-                                eq(merchantId),
-                                eq("completed"),
-                                any(Pageable.class)))
+                when(transactionSearchRepository.findPage(any(TransactionCriteria.class), any(Pageable.class)))
                                 .thenReturn(page);
 
                 when(transactionRepository.countByMerchantId(merchantId))
@@ -303,7 +330,7 @@ class TransactionServiceTest {
                 when(transactionRepository.countByMerchantIdAndStatus(eq(merchantId), eq("completed")))
                                 .thenReturn(1L);
 
-                when(transactionDetailRepository.findByMasterTxnId(98765L))
+                when(transactionDetailRepository.findByMasterTxnIdAndTxnDate(98765L, TXN_DATE))
                                 .thenReturn(Collections.emptyList());
 
                 // Act
@@ -315,9 +342,279 @@ class TransactionServiceTest {
                 assertEquals(1, response.getTransactions().size());
                 assertEquals(1, response.getSummary().getTotalTransactions());
 
-                verify(transactionRepository, times(1)).findByMerchantIdAndStatusEquals(
-                                eq(merchantId),
-                                eq("completed"),
-                                any(Pageable.class));
+                ArgumentCaptor<TransactionCriteria> criteria = ArgumentCaptor.forClass(TransactionCriteria.class);
+                verify(transactionSearchRepository, times(1)).findPage(criteria.capture(), any(Pageable.class));
+                assertEquals(TransactionCriteria.STATUS, criteria.getValue().shape());
+        }
+
+        @Test
+        void getMerchantTransactions_WithStartDateOnly_AppliesLowerBound() {
+                // Arrange
+                String merchantId = "MCH-00001";
+                TransactionRequest request = TransactionRequest.builder()
+                                .page(0)
+                                .size(20)
+                                .startDate(LocalDate.of(2025, 11, 10))
+                                .build();
+
+                when(transactionSearchRepository.findPage(any(TransactionCriteria.class), any(Pageable.class)))
+                                .thenReturn(Page.of(Collections.emptyList(), Pageable.from(0, 20), 0));
+                when(transactionRepository.countByMerchantId(merchantId)).thenReturn(0L);
+                when(transactionRepository.findDistinctStatusByMerchantId(merchantId))
+                                .thenReturn(Collections.emptyList());
+
+                // Act
+                transactionService.getMerchantTransactions(merchantId, request);
+
+                // Assert
+                ArgumentCaptor<TransactionCriteria> criteria = ArgumentCaptor.forClass(TransactionCriteria.class);
+                verify(transactionSearchRepository).findPage(criteria.capture(), any(Pageable.class));
+                assertEquals(TransactionCriteria.START_DATE, criteria.getValue().shape());
+                assertEquals(LocalDate.of(2025, 11, 10), criteria.getValue().getStartDate());
+                assertNull(criteria.getValue().getEndDate());
+        }
+
+        @Test
+        void getMerchantTransactions_WithCombinedFilters_NormalisesCriteria() {
+                // Arrange
+                String merchantId = "MCH-00001";
+                TransactionRequest request = TransactionRequest.builder()
+                                .page(1)
+                                .size(10)
+                                .status("Completed, failed")
+                                .cardType("visa,MasterCard")
+                                .minAmount(new BigDecimal("10.00"))
+                                .maxAmount(new BigDecimal("500.00"))
+                                .currency("usd")
+                                .build();
+
+                when(transactionSearchRepository.findPage(any(TransactionCriteria.class), any(Pageable.class)))
+                                .thenReturn(Page.of(Collections.emptyList(), Pageable.from(1, 10), 0));
+                when(transactionRepository.countByMerchantId(merchantId)).thenReturn(0L);
+                when(transactionRepository.findDistinctStatusByMerchantId(merchantId))
+                                .thenReturn(Collections.emptyList());
+
+                // Act
+                MerchantTransactionResponse response = transactionService.getMerchantTransactions(merchantId, request);
+
+                // Assert
+                ArgumentCaptor<TransactionCriteria> criteria = ArgumentCaptor.forClass(TransactionCriteria.class);
+                ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+                verify(transactionSearchRepository).findPage(criteria.capture(), pageable.capture());
+
+                TransactionCriteria captured = criteria.getValue();
+                assertArrayEquals(new String[] { "completed", "failed" }, captured.getStatuses());
+                assertArrayEquals(new String[] { "VISA", "MASTERCARD" }, captured.getCardTypes());
+                assertEquals("USD", captured.getCurrency());
+                assertEquals(TransactionCriteria.STATUS | TransactionCriteria.CARD_TYPE | TransactionCriteria.MIN_AMOUNT
+                                | TransactionCriteria.MAX_AMOUNT | TransactionCriteria.CURRENCY, captured.shape());
+                assertEquals(10, pageable.getValue().getOffset());
+                assertEquals(1, response.getPagination().getPage());
+        }
+
+        @Test
+        void getMerchantTransactions_WithInvertedDateRange_ThrowsIllegalArgument() {
+                TransactionRequest request = TransactionRequest.builder()
+                                .startDate(LocalDate.of(2025, 11, 18))
+                                .endDate(LocalDate.of(2025, 11, 1))
+                                .build();
+
+                assertThrows(IllegalArgumentException.class,
+                                () -> transactionService.getMerchantTransactions("MCH-00001", request));
+                verifyNoInteractions(transactionSearchRepository);
+        }
+
+        @Test
+        void getMerchantTransactions_WithInvertedAmountRange_ThrowsIllegalArgument() {
+                TransactionRequest request = TransactionRequest.builder()
+                                .minAmount(new BigDecimal("100"))
+                                .maxAmount(new BigDecimal("10"))
+                                .build();
+
+                assertThrows(IllegalArgumentException.class,
+                                () -> transactionService.getMerchantTransactions("MCH-00001", request));
+                verifyNoInteractions(transactionSearchRepository);
+        }
+
+        @Test
+        void getTransactionReports_ReadsAggregatesFromReportRepository() {
+                Date start = Date.valueOf("2025-11-01");
+                Date end = Date.valueOf("2025-11-30");
+                when(transactionReportRepository.getTotalTransactionCount(start, end)).thenReturn(4L);
+                when(transactionReportRepository.getTransactionsByStatus(start, end)).thenReturn(Arrays.asList(
+                                new StatusCountProjection("completed", 3L),
+                                new StatusCountProjection("failed", 1L)));
+
+                TransactionReportsResponse response = transactionService.getTransactionReports(
+                                LocalDate.of(2025, 11, 1), LocalDate.of(2025, 11, 30));
+
+                assertEquals(4L, response.getSuccessRateMetrics().getTotalTransactions());
+                assertEquals(75.0, response.getSuccessRateMetrics().getSuccessRate());
+                assertEquals(25.0, response.getSuccessRateMetrics().getFailureRate());
+                assertEquals("database", response.getConsistency().getSource());
+                verifyNoInteractions(transactionRepository);
+        }
+
+        @Test
+        void getTransactionReports_ConcurrentIdenticalRanges_QueryOnce() throws Exception {
+                // Arrange: the first report holds its count query open until released
+                Date start = Date.valueOf("2025-11-01");
+                Date end = Date.valueOf("2025-11-30");
+                CountDownLatch started = new CountDownLatch(1);
+                CountDownLatch release = new CountDownLatch(1);
+                when(transactionReportRepository.getTotalTransactionCount(start, end)).thenAnswer(invocation -> {
+                        started.countDown();
+                        release.await(5, TimeUnit.SECONDS);
+                        return 4L;
+                });
+                CompletableFuture<TransactionReportsResponse> first = CompletableFuture.supplyAsync(
+                                () -> transactionService.getTransactionReports(LocalDate.of(2025, 11, 1),
+                                                LocalDate.of(2025, 11, 30)));
+                assertTrue(started.await(5, TimeUnit.SECONDS));
+
+                // Act
+                CompletableFuture<TransactionReportsResponse> second = new CompletableFuture<>();
+                Thread.ofPlatform().start(() -> second.complete(transactionService.getTransactionReports(
+                                LocalDate.of(2025, 11, 1), LocalDate.of(2025, 11, 30))));
+                long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+                while (transactionService.getReportFlights().getCollapsed() < 1 && System.nanoTime() < deadline) {
+                        Thread.sleep(5);
+                }
+                release.countDown();
+
+                // Assert
+                assertSame(first.get(5, TimeUnit.SECONDS), second.get(5, TimeUnit.SECONDS));
+                verify(transactionReportRepository, times(1)).getTotalTransactionCount(start, end);
+                assertEquals(1, transactionService.getReportFlights().getExecutions());
+        }
+
+        @Test
+        void getMerchantTransactions_WithinHotWindow_ServesFromMemory() {
+                TransactionMaster transaction = new TransactionMaster();
+                transaction.setTxnId(98765L);
+                transaction.setTxnDate(TXN_DATE);
+                transaction.setMerchantId("MCH-00001");
+                transaction.setAmount(new BigDecimal("150.00"));
+                transaction.setCurrency("USD");
+                transaction.setStatus("completed");
+                transaction.setLocalTxnDateTime(Instant.parse("2025-11-18T14:32:15Z"));
+
+                hotWindowStore.advanceWindow(LocalDate.of(2025, 11, 12));
+                hotWindowStore.upsert(transaction);
+                hotWindowStore.markSynced(98765L, Instant.parse("2025-11-18T15:00:00Z"));
+
+                when(transactionRepository.findDistinctStatusByMerchantId("MCH-00001"))
+                                .thenReturn(Collections.emptyList());
+
+                TransactionRequest request = TransactionRequest.builder()
+                                .startDate(LocalDate.of(2025, 11, 12))
+                                .endDate(LocalDate.of(2025, 11, 18))
+                                .build();
+                MerchantTransactionResponse response = transactionService.getMerchantTransactions("MCH-00001", request);
+
+                assertEquals(1, response.getTransactions().size());
+                assertEquals(HotWindowStore.SOURCE, response.getConsistency().getSource());
+                assertEquals(98765L, response.getConsistency().getWatermarkTxnId());
+                verifyNoInteractions(transactionSearchRepository);
+        }
+
+        @Test
+        void getMerchantTransactions_BeforeHotWindow_FallsBackToDatabase() {
+                hotWindowStore.advanceWindow(LocalDate.of(2025, 11, 12));
+                hotWindowStore.markSynced(1L, Instant.now());
+
+                when(transactionSearchRepository.findPage(any(TransactionCriteria.class), any(Pageable.class)))
+                                .thenReturn(Page.of(Collections.emptyList(), Pageable.from(0, 20), 0));
+                when(transactionRepository.findDistinctStatusByMerchantId("MCH-00001"))
+                                .thenReturn(Collections.emptyList());
+
+                TransactionRequest request = TransactionRequest.builder()
+                                .startDate(LocalDate.of(2025, 11, 1))
+                                .build();
+                MerchantTransactionResponse response = transactionService.getMerchantTransactions("MCH-00001", request);
+
+                assertEquals("database", response.getConsistency().getSource());
+                assertNull(response.getConsistency().getWatermarkTxnId());
+        }
+
+        @Test
+        void filterTransactions_AcrossMerchants_ServesFromBitmapIndex() {
+                transactionBitmapIndex.advanceWindow(LocalDate.of(2025, 11, 12));
+                transactionBitmapIndex.apply(List.of(
+                                windowTransaction(101L, "MCH-00001", "failed", "VISA", "EUR"),
+                                windowTransaction(102L, "MCH-00002", "failed", "AMEX", "USD"),
+                                windowTransaction(103L, "MCH-00003", "completed", "VISA", "USD"),
+                                windowTransaction(104L, "MCH-00002", "reversed", "VISA", "USD")));
+                transactionBitmapIndex.markSynced(104L, Instant.parse("2025-11-18T15:00:00Z"));
+                when(transactionDetailRepository.findByMasterTxnIdAndTxnDate(any(Long.class), any(Date.class)))
+                                .thenReturn(Collections.emptyList());
+
+                TransactionFilterRequest request = TransactionFilterRequest.builder()
+                                .status("failed, reversed")
+                                .currency("usd")
+                                .size(1)
+                                .build();
+                TransactionFilterResponse response = transactionService.filterTransactions(request);
+
+                assertEquals(2L, response.getMatchCount());
+                assertEquals(1, response.getTransactions().size());
+                assertEquals(104L, response.getTransactions().get(0).getTxnId());
+                assertEquals(2, response.getPagination().getTotalPages());
+                assertEquals(TransactionBitmapIndex.SOURCE, response.getConsistency().getSource());
+                verifyNoInteractions(transactionSearchRepository, transactionRepository);
+        }
+
+        @Test
+        void filterTransactions_NormalizesStatusAndCardTypeLikeMerchantSearch() {
+                transactionBitmapIndex.advanceWindow(LocalDate.of(2025, 11, 12));
+                transactionBitmapIndex.apply(List.of(
+                                windowTransaction(101L, "MCH-00001", "completed", "VISA", "USD"),
+                                windowTransaction(102L, "MCH-00002", "completed", "AMEX", "USD"),
+                                windowTransaction(103L, "MCH-00003", "failed", "VISA", "USD")));
+                transactionBitmapIndex.markSynced(103L, Instant.parse("2025-11-18T15:00:00Z"));
+                when(transactionDetailRepository.findByMasterTxnIdAndTxnDate(any(Long.class), any(Date.class)))
+                                .thenReturn(Collections.emptyList());
+
+                TransactionFilterRequest request = TransactionFilterRequest.builder()
+                                .status("COMPLETED")
+                                .cardType(" visa")
+                                .build();
+                TransactionFilterResponse response = transactionService.filterTransactions(request);
+
+                assertEquals(1L, response.getMatchCount());
+                assertEquals(101L, response.getTransactions().get(0).getTxnId());
+        }
+
+        @Test
+        void filterTransactions_BeforeWindow_ThrowsIllegalArgument() {
+                transactionBitmapIndex.advanceWindow(LocalDate.of(2025, 11, 12));
+                transactionBitmapIndex.markSynced(1L, Instant.now());
+
+                TransactionFilterRequest request = TransactionFilterRequest.builder()
+                                .startDate(LocalDate.of(2025, 11, 1))
+                                .build();
+
+                assertThrows(IllegalArgumentException.class, () -> transactionService.filterTransactions(request));
+        }
+
+        @Test
+        void filterTransactions_WhileIndexLoading_ThrowsServiceUnavailable() {
+                TransactionFilterRequest request = TransactionFilterRequest.builder().build();
+
+                assertThrows(ServiceUnavailableException.class, () -> transactionService.filterTransactions(request));
+        }
+
+        private static TransactionMaster windowTransaction(long txnId, String merchantId, String status,
+                        String cardType, String currency) {
+                TransactionMaster transaction = new TransactionMaster();
+                transaction.setTxnId(txnId);
+                transaction.setTxnDate(TXN_DATE);
+                transaction.setMerchantId(merchantId);
+                transaction.setAmount(new BigDecimal("25.00"));
+                transaction.setCurrency(currency);
+                transaction.setStatus(status);
+                transaction.setCardType(cardType);
+                transaction.setLocalTxnDateTime(Instant.parse("2025-11-18T10:00:00Z"));
+                return transaction;
         }
 }